@@ -1,5 +1,7 @@
 package com.dppware.demo.database.model;
 
+import java.time.Instant;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -21,4 +23,7 @@ public class Flag {
 
 	  @Column(name = "enabled")
 	  private boolean enabled;
+
+	  @Column(name = "updated_at")
+	  private Instant updatedAt;
 }
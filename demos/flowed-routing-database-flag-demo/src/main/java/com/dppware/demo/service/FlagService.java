@@ -1,20 +1,40 @@
 package com.dppware.demo.service;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import org.springframework.stereotype.Component;
 
+import com.dppware.demo.database.model.Flag;
 import com.dppware.demo.database.repository.FlagRepository;
 
+import io.github.danipenaperez.lib.flowedrouting.flag.FlagSource;
 import lombok.AllArgsConstructor;
 
+/**
+ * Flags table as FlagSource: the starter keeps an in-memory snapshot refreshed in the background,
+ * so routing conditions (#flag('name')) do not query the database
+ */
 @Component
 @AllArgsConstructor
-public class FlagService {
+public class FlagService implements FlagSource {
 	
 	FlagRepository flagRepository;
 	
-	public boolean isFlagActive(String flagName) {
-		return flagRepository.isFlagEnabled(flagName);
+	@Override
+	public Map<String, Boolean> fetchAll() {
+		return toMap(flagRepository.findAll());
+	}
+	
+	@Override
+	public Map<String, Boolean> fetchChangedSince(Instant since) {
+		return toMap(flagRepository.findByUpdatedAtAfter(since));
 	}
 	
+	private Map<String, Boolean> toMap(List<Flag> flags) {
+		return flags.stream().collect(Collectors.toMap(Flag::getFeature, Flag::isEnabled));
+	}
 
 }
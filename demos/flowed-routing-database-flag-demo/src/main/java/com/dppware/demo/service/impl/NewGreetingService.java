@@ -10,7 +10,7 @@ import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelConditi
 public class NewGreetingService  implements GreetingService{
 
 	@FlowConditionType("SpEL") //Indicate use default evaluator provided in starter. Will use SpEL expressions
-	@FlowSpelCondition(evaluationExpression = "@flagService.isFlagActive('greeting_new_service')") 
+	@FlowSpelCondition(evaluationExpression = "#flag('greeting_new_service')") //In-memory flag snapshot, refreshed from FlagService in background
 	@Override
 	public String greeting(String userName){
 		return "You are amazing "+userName +" because you are using the NEW Greeting Service";
@@ -1 +1 @@
-INSERT INTO Flag (id,feature, enabled) VALUES (1,'greeting_new_service', true);
+INSERT INTO Flag (id,feature, enabled, updated_at) VALUES (1,'greeting_new_service', true, CURRENT_TIMESTAMP);
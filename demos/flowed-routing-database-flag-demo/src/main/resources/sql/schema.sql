@@ -1,6 +1,7 @@
 CREATE TABLE Flag (
   id          INTEGER PRIMARY KEY,
   feature  VARCHAR(64) NOT NULL,
-  enabled   BOOLEAN NOT NULL);
+  enabled   BOOLEAN NOT NULL,
+  updated_at  TIMESTAMP);
   
   
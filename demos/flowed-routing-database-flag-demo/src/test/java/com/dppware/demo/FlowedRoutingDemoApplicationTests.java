@@ -1,13 +1,31 @@
 package com.dppware.demo;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import com.dppware.demo.service.GreetingService;
+
+import io.github.danipenaperez.lib.flowedrouting.flag.FlagSnapshotStore;
+
 @SpringBootTest
 class FlowedRoutingDemoApplicationTests {
 
+	@Autowired
+	GreetingService greetingService;
+
+	@Autowired
+	FlagSnapshotStore flagSnapshotStore;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void databaseFlagIsReadFromTheSnapshot() {
+		Assertions.assertTrue(flagSnapshotStore.isEnabled("greeting_new_service"));
+		Assertions.assertTrue(greetingService.greeting("Alice").contains("NEW Greeting Service"));
+	}
+
 }
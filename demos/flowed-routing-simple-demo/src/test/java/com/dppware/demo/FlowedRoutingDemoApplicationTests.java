@@ -1,13 +1,111 @@
 package com.dppware.demo;
 
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
+
+import com.dppware.demo.service.GreetingService;
+import com.dppware.demo.service.impl.AUsersGreetingService;
+import com.dppware.demo.service.impl.DefaultGreetingService;
+
+import io.github.danipenaperez.lib.flowedrouting.index.RoutingCandidateIndex;
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedInterfaceProxy;
+import io.github.danipenaperez.lib.flowedrouting.rules.RoutingRule;
+import io.github.danipenaperez.starter.flowedrouting.aot.FlowedRoutingBeanFactoryInitializationAotProcessor;
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingComponentProxyFactory;
+import io.github.danipenaperez.starter.flowedrouting.rules.ResourceRoutingRuleSource;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @SpringBootTest
 class FlowedRoutingDemoApplicationTests {
 
+	@Autowired
+	GreetingService greetingService;
+	@Autowired
+	MeterRegistry meterRegistry;
+	@Autowired
+	FlowedRoutingComponentProxyFactory proxyFactory;
+	@Autowired
+	ConfigurableApplicationContext applicationContext;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void greetingIsRoutedThroughGeneratedProxy() {
+		Assertions.assertInstanceOf(RoutedInterfaceProxy.class, greetingService);
+		Assertions.assertEquals("You are amazing Alice", greetingService.greeting("Alice"));
+		Assertions.assertEquals("Greetings for Bob", greetingService.greeting("Bob"));
+	}
+
+	@Test
+	void startupTimesAreReported() {
+		Assertions.assertEquals(List.of(GreetingService.class.getName()), proxyFactory.getStartupReport().interfaces().stream().map(report-> report.routedInterface()).toList());
+		Assertions.assertEquals(2, proxyFactory.getStartupReport().interfaces().get(0).delegates());
+	}
+
+	@Test
+	void routedTypesAreIndexedAtBuildTime() {
+		RoutingCandidateIndex index = RoutingCandidateIndex.load(getClass().getClassLoader());
+		Assertions.assertEquals(Set.of(GreetingService.class.getName()), index.getTypes(RoutingCandidateIndex.ROUTED_INTERFACE, "com.dppware.demo"));
+		Assertions.assertTrue(index.covers("com.dppware.demo"));
+		Assertions.assertFalse(index.covers("com"));
+		Assertions.assertFalse(index.covers("com.dppware.demo", getClass().getClassLoader())); //The test classes are not indexed
+	}
+
+	@Test
+	void routingDecisionsAreMeasured() {
+		double aUsersRoutes = routes(AUsersGreetingService.class);
+		double defaultRoutes = routes(DefaultGreetingService.class);
+		greetingService.greeting("Alice");
+		greetingService.greeting("Bob");
+		Assertions.assertEquals(aUsersRoutes+1, routes(AUsersGreetingService.class));
+		Assertions.assertEquals(defaultRoutes+1, routes(DefaultGreetingService.class));
+		Assertions.assertEquals("true", meterRegistry.get("flowed.routing.route").tag("delegate", DefaultGreetingService.class.getName()).counter().getId().getTag("default"));
+		Assertions.assertTrue(meterRegistry.get("flowed.routing.evaluation").tag("evaluator", "SpEL").tag("result", "accepted").timer().count() > 0);
+	}
+
+	@Test
+	void externalRulesReplaceTheAnnotationCondition() throws Exception {
+		ResourceRoutingRuleSource rules = new ResourceRoutingRuleSource(new ByteArrayResource("""
+				rules:
+				  - routed-interface: GreetingService
+				    delegate: AUsersGreetingService
+				    condition:
+				      evaluation-expression: "#userName.startsWith('B')"
+				""".getBytes()));
+		List<RoutingRule> current = proxyFactory.getRoutingRules();
+		try {
+			proxyFactory.applyRoutingRules(rules.loadRules());
+			Assertions.assertEquals("You are amazing Bob", greetingService.greeting("Bob"));
+			Assertions.assertEquals("Greetings for Alice", greetingService.greeting("Alice"));
+		}finally {
+			proxyFactory.applyRoutingRules(current);
+		}
+		Assertions.assertEquals("You are amazing Alice", greetingService.greeting("Alice"));
+	}
+
+	@Test
+	void nativeHintsCoverRoutedTypes() throws Exception {
+		RuntimeHints hints = new RuntimeHints();
+		Assertions.assertTrue(new FlowedRoutingBeanFactoryInitializationAotProcessor().registerHints(applicationContext.getBeanFactory(), hints));
+		Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(GreetingService.class).withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+		Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(AUsersGreetingService.class).withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+		Assertions.assertTrue(RuntimeHintsPredicates.reflection().onConstructor(Class.forName(RoutedInterfaceProxy.generatedClassName(GreetingService.class)).getConstructors()[0]).test(hints));
+	}
+
+	private double routes(Class<?> delegate) {
+		return meterRegistry.get("flowed.routing.route").tag("delegate", delegate.getName()).counter().count();
+	}
+
 }
@@ -0,0 +1,168 @@
+package io.github.danipenaperez.benchmarks.flowedrouting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import io.github.danipenaperez.benchmarks.flowedrouting.support.BenchmarkMethodInvocation;
+import io.github.danipenaperez.benchmarks.flowedrouting.support.DefaultGreetingService;
+import io.github.danipenaperez.benchmarks.flowedrouting.support.GreetingService;
+import io.github.danipenaperez.benchmarks.flowedrouting.support.GreetingService_FlowedRoutingProxy;
+import io.github.danipenaperez.benchmarks.flowedrouting.support.KlingonEvaluator;
+import io.github.danipenaperez.benchmarks.flowedrouting.support.KlingonGreetingService;
+import io.github.danipenaperez.benchmarks.flowedrouting.support.SpelArgumentGreetingService;
+import io.github.danipenaperez.benchmarks.flowedrouting.support.SpelBeanReferenceGreetingService;
+import io.github.danipenaperez.benchmarks.flowedrouting.support.TenantContext;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
+
+/**
+ * Routing hot path with N non-default candidates in front of the default one, each accepting a different input.
+ * hit selects the candidate accepting the call (first, middle, last, or none so every condition is evaluated before the default one).
+ * candidates = 0 is the default-only path. Every routed call is compared with the direct call to the default bean.
+ * Run with -prof gc to get the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingInterceptorBenchmark {
+
+	@Param({"0", "1", "2", "4", "8", "16", "32"})
+	int candidates;
+
+	@Param({"spelArgument", "spelBeanReference", "klingon"})
+	String condition;
+
+	/**
+	 * SpelCompilerMode of the SpEL conditions
+	 */
+	@Param({"OFF", "IMMEDIATE"})
+	SpelCompilerMode spelCompilerMode;
+
+	/**
+	 * Position of the accepting candidate in the evaluation order
+	 */
+	@Param({"first", "middle", "last", "none"})
+	String hit;
+
+	GenericApplicationContext applicationContext;
+	DefaultFlowRoutingInterceptor interceptor;
+	GreetingService defaultGreetingService;
+	GreetingService runtimeProxy;
+	GreetingService generatedProxy;
+	BenchmarkMethodInvocation invocation;
+	String userName;
+
+	@Setup
+	public void setup() throws Exception {
+		int hitIndex = candidates == 0 ? -1 : switch (hit) {
+			case "first" -> 0;
+			case "middle" -> candidates / 2;
+			case "last" -> candidates - 1;
+			case "none" -> -1;
+			default -> throw new IllegalArgumentException("Unknown hit "+hit);
+		};
+		userName = hitIndex < 0 ? "nobody" : "user_"+hitIndex;
+		applicationContext = new GenericApplicationContext();
+		applicationContext.registerBean("tenantContext", TenantContext.class, () -> new TenantContext(hitIndex < 0 ? "nobody" : "tenant_"+hitIndex));
+		applicationContext.refresh();
+
+		interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.registerEvaluator(new SpELEvaluator(applicationContext, spelCompilerMode));
+		interceptor.registerEvaluator(new KlingonEvaluator());
+
+		Supplier<GreetingService> candidateFactory = switch (condition) {
+			case "spelArgument" -> SpelArgumentGreetingService::new;
+			case "spelBeanReference" -> SpelBeanReferenceGreetingService::new;
+			case "klingon" -> KlingonGreetingService::new;
+			default -> throw new IllegalArgumentException("Unknown condition "+condition);
+		};
+		List<Object> delegates = new ArrayList<>();
+		for(int i=0;i<candidates;i++) {
+			delegates.add(candidateFactory.get());
+		}
+		defaultGreetingService = new DefaultGreetingService();
+		delegates.add(defaultGreetingService);
+		interceptor.addDelegates(delegates);
+		assignConditions();
+
+		runtimeProxy = ProxyFactory.getProxy(GreetingService.class, interceptor);
+		generatedProxy = new GreetingService_FlowedRoutingProxy(interceptor);
+		invocation = new BenchmarkMethodInvocation(GreetingService.class.getMethod("greeting", String.class), userName);
+		if((hitIndex >= 0) == generatedProxy.greeting(userName).equals(defaultGreetingService.greeting(userName))) {
+			throw new IllegalStateException("Candidate "+hitIndex+" does not route "+userName);
+		}
+	}
+
+	/**
+	 * Candidates share their class, so give the one at position i its own condition (accepting user_i or tenant_i),
+	 * as external routing rules do with the condition attributes, and prepare it again
+	 */
+	private void assignConditions() throws Exception {
+		RoutedMethodDefinition[] dispatchCandidates = interceptor.getDispatchTable()[0].getCandidates();
+		List<RoutedMethodDefinition> routed = new ArrayList<>();
+		for(int i=0;i<dispatchCandidates.length-1;i++) {
+			RoutedMethodDefinition candidate = dispatchCandidates[i];
+			candidate.setConditionAttributes(switch (condition) {
+				case "spelArgument" -> Map.of("evaluationExpression", "#userName.equals('user_"+i+"')");
+				case "spelBeanReference" -> Map.of("evaluationExpression", "@tenantContext.getTenantName().equals('tenant_"+i+"')");
+				default -> Map.of("klingonExpression", "user_"+i);
+			});
+			candidate.getEvaluator().prepare(candidate);
+			routed.add(candidate);
+		}
+		if(!routed.isEmpty()) {
+			routed.get(0).getEvaluator().prepareDispatch(routed);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		applicationContext.close();
+	}
+
+	@Benchmark
+	public String direct() {
+		return defaultGreetingService.greeting(userName);
+	}
+
+	/**
+	 * DefaultFlowRoutingInterceptor.invoke alone, with an already built MethodInvocation
+	 */
+	@Benchmark
+	public Object interceptorInvoke() throws Throwable {
+		return interceptor.invoke(invocation);
+	}
+
+	@Benchmark
+	public String runtimeProxy() {
+		return runtimeProxy.greeting(userName);
+	}
+
+	@Benchmark
+	public String generatedProxy() {
+		return generatedProxy.greeting(userName);
+	}
+}
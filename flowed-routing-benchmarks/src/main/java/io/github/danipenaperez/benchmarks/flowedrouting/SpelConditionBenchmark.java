@@ -0,0 +1,102 @@
+package io.github.danipenaperez.benchmarks.flowedrouting;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import io.github.danipenaperez.benchmarks.flowedrouting.support.BenchmarkMethodInvocation;
+import io.github.danipenaperez.benchmarks.flowedrouting.support.GreetingService;
+import io.github.danipenaperez.benchmarks.flowedrouting.support.SpelGreetingService;
+import io.github.danipenaperez.benchmarks.flowedrouting.support.TenantContext;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
+
+/**
+ * Compares the former parse-per-call SpEL evaluation with the expressions prepared at refresh time (interpreted and compiled)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpelConditionBenchmark {
+
+	GenericApplicationContext applicationContext;
+	BeanFactoryResolver beanFactoryResolver;
+	SpELEvaluator interpretedEvaluator;
+	SpELEvaluator compiledEvaluator;
+	RoutedMethodDefinition interpretedDefinition;
+	RoutedMethodDefinition compiledDefinition;
+	BenchmarkMethodInvocation invocation;
+
+	@Setup
+	public void setup() throws Exception {
+		applicationContext = new GenericApplicationContext();
+		applicationContext.registerBean("tenantContext", TenantContext.class, () -> new TenantContext("tenant_1"));
+		applicationContext.refresh();
+		beanFactoryResolver = new BeanFactoryResolver(applicationContext);
+
+		interpretedEvaluator = new SpELEvaluator(applicationContext);
+		compiledEvaluator = new SpELEvaluator(applicationContext, SpelCompilerMode.IMMEDIATE);
+		interpretedDefinition = definition();
+		compiledDefinition = definition();
+		interpretedEvaluator.prepare(interpretedDefinition);
+		compiledEvaluator.prepare(compiledDefinition);
+		interpretedEvaluator.prepareDispatch(List.of(interpretedDefinition));
+		compiledEvaluator.prepareDispatch(List.of(compiledDefinition));
+
+		invocation = new BenchmarkMethodInvocation(GreetingService.class.getMethod("greeting", String.class), "Alice");
+	}
+
+	@TearDown
+	public void tearDown() {
+		applicationContext.close();
+	}
+
+	private RoutedMethodDefinition definition() throws Exception {
+		SpelGreetingService bean = new SpelGreetingService();
+		var method = SpelGreetingService.class.getMethod("greeting", String.class);
+		RoutedMethodDefinition definition = new RoutedMethodDefinition(method, method.getAnnotation(FlowConditionType.class), bean, false);
+		definition.setRoutedMethod(GreetingService.class.getMethod("greeting", String.class));
+		return definition;
+	}
+
+	/**
+	 * Former SpELEvaluator.evaluate: new parser and parse on every call
+	 */
+	@Benchmark
+	public boolean parsePerCall() {
+		StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
+		evaluationContext.setBeanResolver(beanFactoryResolver);
+		evaluationContext.setVariable("userName", invocation.getArguments()[0]);
+		return new SpelExpressionParser().parseExpression(SpelGreetingService.EXPRESSION).getValue(evaluationContext, Boolean.class);
+	}
+
+	@Benchmark
+	public boolean preparedInterpreted() {
+		return interpretedEvaluator.evaluate(interpretedDefinition, invocation);
+	}
+
+	@Benchmark
+	public boolean preparedCompiled() {
+		return compiledEvaluator.evaluate(compiledDefinition, invocation);
+	}
+}
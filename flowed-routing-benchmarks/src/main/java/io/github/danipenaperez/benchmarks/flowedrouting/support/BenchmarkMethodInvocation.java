@@ -0,0 +1,45 @@
+package io.github.danipenaperez.benchmarks.flowedrouting.support;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Minimal MethodInvocation to feed evaluators without a proxy in the middle
+ */
+public class BenchmarkMethodInvocation implements MethodInvocation {
+
+	private final Method method;
+	private final Object[] arguments;
+
+	public BenchmarkMethodInvocation(Method method, Object... arguments) {
+		this.method = method;
+		this.arguments = arguments;
+	}
+
+	@Override
+	public Method getMethod() {
+		return method;
+	}
+
+	@Override
+	public Object[] getArguments() {
+		return arguments;
+	}
+
+	@Override
+	public Object proceed() throws Throwable {
+		throw new UnsupportedOperationException("Benchmark invocations have no target");
+	}
+
+	@Override
+	public Object getThis() {
+		return null;
+	}
+
+	@Override
+	public AccessibleObject getStaticPart() {
+		return method;
+	}
+}
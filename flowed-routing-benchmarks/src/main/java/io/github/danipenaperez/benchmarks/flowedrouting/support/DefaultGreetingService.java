@@ -0,0 +1,12 @@
+package io.github.danipenaperez.benchmarks.flowedrouting.support;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+
+@RoutedComponent(isDefaultRouting = true)
+public class DefaultGreetingService implements GreetingService{
+
+	@Override
+	public String greeting(String userName){
+		return "Greetings for "+userName;
+	}
+}
@@ -0,0 +1,9 @@
+package io.github.danipenaperez.benchmarks.flowedrouting.support;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+
+@RoutedInterface
+public interface GreetingService {
+
+	public String greeting(String userName);
+}
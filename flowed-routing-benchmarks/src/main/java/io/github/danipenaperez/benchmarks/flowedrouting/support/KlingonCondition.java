@@ -0,0 +1,12 @@
+package io.github.danipenaperez.benchmarks.flowedrouting.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface KlingonCondition {
+	String klingonExpression();
+}
@@ -0,0 +1,29 @@
+package io.github.danipenaperez.benchmarks.flowedrouting.support;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.annotation.EvaluatorType;
+
+/**
+ * Same shape as the custom evaluator demo, without the logging.
+ * The condition accepts the calls whose first argument equals its klingonExpression.
+ */
+@EvaluatorType(value = "klingon")
+public class KlingonEvaluator implements Evaluator{
+
+	@Override
+	public boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+		KlingonCondition klingonCondition = (KlingonCondition) routedMethodDefinition.getPreparedCondition();
+		return klingonCondition.klingonExpression().equals(invocation.getArguments()[0]);
+	}
+
+	/**
+	 * Resolve the condition once, getConditionAnnotation builds it again on each call when the attributes are overridden
+	 */
+	@Override
+	public void prepare(RoutedMethodDefinition routedMethodDefinition) {
+		routedMethodDefinition.setPreparedCondition(routedMethodDefinition.getConditionAnnotation(KlingonCondition.class));
+	}
+}
@@ -0,0 +1,18 @@
+package io.github.danipenaperez.benchmarks.flowedrouting.support;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+
+/**
+ * Condition replaced per candidate by RoutingInterceptorBenchmark, the annotation one never accepts
+ */
+@RoutedComponent
+public class KlingonGreetingService implements GreetingService{
+
+	@FlowConditionType("klingon")
+	@KlingonCondition(klingonExpression = "ghobe'")
+	@Override
+	public String greeting(String userName){
+		return "Qapla' "+userName;
+	}
+}
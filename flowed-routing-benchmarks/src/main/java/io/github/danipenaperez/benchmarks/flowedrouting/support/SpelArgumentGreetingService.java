@@ -0,0 +1,19 @@
+package io.github.danipenaperez.benchmarks.flowedrouting.support;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+/**
+ * Condition replaced per candidate by RoutingInterceptorBenchmark, the annotation one never accepts
+ */
+@RoutedComponent
+public class SpelArgumentGreetingService implements GreetingService{
+
+	@FlowConditionType("SpEL")
+	@FlowSpelCondition(evaluationExpression = "#userName.startsWith('Z')")
+	@Override
+	public String greeting(String userName){
+		return "You are amazing "+userName;
+	}
+}
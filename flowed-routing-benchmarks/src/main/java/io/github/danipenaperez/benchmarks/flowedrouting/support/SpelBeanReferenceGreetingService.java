@@ -0,0 +1,19 @@
+package io.github.danipenaperez.benchmarks.flowedrouting.support;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+/**
+ * Condition replaced per candidate by RoutingInterceptorBenchmark, the annotation one never accepts
+ */
+@RoutedComponent
+public class SpelBeanReferenceGreetingService implements GreetingService{
+
+	@FlowConditionType("SpEL")
+	@FlowSpelCondition(evaluationExpression = "@tenantContext.getTenantName().equals('tenant_2')")
+	@Override
+	public String greeting(String userName){
+		return "Welcome tenant_2 "+userName;
+	}
+}
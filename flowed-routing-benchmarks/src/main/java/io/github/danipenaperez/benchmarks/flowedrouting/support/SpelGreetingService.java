@@ -0,0 +1,18 @@
+package io.github.danipenaperez.benchmarks.flowedrouting.support;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+@RoutedComponent
+public class SpelGreetingService implements GreetingService{
+
+	public static final String EXPRESSION = "#userName.startsWith('A') && @tenantContext.getTenantName() == 'tenant_1'";
+
+	@FlowConditionType("SpEL")
+	@FlowSpelCondition(evaluationExpression = EXPRESSION)
+	@Override
+	public String greeting(String userName){
+		return "You are amazing "+userName;
+	}
+}
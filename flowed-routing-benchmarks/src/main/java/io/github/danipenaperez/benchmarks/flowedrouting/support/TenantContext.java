@@ -0,0 +1,17 @@
+package io.github.danipenaperez.benchmarks.flowedrouting.support;
+
+/**
+ * Stands for a request scoped bean referenced from SpEL conditions (@tenantContext.getTenantName())
+ */
+public class TenantContext {
+
+	private final String tenantName;
+
+	public TenantContext(String tenantName) {
+		this.tenantName = tenantName;
+	}
+
+	public String getTenantName() {
+		return tenantName;
+	}
+}
@@ -0,0 +1,34 @@
+package io.github.danipenaperez.lib.flowedrouting.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache the routing decision of a @RoutedInterface method by key, so repeated keys skip the evaluators.
+ * Only use it when the candidate conditions depend on the key arguments (and nothing else that may change before expiration).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface CachedRouting {
+
+	/**
+	 * SpEL expression over the method arguments (#paramName) that builds the cache key.
+	 * When empty the key is built from the parameters annotated with @RoutingKey.
+	 */
+	String key() default "";
+
+	/**
+	 * Maximum cached keys, the oldest written ones are evicted first
+	 */
+	int maxSize() default 10000;
+
+	/**
+	 * Time to keep a decision since it was evaluated, 0 or less never expires
+	 */
+	long expireAfterWrite() default 60;
+
+	TimeUnit timeUnit() default TimeUnit.SECONDS;
+}
@@ -0,0 +1,43 @@
+package io.github.danipenaperez.lib.flowedrouting.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Mark @RoutedComponents as interchangeable: the members of a group are routed as a single candidate,
+ * with the condition of its first member (or as the default route when a member isDefaultRouting),
+ * and each call goes to the member with the lowest load (see LoadBalancer). Other members do not need a condition.
+ * On the class it applies to every routed method, on a method only to that one.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface FlowBalanced {
+
+	/**
+	 * Group name, members of the same routed method with the same group are balanced
+	 */
+	String value();
+
+	/**
+	 * Read from the first member of the group
+	 */
+	Strategy strategy() default Strategy.PEAK_EWMA;
+
+	/**
+	 * PEAK_EWMA decay time in milliseconds: how fast a slow member recovers traffic once it is fast again
+	 */
+	long decayMillis() default 10000;
+
+	enum Strategy {
+		/**
+		 * Lowest peak EWMA latency weighted by the calls in flight, moves traffic as soon as a member slows down
+		 */
+		PEAK_EWMA,
+		/**
+		 * Fewest calls in flight
+		 */
+		LEAST_IN_FLIGHT
+	}
+}
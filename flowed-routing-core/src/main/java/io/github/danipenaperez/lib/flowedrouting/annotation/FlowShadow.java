@@ -0,0 +1,22 @@
+package io.github.danipenaperez.lib.flowedrouting.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Run a @RoutedComponent in shadow mode: it is never selected, but a sampled share of the synchronous calls
+ * is replayed to it with the same arguments on the shadow executor, after the routed delegate returns.
+ * The caller always gets the result of the routed delegate, results and latencies are compared and reported to the RoutingObserver.
+ * On the class it shadows every routed method, on a method only that one. Arguments are shared, the shadow must not modify them.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface FlowShadow {
+
+	/**
+	 * Share of calls replayed to the shadow, from 0 to 100
+	 */
+	double percentage() default 1;
+}
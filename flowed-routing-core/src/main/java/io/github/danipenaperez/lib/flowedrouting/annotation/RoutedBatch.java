@@ -0,0 +1,18 @@
+package io.github.danipenaperez.lib.flowedrouting.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the collection parameter of a @RoutedInterface method that is routed element by element.
+ * Conditions are evaluated once per element, seeing the element in place of the collection,
+ * and each delegate receives the sub-batch of the elements routed to it.
+ * The method returns void or a List with one result per element, merged back in the original order.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER})
+public @interface RoutedBatch {
+
+}
@@ -14,4 +14,16 @@ import org.springframework.stereotype.Component;
 @Primary
 public @interface RoutedInterface {
 
+	/**
+	 * Evaluate all the non-default conditions of a call concurrently (virtual threads), useful when conditions wait on remote services.
+	 * The first accepted candidate in declared order still wins, evaluations that can not change the result are cancelled.
+	 */
+	boolean parallelEvaluation() default false;
+
+	/**
+	 * Declare the non-default conditions of every method mutually exclusive (at most one accepts a call), so their evaluation order does not change the result.
+	 * The interceptor then measures the cost and match rate of each condition and periodically reorders them to lower the expected cost per call.
+	 * Ignored with parallelEvaluation.
+	 */
+	boolean adaptiveOrdering() default false;
 }
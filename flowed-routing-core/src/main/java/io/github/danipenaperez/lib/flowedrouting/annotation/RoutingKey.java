@@ -0,0 +1,15 @@
+package io.github.danipenaperez.lib.flowedrouting.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the @RoutedInterface method parameters that build the @CachedRouting key
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER})
+public @interface RoutingKey {
+
+}
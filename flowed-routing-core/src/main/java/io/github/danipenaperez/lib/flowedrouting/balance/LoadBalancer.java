@@ -0,0 +1,172 @@
+package io.github.danipenaperez.lib.flowedrouting.balance;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.FlowBalanced;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch.ReturnKind;
+
+/**
+ * Spreads the calls of a @FlowBalanced candidate between its members.
+ * PEAK_EWMA keeps a latency average that jumps to any higher sample and decays with time towards the lower ones,
+ * the member with the lowest (cost + 1) * (inFlight + 1) is selected. Members never measured cost 0, so they are tried first.
+ * Ties are broken from a random position, so idle members share the calls.
+ * CompletionStage results are in flight until completed, Mono/Flux results from subscription until they terminate or are cancelled,
+ * any other result when the member returns. Failed calls are observed FAILURE_PENALTY times slower than the member cost (at least 1 ms),
+ * so a member failing fast does not attract the traffic.
+ */
+public class LoadBalancer {
+
+	static final int FAILURE_PENALTY = 10;
+	static final long MIN_FAILURE_NANOS = 1_000_000;
+
+	private final FlowBalanced.Strategy strategy;
+	private final double decayNanos;
+	private final RoutedMethodDefinition[] members;
+	private final MemberLoad[] loads;
+	private final boolean reactive;
+
+	/**
+	 * @param strategy
+	 * @param decayMillis PEAK_EWMA decay time
+	 * @param members with their invoker bound
+	 */
+	public LoadBalancer(FlowBalanced.Strategy strategy, long decayMillis, RoutedMethodDefinition[] members) {
+		this.strategy = strategy;
+		this.decayNanos = Math.max(decayMillis, 1) * 1_000_000d;
+		this.members = members;
+		this.loads = new MemberLoad[members.length];
+		for(int i=0;i<members.length;i++) {
+			loads[i] = new MemberLoad();
+		}
+		ReturnKind returnKind = RoutedMethodDispatch.returnKind(members[0].getMethod().getReturnType());
+		this.reactive = returnKind == ReturnKind.MONO || returnKind == ReturnKind.FLUX;
+	}
+
+	/**
+	 * @return position at getMembers() of the least loaded member
+	 */
+	public int select() {
+		long now = System.nanoTime();
+		int offset = ThreadLocalRandom.current().nextInt(members.length);
+		int selected = offset;
+		double lowest = Double.MAX_VALUE;
+		for(int i=0;i<members.length;i++) {
+			int member = (offset + i) % members.length;
+			double score = score(loads[member], now);
+			if(score < lowest) {
+				lowest = score;
+				selected = member;
+			}
+		}
+		return selected;
+	}
+
+	private double score(MemberLoad load, long now) {
+		int inFlight = load.inFlight.get();
+		if(strategy == FlowBalanced.Strategy.LEAST_IN_FLIGHT) {
+			return inFlight;
+		}
+		return (load.cost(now, decayNanos) + 1) * (inFlight + 1);
+	}
+
+	/**
+	 * Call the selected member
+	 * @param arguments
+	 * @return
+	 * @throws Throwable the exception thrown by the member, not wrapped
+	 */
+	public Object invoke(Object[] arguments) throws Throwable {
+		int member = select();
+		MemberLoad load = loads[member];
+		if(reactive) {
+			return invokeReactive(members[member], load, arguments);
+		}
+		long start = load.start();
+		Object result;
+		try {
+			result = (Object) members[member].getInvoker().invokeExact(arguments);
+		}catch (Throwable e) {
+			load.end(start, decayNanos, true);
+			throw e;
+		}
+		if(result instanceof CompletionStage<?> stage) {
+			stage.whenComplete((value, error)-> load.end(start, decayNanos, error != null));
+			return result;
+		}
+		load.end(start, decayNanos, false);
+		return result;
+	}
+
+	/**
+	 * Mono/Flux members are only in flight while subscribed, a publisher never subscribed (or cancelled before) is not counted
+	 */
+	private Object invokeReactive(RoutedMethodDefinition member, MemberLoad load, Object[] arguments) throws Throwable {
+		Object result;
+		try {
+			result = (Object) member.getInvoker().invokeExact(arguments);
+		}catch (Throwable e) {
+			load.end(load.start(), decayNanos, true);
+			throw e;
+		}
+		if(result == null) {
+			return null;
+		}
+		return ReactiveLoadSupport.inFlight(result, () -> {
+			long start = load.start();
+			return failed-> load.end(start, decayNanos, failed);
+		});
+	}
+
+	public RoutedMethodDefinition[] getMembers() {
+		return members;
+	}
+
+	public int getInFlight(int member) {
+		return loads[member].inFlight.get();
+	}
+
+	/**
+	 * @return current peak EWMA latency of the member in nanoseconds
+	 */
+	public double getCost(int member) {
+		return loads[member].cost(System.nanoTime(), decayNanos);
+	}
+
+	/**
+	 * Read without locking on selection, updates are serialized
+	 */
+	private static class MemberLoad {
+		final AtomicInteger inFlight = new AtomicInteger();
+		private volatile double cost;
+		private volatile long stamp = System.nanoTime();
+
+		/**
+		 * @return start time of the call
+		 */
+		long start() {
+			inFlight.incrementAndGet();
+			return System.nanoTime();
+		}
+
+		double cost(long now, double decayNanos) {
+			return cost * Math.exp(-Math.max(now - stamp, 0) / decayNanos);
+		}
+
+		void end(long start, double decayNanos, boolean failed) {
+			long now = System.nanoTime();
+			inFlight.decrementAndGet();
+			observe(now, now - start, decayNanos, failed);
+		}
+
+		private synchronized void observe(long now, long latency, double decayNanos, boolean failed) {
+			double weight = Math.exp(-Math.max(now - stamp, 0) / decayNanos);
+			double sample = failed ? Math.max(Math.max(latency, cost * weight) * FAILURE_PENALTY, MIN_FAILURE_NANOS) : latency;
+			cost = sample > cost ? sample : cost * weight + sample * (1 - weight);
+			stamp = now;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package io.github.danipenaperez.lib.flowedrouting.balance;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Mono/Flux members of a LoadBalancer, only loaded when the balanced method returns one (Reactor is optional)
+ */
+final class ReactiveLoadSupport {
+
+	private ReactiveLoadSupport() {
+	}
+
+	/**
+	 * @param publisher Mono or Flux returned by the member
+	 * @param start called on each subscription, returns the end callback: called once when that subscription terminates or is cancelled, with true on error
+	 * @return the publisher reporting its subscriptions
+	 */
+	static Object inFlight(Object publisher, Supplier<Consumer<Boolean>> start) {
+		if(publisher instanceof Mono<?> mono) {
+			return Mono.defer(() -> {
+				Consumer<Boolean> end = start.get();
+				return mono.doFinally(signal-> end.accept(signal == SignalType.ON_ERROR));
+			});
+		}
+		if(publisher instanceof Flux<?> flux) {
+			return Flux.defer(() -> {
+				Consumer<Boolean> end = start.get();
+				return flux.doFinally(signal-> end.accept(signal == SignalType.ON_ERROR));
+			});
+		}
+		start.get().accept(false);
+		return publisher;
+	}
+}
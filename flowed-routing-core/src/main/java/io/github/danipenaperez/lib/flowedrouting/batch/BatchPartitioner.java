@@ -0,0 +1,106 @@
+package io.github.danipenaperez.lib.flowedrouting.batch;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedBatch;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+
+/**
+ * Splits the @RoutedBatch argument of one routed method and merges the sub-batch results back in the original order
+ */
+public class BatchPartitioner {
+
+	private final Method method;
+	private final int parameterIndex;
+	private final boolean returnsResults;
+
+	BatchPartitioner(Method method, int parameterIndex, boolean returnsResults) {
+		this.method = method;
+		this.parameterIndex = parameterIndex;
+		this.returnsResults = returnsResults;
+	}
+
+	/**
+	 * @param method routed interface method
+	 * @return the partitioner of the @RoutedBatch parameter, null when the method does not declare it
+	 * @throws FlowedRoutingConfigurationException if the parameter or the return type can not be partitioned
+	 */
+	public static BatchPartitioner forMethod(Method method) throws FlowedRoutingConfigurationException {
+		Parameter[] parameters = method.getParameters();
+		int parameterIndex = -1;
+		for(int i=0;i<parameters.length;i++) {
+			if(parameters[i].isAnnotationPresent(RoutedBatch.class)) {
+				if(parameterIndex >= 0) {
+					throw new FlowedRoutingConfigurationException(String.format("[%s] declares more than one @RoutedBatch parameter", method));
+				}
+				parameterIndex = i;
+			}
+		}
+		if(parameterIndex < 0) {
+			return null;
+		}
+		if(!parameters[parameterIndex].getType().isAssignableFrom(ArrayList.class)) {
+			throw new FlowedRoutingConfigurationException(String.format("@RoutedBatch parameter of [%s] must be a List or a Collection", method));
+		}
+		Class<?> returnType = method.getReturnType();
+		if(returnType != void.class && !returnType.isAssignableFrom(ArrayList.class)) {
+			throw new FlowedRoutingConfigurationException(String.format("@RoutedBatch method [%s] must return void or a List", method));
+		}
+		return new BatchPartitioner(method, parameterIndex, returnType != void.class);
+	}
+
+	public int getParameterIndex() {
+		return parameterIndex;
+	}
+
+	/**
+	 * @param arguments
+	 * @return the batch elements, empty for a null batch
+	 */
+	public List<Object> elements(Object[] arguments) {
+		Collection<?> batch = (Collection<?>) arguments[parameterIndex];
+		return batch == null ? List.of() : new ArrayList<>(batch);
+	}
+
+	/**
+	 * @return copy of the arguments with the batch replaced by value (an element or a sub-batch)
+	 */
+	public Object[] replace(Object[] arguments, Object value) {
+		Object[] replaced = arguments.clone();
+		replaced[parameterIndex] = value;
+		return replaced;
+	}
+
+	/**
+	 * @param size number of elements of the whole batch
+	 * @param positions original position of every sub-batch element
+	 * @param results delegate result of every sub-batch, same order as positions
+	 * @return the merged List, null for void methods
+	 */
+	public Object merge(int size, List<int[]> positions, List<Object> results) {
+		if(!returnsResults) {
+			return null;
+		}
+		Object[] merged = new Object[size];
+		for(int i=0;i<positions.size();i++) {
+			int[] subBatchPositions = positions.get(i);
+			List<?> subBatchResults = (List<?>) results.get(i);
+			if(subBatchResults == null || subBatchResults.size() != subBatchPositions.length) {
+				throw new IllegalStateException(String.format("[%s] delegate returned %s results for a sub-batch of %d elements",
+						method, subBatchResults == null ? "null" : subBatchResults.size(), subBatchPositions.length));
+			}
+			for(int j=0;j<subBatchPositions.length;j++) {
+				merged[subBatchPositions[j]] = subBatchResults.get(j);
+			}
+		}
+		List<Object> mergedList = new ArrayList<>(size);
+		for(Object result: merged) {
+			mergedList.add(result);
+		}
+		return mergedList;
+	}
+}
@@ -0,0 +1,186 @@
+package io.github.danipenaperez.lib.flowedrouting.cache;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.CachedRouting;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutingKey;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+import io.github.danipenaperez.lib.flowedrouting.spel.ArgumentsEvaluationContext;
+
+/**
+ * Routing decisions of one @CachedRouting method, key to selected candidate position at RoutedMethodDispatch.getCandidates().
+ * Bounded by maxSize (oldest written keys are evicted first) and expired after write.
+ * A new cache is built with every dispatch table, so decisions never outlive the candidates they point to.
+ */
+public class RoutingDecisionCache {
+
+	public static final int MISS = -1;
+	private static final Object NULL_KEY = new Object();
+	/**
+	 * Holds no variables, so every key expression shares it and only reads it
+	 */
+	private static final EvaluationContext KEY_EVALUATION_CONTEXT = SimpleEvaluationContext.forReadOnlyDataBinding().withInstanceMethods().build();
+
+	private final Method method;
+	private final int maxSize;
+	private final long expireAfterWriteNanos;
+	private final Expression keyExpression;
+	private final String[] parameterNames;
+	private final int[] keyParameters;
+
+	private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+	private final ConcurrentLinkedQueue<Entry> writeOrder = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queuedWrites = new AtomicInteger();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	RoutingDecisionCache(Method method, int maxSize, long expireAfterWriteNanos, Expression keyExpression, String[] parameterNames, int[] keyParameters) {
+		this.method = method;
+		this.maxSize = maxSize;
+		this.expireAfterWriteNanos = expireAfterWriteNanos;
+		this.keyExpression = keyExpression;
+		this.parameterNames = parameterNames;
+		this.keyParameters = keyParameters;
+	}
+
+	/**
+	 * @param method routed interface method
+	 * @return the decision cache declared by @CachedRouting, null when the method is not annotated
+	 * @throws FlowedRoutingConfigurationException if the key can not be built
+	 */
+	public static RoutingDecisionCache forMethod(Method method) throws FlowedRoutingConfigurationException {
+		CachedRouting cachedRouting = method.getAnnotation(CachedRouting.class);
+		if(cachedRouting == null) {
+			return null;
+		}
+		if(cachedRouting.maxSize() <= 0) {
+			throw new FlowedRoutingConfigurationException(String.format("@CachedRouting maxSize must be positive at [%s]", method));
+		}
+		Expression keyExpression = null;
+		String[] parameterNames = null;
+		List<Integer> keyParameters = new ArrayList<>();
+		Parameter[] parameters = method.getParameters();
+		if(!cachedRouting.key().isBlank()) {
+			try {
+				keyExpression = new SpelExpressionParser().parseExpression(cachedRouting.key());
+			}catch (ParseException e) {
+				throw new FlowedRoutingConfigurationException(String.format("Invalid @CachedRouting key [%s] at [%s] : %s", cachedRouting.key(), method, e.getMessage()));
+			}
+			parameterNames = new String[parameters.length];
+			for(int i=0;i<parameters.length;i++) {
+				parameterNames[i] = parameters[i].getName();
+			}
+		}else {
+			for(int i=0;i<parameters.length;i++) {
+				if(parameters[i].isAnnotationPresent(RoutingKey.class)) {
+					keyParameters.add(i);
+				}
+			}
+			if(keyParameters.isEmpty()) {
+				throw new FlowedRoutingConfigurationException(String.format("[%s] is @CachedRouting but declares neither key nor @RoutingKey parameters", method));
+			}
+		}
+		long expireAfterWriteNanos = cachedRouting.expireAfterWrite() <= 0 ? 0 : cachedRouting.timeUnit().toNanos(cachedRouting.expireAfterWrite());
+		return new RoutingDecisionCache(method, cachedRouting.maxSize(), expireAfterWriteNanos, keyExpression, parameterNames, keyParameters.stream().mapToInt(Integer::intValue).toArray());
+	}
+
+	/**
+	 * @return a cache with the same configuration and no entries, for a dispatch whose candidate positions changed
+	 */
+	public RoutingDecisionCache emptyCopy() {
+		return new RoutingDecisionCache(method, maxSize, expireAfterWriteNanos, keyExpression, parameterNames, keyParameters);
+	}
+
+	public Object resolveKey(Object[] arguments) {
+		Object key;
+		if(keyExpression != null) {
+			key = keyExpression.getValue(new ArgumentsEvaluationContext(KEY_EVALUATION_CONTEXT, parameterNames, arguments));
+		}else if(keyParameters.length == 1) {
+			key = arguments[keyParameters[0]];
+		}else {
+			Object[] values = new Object[keyParameters.length];
+			for(int i=0;i<keyParameters.length;i++) {
+				values[i] = arguments[keyParameters[i]];
+			}
+			key = Arrays.asList(values);
+		}
+		return key == null ? NULL_KEY : key;
+	}
+
+	/**
+	 * @param key from resolveKey
+	 * @return the cached candidate position, or MISS
+	 */
+	public int get(Object key) {
+		Entry entry = entries.get(key);
+		if(entry == null) {
+			misses.increment();
+			return MISS;
+		}
+		if(expireAfterWriteNanos > 0 && System.nanoTime() - entry.writtenAt >= expireAfterWriteNanos) {
+			entries.remove(key, entry);
+			misses.increment();
+			return MISS;
+		}
+		hits.increment();
+		return entry.candidateIndex;
+	}
+
+	public void put(Object key, int candidateIndex) {
+		Entry entry = new Entry(key, candidateIndex, System.nanoTime());
+		entries.put(key, entry);
+		writeOrder.add(entry);
+		//Every cached key has its last write queued, so bounding the queue bounds the cache
+		int queued = queuedWrites.incrementAndGet();
+		while(queued > maxSize) {
+			Entry oldest = writeOrder.poll();
+			if(oldest == null) {
+				break;
+			}
+			queued = queuedWrites.decrementAndGet();
+			if(entries.remove(oldest.key, oldest)) {
+				evictions.increment();
+			}
+		}
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	public Stats getStats() {
+		return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+	}
+
+	/**
+	 * @param hits decisions served from the cache
+	 * @param misses decisions evaluated (not cached or expired)
+	 * @param evictions keys removed because of maxSize
+	 * @param size current cached keys
+	 */
+	public record Stats(long hits, long misses, long evictions, int size) {
+
+		public double hitRate() {
+			long requests = hits + misses;
+			return requests == 0 ? 0 : (double) hits / requests;
+		}
+	}
+
+	private record Entry(Object key, int candidateIndex, long writtenAt) {
+	}
+}
@@ -1,16 +1,108 @@
 package io.github.danipenaperez.lib.flowedrouting.definition;
 
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.FlowBalanced;
+import io.github.danipenaperez.lib.flowedrouting.annotation.FlowShadow;
+import io.github.danipenaperez.lib.flowedrouting.balance.LoadBalancer;
 import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
-import lombok.AllArgsConstructor;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
 import lombok.Data;
 
 @Data
-@AllArgsConstructor
 public class RoutedMethodDefinition {
 	Method method;
 	FlowConditionType flowCondition;
 	Object bean;
 	boolean isDefault;
+	/**
+	 * Evaluator specific representation of the flow condition, built once at refresh time (see Evaluator.prepare)
+	 */
+	Object preparedCondition;
+	/**
+	 * Evaluator resolved for flowCondition (null for the default candidate)
+	 */
+	Evaluator evaluator;
+	/**
+	 * Routed interface method bound to the bean, with (Object[])Object type
+	 */
+	MethodHandle invoker;
+	/**
+	 * Routed interface method the candidate is dispatched for, set at refresh with the invoker
+	 */
+	Method routedMethod;
+	/**
+	 * Condition attributes of an external RoutingRule, replace the method condition annotation (null when not overridden)
+	 */
+	Map<String, String> conditionAttributes;
+	/**
+	 * Set on the shadow delegates of a method (see RoutedMethodDispatch.getShadows), null for routing candidates
+	 */
+	FlowShadow shadow;
+	/**
+	 * Declared @FlowBalanced group, null when the delegate is routed alone
+	 */
+	FlowBalanced balanced;
+	/**
+	 * Set on the candidate that routes a @FlowBalanced group, invoke calls the least loaded member
+	 */
+	LoadBalancer balancer;
+
+	public RoutedMethodDefinition(Method method, FlowConditionType flowCondition, Object bean, boolean isDefault) {
+		this.method = method;
+		this.flowCondition = flowCondition;
+		this.bean = bean;
+		this.isDefault = isDefault;
+	}
+
+	/**
+	 * Condition annotation evaluators must read instead of method.getAnnotation, so external rules can override it
+	 * @param annotationType
+	 * @return the annotation built from conditionAttributes when set, the method annotation otherwise
+	 * @throws IllegalArgumentException if conditionAttributes can not be converted to the annotation attributes
+	 */
+	public <A extends Annotation> A getConditionAnnotation(Class<A> annotationType) {
+		if(conditionAttributes == null) {
+			return method.getAnnotation(annotationType);
+		}
+		Map<String, Object> attributes = new LinkedHashMap<>();
+		for(Map.Entry<String, String> attribute: conditionAttributes.entrySet()) {
+			Method attributeMethod = attributeMethod(annotationType, attribute.getKey());
+			attributes.put(attributeMethod.getName(), DefaultConversionService.getSharedInstance().convert(attribute.getValue(), attributeMethod.getReturnType()));
+		}
+		return MergedAnnotation.of(annotationType, attributes).synthesize();
+	}
+
+	/**
+	 * Attribute by name, ignoring case and dashes (evaluation-expression binds evaluationExpression)
+	 */
+	private static Method attributeMethod(Class<? extends Annotation> annotationType, String name) {
+		String normalized = name.replace("-", "");
+		for(Method attributeMethod: annotationType.getDeclaredMethods()) {
+			if(attributeMethod.getName().equalsIgnoreCase(normalized)) {
+				return attributeMethod;
+			}
+		}
+		throw new IllegalArgumentException(String.format("@%s has no attribute [%s]", annotationType.getSimpleName(), name));
+	}
+
+	/**
+	 * Execute the routed method on this candidate bean
+	 * @param arguments
+	 * @return
+	 * @throws Throwable the exception thrown by the bean method, not wrapped
+	 */
+	public Object invoke(Object[] arguments) throws Throwable {
+		if(balancer != null) {
+			return balancer.invoke(arguments);
+		}
+		return (Object) invoker.invokeExact(arguments);
+	}
 }
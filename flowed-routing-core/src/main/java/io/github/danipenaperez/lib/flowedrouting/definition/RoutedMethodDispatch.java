@@ -0,0 +1,109 @@
+package io.github.danipenaperez.lib.flowedrouting.definition;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import io.github.danipenaperez.lib.flowedrouting.batch.BatchPartitioner;
+import io.github.danipenaperez.lib.flowedrouting.cache.RoutingDecisionCache;
+import io.github.danipenaperez.lib.flowedrouting.index.EqualityIndex;
+import io.github.danipenaperez.lib.flowedrouting.ordering.CandidateStatistics;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Routing entry for one @RoutedInterface method, resolved at refresh time.
+ * Candidates keep the evaluation order, the default one is always the last.
+ */
+@Getter
+public class RoutedMethodDispatch {
+
+	/**
+	 * How the routed method returns its result, anything but SYNC is routed without blocking (see AsyncEvaluator)
+	 */
+	public enum ReturnKind { SYNC, COMPLETION_STAGE, MONO, FLUX }
+
+	private final int index;
+	private final Method method;
+	private final RoutedMethodDefinition[] candidates;
+	/**
+	 * Declared by @CachedRouting, null otherwise
+	 */
+	private final RoutingDecisionCache decisionCache;
+	/**
+	 * Declared by a @RoutedBatch parameter, null otherwise
+	 */
+	private final BatchPartitioner batchPartitioner;
+	private final ReturnKind returnKind;
+	/**
+	 * EqualityIndex by position of its first candidate, null when no candidates are indexed
+	 */
+	private final EqualityIndex[] equalityIndexes;
+	/**
+	 * @FlowShadow delegates replaying the synchronous calls, null when the method has none
+	 */
+	private final RoutedMethodDefinition[] shadows;
+	/**
+	 * Measured candidates of @RoutedInterface(adaptiveOrdering = true) methods, null otherwise
+	 */
+	private final CandidateStatistics statistics;
+	private final int adaptiveOrderingWindow;
+
+	/**
+	 * Built with {@link #builder()}, only index, method and candidates are required
+	 * @param adaptiveOrderingWindow decisions between candidate reorder checks, 0 keeps the candidates order
+	 */
+	@Builder
+	private RoutedMethodDispatch(int index, Method method, RoutedMethodDefinition[] candidates, RoutingDecisionCache decisionCache, BatchPartitioner batchPartitioner,
+			RoutedMethodDefinition[] shadows, int adaptiveOrderingWindow) {
+		this.index = index;
+		this.method = method;
+		this.candidates = candidates;
+		this.decisionCache = decisionCache;
+		this.batchPartitioner = batchPartitioner;
+		this.returnKind = returnKind(method.getReturnType());
+		this.equalityIndexes = EqualityIndex.build(candidates);
+		this.shadows = shadows == null || shadows.length == 0 ? null : shadows;
+		this.adaptiveOrderingWindow = adaptiveOrderingWindow;
+		this.statistics = adaptiveOrderingWindow > 0 ? CandidateStatistics.forCandidates(candidates, equalityIndexes, adaptiveOrderingWindow) : null;
+	}
+
+	/**
+	 * @param order candidate positions in the new order, default one last
+	 * @return a copy of this dispatch evaluating the candidates in the given order, with a new decision cache (it stores positions)
+	 */
+	public RoutedMethodDispatch reorder(int[] order) {
+		RoutedMethodDefinition[] reordered = new RoutedMethodDefinition[candidates.length];
+		for(int i=0;i<order.length;i++) {
+			reordered[i] = candidates[order[i]];
+		}
+		return RoutedMethodDispatch.builder()
+				.index(index)
+				.method(method)
+				.candidates(reordered)
+				.decisionCache(decisionCache == null ? null : decisionCache.emptyCopy())
+				.batchPartitioner(batchPartitioner)
+				.shadows(shadows)
+				.adaptiveOrderingWindow(adaptiveOrderingWindow)
+				.build();
+	}
+
+	public static ReturnKind returnKind(Class<?> returnType) {
+		if(returnType == CompletableFuture.class || returnType == CompletionStage.class) {
+			return ReturnKind.COMPLETION_STAGE;
+		}
+		//By name, Reactor is optional
+		if(returnType.getName().equals("reactor.core.publisher.Mono")) {
+			return ReturnKind.MONO;
+		}
+		if(returnType.getName().equals("reactor.core.publisher.Flux")) {
+			return ReturnKind.FLUX;
+		}
+		return ReturnKind.SYNC;
+	}
+
+	public RoutedMethodDefinition getDefaultCandidate() {
+		return candidates[candidates.length-1];
+	}
+}
@@ -0,0 +1,32 @@
+package io.github.danipenaperez.lib.flowedrouting.definition;
+
+import java.util.List;
+
+import io.github.danipenaperez.lib.flowedrouting.rules.RoutingRule;
+
+import lombok.Getter;
+
+/**
+ * Routing state of an interceptor: the dispatch entry of every routed method and the rules it was built with.
+ * Built and validated off the request path, then published with a single volatile write (see FlowRoutingInterceptor.publish),
+ * so calls in flight keep using the table they started with. Not modified once built.
+ */
+@Getter
+public final class RoutingTable {
+
+	private final Class<?> routedInterface;
+	/**
+	 * Indexed by routed method (see FlowRoutingInterceptor.getMethodIndex)
+	 */
+	private final RoutedMethodDispatch[] dispatches;
+	/**
+	 * External rules applied to this interface, empty when only annotations are used
+	 */
+	private final List<RoutingRule> rules;
+
+	public RoutingTable(Class<?> routedInterface, RoutedMethodDispatch[] dispatches, List<RoutingRule> rules) {
+		this.routedInterface = routedInterface;
+		this.dispatches = dispatches;
+		this.rules = List.copyOf(rules);
+	}
+}
@@ -0,0 +1,38 @@
+package io.github.danipenaperez.lib.flowedrouting.evaluator;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+
+/**
+ * Non blocking Evaluator. Routed methods returning CompletableFuture, CompletionStage, Mono or Flux
+ * chain the delegate call after the returned stage, so no thread waits for the condition.
+ * Synchronous routed methods still wait for it (see evaluate).
+ */
+public interface AsyncEvaluator extends Evaluator {
+
+	/**
+	 * @param routedMethodDefinition
+	 * @param invocation
+	 * @return stage completed with the condition result (null is false)
+	 */
+	public CompletionStage<Boolean> evaluateAsync(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation);
+
+	/**
+	 * Blocking bridge used by synchronous routed methods
+	 */
+	@Override
+	public default boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+		try {
+			return Boolean.TRUE.equals(evaluateAsync(routedMethodDefinition, invocation).toCompletableFuture().join());
+		}catch (CompletionException e) {
+			if(e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw e;
+		}
+	}
+}
@@ -1,13 +1,49 @@
 package io.github.danipenaperez.lib.flowedrouting.evaluator;
 
+import java.util.List;
+
 import org.aopalliance.intercept.MethodInvocation;
 
 import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
 
 /**
- * Common interface to be implemented for all Evaluators
+ * Common interface to be implemented for all Evaluators.
+ * An instance is shared by every interceptor and all its methods are called concurrently: interceptors build their routing tables
+ * in parallel (startup, rule reloads), so prepare() and prepareDispatch() only write the candidates they receive and guard any other state.
  */
 public interface Evaluator {
 
 	public boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation);
+
+	/**
+	 * Called once per candidate when the interceptor builds its routing tree.
+	 * Evaluators can validate the condition and store a precomputed form of it
+	 * at RoutedMethodDefinition.preparedCondition, so evaluate() does not repeat that work on every call.
+	 * @param routedMethodDefinition
+	 * @throws FlowedRoutingConfigurationException if the condition is not valid for this evaluator
+	 */
+	public default void prepare(RoutedMethodDefinition routedMethodDefinition) throws FlowedRoutingConfigurationException {
+
+	}
+
+	/**
+	 * Called once per routed method when the dispatch table is built, after prepare, with the candidates of the method
+	 * using this evaluator in evaluation order. Evaluators can share work between the conditions evaluated for the same call.
+	 * @param candidates
+	 */
+	public default void prepareDispatch(List<RoutedMethodDefinition> candidates) {
+
+	}
+
+	/**
+	 * Identity of the condition result for this invocation, used to reuse results within a request (see ConditionMemoStore).
+	 * Two invocations with equal keys must get the same evaluate() result while the request lasts.
+	 * @param routedMethodDefinition
+	 * @param invocation
+	 * @return the key (must implement equals/hashCode), null if the result can not be reused
+	 */
+	public default Object conditionKey(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+		return null;
+	}
 }
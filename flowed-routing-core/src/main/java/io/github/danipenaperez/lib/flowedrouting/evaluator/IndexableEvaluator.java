@@ -0,0 +1,32 @@
+package io.github.danipenaperez.lib.flowedrouting.evaluator;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+
+/**
+ * Evaluator able to describe its prepared conditions as key == value,
+ * so consecutive candidates comparing the same key are routed with one lookup (see EqualityIndex)
+ */
+public interface IndexableEvaluator extends Evaluator {
+
+	/**
+	 * @param routedMethodDefinition prepared candidate
+	 * @return the equality, null when the condition is not an equality against a constant
+	 */
+	public EqualityCondition equalityCondition(RoutedMethodDefinition routedMethodDefinition);
+
+	/**
+	 * @param routedMethodDefinition candidate whose equalityCondition key is evaluated
+	 * @param invocation
+	 * @return the key value for this invocation
+	 */
+	public Object evaluateEqualityKey(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation);
+
+	/**
+	 * @param key identity of the key expression, equal keys must evaluate to the same value
+	 * @param value constant the key is compared to
+	 */
+	public record EqualityCondition(String key, Object value) {
+	}
+}
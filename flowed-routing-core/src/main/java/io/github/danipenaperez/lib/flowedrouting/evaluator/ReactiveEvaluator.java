@@ -0,0 +1,28 @@
+package io.github.danipenaperez.lib.flowedrouting.evaluator;
+
+import java.util.concurrent.CompletionStage;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import reactor.core.publisher.Mono;
+
+/**
+ * AsyncEvaluator for Reactor based conditions (requires reactor-core).
+ * Mono/Flux routed methods subscribe evaluateReactive as part of the returned publisher, so the condition sees the subscriber Context;
+ * CompletableFuture/CompletionStage methods go through evaluateAsync, with an empty Context.
+ */
+public interface ReactiveEvaluator extends AsyncEvaluator {
+
+	/**
+	 * @param routedMethodDefinition
+	 * @param invocation
+	 * @return the condition result, empty is false
+	 */
+	public Mono<Boolean> evaluateReactive(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation);
+
+	@Override
+	public default CompletionStage<Boolean> evaluateAsync(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+		return evaluateReactive(routedMethodDefinition, invocation).defaultIfEmpty(Boolean.FALSE).toFuture();
+	}
+}
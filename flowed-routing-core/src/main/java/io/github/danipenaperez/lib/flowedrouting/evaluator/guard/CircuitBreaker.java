@@ -0,0 +1,104 @@
+package io.github.danipenaperez.lib.flowedrouting.evaluator.guard;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Consecutive failures circuit breaker.
+ * CLOSED until failureThreshold consecutive failures, then OPEN (calls rejected) during waitDuration,
+ * then HALF_OPEN letting a single probe call decide whether it closes or opens again.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+
+	private final String name;
+	private final int failureThreshold;
+	private final long waitNanos;
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+	private volatile State state = State.CLOSED;
+	private volatile long openedAt;
+
+	/**
+	 * @param name for logging
+	 * @param failureThreshold consecutive failures that open the circuit, 0 or less never opens
+	 * @param waitDuration time open before probing again
+	 */
+	public CircuitBreaker(String name, int failureThreshold, Duration waitDuration) {
+		this.name = name;
+		this.failureThreshold = failureThreshold;
+		this.waitNanos = waitDuration.toNanos();
+	}
+
+	/**
+	 * @return true if the call is allowed
+	 */
+	public boolean tryAcquire() {
+		State current = state;
+		if(current == State.CLOSED) {
+			return true;
+		}
+		if(current == State.OPEN && System.nanoTime() - openedAt >= waitNanos) {
+			synchronized (this) {
+				if(state == State.OPEN && System.nanoTime() - openedAt >= waitNanos) {
+					state = State.HALF_OPEN; //This caller is the probe
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	public void onSuccess() {
+		if(state != State.CLOSED) {
+			synchronized (this) {
+				if(state != State.CLOSED) {
+					log.info("Circuit [{}] closed", name);
+				}
+				state = State.CLOSED;
+			}
+		}
+		if(consecutiveFailures.get() != 0) {
+			consecutiveFailures.set(0);
+		}
+	}
+
+	public void onFailure() {
+		if(failureThreshold <= 0) {
+			return;
+		}
+		if(state == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+			open();
+		}
+	}
+
+	/**
+	 * The call ended without telling whether the evaluator is healthy (cancelled by the caller),
+	 * so it is not counted and a probe gives its place to the next caller
+	 */
+	public void onIgnored() {
+		if(state == State.HALF_OPEN) {
+			synchronized (this) {
+				if(state == State.HALF_OPEN) {
+					state = State.OPEN; //openedAt is kept, the wait already elapsed
+				}
+			}
+		}
+	}
+
+	private synchronized void open() {
+		if(state != State.OPEN) {
+			log.warn("Circuit [{}] opened, calls are rejected during {} ms", name, Duration.ofNanos(waitNanos).toMillis());
+		}
+		state = State.OPEN;
+		openedAt = System.nanoTime();
+		consecutiveFailures.set(0);
+	}
+
+	public State getState() {
+		return state;
+	}
+}
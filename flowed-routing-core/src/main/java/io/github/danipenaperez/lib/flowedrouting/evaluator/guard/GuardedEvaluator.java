@@ -0,0 +1,189 @@
+package io.github.danipenaperez.lib.flowedrouting.evaluator.guard;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.AsyncEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.IndexableEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.exception.EvaluatorUnavailableException;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+import lombok.Getter;
+
+/**
+ * Decorates an Evaluator with a time budget and a circuit breaker.
+ * Timeouts, exceptions and open circuit are reported as EvaluatorUnavailableException, so the call takes the default route.
+ * Register it with FlowRoutingInterceptor.registerEvaluator(type, evaluator), the instance (and its circuit) can be shared by interceptors.
+ * Non blocking routed methods get the same guard through evaluateAsync, an AsyncEvaluator delegate is never waited on.
+ * IndexableEvaluator delegates keep their EqualityIndex, the key evaluation is guarded as well.
+ */
+@Getter
+public class GuardedEvaluator implements AsyncEvaluator, IndexableEvaluator {
+
+	private final String evaluatorType;
+	private final Evaluator delegate;
+	private final long timeoutNanos;
+	private final CircuitBreaker circuitBreaker;
+	private final AsyncTaskExecutor executor;
+
+	/**
+	 * @param evaluatorType
+	 * @param delegate
+	 * @param timeout null or zero for no time budget (evaluated on the calling thread)
+	 * @param circuitBreaker
+	 * @param executor runs timed evaluations, virtual threads when null
+	 */
+	public GuardedEvaluator(String evaluatorType, Evaluator delegate, Duration timeout, CircuitBreaker circuitBreaker, AsyncTaskExecutor executor) {
+		this.evaluatorType = evaluatorType;
+		this.delegate = delegate;
+		this.timeoutNanos = timeout == null ? 0 : timeout.toNanos();
+		this.circuitBreaker = circuitBreaker;
+		if(executor == null && timeoutNanos > 0) {
+			SimpleAsyncTaskExecutor virtualThreadExecutor = new SimpleAsyncTaskExecutor("flowed-routing-");
+			virtualThreadExecutor.setVirtualThreads(true);
+			executor = virtualThreadExecutor;
+		}
+		this.executor = executor;
+	}
+
+	@Override
+	public boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+		return guard(() -> delegate.evaluate(routedMethodDefinition, invocation));
+	}
+
+	/**
+	 * The delegate equality, so its candidates keep the EqualityIndex
+	 * @return null when the delegate is not an IndexableEvaluator
+	 */
+	@Override
+	public EqualityCondition equalityCondition(RoutedMethodDefinition routedMethodDefinition) {
+		return delegate instanceof IndexableEvaluator indexableDelegate ? indexableDelegate.equalityCondition(routedMethodDefinition) : null;
+	}
+
+	/**
+	 * Key evaluation under the same time budget and circuit as evaluate
+	 */
+	@Override
+	public Object evaluateEqualityKey(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+		return guard(() -> ((IndexableEvaluator) delegate).evaluateEqualityKey(routedMethodDefinition, invocation));
+	}
+
+	/**
+	 * Every acquired call reports its outcome to the circuit, Errors included, otherwise a failed probe would leave it HALF_OPEN.
+	 * A call interrupted by its caller (a parallel evaluation no longer needed) is neither a success nor a failure.
+	 */
+	private <T> T guard(Supplier<T> call) {
+		if(!circuitBreaker.tryAcquire()) {
+			throw new EvaluatorUnavailableException(String.format("[%s] evaluator circuit is open", evaluatorType), null);
+		}
+		boolean succeeded = false;
+		try {
+			T result = timeoutNanos > 0 ? callWithTimeout(call) : call.get();
+			succeeded = true;
+			return result;
+		}catch (EvaluatorUnavailableException e) {
+			throw e;
+		}catch (RuntimeException e) {
+			throw new EvaluatorUnavailableException(String.format("[%s] evaluator failed : %s", evaluatorType, e.getMessage()), e);
+		}finally {
+			if(succeeded) {
+				circuitBreaker.onSuccess();
+			}else if(Thread.currentThread().isInterrupted()) {
+				circuitBreaker.onIgnored();
+			}else {
+				circuitBreaker.onFailure();
+			}
+		}
+	}
+
+	private <T> T callWithTimeout(Supplier<T> call) {
+		Future<T> future = executor.submit(call::get);
+		try {
+			return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+		}catch (TimeoutException e) {
+			future.cancel(true);
+			throw new EvaluatorUnavailableException(String.format("[%s] evaluator exceeded %d ms", evaluatorType, TimeUnit.NANOSECONDS.toMillis(timeoutNanos)), e);
+		}catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if(e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw new EvaluatorUnavailableException(String.format("[%s] evaluator failed : %s", evaluatorType, e.getCause()), e.getCause());
+		}catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new EvaluatorUnavailableException(String.format("Interrupted waiting for [%s] evaluator", evaluatorType), e);
+		}
+	}
+
+	@Override
+	public CompletionStage<Boolean> evaluateAsync(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+		if(!circuitBreaker.tryAcquire()) {
+			return CompletableFuture.failedFuture(new EvaluatorUnavailableException(String.format("[%s] evaluator circuit is open", evaluatorType), null));
+		}
+		CompletableFuture<Boolean> result;
+		try {
+			if(delegate instanceof AsyncEvaluator asyncDelegate) {
+				result = asyncDelegate.evaluateAsync(routedMethodDefinition, invocation).toCompletableFuture().copy();
+			}else if(timeoutNanos > 0) {
+				result = CompletableFuture.supplyAsync(() -> delegate.evaluate(routedMethodDefinition, invocation), executor);
+			}else {
+				result = CompletableFuture.completedFuture(delegate.evaluate(routedMethodDefinition, invocation));
+			}
+		}catch (RuntimeException | Error e) {
+			result = CompletableFuture.failedFuture(e);
+		}
+		if(timeoutNanos > 0) {
+			result = result.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS);
+		}
+		return result.handle((accepted, error) -> {
+			if(error == null) {
+				circuitBreaker.onSuccess();
+				return Boolean.TRUE.equals(accepted);
+			}
+			circuitBreaker.onFailure();
+			Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+			throw new CompletionException(cause instanceof Error ? cause : unavailable(cause));
+		});
+	}
+
+	private EvaluatorUnavailableException unavailable(Throwable error) {
+		if(error instanceof EvaluatorUnavailableException unavailable) {
+			return unavailable;
+		}
+		if(error instanceof TimeoutException) {
+			return new EvaluatorUnavailableException(String.format("[%s] evaluator exceeded %d ms", evaluatorType, TimeUnit.NANOSECONDS.toMillis(timeoutNanos)), error);
+		}
+		return new EvaluatorUnavailableException(String.format("[%s] evaluator failed : %s", evaluatorType, error.getMessage()), error);
+	}
+
+	@Override
+	public void prepare(RoutedMethodDefinition routedMethodDefinition) throws FlowedRoutingConfigurationException {
+		delegate.prepare(routedMethodDefinition);
+	}
+
+	@Override
+	public void prepareDispatch(List<RoutedMethodDefinition> candidates) {
+		delegate.prepareDispatch(candidates);
+	}
+
+	@Override
+	public Object conditionKey(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+		return delegate.conditionKey(routedMethodDefinition, invocation);
+	}
+}
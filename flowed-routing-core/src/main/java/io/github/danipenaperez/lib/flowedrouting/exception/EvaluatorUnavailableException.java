@@ -0,0 +1,14 @@
+package io.github.danipenaperez.lib.flowedrouting.exception;
+
+/**
+ * A guarded evaluator did not answer in time, failed or has its circuit open.
+ * The interceptor routes the call to the default candidate.
+ */
+public class EvaluatorUnavailableException extends FlowedRoutingEvaluationException{
+
+	private static final long serialVersionUID = 1L;
+
+	public EvaluatorUnavailableException (String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,13 @@
+package io.github.danipenaperez.lib.flowedrouting.exception;
+
+/**
+ * A routing condition could not be evaluated (interrupted, checked exception...)
+ */
+public class FlowedRoutingEvaluationException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+
+	public FlowedRoutingEvaluationException (String message, Throwable cause) {
+		super(message, cause);
+	}
+}
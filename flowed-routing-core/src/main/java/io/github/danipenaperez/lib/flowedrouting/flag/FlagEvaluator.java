@@ -0,0 +1,42 @@
+package io.github.danipenaperez.lib.flowedrouting.flag;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.annotation.EvaluatorType;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+import io.github.danipenaperez.lib.flowedrouting.flag.annotation.FlowFlagCondition;
+
+/**
+ * Evaluates @FlowFlagCondition against the FlagSnapshotStore snapshot
+ */
+@EvaluatorType(FlagEvaluator.TYPE)
+public class FlagEvaluator implements Evaluator {
+
+	public static final String TYPE = "flag";
+
+	private final FlagSnapshotStore flagSnapshotStore;
+
+	public FlagEvaluator(FlagSnapshotStore flagSnapshotStore) {
+		this.flagSnapshotStore = flagSnapshotStore;
+	}
+
+	@Override
+	public void prepare(RoutedMethodDefinition routedMethodDefinition) throws FlowedRoutingConfigurationException {
+		FlowFlagCondition flagCondition = routedMethodDefinition.getConditionAnnotation(FlowFlagCondition.class);
+		if(flagCondition == null) {
+			throw new FlowedRoutingConfigurationException(String.format("[%s] declares FlowConditionType = [flag] , but not found @FlowFlagCondition annotation", routedMethodDefinition.getMethod()));
+		}
+		routedMethodDefinition.setPreparedCondition(flagCondition.value());
+	}
+
+	@Override
+	public boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+		String flagName = (String) routedMethodDefinition.getPreparedCondition();
+		if(flagName == null) { //Definition not prepared by an interceptor
+			flagName = routedMethodDefinition.getConditionAnnotation(FlowFlagCondition.class).value();
+		}
+		return flagSnapshotStore.isEnabled(flagName);
+	}
+}
@@ -0,0 +1,159 @@
+package io.github.danipenaperez.lib.flowedrouting.flag;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Immutable in-memory copy of the FlagSource flags, replaced as a whole on every refresh,
+ * so flag conditions (FlagEvaluator, #flag('name') at SpEL) never do I/O.
+ * After start the source is polled in the background, incrementally when it supports fetchChangedSince,
+ * with a full fetch every fullRefreshEvery refreshes to catch the flags it can not report.
+ * Incremental fetches ask for the changes since the previous fetch minus incrementalOverlap, as since is read from this node clock
+ * and the source stamps its changes with its own (clock skew, commits that become visible after they are stamped).
+ * Refresh failures are logged and keep the last snapshot.
+ */
+@Slf4j
+public class FlagSnapshotStore {
+
+	public static final String SPEL_FUNCTION_NAME = "flag";
+	public static final Duration DEFAULT_INCREMENTAL_OVERLAP = Duration.ofSeconds(5);
+
+	private final FlagSource flagSource;
+	private final int fullRefreshEvery;
+	private final Duration incrementalOverlap;
+	private volatile Map<String, Boolean> snapshot = Map.of();
+	private volatile Instant lastRefresh;
+	private int incrementalRefreshes;
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * @param flagSource
+	 * @param fullRefreshEvery incremental refreshes between full fetches, 0 always fetches everything
+	 */
+	public FlagSnapshotStore(FlagSource flagSource, int fullRefreshEvery) {
+		this(flagSource, fullRefreshEvery, DEFAULT_INCREMENTAL_OVERLAP);
+	}
+
+	/**
+	 * @param flagSource
+	 * @param fullRefreshEvery incremental refreshes between full fetches, 0 always fetches everything
+	 * @param incrementalOverlap subtracted from the previous fetch time on incremental fetches, the changes it reports again are applied again (same values)
+	 */
+	public FlagSnapshotStore(FlagSource flagSource, int fullRefreshEvery, Duration incrementalOverlap) {
+		this.flagSource = flagSource;
+		this.fullRefreshEvery = fullRefreshEvery;
+		this.incrementalOverlap = incrementalOverlap == null || incrementalOverlap.isNegative() ? Duration.ZERO : incrementalOverlap;
+	}
+
+	/**
+	 * @param flagName
+	 * @return false for unknown flags
+	 */
+	public boolean isEnabled(String flagName) {
+		return Boolean.TRUE.equals(snapshot.get(flagName));
+	}
+
+	public Map<String, Boolean> getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * @return start time of the last successful fetch, null before the first one
+	 */
+	public Instant getLastRefresh() {
+		return lastRefresh;
+	}
+
+	/**
+	 * Fetch the source now
+	 */
+	public synchronized void refresh() {
+		Instant fetchStart = Instant.now();
+		if(lastRefresh != null && incrementalRefreshes < fullRefreshEvery) {
+			Map<String, Boolean> changes = flagSource.fetchChangedSince(lastRefresh.minus(incrementalOverlap));
+			if(changes != null) {
+				applyChanges(changes);
+				incrementalRefreshes++;
+				lastRefresh = fetchStart;
+				return;
+			}
+		}
+		Map<String, Boolean> flags = new HashMap<>();
+		flagSource.fetchAll().forEach((flagName, enabled) -> {
+			if(enabled != null) {
+				flags.put(flagName, enabled);
+			}
+		});
+		snapshot = Map.copyOf(flags);
+		incrementalRefreshes = 0;
+		lastRefresh = fetchStart;
+	}
+
+	/**
+	 * Publish changes pushed by a streaming source
+	 * @param changes flags by name, null values remove the flag
+	 */
+	public synchronized void applyChanges(Map<String, Boolean> changes) {
+		if(changes.isEmpty()) {
+			return;
+		}
+		Map<String, Boolean> flags = new HashMap<>(snapshot);
+		changes.forEach((flagName, enabled) -> {
+			if(enabled == null) {
+				flags.remove(flagName);
+			}else {
+				flags.put(flagName, enabled);
+			}
+		});
+		snapshot = Map.copyOf(flags);
+	}
+
+	/**
+	 * Load the snapshot and keep refreshing it every refreshInterval on a daemon thread
+	 * @param refreshInterval
+	 */
+	public synchronized void start(Duration refreshInterval) {
+		if(scheduler != null) {
+			return;
+		}
+		refreshQuietly();
+		scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("flowed-routing-flags").daemon().factory());
+		scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	public synchronized void stop() {
+		if(scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	private void refreshQuietly() {
+		try {
+			refresh();
+		}catch (RuntimeException e) {
+			log.warn("Can not refresh flags from {}, keeping the last snapshot : {}", flagSource.getClass().getName(), e.getMessage());
+		}
+	}
+
+	/**
+	 * @return isEnabled bound to this store, (String)boolean, to be registered as a SpEL function
+	 */
+	public MethodHandle isEnabledFunction() {
+		try {
+			return MethodHandles.lookup().findVirtual(FlagSnapshotStore.class, "isEnabled", MethodType.methodType(boolean.class, String.class)).bindTo(this);
+		}catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package io.github.danipenaperez.lib.flowedrouting.flag;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Where FlagSnapshotStore loads the flags from (database, remote flag service...).
+ * Only called from the background refresh, never while routing.
+ */
+public interface FlagSource {
+
+	/**
+	 * @return every flag by name
+	 */
+	public Map<String, Boolean> fetchAll();
+
+	/**
+	 * Incremental refresh, flags with a null value are removed from the snapshot
+	 * @param since start time of the previous successful fetch (clock of the application node) minus the FlagSnapshotStore incrementalOverlap,
+	 * so changes stamped around it may be reported again
+	 * @return flags changed after since, null when the source does not support incremental refresh (fetchAll is used)
+	 */
+	public default Map<String, Boolean> fetchChangedSince(Instant since) {
+		return null;
+	}
+}
@@ -0,0 +1,15 @@
+package io.github.danipenaperez.lib.flowedrouting.flag.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Condition of @FlowConditionType("flag") candidates: accepted while the flag is enabled at FlagSnapshotStore
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface FlowFlagCondition {
+	String value();
+}
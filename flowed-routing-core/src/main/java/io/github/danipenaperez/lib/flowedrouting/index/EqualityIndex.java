@@ -0,0 +1,99 @@
+package io.github.danipenaperez.lib.flowedrouting.index;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.IndexableEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.IndexableEvaluator.EqualityCondition;
+import lombok.Getter;
+
+/**
+ * Consecutive candidates whose conditions are key == 'constant' on the same key, resolved with one key evaluation and a hash lookup.
+ * Only String constants are indexed (SpEL == between a String and a non String is never true),
+ * invocations with a non String key fall back to evaluating the candidates in order. The first candidate wins on repeated constants.
+ */
+@Getter
+public class EqualityIndex {
+
+	public static final int NO_MATCH = -1;
+	public static final int NOT_INDEXED = -2;
+	/**
+	 * Shorter runs are evaluated in order, as fast as a lookup
+	 */
+	static final int MIN_CANDIDATES = 3;
+
+	private final int start;
+	private final int end;
+	private final IndexableEvaluator evaluator;
+	private final RoutedMethodDefinition keyCandidate;
+	private final Map<String, Integer> positions;
+
+	EqualityIndex(int start, int end, IndexableEvaluator evaluator, RoutedMethodDefinition keyCandidate, Map<String, Integer> positions) {
+		this.start = start;
+		this.end = end;
+		this.evaluator = evaluator;
+		this.keyCandidate = keyCandidate;
+		this.positions = positions;
+	}
+
+	/**
+	 * @param candidates dispatch candidates, the default one last
+	 * @return index by first candidate position of each run, null when there is none
+	 */
+	public static EqualityIndex[] build(RoutedMethodDefinition[] candidates) {
+		EqualityIndex[] indexes = null;
+		int i = 0;
+		while(i < candidates.length-1) {
+			EqualityCondition first = equalityCondition(candidates[i]);
+			if(first == null) {
+				i++;
+				continue;
+			}
+			int end = i+1;
+			while(end < candidates.length-1 && candidates[end].getEvaluator() == candidates[i].getEvaluator()
+					&& equalityCondition(candidates[end]) instanceof EqualityCondition next && Objects.equals(next.key(), first.key())) {
+				end++;
+			}
+			if(end - i >= MIN_CANDIDATES) {
+				Map<String, Integer> positions = new HashMap<>();
+				for(int candidate=i;candidate<end;candidate++) {
+					positions.putIfAbsent((String) equalityCondition(candidates[candidate]).value(), candidate);
+				}
+				if(indexes == null) {
+					indexes = new EqualityIndex[candidates.length];
+				}
+				indexes[i] = new EqualityIndex(i, end, (IndexableEvaluator) candidates[i].getEvaluator(), candidates[i], Map.copyOf(positions));
+			}
+			i = end;
+		}
+		return indexes;
+	}
+
+	private static EqualityCondition equalityCondition(RoutedMethodDefinition candidate) {
+		if(candidate.getEvaluator() instanceof IndexableEvaluator indexableEvaluator) {
+			EqualityCondition condition = indexableEvaluator.equalityCondition(candidate);
+			return condition != null && condition.value() instanceof String ? condition : null;
+		}
+		return null;
+	}
+
+	/**
+	 * @param invocation
+	 * @return accepted candidate position, NO_MATCH when none of the run is accepted, NOT_INDEXED when the run must be evaluated in order
+	 */
+	public int lookup(MethodInvocation invocation) {
+		Object key = evaluator.evaluateEqualityKey(keyCandidate, invocation);
+		if(key == null) {
+			return NO_MATCH;
+		}
+		if(!(key instanceof String)) {
+			return NOT_INDEXED;
+		}
+		Integer position = positions.get(key);
+		return position == null ? NO_MATCH : position;
+	}
+}
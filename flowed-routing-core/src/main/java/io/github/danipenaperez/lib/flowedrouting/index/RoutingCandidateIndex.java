@@ -0,0 +1,144 @@
+package io.github.danipenaperez.lib.flowedrouting.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Routed types found at build time by flowed-routing-processor, read from every META-INF/flowed-routing.index of the classpath.
+ * Each line is [binary class name]=[comma separated kinds], so startup does not need to scan the classpath for them.
+ * The packages compiled by each processor run are listed too ([package name]=Package), a package is only trusted when indexed
+ * by every classpath location holding it.
+ */
+public final class RoutingCandidateIndex {
+
+	public static final String LOCATION = "META-INF/flowed-routing.index";
+	public static final String ROUTED_INTERFACE = "RoutedInterface";
+	public static final String PACKAGE = "Package";
+
+	private final Map<String, Set<String>> kindsByType;
+	private final Map<String, Set<String>> packagesByLocation;
+
+	public RoutingCandidateIndex(Map<String, Set<String>> kindsByType) {
+		this(kindsByType, Map.of());
+	}
+
+	/**
+	 * @param kindsByType
+	 * @param packagesByLocation packages listed by the index of each classpath location (URL of the location root)
+	 */
+	public RoutingCandidateIndex(Map<String, Set<String>> kindsByType, Map<String, Set<String>> packagesByLocation) {
+		this.kindsByType = Collections.unmodifiableMap(new TreeMap<>(kindsByType));
+		this.packagesByLocation = Collections.unmodifiableMap(new TreeMap<>(packagesByLocation));
+	}
+
+	/**
+	 * @param classLoader
+	 * @return the merged index, null when no classpath entry has one (the types must be scanned)
+	 * @throws IllegalStateException if an index can not be read
+	 */
+	public static RoutingCandidateIndex load(ClassLoader classLoader) {
+		try {
+			Enumeration<URL> resources = classLoader.getResources(LOCATION);
+			if(!resources.hasMoreElements()) {
+				return null;
+			}
+			Map<String, Set<String>> kindsByType = new TreeMap<>();
+			Map<String, Set<String>> packagesByLocation = new TreeMap<>();
+			while(resources.hasMoreElements()) {
+				URL resource = resources.nextElement();
+				Set<String> packages = packagesByLocation.computeIfAbsent(location(resource, LOCATION), key-> new TreeSet<>());
+				Properties entries = new Properties();
+				try(InputStream input = resource.openStream()){
+					entries.load(input);
+				}
+				entries.forEach((type, kinds) -> {
+					Set<String> typeKinds = kindsByType.computeIfAbsent((String) type, key-> new LinkedHashSet<>());
+					for(String kind: ((String) kinds).split(",")) {
+						if(!kind.isBlank()) {
+							typeKinds.add(kind.trim());
+						}
+					}
+					if(typeKinds.contains(PACKAGE)) {
+						packages.add((String) type);
+					}
+				});
+			}
+			return new RoutingCandidateIndex(kindsByType, packagesByLocation);
+		}catch (IOException e) {
+			throw new IllegalStateException("Can not read "+LOCATION+" : "+e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @param kind ROUTED_INTERFACE or PACKAGE
+	 * @param basePackage types of this package and its subpackages, every type when null or empty
+	 * @return binary class names, sorted
+	 */
+	public Set<String> getTypes(String kind, String basePackage) {
+		Set<String> types = new LinkedHashSet<>();
+		kindsByType.forEach((type, kinds) -> {
+			if(kinds.contains(kind) && (basePackage == null || basePackage.isEmpty() || type.startsWith(basePackage + "."))) {
+				types.add(type);
+			}
+		});
+		return types;
+	}
+
+	/**
+	 * A type of the package compiled without the processor (another module, a partial index) would be missed,
+	 * so only the packages indexed themselves are covered.
+	 * @param basePackage
+	 * @return true if the package was compiled with the processor, false when it must be scanned
+	 */
+	public boolean covers(String basePackage) {
+		return basePackage != null && kindsByType.getOrDefault(basePackage, Set.of()).contains(PACKAGE);
+	}
+
+	/**
+	 * covers(basePackage) for each classpath location with classes of the package or its subpackages, a location without its own index
+	 * listing the package (a jar compiled without the processor) must be scanned.
+	 * Locations are found by the package directory, as the classpath scan does (jars without directory entries are not seen by either).
+	 * @param basePackage
+	 * @param classLoader
+	 * @return true if every location holding the package indexes it, false when it must be scanned
+	 */
+	public boolean covers(String basePackage, ClassLoader classLoader) {
+		if(!covers(basePackage)) {
+			return false;
+		}
+		String path = basePackage.replace('.', '/') + "/";
+		try {
+			Enumeration<URL> directories = classLoader.getResources(path);
+			while(directories.hasMoreElements()) {
+				String location = location(directories.nextElement(), path);
+				if(location == null || !packagesByLocation.getOrDefault(location, Set.of()).contains(basePackage)) {
+					return false;
+				}
+			}
+			return true;
+		}catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return root of the classpath location holding the resource, null if the URL does not end with its path
+	 */
+	private static String location(URL resource, String path) {
+		String url = resource.toString();
+		return url.endsWith(path) ? url.substring(0, url.length() - path.length()) : null;
+	}
+
+	public Map<String, Set<String>> getKindsByType() {
+		return kindsByType;
+	}
+}
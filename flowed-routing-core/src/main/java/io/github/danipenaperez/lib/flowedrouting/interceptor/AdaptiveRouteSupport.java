@@ -0,0 +1,30 @@
+package io.github.danipenaperez.lib.flowedrouting.interceptor;
+
+import io.github.danipenaperez.lib.flowedrouting.ordering.CandidateStatistics;
+
+/**
+ * @RoutedInterface(adaptiveOrdering = true) decisions: the units are evaluated in order as usual, each one measured for CandidateStatistics.
+ * About once per window the reorder check is handed to evaluationExecutor (see FlowRoutingInterceptor.reorder).
+ */
+final class AdaptiveRouteSupport {
+
+	private AdaptiveRouteSupport() {
+	}
+
+	static int evaluateRoute(FlowRoutingInterceptor interceptor, RouteEvaluation evaluation, CandidateStatistics statistics) {
+		int selected = evaluation.defaultIndex();
+		for(int unit=0;unit<evaluation.defaultIndex();unit = evaluation.unitEnd(unit)) {
+			long start = System.nanoTime();
+			int match = evaluation.evaluateUnit(unit);
+			statistics.record(unit, match != RouteEvaluation.REJECTED, System.nanoTime() - start);
+			if(match != RouteEvaluation.REJECTED) {
+				selected = match;
+				break;
+			}
+		}
+		if(statistics.decision()) {
+			interceptor.evaluationExecutor().execute(() -> interceptor.reorder(evaluation.dispatch));
+		}
+		return selected;
+	}
+}
@@ -0,0 +1,79 @@
+package io.github.danipenaperez.lib.flowedrouting.interceptor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.github.danipenaperez.lib.flowedrouting.cache.RoutingDecisionCache;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.exception.EvaluatorUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Routed methods returning CompletableFuture or CompletionStage (Mono and Flux see ReactiveRoutingSupport).
+ * Same decision as FlowRoutingInterceptor.selectRoute, AsyncEvaluator conditions are chained and other evaluators run on the calling thread.
+ */
+@Slf4j
+final class AsyncRouteSupport {
+
+	private AsyncRouteSupport() {
+	}
+
+	/**
+	 * @return completed with the selected candidate, EvaluatorUnavailableException completes with the default one
+	 */
+	static CompletableFuture<RoutedMethodDefinition> selectRoute(FlowRoutingInterceptor interceptor, RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		try {
+			RoutingDecisionCache decisionCache = dispatch.getDecisionCache();
+			Object key = null;
+			if(decisionCache != null) {
+				key = decisionCache.resolveKey(invocation.getArguments());
+				int selected = decisionCache.get(key);
+				if(selected != RoutingDecisionCache.MISS) {
+					interceptor.routingObserver.onCachedDecision(dispatch, selected);
+					return CompletableFuture.completedFuture(dispatch.getCandidates()[selected]);
+				}
+			}
+			Object cacheKey = key;
+			return interceptor.evaluateRouteAsync(dispatch, invocation).handle((selected, error) -> {
+				if(error == null) {
+					if(decisionCache != null) {
+						decisionCache.put(cacheKey, selected);
+					}
+					return dispatch.getCandidates()[selected];
+				}
+				Throwable cause = unwrap(error);
+				if(cause instanceof EvaluatorUnavailableException) { //Degraded decisions are not cached
+					log.debug("Routing {} to the default candidate : {}", dispatch.getMethod(), cause.getMessage());
+					return dispatch.getDefaultCandidate();
+				}
+				throw error instanceof CompletionException completionException ? completionException : new CompletionException(error);
+			});
+		}catch (RuntimeException | Error e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	/**
+	 * @return completed with the position of the first accepted candidate in declared order, or the default one
+	 */
+	static CompletableFuture<Integer> evaluateRoute(FlowRoutingInterceptor interceptor, RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		RouteEvaluation evaluation = RouteEvaluation.start(interceptor, dispatch, invocation, true);
+		CompletableFuture<Integer> selection = interceptor.parallelEvaluation && dispatch.getCandidates().length > 2
+				? ParallelRouteSupport.evaluateRouteAsync(interceptor, evaluation)
+				: evaluation.evaluateUnitsAsync(0);
+		return selection.whenComplete((selected, error) -> {
+			if(error == null) {
+				evaluation.end(selected);
+			}else {
+				evaluation.fail(unwrap(error));
+			}
+		});
+	}
+
+	private static Throwable unwrap(Throwable error) {
+		return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+	}
+}
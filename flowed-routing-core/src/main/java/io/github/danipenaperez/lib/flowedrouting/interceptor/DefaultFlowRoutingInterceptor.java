@@ -1,15 +1,34 @@
 package io.github.danipenaperez.lib.flowedrouting.interceptor;
 
-import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.task.AsyncTaskExecutor;
 
+import io.github.danipenaperez.lib.flowedrouting.batch.BatchPartitioner;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingEvaluationException;
+import io.github.danipenaperez.lib.flowedrouting.observer.RoutingObserver;
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedMethodInvocation;
+import io.github.danipenaperez.lib.flowedrouting.shadow.ShadowExecutor;
+import io.github.danipenaperez.lib.flowedrouting.shadow.ShadowResult;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class DefaultFlowRoutingInterceptor extends FlowRoutingInterceptor implements MethodInterceptor {
 	
+	private volatile boolean unshadowedWarned;
 
 	public DefaultFlowRoutingInterceptor(Class wrappedInterfaceClass) {
 		super(wrappedInterfaceClass);
@@ -19,13 +38,202 @@ public class DefaultFlowRoutingInterceptor extends FlowRoutingInterceptor implem
 	
 	@Override
 	public Object invoke(MethodInvocation invocation) throws Throwable {
-		Method method = invocation.getMethod();
-		var parameterTypes = invocation.getMethod().getParameterTypes();
-		Method targetMethod = wrappedInterfaceClass.getMethod(method.getName(), parameterTypes);
-		targetMethod.setAccessible(true);
-		Object beanDelegate = findDelegate(targetMethod, invocation );
-		return targetMethod.invoke(beanDelegate, invocation.getArguments());
+		return invoke(getDispatch(invocation.getMethod()), invocation);
 	}
 	
+	/**
+	 * Entry point for build time generated proxies (see RoutedInterfaceProxy), no AOP chain nor method lookup involved.
+	 * Evaluators receive a MethodInvocation, so each call allocates one RoutedMethodInvocation as the AOP path allocates its own invocation
+	 * (three fields, user attributes are only created when an evaluator stores per call state).
+	 * @param methodIndex obtained once from getMethodIndex
+	 * @param proxy
+	 * @param arguments
+	 * @return
+	 * @throws Throwable
+	 */
+	public Object route(int methodIndex, Object proxy, Object[] arguments) throws Throwable {
+		RoutedMethodDispatch dispatch = dispatches()[methodIndex];
+		return invoke(dispatch, new RoutedMethodInvocation(dispatch.getMethod(), arguments, proxy));
+	}
+	
+	protected Object invoke(RoutedMethodDispatch dispatch, MethodInvocation invocation) throws Throwable {
+		switch (dispatch.getReturnKind()) {
+			case COMPLETION_STAGE:
+				return selectRouteAsync(dispatch, invocation).thenCompose(route-> invokeStage(route, invocation.getArguments()));
+			case MONO:
+				return ReactiveRoutingSupport.mono(this, dispatch, invocation);
+			case FLUX:
+				return ReactiveRoutingSupport.flux(this, dispatch, invocation);
+			default:
+				if(dispatch.getBatchPartitioner() != null) {
+					return invokeBatch(dispatch, invocation);
+				}
+				RoutedMethodDefinition route = selectRoute(dispatch, invocation);
+				if(dispatch.getShadows() != null) {
+					return invokeShadowed(dispatch, route, invocation.getArguments());
+				}
+				return route.invoke(invocation.getArguments());
+		}
+	}
+	
+	/**
+	 * Route every @RoutedBatch element, then call each selected delegate with its sub-batch.
+	 * Sub-batches run in parallel on evaluationExecutor (the first one on the calling thread) and the results are merged in the original order.
+	 */
+	protected Object invokeBatch(RoutedMethodDispatch dispatch, MethodInvocation invocation) throws Throwable {
+		BatchPartitioner partitioner = dispatch.getBatchPartitioner();
+		RoutedMethodDefinition[] candidates = dispatch.getCandidates();
+		Object[] arguments = invocation.getArguments();
+		List<Object> elements = partitioner.elements(arguments);
+		if(elements.isEmpty()) {
+			return dispatch.getDefaultCandidate().invoke(arguments);
+		}
+		int[] selected = new int[elements.size()];
+		int[] counts = new int[candidates.length];
+		for(int i=0;i<elements.size();i++) {
+			Object[] elementArguments = partitioner.replace(arguments, elements.get(i));
+			selected[i] = selectRouteIndex(dispatch, new RoutedMethodInvocation(dispatch.getMethod(), elementArguments, invocation.getThis()));
+			if(++counts[selected[i]] == elements.size()) { //Whole batch to the same delegate
+				return candidates[selected[i]].invoke(arguments);
+			}
+		}
+		List<int[]> positions = new ArrayList<>();
+		List<Callable<Object>> subBatches = new ArrayList<>();
+		for(int candidate=0;candidate<candidates.length;candidate++) {
+			if(counts[candidate] == 0) {
+				continue;
+			}
+			int[] subBatchPositions = new int[counts[candidate]];
+			List<Object> subBatch = new ArrayList<>(counts[candidate]);
+			for(int i=0;i<selected.length;i++) {
+				if(selected[i] == candidate) {
+					subBatchPositions[subBatch.size()] = i;
+					subBatch.add(elements.get(i));
+				}
+			}
+			positions.add(subBatchPositions);
+			subBatches.add(call(candidates[candidate], partitioner.replace(arguments, subBatch)));
+		}
+		AsyncTaskExecutor executor = evaluationExecutor();
+		List<Future<Object>> futures = new ArrayList<>(subBatches.size());
+		List<Object> results = new ArrayList<>(subBatches.size());
+		try {
+			for(int i=1;i<subBatches.size();i++) {
+				futures.add(executor.submit(subBatches.get(i)));
+			}
+			results.add(subBatches.get(0).call());
+			for(Future<Object> future: futures) {
+				results.add(future.get());
+			}
+		}catch (ExecutionException e) {
+			throw e.getCause();
+		}catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FlowedRoutingEvaluationException("Interrupted while waiting for the sub-batches of "+dispatch.getMethod(), e);
+		}finally {
+			for(Future<Object> future: futures) {
+				future.cancel(true);
+			}
+		}
+		return partitioner.merge(elements.size(), positions, results);
+	}
+	
+	/**
+	 * Call the routed delegate, then replay the call to the sampled @FlowShadow delegates on the shadow executor.
+	 * Only the sampled calls are timed, shadow failures and dropped calls never reach the caller.
+	 * Without shadow executor only the routed delegate is called.
+	 */
+	protected Object invokeShadowed(RoutedMethodDispatch dispatch, RoutedMethodDefinition route, Object[] arguments) throws Throwable {
+		ShadowExecutor executor = shadowExecutor;
+		if(executor == null) {
+			if(!unshadowedWarned) {
+				unshadowedWarned = true;
+				log.warn("@FlowShadow delegates of {} are not called, no ShadowExecutor is set", wrappedInterfaceClass.getName());
+			}
+			return route.invoke(arguments);
+		}
+		RoutedMethodDefinition[] shadows = dispatch.getShadows();
+		boolean[] sampled = null;
+		for(int i=0;i<shadows.length;i++) {
+			if(ThreadLocalRandom.current().nextDouble(100) < shadows[i].getShadow().percentage()) {
+				if(sampled == null) {
+					sampled = new boolean[shadows.length];
+				}
+				sampled[i] = true;
+			}
+		}
+		if(sampled == null) {
+			return route.invoke(arguments);
+		}
+		Object result = null;
+		Throwable error = null;
+		long start = System.nanoTime();
+		try {
+			result = route.invoke(arguments);
+		}catch (Throwable e) {
+			error = e;
+		}
+		long routedNanos = System.nanoTime() - start;
+		RoutingObserver observer = routingObserver;
+		for(int i=0;i<shadows.length;i++) {
+			if(sampled[i] && !executor.trySubmit(shadowCall(observer, dispatch, i, route, arguments.clone(), result, error, routedNanos))) {
+				observer.onShadowDropped(dispatch, i);
+			}
+		}
+		if(error != null) {
+			throw error;
+		}
+		return result;
+	}
+	
+	private static Runnable shadowCall(RoutingObserver observer, RoutedMethodDispatch dispatch, int shadowIndex, RoutedMethodDefinition route, Object[] arguments,
+			Object routedResult, Throwable routedError, long routedNanos) {
+		return () -> {
+			RoutedMethodDefinition shadow = dispatch.getShadows()[shadowIndex];
+			Object shadowResult = null;
+			Throwable shadowError = null;
+			long start = System.nanoTime();
+			try {
+				shadowResult = shadow.invoke(arguments);
+			}catch (Throwable e) {
+				shadowError = e;
+			}
+			long shadowNanos = System.nanoTime() - start;
+			try {
+				ShadowResult.Outcome outcome = ShadowResult.compare(routedResult, routedError, shadowResult, shadowError);
+				if(outcome == ShadowResult.Outcome.MISMATCH) {
+					log.debug("Shadow {} result differs from {} at {}", shadow.getBean().getClass().getName(), route.getBean().getClass().getName(), dispatch.getMethod());
+				}
+				observer.onShadowResult(dispatch, shadowIndex, new ShadowResult(route, shadow, routedNanos, shadowNanos, outcome, shadowError));
+			}catch (RuntimeException e) { //Result equals or observer failures stay in the shadow thread
+				log.warn("Error while comparing the shadow result of {}", dispatch.getMethod(), e);
+			}
+		};
+	}
+	
+	private static Callable<Object> call(RoutedMethodDefinition route, Object[] arguments) {
+		return () -> {
+			try {
+				return route.invoke(arguments);
+			}catch (Exception | Error e) {
+				throw e;
+			}catch (Throwable e) {
+				throw new UndeclaredThrowableException(e);
+			}
+		};
+	}
+	
+	/**
+	 * Delegate call of a CompletionStage routed method, thrown exceptions complete the stage
+	 */
+	@SuppressWarnings("unchecked")
+	private static CompletionStage<Object> invokeStage(RoutedMethodDefinition route, Object[] arguments) {
+		try {
+			CompletionStage<Object> result = (CompletionStage<Object>) route.invoke(arguments);
+			return result == null ? CompletableFuture.completedFuture(null) : result;
+		}catch (Throwable e) {
+			return CompletableFuture.failedFuture(e instanceof CompletionException ? e : new CompletionException(e));
+		}
+	}
 	
 }
@@ -1,24 +1,48 @@
 package io.github.danipenaperez.lib.flowedrouting.interceptor;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
+import io.github.danipenaperez.lib.flowedrouting.annotation.FlowBalanced;
+import io.github.danipenaperez.lib.flowedrouting.annotation.FlowShadow;
 import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.balance.LoadBalancer;
+import io.github.danipenaperez.lib.flowedrouting.batch.BatchPartitioner;
+import io.github.danipenaperez.lib.flowedrouting.cache.RoutingDecisionCache;
 import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
 import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutingTable;
 import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
 import io.github.danipenaperez.lib.flowedrouting.evaluator.annotation.EvaluatorType;
+import io.github.danipenaperez.lib.flowedrouting.exception.EvaluatorUnavailableException;
 import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+import io.github.danipenaperez.lib.flowedrouting.memo.ConditionMemoStore;
+import io.github.danipenaperez.lib.flowedrouting.observer.RoutingObserver;
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedInterfaceProxy;
+import io.github.danipenaperez.lib.flowedrouting.rules.RoutingRule;
+import io.github.danipenaperez.lib.flowedrouting.shadow.ShadowExecutor;
 import io.github.danipenaperez.lib.flowedrouting.utils.TypeUtils;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -33,65 +57,359 @@ import lombok.extern.slf4j.Slf4j;
 public abstract class FlowRoutingInterceptor {
 
 	protected Class wrappedInterfaceClass ;
-	protected List<Object> delegatedImplementations = new ArrayList<>();
-	protected Map<String,Evaluator> evaluatorImplementations = new HashMap<>();
+	/**
+	 * Copy-on-write (immutable, replaced under the interceptor lock), only read while building routing tables
+	 */
+	protected volatile List<Object> delegatedImplementations = List.of();
+	protected volatile Map<String,Evaluator> evaluatorImplementations = Map.of();
 	
-	Map<String, List<RoutedMethodDefinition>> delegatedMethodsTree = new HashMap<>();
+	/**
+	 * Routed interface methods sorted by signature, the position is the index at the routing table dispatches
+	 */
+	protected Method[] routedMethods;
+	protected Map<Method, Integer> routedMethodIndexes = new HashMap<>();
+	/**
+	 * Current routing state, replaced as a whole on refresh and on rule reloads (never modified in place)
+	 */
+	protected volatile RoutingTable routingTable;
+	/**
+	 * External rules applied on top of the annotations (see RoutingRule)
+	 */
+	protected volatile List<RoutingRule> routingRules = List.of();
+	/**
+	 * Routing decisions listener, NOOP does not measure evaluations
+	 */
+	protected volatile RoutingObserver routingObserver = RoutingObserver.NOOP;
+	/**
+	 * Request scoped condition results, NONE evaluates every condition
+	 */
+	protected volatile ConditionMemoStore conditionMemoStore = ConditionMemoStore.NONE;
+	/**
+	 * @RoutedInterface(parallelEvaluation = true)
+	 */
+	protected boolean parallelEvaluation;
+	/**
+	 * @RoutedInterface(adaptiveOrdering = true), reorder checked about every adaptiveOrderingWindow decisions of a method
+	 */
+	protected boolean adaptiveOrdering;
+	protected int adaptiveOrderingWindow = 10000;
+	protected volatile AsyncTaskExecutor evaluationExecutor;
+	/**
+	 * Runs the @FlowShadow calls, shared by every interceptor of the application
+	 */
+	protected volatile ShadowExecutor shadowExecutor;
 	
 	public FlowRoutingInterceptor(Class wrappedInterfaceClass) {
 		this.wrappedInterfaceClass=wrappedInterfaceClass;
+		this.routedMethods = Arrays.stream(wrappedInterfaceClass.getDeclaredMethods())
+				.filter(method-> !Modifier.isStatic(method.getModifiers()) && !Modifier.isPrivate(method.getModifiers()))
+				.sorted(Comparator.comparing(Method::toString))
+				.toArray(Method[]::new);
+		for(int i=0;i<routedMethods.length;i++) {
+			routedMethodIndexes.put(routedMethods[i], i);
+		}
+		RoutedInterface routedInterface = (RoutedInterface) wrappedInterfaceClass.getAnnotation(RoutedInterface.class);
+		this.parallelEvaluation = routedInterface != null && routedInterface.parallelEvaluation();
+		this.adaptiveOrdering = routedInterface != null && routedInterface.adaptiveOrdering() && !parallelEvaluation;
 	}
 	
-	public void addDelegates(Collection<Object> delegates) throws FlowedRoutingConfigurationException{
+	/**
+	 * Add the delegates not already registered (same instance) and rebuild the routing table.
+	 * Routing proxies (the routed interface bean itself) are ignored, other proxies are not routed and logged.
+	 * @param delegates
+	 * @throws FlowedRoutingConfigurationException if a delegate is not a @RoutedComponent of the interface or the resulting candidates are not valid, the delegates are not added then
+	 */
+	public synchronized void addDelegates(Collection<Object> delegates) throws FlowedRoutingConfigurationException{
+		List<Object> updated = new ArrayList<>(delegatedImplementations);
 		for(Object delegate: delegates) {
-			if(!TypeUtils.isProxy(delegate)) {
-				delegatedImplementations.add(delegate);
+			if(isRoutingProxy(delegate)) {
+				continue;
+			}
+			if(TypeUtils.isProxy(delegate)) {
+				log.warn("[{}] is a proxy of {}, it is not routed", delegate.getClass().getName(), wrappedInterfaceClass.getName());
+				continue;
+			}
+			if(!wrappedInterfaceClass.isInstance(delegate) || delegate.getClass().getAnnotation(RoutedComponent.class) == null) {
+				throw new FlowedRoutingConfigurationException(String.format("[%s] is not a @RoutedComponent of %s", delegate.getClass().getName(), wrappedInterfaceClass.getName()));
+			}
+			if(updated.stream().noneMatch(registered-> registered == delegate)) {
+				updated.add(delegate);
 			}
 		}
-		refresh();
+		update(updated, evaluatorImplementations, true);
+	}
+	
+	private boolean isRoutingProxy(Object delegate) {
+		return delegate instanceof RoutedInterfaceProxy
+				|| (delegate instanceof Advised advised && Arrays.stream(advised.getAdvisors()).anyMatch(advisor-> advisor.getAdvice() instanceof FlowRoutingInterceptor));
+	}
+	
+	/**
+	 * Runtime registration of a @RoutedComponent (plugins, child contexts...), see addDelegates
+	 * @param delegate
+	 * @throws FlowedRoutingConfigurationException
+	 */
+	public void registerDelegate(Object delegate) throws FlowedRoutingConfigurationException {
+		addDelegates(List.of(delegate));
+	}
+	
+	/**
+	 * Remove the delegate (same instance) and rebuild the routing table, calls in flight may still reach it
+	 * @param delegate
+	 * @return false if the delegate was not registered
+	 * @throws FlowedRoutingConfigurationException if the remaining candidates are not valid (last default one), the delegate is kept then
+	 */
+	public synchronized boolean unregisterDelegate(Object delegate) throws FlowedRoutingConfigurationException {
+		List<Object> updated = delegatedImplementations.stream().filter(registered-> registered != delegate).toList();
+		if(updated.size() == delegatedImplementations.size()) {
+			return false;
+		}
+		update(updated, evaluatorImplementations, true);
+		return true;
 	}
 	
 	public void registerEvaluator(Evaluator evaluator) {
-		evaluatorImplementations.put(evaluator.getClass().getAnnotation(EvaluatorType.class).value(), evaluator);
+		registerEvaluator(evaluator.getClass().getAnnotation(EvaluatorType.class).value(), evaluator);
 	}
 	
+	/**
+	 * Register an evaluator for the FlowConditionType value, used for decorated evaluators (see GuardedEvaluator).
+	 * Once routing, the table is rebuilt so candidates use the new evaluator.
+	 * @param evaluatorType
+	 * @param evaluator
+	 * @throws IllegalArgumentException if the candidates can not be prepared with the evaluator, the previous one is kept then
+	 */
+	public void registerEvaluator(String evaluatorType, Evaluator evaluator) {
+		registerEvaluators(Map.of(evaluatorType, evaluator));
+	}
 	
-	protected void refresh() throws FlowedRoutingConfigurationException{
-		
+	/**
+	 * Register several evaluators with a single copy of the registrations (and a single table rebuild once routing)
+	 * @param evaluators by FlowConditionType value
+	 * @throws IllegalArgumentException if the candidates can not be prepared with them, the previous ones are kept then
+	 */
+	public synchronized void registerEvaluators(Map<String, Evaluator> evaluators) {
+		Map<String, Evaluator> updated = new HashMap<>(evaluatorImplementations);
+		updated.putAll(evaluators);
+		try {
+			update(delegatedImplementations, updated, routingTable != null);
+		}catch (FlowedRoutingConfigurationException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * @param evaluatorType
+	 * @return false if no evaluator was registered for the type
+	 * @throws FlowedRoutingConfigurationException if candidates still declare the type, the evaluator is kept then
+	 */
+	public synchronized boolean unregisterEvaluator(String evaluatorType) throws FlowedRoutingConfigurationException {
+		if(!evaluatorImplementations.containsKey(evaluatorType)) {
+			return false;
+		}
+		RoutingTable table = routingTable;
+		if(table != null) {
+			for(RoutedMethodDispatch dispatch: table.getDispatches()) {
+				for(RoutedMethodDefinition candidate: dispatch.getCandidates()) {
+					if(!candidate.isDefault() && candidate.getFlowCondition().value().equals(evaluatorType)) {
+						throw new FlowedRoutingConfigurationException(String.format("Evaluator [%s] is still used by [%s]", evaluatorType, candidate.getMethod()));
+					}
+				}
+			}
+		}
+		Map<String, Evaluator> updated = new HashMap<>(evaluatorImplementations);
+		updated.remove(evaluatorType);
+		update(delegatedImplementations, updated, routingTable != null);
+		return true;
+	}
+	
+	/**
+	 * Replace the registrations and publish a table built from them, restoring the previous ones if it can not be built
+	 */
+	private void update(List<Object> delegates, Map<String, Evaluator> evaluators, boolean refresh) throws FlowedRoutingConfigurationException {
+		List<Object> previousDelegates = delegatedImplementations;
+		Map<String, Evaluator> previousEvaluators = evaluatorImplementations;
+		delegatedImplementations = List.copyOf(delegates);
+		evaluatorImplementations = Map.copyOf(evaluators);
+		if(!refresh) {
+			return;
+		}
+		try {
+			refresh();
+		}catch (FlowedRoutingConfigurationException | RuntimeException e) {
+			delegatedImplementations = previousDelegates;
+			evaluatorImplementations = previousEvaluators;
+			throw e;
+		}
+	}
+	
+	public void setConditionMemoStore(ConditionMemoStore conditionMemoStore) {
+		this.conditionMemoStore = conditionMemoStore == null ? ConditionMemoStore.NONE : conditionMemoStore;
+	}
+	
+	/**
+	 * @param evaluationExecutor runs the conditions of parallelEvaluation interfaces and the @RoutedBatch sub-batches, a virtual thread per task executor when not set
+	 */
+	public void setEvaluationExecutor(AsyncTaskExecutor evaluationExecutor) {
+		this.evaluationExecutor = evaluationExecutor;
+	}
+	
+	/**
+	 * @param adaptiveOrderingWindow decisions of a method between candidate reorder checks, applied on the next refresh
+	 */
+	public void setAdaptiveOrderingWindow(int adaptiveOrderingWindow) {
+		if(adaptiveOrderingWindow < 1) {
+			throw new IllegalArgumentException("Adaptive ordering window must be positive : "+adaptiveOrderingWindow);
+		}
+		this.adaptiveOrderingWindow = adaptiveOrderingWindow;
+	}
+	
+	/**
+	 * @param shadowExecutor runs the @FlowShadow calls, they are not made when not set
+	 */
+	public void setShadowExecutor(ShadowExecutor shadowExecutor) {
+		this.shadowExecutor = shadowExecutor;
+	}
+	
+	public void setRoutingObserver(RoutingObserver routingObserver) {
+		this.routingObserver = routingObserver == null ? RoutingObserver.NOOP : routingObserver;
+		RoutingTable table = routingTable;
+		if(table != null) {
+			this.routingObserver.onDispatchTable(wrappedInterfaceClass, table.getDispatches());
+		}
+	}
+	
+	/**
+	 * Rules used by the next refresh, does not rebuild the routing table (see applyRoutingRules)
+	 * @param routingRules rules of any interface, the ones of other interfaces are ignored
+	 */
+	public void setRoutingRules(List<RoutingRule> routingRules) {
+		this.routingRules = routingRules == null ? List.of() : List.copyOf(routingRules);
+	}
+	
+	/**
+	 * Rebuild the routing table with the given rules and publish it, the current table is kept if the rules are not valid
+	 * @param routingRules rules of any interface, the ones of other interfaces are ignored
+	 * @throws FlowedRoutingConfigurationException
+	 */
+	public synchronized void applyRoutingRules(List<RoutingRule> routingRules) throws FlowedRoutingConfigurationException {
+		publish(buildRoutingTable(routingRules));
+	}
+	
+	/**
+	 * @return the routed method entries of the current routing table, null before the first refresh
+	 */
+	public RoutedMethodDispatch[] getDispatchTable() {
+		RoutingTable table = routingTable;
+		return table == null ? null : table.getDispatches();
+	}
+	
+	
+	protected synchronized void refresh() throws FlowedRoutingConfigurationException{
+		publish(buildRoutingTable(routingRules));
+	}
+	
+	/**
+	 * Make the table visible to new invocations, calls in flight finish with the table they read
+	 * @param table built by this interceptor
+	 */
+	public synchronized void publish(RoutingTable table) {
+		if(table.getRoutedInterface() != wrappedInterfaceClass) {
+			throw new IllegalArgumentException(String.format("Routing table of %s can not be published at the %s interceptor", table.getRoutedInterface().getName(), wrappedInterfaceClass.getName()));
+		}
+		this.routingRules = table.getRules();
+		this.routingTable = table;
+		routingObserver.onDispatchTable(wrappedInterfaceClass, table.getDispatches());
+	}
+	
+	/**
+	 * Assemble, validate and prepare a new routing table from the delegates, their annotations and the rules.
+	 * Does not modify the current table, so it can run while routing (see publish).
+	 * @param routingRules rules of any interface, the ones of other interfaces are ignored
+	 * @return
+	 * @throws FlowedRoutingConfigurationException if a rule or the resulting candidates are not valid
+	 */
+	public synchronized RoutingTable buildRoutingTable(List<RoutingRule> routingRules) throws FlowedRoutingConfigurationException {
+		List<RoutingRule> rules = routingRules.stream().filter(rule-> rule.appliesTo(wrappedInterfaceClass)).toList();
+		for(RoutingRule rule: rules) {
+			if(delegatedImplementations.stream().noneMatch(delegate-> Arrays.stream(routedMethods).anyMatch(method-> rule.appliesTo(delegate.getClass(), method)))) {
+				throw new FlowedRoutingConfigurationException(String.format("Routing rule %s does not match any @RoutedComponent method of %s", rule, wrappedInterfaceClass.getName()));
+			}
+		}
+		Map<String, List<RoutedMethodDefinition>> delegatedMethodsTree = new HashMap<>();
+		Map<String, List<RoutedMethodDefinition>> shadowMethodsTree = new HashMap<>();
 		for(Object delegate: delegatedImplementations){
-			var targetMethodsDefinition = wrappedInterfaceClass.getDeclaredMethods();	
+			var targetMethodsDefinition = routedMethods;
 			for(Method targetInterfaceMethodDefinition: targetMethodsDefinition) {
+				RoutingRule rule = null;
+				FlowShadow shadow = null;
 				try {
 					//InspectMethod delegate.getClass()
 					String methodKey = targetInterfaceMethodDefinition.toString();
-					List<RoutedMethodDefinition> candidateExecutions = delegatedMethodsTree.get(methodKey);
-					if(candidateExecutions == null) {
-						candidateExecutions = new ArrayList<>();
-						delegatedMethodsTree.put(methodKey, candidateExecutions);
-					}
+					List<RoutedMethodDefinition> candidateExecutions = delegatedMethodsTree.computeIfAbsent(methodKey, key-> new ArrayList<>());
 					
 					//Method
 					Method beanMethodDefinition = delegate.getClass().getMethod(targetInterfaceMethodDefinition.getName(), targetInterfaceMethodDefinition.getParameterTypes());
 					boolean isDefault = delegate.getClass().getAnnotation(RoutedComponent.class).isDefaultRouting();
 					Object bean = delegate;
+					//Shadow delegates are never routing candidates
+					shadow = beanMethodDefinition.isAnnotationPresent(FlowShadow.class) ? beanMethodDefinition.getAnnotation(FlowShadow.class) : delegate.getClass().getAnnotation(FlowShadow.class);
+					if(shadow != null) {
+						if(isDefault) {
+							throw new FlowedRoutingConfigurationException(String.format("[%s] isDefaultRouting can not be a @FlowShadow", delegate.getClass().getName()));
+						}
+						RoutedMethodDefinition shadowDefinition = new RoutedMethodDefinition(beanMethodDefinition, null, bean, false);
+						shadowDefinition.setShadow(shadow);
+						shadowMethodsTree.computeIfAbsent(methodKey, key-> new ArrayList<>()).add(shadowDefinition);
+						continue;
+					}
+					FlowBalanced balanced = beanMethodDefinition.isAnnotationPresent(FlowBalanced.class) ? beanMethodDefinition.getAnnotation(FlowBalanced.class) : delegate.getClass().getAnnotation(FlowBalanced.class);
 					FlowConditionType fc = null; //Default RoutedComponent all method does not need flow condition
 					if(! isDefault) { //Must check internal method annnotations
+						rule = routingRule(rules, delegate.getClass(), targetInterfaceMethodDefinition);
+						if(rule != null && !rule.isEnabled()) {
+							continue;
+						}
 						//Flow Condition
-						fc = beanMethodDefinition.getAnnotation(FlowConditionType.class);
-						if(evaluatorImplementations.get(fc.value()) == null) {
+						fc = rule == null ? beanMethodDefinition.getAnnotation(FlowConditionType.class) : rule.conditionType(beanMethodDefinition.getAnnotation(FlowConditionType.class));
+						if(fc == null && balanced == null) { //Balanced members can take the condition of their group, routing rules can add one later
+							log.warn("[{}] does not declare FlowConditionType, it is not routed", beanMethodDefinition);
+							continue;
+						}
+						if(fc != null && evaluatorImplementations.get(fc.value()) == null) {
 							throw new FlowedRoutingConfigurationException(String.format("[%s] declares FlowConditionType = [%s] , but not found any Evaluator of this type at Spring Context", delegate.getClass().getName(), fc.value()));
-						}	
+						}
+					}
+
+					RoutedMethodDefinition routedMethodDefinition = new RoutedMethodDefinition(beanMethodDefinition, fc,bean,isDefault);
+					routedMethodDefinition.setBalanced(balanced);
+					if(rule != null && !rule.getCondition().isEmpty()) {
+						routedMethodDefinition.setConditionAttributes(Map.copyOf(rule.getCondition()));
+					}
+					if(! isDefault && fc != null) { //Let the evaluator precompute the condition once
+						evaluatorImplementations.get(fc.value()).prepare(routedMethodDefinition);
 					}
-					
 					//Validated and store for usages
-					candidateExecutions.add(new RoutedMethodDefinition(beanMethodDefinition, fc,bean,isDefault));
+					candidateExecutions.add(routedMethodDefinition);
 					
 				}catch (Exception e) {
-					log.error("Error while assembling delegatedMethod Tree Map", e);
+					if(rule != null) { //Invalid rules are rejected, annotation errors keep the previous behaviour
+						throw new FlowedRoutingConfigurationException(String.format("Routing rule %s is not valid for [%s] : %s", rule, targetInterfaceMethodDefinition, e.getMessage()));
+					}
+					if(shadow != null) {
+						throw new FlowedRoutingConfigurationException(String.format("@FlowShadow %s is not valid for [%s] : %s", delegate.getClass().getName(), targetInterfaceMethodDefinition, e.getMessage()));
+					}
+					if(e instanceof FlowedRoutingConfigurationException configurationException) { //Invalid conditions fail the refresh, never route to the default silently
+						throw configurationException;
+					}
+					throw new FlowedRoutingConfigurationException(String.format("[%s] can not be routed for [%s] : %s", delegate.getClass().getName(), targetInterfaceMethodDefinition, e));
 				}
 			}
 		}
 		
+		for(Entry<String, List<RoutedMethodDefinition>> delegatedMethodImplementations: delegatedMethodsTree.entrySet()) {
+			delegatedMethodImplementations.setValue(groupBalanced(delegatedMethodImplementations.getKey(), delegatedMethodImplementations.getValue()));
+		}
 		//Ensure exactly one default delegated Method
 		for(Entry<String, List<RoutedMethodDefinition>> delegatedMethodImplementations: delegatedMethodsTree.entrySet()) {
 			if(delegatedMethodImplementations.getValue().stream().filter(routedMethodDefinition-> routedMethodDefinition.isDefault()).count() != 1) {
@@ -106,28 +424,300 @@ public abstract class FlowRoutingInterceptor {
 			});
 		}
 		
+		return new RoutingTable(wrappedInterfaceClass, buildDispatchTable(delegatedMethodsTree, shadowMethodsTree), rules);
 	}
 	
+	/**
+	 * Replace the members of each @FlowBalanced group by a single candidate: the default member, or the first one with a condition.
+	 * Its LoadBalancer calls every member, the conditions of the other members are not evaluated.
+	 * @param methodKey
+	 * @param candidates of one routed method
+	 * @return
+	 * @throws FlowedRoutingConfigurationException if a group has no default member nor member with condition
+	 */
+	private List<RoutedMethodDefinition> groupBalanced(String methodKey, List<RoutedMethodDefinition> candidates) throws FlowedRoutingConfigurationException {
+		Map<String, List<RoutedMethodDefinition>> groups = new LinkedHashMap<>();
+		for(RoutedMethodDefinition candidate: candidates) {
+			if(candidate.getBalanced() != null) {
+				groups.computeIfAbsent(candidate.getBalanced().value(), group-> new ArrayList<>()).add(candidate);
+			}
+		}
+		if(groups.isEmpty()) {
+			return candidates;
+		}
+		for(Entry<String, List<RoutedMethodDefinition>> group: groups.entrySet()) {
+			List<RoutedMethodDefinition> members = group.getValue();
+			RoutedMethodDefinition routed = members.stream().filter(RoutedMethodDefinition::isDefault).findFirst()
+					.orElseGet(() -> members.stream().filter(member-> member.getFlowCondition() != null).findFirst().orElse(null));
+			if(routed == null) {
+				throw new FlowedRoutingConfigurationException(String.format("@FlowBalanced group [%s] of method %s needs a default member or a member with FlowConditionType", group.getKey(), methodKey));
+			}
+			for(RoutedMethodDefinition member: members) {
+				if(member != routed && member.getFlowCondition() != null) {
+					log.warn("{} condition is ignored, it is routed with the @FlowBalanced group [{}] of {}", member.getMethod(), group.getKey(), routed.getBean().getClass().getName());
+				}
+			}
+			FlowBalanced balanced = members.get(0).getBalanced();
+			routed.setBalancer(new LoadBalancer(balanced.strategy(), balanced.decayMillis(), members.toArray(RoutedMethodDefinition[]::new)));
+		}
+		return candidates.stream().filter(candidate-> candidate.getBalanced() == null || candidate.getBalancer() != null).collect(Collectors.toCollection(ArrayList::new));
+	}
 	
-	protected Object findDelegate(Method method, MethodInvocation invocation) {
-		Object beanDelegateSelected = null;
-		List<RoutedMethodDefinition> methodImplementationCandidates = delegatedMethodsTree.get(method.toString());
-		Iterator<RoutedMethodDefinition> it =  methodImplementationCandidates.iterator();
-		while(beanDelegateSelected==null && it.hasNext()) {
-			RoutedMethodDefinition routedMethodDefinition = it.next();
-			
-			if(routedMethodDefinition.isDefault()) {
-				beanDelegateSelected = 	routedMethodDefinition.getBean();
+	/**
+	 * @return the last rule matching the candidate, null if none
+	 */
+	private static RoutingRule routingRule(List<RoutingRule> rules, Class<?> delegateClass, Method routedMethod) {
+		RoutingRule matching = null;
+		for(RoutingRule rule: rules) {
+			if(rule.appliesTo(delegateClass, routedMethod)) {
+				matching = rule;
+			}
+		}
+		return matching;
+	}
+	
+	/**
+	 * Resolve evaluators and bind a MethodHandle per candidate, so invocations only index an array
+	 * @param delegatedMethodsTree candidates by routed method signature, default one last
+	 * @throws FlowedRoutingConfigurationException
+	 */
+	protected RoutedMethodDispatch[] buildDispatchTable(Map<String, List<RoutedMethodDefinition>> delegatedMethodsTree) throws FlowedRoutingConfigurationException {
+		return buildDispatchTable(delegatedMethodsTree, Map.of());
+	}
+	
+	/**
+	 * @param delegatedMethodsTree candidates by routed method signature, default one last
+	 * @param shadowMethodsTree @FlowShadow delegates by routed method signature
+	 * @throws FlowedRoutingConfigurationException
+	 */
+	protected RoutedMethodDispatch[] buildDispatchTable(Map<String, List<RoutedMethodDefinition>> delegatedMethodsTree, Map<String, List<RoutedMethodDefinition>> shadowMethodsTree) throws FlowedRoutingConfigurationException {
+		RoutedMethodDispatch[] table = new RoutedMethodDispatch[routedMethods.length];
+		for(int i=0;i<routedMethods.length;i++) {
+			Method routedMethod = routedMethods[i];
+			List<RoutedMethodDefinition> candidates = delegatedMethodsTree.get(routedMethod.toString());
+			if(candidates == null || candidates.isEmpty()) {
+				throw new FlowedRoutingConfigurationException("Not found @RoutedComponent candidates for method "+ routedMethod);
+			}
+			Map<Evaluator, List<RoutedMethodDefinition>> candidatesByEvaluator = new LinkedHashMap<>();
+			for(RoutedMethodDefinition candidate: candidates) {
+				if(!candidate.isDefault()) {
+					candidate.setEvaluator(getEvaluator(candidate.getFlowCondition().value()));
+					candidatesByEvaluator.computeIfAbsent(candidate.getEvaluator(), evaluator-> new ArrayList<>()).add(candidate);
+				}
+				candidate.setInvoker(bindInvoker(routedMethod, candidate.getBean()));
+				candidate.setRoutedMethod(routedMethod);
+				if(candidate.getBalancer() != null) {
+					for(RoutedMethodDefinition member: candidate.getBalancer().getMembers()) {
+						member.setInvoker(bindInvoker(routedMethod, member.getBean()));
+					}
+				}
+			}
+			candidatesByEvaluator.forEach(Evaluator::prepareDispatch);
+			BatchPartitioner batchPartitioner = BatchPartitioner.forMethod(routedMethod);
+			List<RoutedMethodDefinition> shadows = shadowMethodsTree.getOrDefault(routedMethod.toString(), List.of());
+			if(!shadows.isEmpty() && (batchPartitioner != null || RoutedMethodDispatch.returnKind(routedMethod.getReturnType()) != RoutedMethodDispatch.ReturnKind.SYNC)) {
+				log.warn("@FlowShadow is only applied to synchronous non batch methods, {} will not be shadowed", routedMethod);
+				shadows = List.of();
+			}
+			for(RoutedMethodDefinition shadow: shadows) {
+				shadow.setInvoker(bindInvoker(routedMethod, shadow.getBean()));
+			}
+			table[i] = RoutedMethodDispatch.builder()
+					.index(i)
+					.method(routedMethod)
+					.candidates(candidates.toArray(RoutedMethodDefinition[]::new))
+					.decisionCache(RoutingDecisionCache.forMethod(routedMethod))
+					.batchPartitioner(batchPartitioner)
+					.shadows(shadows.toArray(RoutedMethodDefinition[]::new))
+					.adaptiveOrderingWindow(adaptiveOrdering ? adaptiveOrderingWindow : 0)
+					.build();
+		}
+		return table;
+	}
+	
+	private MethodHandle bindInvoker(Method routedMethod, Object bean) throws FlowedRoutingConfigurationException {
+		try {
+			routedMethod.setAccessible(true);
+			return MethodHandles.lookup().unreflect(routedMethod)
+					.bindTo(bean)
+					.asSpreader(Object[].class, routedMethod.getParameterCount())
+					.asType(MethodType.methodType(Object.class, Object[].class));
+		}catch (IllegalAccessException | RuntimeException e) {
+			throw new FlowedRoutingConfigurationException(String.format("Can not bind method [%s] to bean [%s] : %s", routedMethod, bean.getClass().getName(), e.getMessage()));
+		}
+	}
+	
+	/**
+	 * @param method routed interface method
+	 * @return position of the method at the dispatch table, stable for the interceptor lifetime
+	 * @throws IllegalArgumentException if the method is not routed by this interceptor
+	 */
+	public int getMethodIndex(Method method) {
+		Integer index = routedMethodIndexes.get(method);
+		if(index == null) {
+			throw new IllegalArgumentException(String.format("[%s] is not a routed method of %s", method, wrappedInterfaceClass.getName()));
+		}
+		return index;
+	}
+	
+	/**
+	 * @param method routed interface method
+	 * @return the resolved routing entry for the method
+	 * @throws NoSuchMethodException if the method is not routed by this interceptor
+	 */
+	protected RoutedMethodDispatch getDispatch(Method method) throws NoSuchMethodException {
+		Integer index = routedMethodIndexes.get(method);
+		if(index == null) {
+			throw new NoSuchMethodException(String.format("[%s] is not a routed method of %s", method, wrappedInterfaceClass.getName()));
+		}
+		return dispatches()[index];
+	}
+	
+	/**
+	 * @return dispatches of the published routing table
+	 * @throws IllegalStateException when called before the first table is published
+	 */
+	protected RoutedMethodDispatch[] dispatches() {
+		RoutingTable table = routingTable;
+		if(table == null) {
+			throw new IllegalStateException(String.format("%s is not routed yet, its routing table is published once the delegates are added (application started)", wrappedInterfaceClass.getName()));
+		}
+		return table.getDispatches();
+	}
+	
+	/**
+	 * Select the first candidate which condition is accepted, or the default one.
+	 * @CachedRouting methods look the decision up by key before evaluating.
+	 * @param dispatch
+	 * @param invocation
+	 * @return
+	 */
+	protected RoutedMethodDefinition selectRoute(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		return dispatch.getCandidates()[selectRouteIndex(dispatch, invocation)];
+	}
+	
+	/**
+	 * Same as selectRoute
+	 * @return position of the selected candidate at dispatch.getCandidates()
+	 */
+	protected int selectRouteIndex(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		try {
+			RoutingDecisionCache decisionCache = dispatch.getDecisionCache();
+			if(decisionCache == null) {
+				return evaluateRoute(dispatch, invocation);
+			}
+			Object key = decisionCache.resolveKey(invocation.getArguments());
+			int selected = decisionCache.get(key);
+			if(selected == RoutingDecisionCache.MISS) {
+				selected = evaluateRoute(dispatch, invocation);
+				decisionCache.put(key, selected);
+			}else {
+				routingObserver.onCachedDecision(dispatch, selected);
+			}
+			return selected;
+		}catch (EvaluatorUnavailableException e) { //Degraded decisions are not cached
+			log.debug("Routing {} to the default candidate : {}", dispatch.getMethod(), e.getMessage());
+			return dispatch.getCandidates().length-1;
+		}
+	}
+	
+	/**
+	 * Evaluate the candidates in order: units of the dispatch through RouteEvaluation,
+	 * parallelEvaluation interfaces through ParallelRouteSupport and adaptiveOrdering ones through AdaptiveRouteSupport
+	 * @param dispatch
+	 * @param invocation
+	 * @return position of the first accepted candidate, or the default one
+	 */
+	protected int evaluateRoute(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		RouteEvaluation evaluation = RouteEvaluation.start(this, dispatch, invocation, false);
+		int selected;
+		try {
+			if(parallelEvaluation && dispatch.getCandidates().length > 2) {
+				selected = ParallelRouteSupport.evaluateRoute(this, evaluation);
+			}else if(dispatch.getStatistics() != null) {
+				selected = AdaptiveRouteSupport.evaluateRoute(this, evaluation, dispatch.getStatistics());
 			}else {
-				Evaluator evaluator = getEvaluator(routedMethodDefinition.getFlowCondition().value());
-				boolean accepted = evaluator.evaluate(routedMethodDefinition, invocation);
-				if(accepted) {
-					beanDelegateSelected = routedMethodDefinition.getBean();  //Found
+				selected = evaluation.evaluateUnits();
+			}
+		}catch (RuntimeException | Error e) {
+			evaluation.fail(e);
+			throw e;
+		}
+		return evaluation.end(selected);
+	}
+	
+	/**
+	 * Publish the dispatch with its candidates in the order of lowest expected cost, if it is still current and the order changes
+	 * @param dispatch
+	 */
+	protected synchronized void reorder(RoutedMethodDispatch dispatch) {
+		RoutingTable table = routingTable;
+		if(table.getDispatches()[dispatch.getIndex()] != dispatch) { //Rebuilt meanwhile
+			return;
+		}
+		int[] order = dispatch.getStatistics().checkOrder();
+		if(order == null) {
+			return;
+		}
+		RoutedMethodDispatch[] dispatches = table.getDispatches().clone();
+		dispatches[dispatch.getIndex()] = dispatch.reorder(order);
+		log.debug("Candidates of {} reordered to {}", dispatch.getMethod(), Arrays.stream(dispatches[dispatch.getIndex()].getCandidates()).map(candidate-> candidate.getBean().getClass().getSimpleName()).toList());
+		publish(new RoutingTable(wrappedInterfaceClass, dispatches, table.getRules()));
+	}
+	
+	protected AsyncTaskExecutor evaluationExecutor() {
+		AsyncTaskExecutor executor = evaluationExecutor;
+		if(executor == null) {
+			synchronized (this) {
+				if(evaluationExecutor == null) {
+					SimpleAsyncTaskExecutor virtualThreadExecutor = new SimpleAsyncTaskExecutor("flowed-routing-");
+					virtualThreadExecutor.setVirtualThreads(true);
+					evaluationExecutor = virtualThreadExecutor;
 				}
+				executor = evaluationExecutor;
 			}
 		}
-
-		return beanDelegateSelected;
+		return executor;
+	}
+	
+	/**
+	 * Non blocking selectRoute, used by routed methods returning CompletableFuture or CompletionStage (see AsyncRouteSupport)
+	 * @param dispatch
+	 * @param invocation
+	 * @return completed with the selected candidate, EvaluatorUnavailableException completes with the default one
+	 */
+	protected CompletableFuture<RoutedMethodDefinition> selectRouteAsync(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		return AsyncRouteSupport.selectRoute(this, dispatch, invocation);
+	}
+	
+	/**
+	 * Async evaluateRoute: first accepted candidate in declared order, or the default one.
+	 * parallelEvaluation interfaces start every evaluation at once and cancel the pending ones after the decision.
+	 */
+	protected CompletableFuture<Integer> evaluateRouteAsync(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		return AsyncRouteSupport.evaluateRoute(this, dispatch, invocation);
+	}
+	
+	/**
+	 * @return hit/miss statistics of every @CachedRouting method
+	 */
+	public Map<Method, RoutingDecisionCache.Stats> getDecisionCacheStats() {
+		Map<Method, RoutingDecisionCache.Stats> stats = new LinkedHashMap<>();
+		RoutedMethodDispatch[] table = getDispatchTable();
+		if(table != null) {
+			for(RoutedMethodDispatch dispatch: table) {
+				if(dispatch.getDecisionCache() != null) {
+					stats.put(dispatch.getMethod(), dispatch.getDecisionCache().getStats());
+				}
+			}
+		}
+		return stats;
+	}
+	
+	
+	protected Object findDelegate(Method method, MethodInvocation invocation) {
+		Integer index = routedMethodIndexes.get(method);
+		return index == null ? null : selectRoute(dispatches()[index], invocation).getBean();
 	}
 	
 	
@@ -0,0 +1,138 @@
+package io.github.danipenaperez.lib.flowedrouting.interceptor;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import io.github.danipenaperez.lib.flowedrouting.evaluator.AsyncEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingEvaluationException;
+import io.github.danipenaperez.lib.flowedrouting.index.EqualityIndex;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.RouteEvaluation.Evaluation;
+
+/**
+ * @RoutedInterface(parallelEvaluation = true) decisions.
+ * EqualityIndex runs are looked up first, so their candidates are never submitted, and the remaining conditions are evaluated
+ * at once on evaluationExecutor (the first one on the calling thread). Results are consumed in declared order, so a later
+ * accepted candidate waits for the previous ones; once a candidate is accepted the pending evaluations are cancelled.
+ */
+final class ParallelRouteSupport {
+
+	private ParallelRouteSupport() {
+	}
+
+	static int evaluateRoute(FlowRoutingInterceptor interceptor, RouteEvaluation evaluation) {
+		IndexedRoute route = resolveIndexes(evaluation);
+		int[] pending = route.pending();
+		@SuppressWarnings("unchecked")
+		Future<Evaluation>[] futures = new Future[pending.length];
+		try {
+			if(pending.length > 1) {
+				AsyncTaskExecutor executor = interceptor.evaluationExecutor();
+				for(int p=1;p<pending.length;p++) {
+					int index = pending[p];
+					futures[p] = executor.submit(() -> evaluation.evaluateCandidate(index));
+				}
+			}
+			for(int p=0;p<pending.length;p++) {
+				int index = pending[p];
+				if(evaluation.report(index, p == 0 ? evaluation.evaluateCandidate(index) : await(futures[p], evaluation, index))) {
+					return index;
+				}
+			}
+			return route.select(evaluation);
+		}finally {
+			for(Future<Evaluation> future: futures) {
+				if(future != null) {
+					future.cancel(true);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Non blocking evaluateRoute, AsyncEvaluator conditions are started on the calling thread
+	 */
+	static CompletableFuture<Integer> evaluateRouteAsync(FlowRoutingInterceptor interceptor, RouteEvaluation evaluation) {
+		IndexedRoute route;
+		try {
+			route = resolveIndexes(evaluation);
+		}catch (RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		int[] pending = route.pending();
+		AsyncTaskExecutor executor = interceptor.evaluationExecutor();
+		@SuppressWarnings("unchecked")
+		CompletableFuture<Evaluation>[] evaluations = new CompletableFuture[pending.length];
+		for(int p=0;p<pending.length;p++) {
+			int index = pending[p];
+			evaluations[p] = evaluation.candidate(index).getEvaluator() instanceof AsyncEvaluator || p == 0 ? evaluation.evaluateCandidateAsync(index)
+					: CompletableFuture.supplyAsync(() -> evaluation.evaluateCandidate(index), executor);
+		}
+		return evaluatePending(0, route, evaluations, evaluation)
+				.whenComplete((selected, error) -> Arrays.stream(evaluations).forEach(pendingEvaluation-> pendingEvaluation.cancel(true)));
+	}
+
+	private static CompletableFuture<Integer> evaluatePending(int p, IndexedRoute route, CompletableFuture<Evaluation>[] evaluations, RouteEvaluation evaluation) {
+		if(p == evaluations.length) {
+			return CompletableFuture.completedFuture(route.select(evaluation));
+		}
+		int index = route.pending()[p];
+		return evaluations[p].thenCompose(result-> evaluation.report(index, result) ? CompletableFuture.completedFuture(index) : evaluatePending(p+1, route, evaluations, evaluation));
+	}
+
+	/**
+	 * Look the EqualityIndex runs up in order, up to the first one that matches
+	 * @return the candidates still to be evaluated
+	 */
+	static IndexedRoute resolveIndexes(RouteEvaluation evaluation) {
+		int[] pending = new int[evaluation.defaultIndex()];
+		int count = 0;
+		for(int unit=0;unit<evaluation.defaultIndex();unit = evaluation.unitEnd(unit)) {
+			int match = evaluation.lookup(unit);
+			if(match >= 0) {
+				return new IndexedRoute(Arrays.copyOf(pending, count), match);
+			}
+			if(match == EqualityIndex.NOT_INDEXED) {
+				for(int i=unit, end=evaluation.unitEnd(unit);i<end;i++) {
+					pending[count++] = i;
+				}
+			}
+		}
+		return new IndexedRoute(count == pending.length ? pending : Arrays.copyOf(pending, count), evaluation.defaultIndex());
+	}
+
+	private static Evaluation await(Future<Evaluation> future, RouteEvaluation evaluation, int index) {
+		try {
+			return future.get();
+		}catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if(e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw new FlowedRoutingEvaluationException("Can not evaluate condition of "+evaluation.candidate(index).getMethod(), e.getCause());
+		}catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FlowedRoutingEvaluationException("Interrupted while evaluating condition of "+evaluation.candidate(index).getMethod(), e);
+		}
+	}
+
+	/**
+	 * Candidates of a parallel evaluation once its EqualityIndex runs are resolved
+	 * @param pending positions to evaluate, in declared order
+	 * @param fallback selected when none of them is accepted: the candidate matched by an index, or the default one
+	 */
+	record IndexedRoute(int[] pending, int fallback) {
+
+		/**
+		 * Select the fallback, reporting the index match that selected it
+		 */
+		int select(RouteEvaluation evaluation) {
+			return fallback < evaluation.defaultIndex() ? evaluation.reportLookup(fallback) : fallback;
+		}
+	}
+}
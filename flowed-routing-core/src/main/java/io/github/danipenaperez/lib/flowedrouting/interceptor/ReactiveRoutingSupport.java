@@ -0,0 +1,182 @@
+package io.github.danipenaperez.lib.flowedrouting.interceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+
+import io.github.danipenaperez.lib.flowedrouting.cache.RoutingDecisionCache;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.AsyncEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.ReactiveEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.exception.EvaluatorUnavailableException;
+import io.github.danipenaperez.lib.flowedrouting.index.EqualityIndex;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.ParallelRouteSupport.IndexedRoute;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.RouteEvaluation.Evaluation;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Mono/Flux routed methods, only loaded when one is declared (Reactor is optional).
+ * The decision is deferred to subscription time, as the delegate call would be, and is part of the returned publisher:
+ * ReactiveEvaluator conditions are subscribed with the subscriber Context and cancelled with it.
+ * Same decision as FlowRoutingInterceptor.selectRouteAsync (decision cache, RouteEvaluation units, parallelEvaluation).
+ */
+@Slf4j
+final class ReactiveRoutingSupport {
+
+	private ReactiveRoutingSupport() {
+	}
+
+	static Mono<Object> mono(FlowRoutingInterceptor interceptor, RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		return selectRoute(interceptor, dispatch, invocation)
+				.flatMap(route-> Mono.from(publisher(route, invocation.getArguments())));
+	}
+
+	static Flux<Object> flux(FlowRoutingInterceptor interceptor, RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		return selectRoute(interceptor, dispatch, invocation)
+				.flatMapMany(route-> Flux.from(publisher(route, invocation.getArguments())));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Publisher<Object> publisher(RoutedMethodDefinition route, Object[] arguments) {
+		try {
+			Publisher<Object> result = (Publisher<Object>) route.invoke(arguments);
+			return result == null ? Mono.empty() : result;
+		}catch (Throwable e) {
+			return Mono.error(e);
+		}
+	}
+
+	/**
+	 * @return the selected candidate, EvaluatorUnavailableException selects the default one
+	 */
+	private static Mono<RoutedMethodDefinition> selectRoute(FlowRoutingInterceptor interceptor, RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		return Mono.defer(() -> {
+			RoutingDecisionCache decisionCache = dispatch.getDecisionCache();
+			Object key = null;
+			if(decisionCache != null) {
+				key = decisionCache.resolveKey(invocation.getArguments());
+				int selected = decisionCache.get(key);
+				if(selected != RoutingDecisionCache.MISS) {
+					interceptor.routingObserver.onCachedDecision(dispatch, selected);
+					return Mono.just(dispatch.getCandidates()[selected]);
+				}
+			}
+			Object cacheKey = key;
+			return evaluateRoute(interceptor, dispatch, invocation)
+					.map(selected-> {
+						if(decisionCache != null) {
+							decisionCache.put(cacheKey, selected);
+						}
+						return dispatch.getCandidates()[selected];
+					})
+					.onErrorResume(EvaluatorUnavailableException.class, e-> { //Degraded decisions are not cached
+						log.debug("Routing {} to the default candidate : {}", dispatch.getMethod(), e.getMessage());
+						return Mono.just(dispatch.getDefaultCandidate());
+					});
+		});
+	}
+
+	private static Mono<Integer> evaluateRoute(FlowRoutingInterceptor interceptor, RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		RouteEvaluation evaluation = RouteEvaluation.start(interceptor, dispatch, invocation, true);
+		AtomicBoolean decided = new AtomicBoolean();
+		Mono<Integer> selection = Mono.defer(() -> interceptor.parallelEvaluation && dispatch.getCandidates().length > 2
+				? parallelEvaluateRoute(interceptor, evaluation)
+				: evaluateUnits(0, evaluation));
+		return selection
+				.doOnNext(selected-> {
+					decided.set(true);
+					evaluation.end(selected);
+				})
+				.doOnError(error-> {
+					decided.set(true);
+					evaluation.fail(error);
+				})
+				.doOnCancel(() -> {
+					if(!decided.get()) {
+						evaluation.fail(new CancellationException("Routed publisher cancelled before the decision"));
+					}
+				});
+	}
+
+	/**
+	 * RouteEvaluation.evaluateUnitsAsync as part of the publisher
+	 */
+	private static Mono<Integer> evaluateUnits(int from, RouteEvaluation evaluation) {
+		if(from == evaluation.defaultIndex()) {
+			return Mono.just(from);
+		}
+		int match = evaluation.lookup(from);
+		if(match >= 0) {
+			return Mono.just(evaluation.reportLookup(match));
+		}
+		if(match == EqualityIndex.NO_MATCH) {
+			return evaluateUnits(evaluation.unitEnd(from), evaluation);
+		}
+		return evaluateUnit(from, evaluation.unitEnd(from), evaluation)
+				.flatMap(selected-> selected != RouteEvaluation.REJECTED ? Mono.just(selected) : evaluateUnits(evaluation.unitEnd(from), evaluation));
+	}
+
+	private static Mono<Integer> evaluateUnit(int index, int end, RouteEvaluation evaluation) {
+		if(index == end) {
+			return Mono.just(RouteEvaluation.REJECTED);
+		}
+		return evaluateCandidate(index, evaluation).flatMap(result-> evaluation.report(index, result) ? Mono.just(index) : evaluateUnit(index+1, end, evaluation));
+	}
+
+	/**
+	 * ParallelRouteSupport as part of the publisher: the pending evaluations are subscribed at once (blocking evaluators on evaluationExecutor)
+	 * and consumed in declared order, an error only decides when every previous candidate was rejected
+	 * and the pending evaluations are cancelled once a candidate is accepted
+	 */
+	private static Mono<Integer> parallelEvaluateRoute(FlowRoutingInterceptor interceptor, RouteEvaluation evaluation) {
+		IndexedRoute route = ParallelRouteSupport.resolveIndexes(evaluation);
+		int[] pending = route.pending();
+		Scheduler scheduler = Schedulers.fromExecutor(interceptor.evaluationExecutor());
+		List<Mono<Signal<Evaluation>>> evaluations = new ArrayList<>(pending.length);
+		for(int p=0;p<pending.length;p++) {
+			Mono<Evaluation> result = evaluateCandidate(pending[p], evaluation);
+			evaluations.add((evaluation.candidate(pending[p]).getEvaluator() instanceof AsyncEvaluator || p == 0 ? result : result.subscribeOn(scheduler)).materialize());
+		}
+		return Flux.mergeSequential(evaluations)
+				.<Evaluation>dematerialize()
+				.index()
+				.filter(result-> evaluation.report(pending[result.getT1().intValue()], result.getT2()))
+				.next()
+				.map(result-> pending[result.getT1().intValue()])
+				.switchIfEmpty(Mono.fromSupplier(() -> route.select(evaluation)));
+	}
+
+	/**
+	 * ReactiveEvaluator conditions are part of the chain, other AsyncEvaluator ones are adapted and the rest run on subscription
+	 */
+	private static Mono<Evaluation> evaluateCandidate(int index, RouteEvaluation evaluation) {
+		return Mono.defer(() -> {
+			RoutedMethodDefinition candidate = evaluation.candidate(index);
+			Evaluator evaluator = candidate.getEvaluator();
+			if(!(evaluator instanceof AsyncEvaluator asyncEvaluator)) {
+				return Mono.just(evaluation.evaluateCandidate(index));
+			}
+			long start = evaluation.startTime();
+			Object key = evaluation.memoKey(index);
+			Boolean memoized = evaluation.memoized(key);
+			if(memoized != null) {
+				return Mono.just(evaluation.evaluated(key, memoized, start));
+			}
+			Mono<Boolean> result = evaluator instanceof ReactiveEvaluator reactiveEvaluator
+					? reactiveEvaluator.evaluateReactive(candidate, evaluation.invocation)
+					: Mono.fromCompletionStage(() -> asyncEvaluator.evaluateAsync(candidate, evaluation.invocation));
+			return result.defaultIfEmpty(Boolean.FALSE).map(accepted-> evaluation.evaluated(key, accepted, start));
+		});
+	}
+}
@@ -0,0 +1,262 @@
+package io.github.danipenaperez.lib.flowedrouting.interceptor;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.AsyncEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.exception.EvaluatorUnavailableException;
+import io.github.danipenaperez.lib.flowedrouting.index.EqualityIndex;
+import io.github.danipenaperez.lib.flowedrouting.observer.RoutingObserver;
+
+/**
+ * State of one routing decision, shared by every evaluation strategy (sequential, adaptive, parallel, async, reactive).
+ * Candidates are evaluated by unit: a single candidate, or a run of candidates looked up through their EqualityIndex.
+ * Condition results are reused from the request memo and reported to the observer, elapsed times are only measured for a real observer.
+ * evaluateCandidate can run on any thread, the rest on the thread driving the decision.
+ */
+final class RouteEvaluation {
+
+	/**
+	 * evaluateUnit result when none of the unit candidates is accepted
+	 */
+	static final int REJECTED = -1;
+
+	final RoutedMethodDispatch dispatch;
+	final MethodInvocation invocation;
+	private final RoutedMethodDefinition[] candidates;
+	private final EqualityIndex[] equalityIndexes;
+	private final RoutingObserver observer;
+	private final Object decision;
+	private final Map<Object, Boolean> memo;
+	private final boolean timed;
+	private long lookupNanos;
+
+	private RouteEvaluation(RoutedMethodDispatch dispatch, MethodInvocation invocation, RoutingObserver observer, Object decision, Map<Object, Boolean> memo) {
+		this.dispatch = dispatch;
+		this.invocation = invocation;
+		this.candidates = dispatch.getCandidates();
+		this.equalityIndexes = dispatch.getEqualityIndexes();
+		this.observer = observer;
+		this.decision = decision;
+		this.memo = memo;
+		this.timed = observer != RoutingObserver.NOOP;
+	}
+
+	/**
+	 * Report the decision start with the current observer and memo of the interceptor
+	 * @param async the decision ends on another thread (onAsyncDecisionStart)
+	 */
+	static RouteEvaluation start(FlowRoutingInterceptor interceptor, RoutedMethodDispatch dispatch, MethodInvocation invocation, boolean async) {
+		RoutingObserver observer = interceptor.routingObserver;
+		Object decision = async ? observer.onAsyncDecisionStart(dispatch, invocation) : observer.onDecisionStart(dispatch, invocation);
+		return new RouteEvaluation(dispatch, invocation, observer, decision, interceptor.conditionMemoStore.currentMemo());
+	}
+
+	RoutedMethodDefinition candidate(int index) {
+		return candidates[index];
+	}
+
+	/**
+	 * @return position of the default candidate, selected when no other one is accepted
+	 */
+	int defaultIndex() {
+		return candidates.length-1;
+	}
+
+	/**
+	 * @return first candidate position after the unit starting at from
+	 */
+	int unitEnd(int from) {
+		return equalityIndexes != null && equalityIndexes[from] != null ? equalityIndexes[from].getEnd() : from+1;
+	}
+
+	/**
+	 * Look the unit starting at from up in its EqualityIndex, the time is kept for reportLookup
+	 * @return the matched position, EqualityIndex.NO_MATCH when no unit candidate is accepted, EqualityIndex.NOT_INDEXED when they must be evaluated
+	 */
+	int lookup(int from) {
+		if(equalityIndexes == null || equalityIndexes[from] == null) {
+			return EqualityIndex.NOT_INDEXED;
+		}
+		long start = startTime();
+		int match = equalityIndexes[from].lookup(invocation);
+		lookupNanos = elapsedSince(start);
+		return match;
+	}
+
+	/**
+	 * Report the candidate matched by the last lookup as accepted, only the matched candidate of a run is reported
+	 */
+	int reportLookup(int match) {
+		observer.onEvaluation(decision, dispatch, match, true, lookupNanos);
+		return match;
+	}
+
+	/**
+	 * Evaluate the unit starting at from, in declared order
+	 * @return the accepted candidate position, REJECTED if none
+	 */
+	int evaluateUnit(int from) {
+		int match = lookup(from);
+		if(match >= 0) {
+			return reportLookup(match);
+		}
+		if(match == EqualityIndex.NO_MATCH) {
+			return REJECTED;
+		}
+		for(int i=from, end=unitEnd(from);i<end;i++) {
+			if(report(i, evaluateCandidate(i))) {
+				return i;
+			}
+		}
+		return REJECTED;
+	}
+
+	/**
+	 * Non blocking evaluateUnit: AsyncEvaluator conditions are chained, other evaluators run on the calling thread
+	 */
+	CompletableFuture<Integer> evaluateUnitAsync(int from) {
+		int match;
+		try {
+			match = lookup(from);
+		}catch (RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		if(match >= 0) {
+			return CompletableFuture.completedFuture(reportLookup(match));
+		}
+		if(match == EqualityIndex.NO_MATCH) {
+			return CompletableFuture.completedFuture(REJECTED);
+		}
+		return evaluateAsyncFrom(from, unitEnd(from));
+	}
+
+	private CompletableFuture<Integer> evaluateAsyncFrom(int index, int end) {
+		if(index == end) {
+			return CompletableFuture.completedFuture(REJECTED);
+		}
+		return evaluateCandidateAsync(index).thenCompose(evaluation-> report(index, evaluation) ? CompletableFuture.completedFuture(index) : evaluateAsyncFrom(index+1, end));
+	}
+
+	/**
+	 * @return position of the first accepted candidate, or the default one
+	 */
+	int evaluateUnits() {
+		for(int unit=0;unit<defaultIndex();unit = unitEnd(unit)) {
+			int selected = evaluateUnit(unit);
+			if(selected != REJECTED) {
+				return selected;
+			}
+		}
+		return defaultIndex();
+	}
+
+	/**
+	 * Non blocking evaluateUnits, from the unit starting at from
+	 */
+	CompletableFuture<Integer> evaluateUnitsAsync(int from) {
+		if(from == defaultIndex()) {
+			return CompletableFuture.completedFuture(from);
+		}
+		return evaluateUnitAsync(from).thenCompose(selected-> selected != REJECTED ? CompletableFuture.completedFuture(selected) : evaluateUnitsAsync(unitEnd(from)));
+	}
+
+	/**
+	 * Evaluate the candidate condition, or take it from the memo, without reporting it
+	 */
+	Evaluation evaluateCandidate(int index) {
+		RoutedMethodDefinition candidate = candidates[index];
+		long start = startTime();
+		Object key = memoKey(index);
+		Boolean memoized = memoized(key);
+		return memoized != null ? new Evaluation(memoized, elapsedSince(start)) : evaluated(key, candidate.getEvaluator().evaluate(candidate, invocation), start);
+	}
+
+	/**
+	 * Non blocking evaluateCandidate, AsyncEvaluator conditions complete on their own threads
+	 */
+	CompletableFuture<Evaluation> evaluateCandidateAsync(int index) {
+		RoutedMethodDefinition candidate = candidates[index];
+		try {
+			if(!(candidate.getEvaluator() instanceof AsyncEvaluator asyncEvaluator)) {
+				return CompletableFuture.completedFuture(evaluateCandidate(index));
+			}
+			long start = startTime();
+			Object key = memoKey(index);
+			Boolean memoized = memoized(key);
+			if(memoized != null) {
+				return CompletableFuture.completedFuture(new Evaluation(memoized, elapsedSince(start)));
+			}
+			return asyncEvaluator.evaluateAsync(candidate, invocation).toCompletableFuture().thenApply(accepted-> evaluated(key, Boolean.TRUE.equals(accepted), start));
+		}catch (RuntimeException | Error e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	/**
+	 * @return memo key of the candidate condition, null when it is not memoized
+	 */
+	Object memoKey(int index) {
+		return memo == null ? null : candidates[index].getEvaluator().conditionKey(candidates[index], invocation);
+	}
+
+	/**
+	 * @return the memoized result, null when it must be evaluated
+	 */
+	Boolean memoized(Object key) {
+		return key == null ? null : memo.get(key);
+	}
+
+	/**
+	 * Memoize a condition result evaluated since start
+	 */
+	Evaluation evaluated(Object key, boolean accepted, long start) {
+		if(key != null) {
+			memo.put(key, accepted);
+		}
+		return new Evaluation(accepted, elapsedSince(start));
+	}
+
+	long startTime() {
+		return timed ? System.nanoTime() : 0;
+	}
+
+	private long elapsedSince(long start) {
+		return timed ? System.nanoTime() - start : 0;
+	}
+
+	/**
+	 * @return whether the candidate was accepted
+	 */
+	boolean report(int index, Evaluation evaluation) {
+		observer.onEvaluation(decision, dispatch, index, evaluation.accepted(), evaluation.elapsedNanos());
+		return evaluation.accepted();
+	}
+
+	/**
+	 * Report the decision end
+	 * @return selected
+	 */
+	int end(int selected) {
+		observer.onDecisionEnd(decision, dispatch, selected, null);
+		return selected;
+	}
+
+	/**
+	 * Report a decision aborted by an evaluator, EvaluatorUnavailableException routes to the default candidate
+	 */
+	void fail(Throwable error) {
+		observer.onDecisionEnd(decision, dispatch, error instanceof EvaluatorUnavailableException ? defaultIndex() : -1, error);
+	}
+
+	/**
+	 * @param accepted condition result
+	 * @param elapsedNanos 0 when the decision is not observed
+	 */
+	record Evaluation(boolean accepted, long elapsedNanos) {
+	}
+}
@@ -0,0 +1,19 @@
+package io.github.danipenaperez.lib.flowedrouting.memo;
+
+import java.util.Map;
+
+/**
+ * Gives access to the condition results memo of the current request (or flow).
+ * Every interceptor reuses the result of a condition already evaluated in the same scope,
+ * keyed by Evaluator.conditionKey. The store owns the memo lifecycle, interceptors never clear it.
+ */
+@FunctionalInterface
+public interface ConditionMemoStore {
+
+	ConditionMemoStore NONE = () -> null;
+
+	/**
+	 * @return thread safe memo of the current scope, null when there is no scope (conditions are always evaluated)
+	 */
+	Map<Object, Boolean> currentMemo();
+}
@@ -0,0 +1,94 @@
+package io.github.danipenaperez.lib.flowedrouting.observer;
+
+import java.util.List;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.shadow.ShadowResult;
+
+/**
+ * Calls several observers in order, each one gets back its own decision context
+ */
+public class CompositeRoutingObserver implements RoutingObserver {
+
+	private final RoutingObserver[] observers;
+
+	private CompositeRoutingObserver(RoutingObserver[] observers) {
+		this.observers = observers;
+	}
+
+	/**
+	 * @param observers
+	 * @return NOOP when empty, the observer itself when there is only one
+	 */
+	public static RoutingObserver of(List<? extends RoutingObserver> observers) {
+		List<? extends RoutingObserver> active = observers.stream().filter(observer-> observer != NOOP).toList();
+		if(active.isEmpty()) {
+			return NOOP;
+		}
+		return active.size() == 1 ? active.get(0) : new CompositeRoutingObserver(active.toArray(RoutingObserver[]::new));
+	}
+
+	@Override
+	public void onDispatchTable(Class<?> routedInterface, RoutedMethodDispatch[] dispatchTable) {
+		for(RoutingObserver observer: observers) {
+			observer.onDispatchTable(routedInterface, dispatchTable);
+		}
+	}
+
+	@Override
+	public Object onDecisionStart(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		Object[] decisions = new Object[observers.length];
+		for(int i=0;i<observers.length;i++) {
+			decisions[i] = observers[i].onDecisionStart(dispatch, invocation);
+		}
+		return decisions;
+	}
+
+	@Override
+	public Object onAsyncDecisionStart(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		Object[] decisions = new Object[observers.length];
+		for(int i=0;i<observers.length;i++) {
+			decisions[i] = observers[i].onAsyncDecisionStart(dispatch, invocation);
+		}
+		return decisions;
+	}
+
+	@Override
+	public void onEvaluation(Object decision, RoutedMethodDispatch dispatch, int candidateIndex, boolean accepted, long elapsedNanos) {
+		Object[] decisions = (Object[]) decision;
+		for(int i=0;i<observers.length;i++) {
+			observers[i].onEvaluation(decisions[i], dispatch, candidateIndex, accepted, elapsedNanos);
+		}
+	}
+
+	@Override
+	public void onDecisionEnd(Object decision, RoutedMethodDispatch dispatch, int selectedIndex, Throwable error) {
+		Object[] decisions = (Object[]) decision;
+		for(int i=0;i<observers.length;i++) {
+			observers[i].onDecisionEnd(decisions[i], dispatch, selectedIndex, error);
+		}
+	}
+
+	@Override
+	public void onCachedDecision(RoutedMethodDispatch dispatch, int selectedIndex) {
+		for(RoutingObserver observer: observers) {
+			observer.onCachedDecision(dispatch, selectedIndex);
+		}
+	}
+
+	@Override
+	public void onShadowResult(RoutedMethodDispatch dispatch, int shadowIndex, ShadowResult result) {
+		for(RoutingObserver observer: observers) {
+			observer.onShadowResult(dispatch, shadowIndex, result);
+		}
+	}
+
+	@Override
+	public void onShadowDropped(RoutedMethodDispatch dispatch, int shadowIndex) {
+		for(RoutingObserver observer: observers) {
+			observer.onShadowDropped(dispatch, shadowIndex);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package io.github.danipenaperez.lib.flowedrouting.observer;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.shadow.ShadowResult;
+
+/**
+ * Receives the routing decisions of a FlowRoutingInterceptor (metrics, tracing, auditing...).
+ * The interceptor only measures and calls back when an observer other than NOOP is set,
+ * so the default routing path does not pay for it.
+ * Callbacks are called on the invoking thread and must not throw.
+ */
+public interface RoutingObserver {
+
+	RoutingObserver NOOP = new RoutingObserver() {};
+
+	/**
+	 * Called each time the interceptor rebuilds its dispatch table, so observers can resolve their per candidate state once
+	 * @param routedInterface
+	 * @param dispatchTable the new table
+	 */
+	default void onDispatchTable(Class<?> routedInterface, RoutedMethodDispatch[] dispatchTable) {
+
+	}
+
+	/**
+	 * @param dispatch
+	 * @param invocation
+	 * @return observer specific decision context, given back to onEvaluation and onDecisionEnd
+	 */
+	default Object onDecisionStart(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		return null;
+	}
+
+	/**
+	 * Decision of a non blocking routed method: the following callbacks may be called from other threads
+	 * @param dispatch
+	 * @param invocation
+	 * @return observer specific decision context, given back to onEvaluation and onDecisionEnd
+	 */
+	default Object onAsyncDecisionStart(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		return onDecisionStart(dispatch, invocation);
+	}
+
+	/**
+	 * @param decision onDecisionStart result
+	 * @param dispatch
+	 * @param candidateIndex position of the evaluated candidate at dispatch.getCandidates()
+	 * @param accepted evaluator result
+	 * @param elapsedNanos time spent at Evaluator.evaluate
+	 */
+	default void onEvaluation(Object decision, RoutedMethodDispatch dispatch, int candidateIndex, boolean accepted, long elapsedNanos) {
+
+	}
+
+	/**
+	 * @param decision onDecisionStart result
+	 * @param dispatch
+	 * @param selectedIndex position of the selected candidate at dispatch.getCandidates(), -1 when the error aborts the call
+	 * @param error exception thrown by an evaluator, null otherwise. With a selectedIndex the decision fell back to the default candidate (EvaluatorUnavailableException)
+	 */
+	default void onDecisionEnd(Object decision, RoutedMethodDispatch dispatch, int selectedIndex, Throwable error) {
+
+	}
+
+	/**
+	 * Called instead of the decision callbacks when a @CachedRouting decision is served from the cache
+	 * @param dispatch
+	 * @param selectedIndex position of the cached candidate at dispatch.getCandidates()
+	 */
+	default void onCachedDecision(RoutedMethodDispatch dispatch, int selectedIndex) {
+
+	}
+
+	/**
+	 * Called on the shadow executor thread once a @FlowShadow call finishes
+	 * @param dispatch
+	 * @param shadowIndex position of the shadow at dispatch.getShadows()
+	 * @param result
+	 */
+	default void onShadowResult(RoutedMethodDispatch dispatch, int shadowIndex, ShadowResult result) {
+
+	}
+
+	/**
+	 * Called on the invoking thread when a sampled @FlowShadow call is dropped because the shadow executor is full
+	 * @param dispatch
+	 * @param shadowIndex position of the shadow at dispatch.getShadows()
+	 */
+	default void onShadowDropped(RoutedMethodDispatch dispatch, int shadowIndex) {
+
+	}
+}
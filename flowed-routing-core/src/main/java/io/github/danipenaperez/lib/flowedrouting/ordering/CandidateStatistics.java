@@ -0,0 +1,159 @@
+package io.github.danipenaperez.lib.flowedrouting.ordering;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.index.EqualityIndex;
+
+/**
+ * Evaluation cost and match rate of the non-default candidates of a @RoutedInterface(adaptiveOrdering = true) method.
+ * Candidates are measured by unit: a single candidate, or a whole EqualityIndex run (kept together when reordering).
+ * As the candidates are mutually exclusive, evaluating them by ascending cost / match probability gives the lowest
+ * expected cost per call. Statistics are windowed: each window ends with a reorder check and starts a new one,
+ * checks before half a window of decisions keep accumulating into the current window.
+ */
+public class CandidateStatistics {
+
+	/**
+	 * Expected cost reduction needed to reorder, so close orders do not flap
+	 */
+	static final double MIN_IMPROVEMENT = 0.1;
+
+	private final int window;
+	/**
+	 * Unit end (exclusive) by unit start position, 0 for positions inside a unit
+	 */
+	private final int[] unitEnds;
+	private final LongAdder[] evaluations;
+	private final LongAdder[] matches;
+	private final LongAdder[] nanos;
+	private final LongAdder decisions = new LongAdder();
+	private final AtomicBoolean checking = new AtomicBoolean();
+
+	private CandidateStatistics(int window, int[] unitEnds) {
+		this.window = window;
+		this.unitEnds = unitEnds;
+		this.evaluations = adders(unitEnds.length);
+		this.matches = adders(unitEnds.length);
+		this.nanos = adders(unitEnds.length);
+	}
+
+	/**
+	 * @param candidates dispatch candidates, the default one last
+	 * @param equalityIndexes of the candidates, may be null
+	 * @param window decisions between reorder checks
+	 * @return null when there is nothing to reorder (less than two units)
+	 */
+	public static CandidateStatistics forCandidates(RoutedMethodDefinition[] candidates, EqualityIndex[] equalityIndexes, int window) {
+		int[] unitEnds = new int[candidates.length-1];
+		int units = 0;
+		for(int i=0;i<unitEnds.length;i = unitEnds[i]) {
+			unitEnds[i] = equalityIndexes != null && equalityIndexes[i] != null ? equalityIndexes[i].getEnd() : i+1;
+			units++;
+		}
+		return units < 2 ? null : new CandidateStatistics(window, unitEnds);
+	}
+
+	/**
+	 * @param unitStart
+	 * @return first candidate position after the unit
+	 */
+	public int unitEnd(int unitStart) {
+		return unitEnds[unitStart];
+	}
+
+	public void record(int unitStart, boolean matched, long elapsedNanos) {
+		evaluations[unitStart].increment();
+		nanos[unitStart].add(elapsedNanos);
+		if(matched) {
+			matches[unitStart].increment();
+		}
+	}
+
+	/**
+	 * Count a routing decision
+	 * @return true (about once per window) when the caller should run checkOrder, off the request path
+	 */
+	public boolean decision() {
+		decisions.increment();
+		return ThreadLocalRandom.current().nextInt(window) == 0 && !checking.get();
+	}
+
+	/**
+	 * Close the window and start a new one, unless it has less than half a window of decisions (low traffic)
+	 * @return candidate positions in the new evaluation order (default one last), null to keep the current order
+	 */
+	public int[] checkOrder() {
+		if(!checking.compareAndSet(false, true)) {
+			return null;
+		}
+		try {
+			if(decisions.sum() < window / 2) {
+				return null;
+			}
+			long total = decisions.sumThenReset();
+			List<Unit> units = new ArrayList<>();
+			for(int i=0;i<unitEnds.length;i = unitEnds[i]) {
+				long unitEvaluations = evaluations[i].sumThenReset();
+				long unitNanos = nanos[i].sumThenReset();
+				long unitMatches = matches[i].sumThenReset();
+				double cost = unitEvaluations == 0 ? 0 : (double) unitNanos / unitEvaluations;
+				units.add(new Unit(i, unitEnds[i], cost, total == 0 ? 0 : (double) unitMatches / total));
+			}
+			List<Unit> sorted = new ArrayList<>(units);
+			sorted.sort(Comparator.comparingDouble(Unit::rank));
+			if(expectedCost(sorted) > expectedCost(units) * (1 - MIN_IMPROVEMENT)) {
+				return null;
+			}
+			int[] order = new int[unitEnds.length+1];
+			int position = 0;
+			for(Unit unit: sorted) {
+				for(int candidate=unit.start();candidate<unit.end();candidate++) {
+					order[position++] = candidate;
+				}
+			}
+			order[position] = unitEnds.length; //Default
+			return order;
+		}finally {
+			checking.set(false);
+		}
+	}
+
+	/**
+	 * Sum of each unit cost by the probability of reaching it
+	 */
+	static double expectedCost(List<Unit> order) {
+		double reached = 1;
+		double cost = 0;
+		for(Unit unit: order) {
+			cost += reached * unit.cost();
+			reached = Math.max(reached - unit.probability(), 0);
+		}
+		return cost;
+	}
+
+	private static LongAdder[] adders(int length) {
+		LongAdder[] adders = new LongAdder[length];
+		for(int i=0;i<length;i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+
+	/**
+	 * @param probability share of the decisions accepted by the unit
+	 */
+	record Unit(int start, int end, double cost, double probability) {
+		/**
+		 * Units never accepted go last, keeping their order
+		 */
+		double rank() {
+			return probability == 0 ? Double.MAX_VALUE : cost / probability;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package io.github.danipenaperez.lib.flowedrouting.percentage;
+
+import java.lang.reflect.Parameter;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+import org.springframework.util.ClassUtils;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.annotation.EvaluatorType;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+import io.github.danipenaperez.lib.flowedrouting.percentage.annotation.FlowPercentageCondition;
+import io.github.danipenaperez.lib.flowedrouting.utils.Murmur3;
+
+/**
+ * Sticky percentage rollout: murmur3(key, seed of the salt) gives one of 10000 buckets, accepted below percentage * 100.
+ * Keys that are a plain parameter reference (#userName) are read without SpEL, String keys are hashed without allocation.
+ * Null keys are never accepted.
+ */
+@EvaluatorType(PercentageEvaluator.TYPE)
+public class PercentageEvaluator implements Evaluator {
+
+	public static final String TYPE = "Percentage";
+	static final int BUCKETS = 10_000;
+
+	private final SpelExpressionParser expressionParser = new SpelExpressionParser();
+
+	@Override
+	public void prepare(RoutedMethodDefinition routedMethodDefinition) throws FlowedRoutingConfigurationException {
+		routedMethodDefinition.setPreparedCondition(condition(routedMethodDefinition));
+	}
+
+	@Override
+	public boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+		PercentageCondition condition = (PercentageCondition) routedMethodDefinition.getPreparedCondition();
+		if(condition == null) { //Definition not prepared by an interceptor
+			try {
+				condition = condition(routedMethodDefinition);
+			}catch (FlowedRoutingConfigurationException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+		}
+		Object key = condition.key(invocation);
+		if(key == null) {
+			return false;
+		}
+		return bucket(key instanceof CharSequence text ? text : key.toString(), condition.seed()) < condition.threshold();
+	}
+
+	/**
+	 * @return bucket of the key, from 0 to 9999
+	 */
+	static int bucket(CharSequence key, int seed) {
+		return (int) (Integer.toUnsignedLong(Murmur3.hash32(key, seed)) % BUCKETS);
+	}
+
+	private PercentageCondition condition(RoutedMethodDefinition routedMethodDefinition) throws FlowedRoutingConfigurationException {
+		FlowPercentageCondition percentageCondition = routedMethodDefinition.getConditionAnnotation(FlowPercentageCondition.class);
+		if(percentageCondition == null) {
+			throw new FlowedRoutingConfigurationException(String.format("[%s] declares FlowConditionType = [Percentage] , but not found @FlowPercentageCondition annotation", routedMethodDefinition.getMethod()));
+		}
+		if(!(percentageCondition.percentage() >= 0 && percentageCondition.percentage() <= 100)) {
+			throw new FlowedRoutingConfigurationException(String.format("@FlowPercentageCondition percentage must be between 0 and 100 at [%s]", routedMethodDefinition.getMethod()));
+		}
+		String[] parameterNames = new String[routedMethodDefinition.getMethod().getParameterCount()];
+		Parameter[] parameters = routedMethodDefinition.getMethod().getParameters();
+		int argumentIndex = -1;
+		for(int i=0;i<parameters.length;i++) {
+			parameterNames[i] = parameters[i].getName();
+			if(percentageCondition.key().trim().equals("#"+parameterNames[i])) {
+				argumentIndex = i;
+			}
+		}
+		Expression keyExpression = null;
+		if(argumentIndex < 0) {
+			try {
+				keyExpression = expressionParser.parseExpression(percentageCondition.key());
+			}catch (ParseException | IllegalStateException e) {
+				throw new FlowedRoutingConfigurationException(String.format("Invalid @FlowPercentageCondition key [%s] at [%s] : %s", percentageCondition.key(), routedMethodDefinition.getMethod(), e.getMessage()));
+			}
+		}
+		String salt = percentageCondition.salt().isEmpty() ? ClassUtils.getUserClass(routedMethodDefinition.getMethod().getDeclaringClass()).getName() : percentageCondition.salt();
+		return new PercentageCondition(argumentIndex, keyExpression, parameterNames, Murmur3.hash32(salt, 0), (int) Math.round(percentageCondition.percentage() * 100));
+	}
+
+	/**
+	 * @param argumentIndex position of the key argument, -1 when keyExpression is needed
+	 * @param parameterNames candidate method parameter names (same order as the routed interface ones)
+	 * @param seed murmur3 seed derived from the salt
+	 * @param threshold accepted buckets
+	 */
+	record PercentageCondition(int argumentIndex, Expression keyExpression, String[] parameterNames, int seed, int threshold) {
+
+		Object key(MethodInvocation invocation) {
+			Object[] arguments = invocation.getArguments();
+			if(argumentIndex >= 0) {
+				return arguments[argumentIndex];
+			}
+			SimpleEvaluationContext evaluationContext = SimpleEvaluationContext.forReadOnlyDataBinding().withInstanceMethods().build();
+			for(int i=0;i<parameterNames.length;i++) {
+				evaluationContext.setVariable(parameterNames[i], arguments[i]);
+			}
+			return keyExpression.getValue(evaluationContext);
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package io.github.danipenaperez.lib.flowedrouting.percentage.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Condition of @FlowConditionType("Percentage") candidates: accepted for a stable share of the keys.
+ * The same key always falls in the same bucket, in every node and call, while salt and percentage do not change.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface FlowPercentageCondition {
+
+	/**
+	 * SpEL expression over the routed method parameters (#userName, #user.id ...) giving the sticky key
+	 */
+	String key();
+
+	/**
+	 * Share of keys accepted, from 0 to 100 (two decimals)
+	 */
+	double percentage();
+
+	/**
+	 * Separates the buckets of different rollouts, the candidate class name when empty
+	 */
+	String salt() default "";
+}
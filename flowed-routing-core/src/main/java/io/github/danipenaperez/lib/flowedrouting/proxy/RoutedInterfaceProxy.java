@@ -0,0 +1,34 @@
+package io.github.danipenaperez.lib.flowedrouting.proxy;
+
+import java.lang.reflect.Method;
+
+/**
+ * Implemented by the @RoutedInterface implementations generated at build time by flowed-routing-processor.
+ * The generated class is named [Interface]_FlowedRoutingProxy (nested interfaces joined by '_') in the same package
+ * and has a constructor receiving the DefaultFlowRoutingInterceptor.
+ */
+public interface RoutedInterfaceProxy {
+
+	public static final String GENERATED_CLASS_SUFFIX = "_FlowedRoutingProxy";
+
+	/**
+	 * @param routedInterface
+	 * @return the class name that flowed-routing-processor generates for the interface
+	 */
+	public static String generatedClassName(Class<?> routedInterface) {
+		String packageName = routedInterface.getPackageName();
+		String nestedName = packageName.isEmpty() ? routedInterface.getName() : routedInterface.getName().substring(packageName.length()+1);
+		return (packageName.isEmpty() ? "" : packageName + ".") + nestedName.replace('$', '_') + GENERATED_CLASS_SUFFIX;
+	}
+
+	/**
+	 * Used by generated classes to resolve their routed methods once
+	 */
+	public static Method method(Class<?> routedInterface, String name, Class<?>... parameterTypes) {
+		try {
+			return routedInterface.getDeclaredMethod(name, parameterTypes);
+		}catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Generated proxy is out of date for "+routedInterface.getName(), e);
+		}
+	}
+}
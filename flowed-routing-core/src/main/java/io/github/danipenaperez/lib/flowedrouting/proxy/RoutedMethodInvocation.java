@@ -0,0 +1,114 @@
+package io.github.danipenaperez.lib.flowedrouting.proxy;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+
+/**
+ * MethodInvocation handed to Evaluators when the call does not come from an AOP proxy (generated proxies).
+ * There is no interceptor chain behind it, so proceed() is not supported.
+ * User attributes keep per call state shared by the evaluators, as with Spring AOP invocations, and can be read and written
+ * by concurrent evaluations of the same call (parallelEvaluation).
+ */
+public class RoutedMethodInvocation implements ProxyMethodInvocation {
+
+	private final Method method;
+	private Object[] arguments;
+	private final Object proxy;
+	private volatile Map<String, Object> userAttributes;
+
+	public RoutedMethodInvocation(Method method, Object[] arguments, Object proxy) {
+		this.method = method;
+		this.arguments = arguments;
+		this.proxy = proxy;
+	}
+
+	@Override
+	public Method getMethod() {
+		return method;
+	}
+
+	@Override
+	public Object[] getArguments() {
+		return arguments;
+	}
+
+	@Override
+	public Object proceed() throws Throwable {
+		throw new UnsupportedOperationException("Routed invocations are dispatched by the interceptor, there is no chain to proceed");
+	}
+
+	@Override
+	public Object getThis() {
+		return proxy;
+	}
+
+	@Override
+	public AccessibleObject getStaticPart() {
+		return method;
+	}
+
+	@Override
+	public Object getProxy() {
+		return proxy;
+	}
+
+	@Override
+	public MethodInvocation invocableClone() {
+		return new RoutedMethodInvocation(method, arguments.clone(), proxy);
+	}
+
+	@Override
+	public MethodInvocation invocableClone(Object... arguments) {
+		return new RoutedMethodInvocation(method, arguments, proxy);
+	}
+
+	@Override
+	public void setArguments(Object... arguments) {
+		this.arguments = arguments;
+	}
+
+	@Override
+	public void setUserAttribute(String key, Object value) {
+		if(value == null) {
+			if(userAttributes != null) {
+				userAttributes.remove(key);
+			}
+			return;
+		}
+		userAttributes().put(key, value);
+	}
+
+	@Override
+	public Object getUserAttribute(String key) {
+		Map<String, Object> attributes = userAttributes;
+		return attributes == null ? null : attributes.get(key);
+	}
+
+	/**
+	 * @param key
+	 * @param mappingFunction creates the attribute, called once per invocation even for concurrent callers
+	 * @return the attribute value
+	 */
+	public Object computeUserAttributeIfAbsent(String key, Function<String, Object> mappingFunction) {
+		return userAttributes().computeIfAbsent(key, mappingFunction);
+	}
+
+	private Map<String, Object> userAttributes() {
+		Map<String, Object> attributes = userAttributes;
+		if(attributes == null) {
+			synchronized (this) {
+				if(userAttributes == null) {
+					userAttributes = new ConcurrentHashMap<>();
+				}
+				attributes = userAttributes;
+			}
+		}
+		return attributes;
+	}
+}
@@ -0,0 +1,52 @@
+package io.github.danipenaperez.lib.flowedrouting.recorder;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Summarizes the arguments of a recorded decision, DEFAULT never exposes their values
+ */
+@FunctionalInterface
+public interface ArgumentRedactor {
+
+	/**
+	 * Argument types only, as name=&lt;String&gt;
+	 */
+	ArgumentRedactor DEFAULT = (method, arguments) -> summarize(method, arguments, argument-> "<" + (argument == null ? "null" : argument.getClass().getSimpleName()) + ">");
+
+	/**
+	 * Opt-in: numbers, booleans and enums as they are, strings as first character and length, other objects by type only
+	 */
+	ArgumentRedactor VALUES = (method, arguments) -> summarize(method, arguments, ArgumentRedactor::redact);
+
+	/**
+	 * Record the parameter count only
+	 */
+	ArgumentRedactor NONE = (method, arguments) -> arguments.length + " arguments";
+
+	String summarize(Method method, Object[] arguments);
+
+	private static String summarize(Method method, Object[] arguments, Function<Object, String> redactor) {
+		Parameter[] parameters = method.getParameters();
+		StringJoiner summary = new StringJoiner(", ");
+		for(int i=0;i<parameters.length && i<arguments.length;i++) {
+			summary.add(parameters[i].getName() + "=" + redactor.apply(arguments[i]));
+		}
+		return summary.toString();
+	}
+
+	static String redact(Object argument) {
+		if(argument == null) {
+			return "null";
+		}
+		if(argument instanceof Number || argument instanceof Boolean || argument instanceof Enum) {
+			return argument.toString();
+		}
+		if(argument instanceof CharSequence text) {
+			return text.isEmpty() ? "\"\"" : "\"" + text.charAt(0) + "***\"(" + text.length() + ")";
+		}
+		return argument.getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,31 @@
+package io.github.danipenaperez.lib.flowedrouting.recorder;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One sampled routing decision (see DecisionRecorder)
+ * @param sequence recording order, increasing
+ * @param timestamp decision start
+ * @param routedInterface
+ * @param method
+ * @param delegate selected delegate class, null when an evaluator error aborted the call
+ * @param defaultRoute true when the call fell through to the isDefaultRouting delegate
+ * @param cached true when served by @CachedRouting, without evaluations nor arguments
+ * @param evaluations conditions evaluated, in evaluation order
+ * @param elapsedNanos decision time
+ * @param error evaluator exception message, null otherwise
+ * @param arguments redacted argument summary (see ArgumentRedactor)
+ */
+public record DecisionRecord(long sequence, Instant timestamp, String routedInterface, String method, String delegate, boolean defaultRoute, boolean cached,
+		List<Evaluation> evaluations, long elapsedNanos, String error, String arguments) {
+
+	/**
+	 * @param delegate candidate delegate class
+	 * @param evaluator @EvaluatorType value
+	 * @param accepted
+	 * @param elapsedNanos
+	 */
+	public record Evaluation(String delegate, String evaluator, boolean accepted, long elapsedNanos) {
+	}
+}
@@ -0,0 +1,139 @@
+package io.github.danipenaperez.lib.flowedrouting.recorder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.ClassUtils;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.observer.RoutingObserver;
+
+/**
+ * Keeps the last sampled routing decisions in a fixed size ring buffer, to see which delegate was selected for which
+ * arguments and what each condition cost. Writers claim a slot with a single atomic increment and overwrite the oldest
+ * entry, nothing is locked. Decisions not sampled only pay a random draw.
+ */
+public class DecisionRecorder implements RoutingObserver {
+
+	private final AtomicReferenceArray<DecisionRecord> buffer;
+	private final int mask;
+	private final AtomicLong sequence = new AtomicLong();
+	private final double samplingRate;
+	private final ArgumentRedactor argumentRedactor;
+
+	/**
+	 * @param capacity decisions kept, rounded up to a power of two
+	 * @param samplingRate share of decisions recorded, from 0 to 1
+	 * @param argumentRedactor
+	 */
+	public DecisionRecorder(int capacity, double samplingRate, ArgumentRedactor argumentRedactor) {
+		if(capacity < 1 || samplingRate < 0 || samplingRate > 1) {
+			throw new IllegalArgumentException(String.format("Invalid decision recorder capacity [%s] or sampling rate [%s]", capacity, samplingRate));
+		}
+		int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+		this.buffer = new AtomicReferenceArray<>(capacity == 1 ? 1 : size);
+		this.mask = buffer.length() - 1;
+		this.samplingRate = samplingRate;
+		this.argumentRedactor = argumentRedactor == null ? ArgumentRedactor.DEFAULT : argumentRedactor;
+	}
+
+	private boolean sampled() {
+		return samplingRate >= 1 || (samplingRate > 0 && ThreadLocalRandom.current().nextDouble() < samplingRate);
+	}
+
+	@Override
+	public Object onDecisionStart(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		if(!sampled()) {
+			return null;
+		}
+		return new Recording(Instant.now(), System.nanoTime(), argumentRedactor.summarize(dispatch.getMethod(), invocation.getArguments()));
+	}
+
+	@Override
+	public void onEvaluation(Object decision, RoutedMethodDispatch dispatch, int candidateIndex, boolean accepted, long elapsedNanos) {
+		if(decision instanceof Recording recording) {
+			RoutedMethodDefinition candidate = dispatch.getCandidates()[candidateIndex];
+			recording.evaluations.add(new DecisionRecord.Evaluation(delegateName(candidate), candidate.getFlowCondition() == null ? null : candidate.getFlowCondition().value(), accepted, elapsedNanos));
+		}
+	}
+
+	@Override
+	public void onDecisionEnd(Object decision, RoutedMethodDispatch dispatch, int selectedIndex, Throwable error) {
+		if(decision instanceof Recording recording) {
+			RoutedMethodDefinition[] candidates = dispatch.getCandidates();
+			record(dispatch, recording.timestamp, selectedIndex < 0 ? null : candidates[selectedIndex], false, List.copyOf(recording.evaluations),
+					System.nanoTime() - recording.start, error == null ? null : error.getClass().getSimpleName() + ": " + error.getMessage(), recording.arguments);
+		}
+	}
+
+	@Override
+	public void onCachedDecision(RoutedMethodDispatch dispatch, int selectedIndex) {
+		if(sampled()) {
+			record(dispatch, Instant.now(), dispatch.getCandidates()[selectedIndex], true, List.of(), 0, null, null);
+		}
+	}
+
+	private void record(RoutedMethodDispatch dispatch, Instant timestamp, RoutedMethodDefinition selected, boolean cached, List<DecisionRecord.Evaluation> evaluations,
+			long elapsedNanos, String error, String arguments) {
+		long position = sequence.getAndIncrement();
+		buffer.set((int) (position & mask), new DecisionRecord(position, timestamp, dispatch.getMethod().getDeclaringClass().getName(), dispatch.getMethod().getName(),
+				selected == null ? null : delegateName(selected), selected != null && selected.isDefault(), cached, evaluations, elapsedNanos, error, arguments));
+	}
+
+	/**
+	 * @return recorded decisions, newest first
+	 */
+	public List<DecisionRecord> getDecisions() {
+		List<DecisionRecord> decisions = new ArrayList<>(buffer.length());
+		for(int i=0;i<buffer.length();i++) {
+			DecisionRecord decision = buffer.get(i);
+			if(decision != null) {
+				decisions.add(decision);
+			}
+		}
+		decisions.sort(Comparator.comparingLong(DecisionRecord::sequence).reversed());
+		return decisions;
+	}
+
+	/**
+	 * @return decisions recorded since creation, including the overwritten ones
+	 */
+	public long getRecorded() {
+		return sequence.get();
+	}
+
+	public int getCapacity() {
+		return buffer.length();
+	}
+
+	public double getSamplingRate() {
+		return samplingRate;
+	}
+
+	private static String delegateName(RoutedMethodDefinition candidate) {
+		return ClassUtils.getUserClass(candidate.getBean()).getName();
+	}
+
+	/**
+	 * Decision in progress, filled by a single thread at a time
+	 */
+	private static class Recording {
+		final Instant timestamp;
+		final long start;
+		final String arguments;
+		final List<DecisionRecord.Evaluation> evaluations = new ArrayList<>(4);
+
+		Recording(Instant timestamp, long start, String arguments) {
+			this.timestamp = timestamp;
+			this.start = start;
+			this.arguments = arguments;
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package io.github.danipenaperez.lib.flowedrouting.rules;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.core.annotation.MergedAnnotation;
+
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Externalized condition of a @RoutedComponent method, overrides (or adds) the annotation condition.
+ * Classes are matched by fully qualified or simple name, a rule without method applies to every routed method.
+ */
+@Data
+@NoArgsConstructor
+public class RoutingRule {
+
+	/**
+	 * @RoutedInterface the rule applies to
+	 */
+	private String routedInterface;
+	/**
+	 * Routed method name, every method when not set
+	 */
+	private String method;
+	/**
+	 * @RoutedComponent (non default) class which condition is replaced
+	 */
+	private String delegate;
+	/**
+	 * @EvaluatorType value, the one of the method @FlowConditionType when not set
+	 */
+	private String type;
+	/**
+	 * Attributes of the evaluator condition annotation (@FlowSpelCondition value = ...), converted to the attribute types
+	 */
+	private Map<String, String> condition = new LinkedHashMap<>();
+	/**
+	 * false removes the delegate from the candidates of the method
+	 */
+	private boolean enabled = true;
+
+	public RoutingRule(String routedInterface, String method, String delegate, String type, Map<String, String> condition) {
+		this.routedInterface = routedInterface;
+		this.method = method;
+		this.delegate = delegate;
+		this.type = type;
+		this.condition = condition == null ? new LinkedHashMap<>() : new LinkedHashMap<>(condition);
+	}
+
+	public boolean appliesTo(Class<?> routedInterfaceClass) {
+		return matches(routedInterface, routedInterfaceClass);
+	}
+
+	public boolean appliesTo(Class<?> delegateClass, Method routedMethod) {
+		return matches(delegate, delegateClass) && (method == null || method.isEmpty() || method.equals(routedMethod.getName()));
+	}
+
+	/**
+	 * @param annotated @FlowConditionType of the delegate method, may be null
+	 * @return the condition type declared by this rule, annotated when the rule does not set it
+	 */
+	public FlowConditionType conditionType(FlowConditionType annotated) {
+		if(type == null || type.isEmpty()) {
+			return annotated;
+		}
+		return MergedAnnotation.of(FlowConditionType.class, Map.of("value", type)).synthesize();
+	}
+
+	private static boolean matches(String name, Class<?> type) {
+		return name != null && (name.equals(type.getName()) || name.equals(type.getSimpleName()));
+	}
+}
@@ -0,0 +1,18 @@
+package io.github.danipenaperez.lib.flowedrouting.rules;
+
+import java.util.List;
+
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+
+/**
+ * Where the external RoutingRules are loaded from (file, configuration server...).
+ * Only called at startup and on reloads, never while routing.
+ */
+public interface RoutingRuleSource {
+
+	/**
+	 * @return the rules in precedence order, the last rule matching a candidate wins
+	 * @throws FlowedRoutingConfigurationException if the rules can not be read
+	 */
+	public List<RoutingRule> loadRules() throws FlowedRoutingConfigurationException;
+}
@@ -0,0 +1,69 @@
+package io.github.danipenaperez.lib.flowedrouting.shadow;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded executor of @FlowShadow calls. When every thread is busy and the queue is full the shadow call is dropped,
+ * so shadow traffic never blocks nor slows down the routed call.
+ */
+public class ShadowExecutor implements AutoCloseable {
+
+	private final ThreadPoolExecutor executor;
+	private final LongAdder dropped = new LongAdder();
+
+	/**
+	 * @param threads maximum concurrent shadow calls
+	 * @param queueCapacity shadow calls waiting for a thread, the next ones are dropped
+	 */
+	public ShadowExecutor(int threads, int queueCapacity) {
+		if(threads < 1 || queueCapacity < 0) {
+			throw new IllegalArgumentException(String.format("Invalid shadow executor threads [%s] or queue capacity [%s]", threads, queueCapacity));
+		}
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity),
+				Thread.ofPlatform().name("flowed-routing-shadow-", 0).daemon().factory(),
+				new ThreadPoolExecutor.AbortPolicy());
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * @param shadowCall
+	 * @return false if the call was dropped
+	 */
+	public boolean trySubmit(Runnable shadowCall) {
+		try {
+			executor.execute(shadowCall);
+			return true;
+		}catch (RejectedExecutionException e) {
+			dropped.increment();
+			return false;
+		}
+	}
+
+	/**
+	 * @return shadow calls dropped since creation
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * @return shadow calls waiting for a thread
+	 */
+	public int getQueued() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * Discard the pending shadow calls, the running ones are interrupted
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,42 @@
+package io.github.danipenaperez.lib.flowedrouting.shadow;
+
+import java.util.Objects;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+
+/**
+ * Outcome of one @FlowShadow call compared with the routed call it replays
+ * @param routed candidate that served the caller
+ * @param shadow
+ * @param routedNanos routed delegate call time
+ * @param shadowNanos shadow delegate call time
+ * @param outcome
+ * @param shadowError exception thrown by the shadow, null otherwise
+ */
+public record ShadowResult(RoutedMethodDefinition routed, RoutedMethodDefinition shadow, long routedNanos, long shadowNanos, Outcome outcome, Throwable shadowError) {
+
+	public enum Outcome {
+		/**
+		 * Equal results (Objects.deepEquals), or both threw the same exception class
+		 */
+		MATCH,
+		/**
+		 * Different results, or only the routed delegate threw
+		 */
+		MISMATCH,
+		/**
+		 * Only the shadow threw
+		 */
+		ERROR
+	}
+
+	public static Outcome compare(Object routedResult, Throwable routedError, Object shadowResult, Throwable shadowError) {
+		if(routedError != null) {
+			return shadowError != null && shadowError.getClass() == routedError.getClass() ? Outcome.MATCH : Outcome.MISMATCH;
+		}
+		if(shadowError != null) {
+			return Outcome.ERROR;
+		}
+		return Objects.deepEquals(routedResult, shadowResult) ? Outcome.MATCH : Outcome.MISMATCH;
+	}
+}
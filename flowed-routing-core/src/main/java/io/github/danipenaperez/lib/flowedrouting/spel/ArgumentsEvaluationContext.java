@@ -0,0 +1,126 @@
+package io.github.danipenaperez.lib.flowedrouting.spel;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.IndexAccessor;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.TypedValue;
+
+/**
+ * EvaluationContext of one call, arguments are read as #parameterName by position of parameter names resolved once.
+ * Accessors, resolvers, functions and any other variable come from a context shared by every call, so it only holds references to the call.
+ */
+public class ArgumentsEvaluationContext implements EvaluationContext {
+
+	private final EvaluationContext shared;
+	private final String[] parameterNames;
+	private final Object[] arguments;
+	/**
+	 * Variables assigned by the expression (#name = value), rare so created on first use
+	 */
+	private Map<String, Object> assignedVariables;
+
+	/**
+	 * @param shared fully initialized context, only read from now on
+	 * @param parameterNames
+	 * @param arguments of the call, in parameterNames order
+	 */
+	public ArgumentsEvaluationContext(EvaluationContext shared, String[] parameterNames, Object[] arguments) {
+		this.shared = shared;
+		this.parameterNames = parameterNames;
+		this.arguments = arguments;
+	}
+
+	@Override
+	public Object lookupVariable(String name) {
+		if(assignedVariables != null && assignedVariables.containsKey(name)) {
+			return assignedVariables.get(name);
+		}
+		for(int i=0;i<parameterNames.length;i++) {
+			if(parameterNames[i].equals(name)) {
+				return arguments[i];
+			}
+		}
+		return lookupSharedVariable(name);
+	}
+
+	/**
+	 * @return a variable that is neither assigned by the expression nor an argument
+	 */
+	protected Object lookupSharedVariable(String name) {
+		return shared.lookupVariable(name);
+	}
+
+	@Override
+	public void setVariable(String name, Object value) {
+		if(assignedVariables == null) {
+			assignedVariables = new HashMap<>();
+		}
+		assignedVariables.put(name, value);
+	}
+
+	@Override
+	public boolean isAssignmentEnabled() {
+		return shared.isAssignmentEnabled();
+	}
+
+	@Override
+	public TypedValue getRootObject() {
+		return shared.getRootObject();
+	}
+
+	@Override
+	public List<PropertyAccessor> getPropertyAccessors() {
+		return shared.getPropertyAccessors();
+	}
+
+	@Override
+	public List<IndexAccessor> getIndexAccessors() {
+		return shared.getIndexAccessors();
+	}
+
+	@Override
+	public List<ConstructorResolver> getConstructorResolvers() {
+		return shared.getConstructorResolvers();
+	}
+
+	@Override
+	public List<MethodResolver> getMethodResolvers() {
+		return shared.getMethodResolvers();
+	}
+
+	@Override
+	public BeanResolver getBeanResolver() {
+		return shared.getBeanResolver();
+	}
+
+	@Override
+	public TypeLocator getTypeLocator() {
+		return shared.getTypeLocator();
+	}
+
+	@Override
+	public TypeConverter getTypeConverter() {
+		return shared.getTypeConverter();
+	}
+
+	@Override
+	public TypeComparator getTypeComparator() {
+		return shared.getTypeComparator();
+	}
+
+	@Override
+	public OperatorOverloader getOperatorOverloader() {
+		return shared.getOperatorOverloader();
+	}
+}
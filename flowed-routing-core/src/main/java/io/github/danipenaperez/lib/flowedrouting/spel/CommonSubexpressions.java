@@ -0,0 +1,364 @@
+package io.github.danipenaperez.lib.flowedrouting.spel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.Assign;
+import org.springframework.expression.spel.ast.BeanReference;
+import org.springframework.expression.spel.ast.CompoundExpression;
+import org.springframework.expression.spel.ast.ConstructorReference;
+import org.springframework.expression.spel.ast.FunctionReference;
+import org.springframework.expression.spel.ast.Indexer;
+import org.springframework.expression.spel.ast.MethodReference;
+import org.springframework.expression.spel.ast.Operator;
+import org.springframework.expression.spel.ast.Projection;
+import org.springframework.expression.spel.ast.Selection;
+import org.springframework.expression.spel.ast.SpelNodeImpl;
+import org.springframework.expression.spel.ast.VariableReference;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedMethodInvocation;
+
+/**
+ * Subexpressions repeated by the SpEL conditions of one routed method: property and indexer chains over variables (and operators on them),
+ * plus method, function and bean calls between @FlowSpelCondition(idempotent = true) conditions, as sharing a call skips its later side effects.
+ * Assignments and constructors are never shared. Conditions are rewritten to read #__cseN variables instead, each one evaluated on first read and kept
+ * at the invocation (RoutedMethodInvocation, or the user attributes of Spring AOP invocations) for the other candidates of the same call.
+ * Invocations without user attributes evaluate the subexpression on every read, as the original conditions did.
+ */
+public class CommonSubexpressions {
+
+	public static final String VARIABLE_PREFIX = "__cse";
+	private static final Object UNSET = new Object();
+	private static final AtomicLong instances = new AtomicLong();
+	/**
+	 * Parses the candidate texts when locating the subexpressions at the conditions, its expressions are never evaluated
+	 */
+	private static final SpelExpressionParser LOCATION_PARSER = new SpelExpressionParser();
+
+	private final String attributeName = CommonSubexpressions.class.getName() + "#" + instances.incrementAndGet();
+	private final Map<String, Integer> slots;
+	private final SpelExpression[] expressions;
+
+	CommonSubexpressions(Map<String, Integer> slots, SpelExpression[] expressions) {
+		this.slots = slots;
+		this.expressions = expressions;
+	}
+
+	/**
+	 * @param name variable name
+	 * @return position of the #__cseN variable, -1 for other variables
+	 */
+	int slot(String name) {
+		Integer slot = name.startsWith(VARIABLE_PREFIX) ? slots.get(name) : null;
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * @param values invocation values (see values), null when they can not be kept
+	 */
+	Object value(int slot, AtomicReferenceArray<Object> values, EvaluationContext evaluationContext) {
+		if(values == null) {
+			return expressions[slot].getValue(evaluationContext);
+		}
+		Object value = values.get(slot);
+		if(value == UNSET) { //Concurrent evaluations of the same call (parallelEvaluation) may compute it twice, all of them read the first stored value
+			Object computed = expressions[slot].getValue(evaluationContext);
+			value = values.compareAndExchange(slot, UNSET, computed);
+			if(value == UNSET) {
+				value = computed;
+			}
+		}
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	AtomicReferenceArray<Object> values(MethodInvocation invocation) {
+		if(invocation instanceof RoutedMethodInvocation routedInvocation) {
+			return (AtomicReferenceArray<Object>) routedInvocation.computeUserAttributeIfAbsent(attributeName, name -> newValues());
+		}
+		if(!(invocation instanceof ProxyMethodInvocation proxyInvocation)) {
+			return null;
+		}
+		synchronized (invocation) { //Spring AOP invocations keep their user attributes in a plain map
+			AtomicReferenceArray<Object> values = (AtomicReferenceArray<Object>) proxyInvocation.getUserAttribute(attributeName);
+			if(values == null) {
+				values = newValues();
+				proxyInvocation.setUserAttribute(attributeName, values);
+			}
+			return values;
+		}
+	}
+
+	private AtomicReferenceArray<Object> newValues() {
+		Object[] values = new Object[expressions.length];
+		Arrays.fill(values, UNSET);
+		return new AtomicReferenceArray<>(values);
+	}
+
+	public List<String> getExpressionStrings() {
+		return Arrays.stream(expressions).map(SpelExpression::getExpressionString).toList();
+	}
+
+	/**
+	 * Find the subexpressions repeated by the conditions and set their rewritten form (CompiledSpelCondition.sharedExpression)
+	 * @param conditions of the candidates of one routed method
+	 * @param parser parses the subexpressions and rewritten conditions, returns null when the text can not be parsed
+	 * @return null when nothing is shared
+	 */
+	static CommonSubexpressions analyze(List<CompiledSpelCondition> conditions, Function<String, SpelExpression> parser) {
+		Map<String, Integer> occurrences = new HashMap<>();
+		for(CompiledSpelCondition condition: conditions) {
+			condition.sharedExpression = null;
+			condition.commonSubexpressions = null;
+			countCandidates(condition.getExpression().getAST(), condition.idempotent, occurrences);
+		}
+		Map<String, Integer> slots = new LinkedHashMap<>();
+		List<SpelExpression> expressions = new ArrayList<>();
+		Map<CompiledSpelCondition, List<Shared>> sharedByCondition = new LinkedHashMap<>();
+		for(CompiledSpelCondition condition: conditions) {
+			List<Shared> shared = new ArrayList<>();
+			collectShared(condition.getExpression().getAST(), condition.idempotent, occurrences, shared);
+			for(Shared subexpression: shared) {
+				if(!slots.containsKey(subexpression.text())) {
+					SpelExpression expression = parser.apply(subexpression.text());
+					if(expression == null) {
+						continue;
+					}
+					slots.put(subexpression.text(), expressions.size());
+					expressions.add(expression);
+				}
+			}
+			if(!shared.isEmpty()) {
+				sharedByCondition.put(condition, shared);
+			}
+		}
+		if(expressions.isEmpty()) {
+			return null;
+		}
+		Map<String, Integer> variableSlots = new HashMap<>();
+		slots.forEach((text, slot) -> variableSlots.put(VARIABLE_PREFIX + slot, slot));
+		CommonSubexpressions commonSubexpressions = new CommonSubexpressions(variableSlots, expressions.toArray(SpelExpression[]::new));
+		sharedByCondition.forEach((condition, shared) -> {
+			String expressionString = condition.getExpression().getExpressionString();
+			List<int[]> ranges = new ArrayList<>();
+			for(Shared subexpression: shared) {
+				if(!slots.containsKey(subexpression.text())) {
+					continue;
+				}
+				int[] range = locate(expressionString, subexpression);
+				if(range == null) { //Keep the original condition
+					return;
+				}
+				ranges.add(new int[] { range[0], range[1], slots.get(subexpression.text()) });
+			}
+			//Replaced from the end, so the pending ranges keep their positions
+			ranges.sort(Comparator.comparingInt((int[] range) -> range[0]).reversed());
+			StringBuilder rewritten = new StringBuilder(expressionString);
+			for(int[] range: ranges) {
+				rewritten.replace(range[0], range[1], "#" + VARIABLE_PREFIX + range[2]);
+			}
+			SpelExpression sharedExpression = parser.apply(rewritten.toString());
+			if(sharedExpression != null) {
+				condition.sharedExpression = sharedExpression;
+				condition.commonSubexpressions = commonSubexpressions;
+			}
+		});
+		return commonSubexpressions;
+	}
+
+	/**
+	 * @param calls the condition is idempotent, so its calls can be shared
+	 */
+	private static void countCandidates(SpelNode node, boolean calls, Map<String, Integer> occurrences) {
+		if(node instanceof Selection || node instanceof Projection) { //#this changes inside them
+			return;
+		}
+		if(isShareable(node, calls)) {
+			occurrences.merge(node.toStringAST(), 1, Integer::sum);
+		}
+		if(node instanceof CompoundExpression) {
+			String[] prefixes = prefixes(node, calls);
+			for(int last=1;last<prefixes.length;last++) {
+				if(prefixes[last] != null) {
+					occurrences.merge(prefixes[last], 1, Integer::sum);
+				}
+			}
+		}
+		for(int i=0;i<node.getChildCount();i++) {
+			countCandidates(node.getChild(i), calls, occurrences);
+		}
+	}
+
+	/**
+	 * Subexpression found at a condition, from the first to the last node of its text (the same node unless it is the head of a chain)
+	 */
+	private record Shared(String text, SpelNode first, SpelNode last) {
+	}
+
+	/**
+	 * Outermost repeated nodes, or the longest repeated head of a.b().c() chains
+	 */
+	private static void collectShared(SpelNode node, boolean calls, Map<String, Integer> occurrences, List<Shared> shared) {
+		if(node instanceof Selection || node instanceof Projection) {
+			return;
+		}
+		if(isShareable(node, calls) && occurrences.getOrDefault(node.toStringAST(), 0) > 1) {
+			shared.add(new Shared(node.toStringAST(), node, node));
+			return;
+		}
+		int first = 0;
+		if(node instanceof CompoundExpression) {
+			String[] prefixes = prefixes(node, calls);
+			for(int last=prefixes.length-1;last>0;last--) {
+				if(prefixes[last] != null && occurrences.getOrDefault(prefixes[last], 0) > 1) {
+					shared.add(new Shared(prefixes[last], node.getChild(0), node.getChild(last)));
+					first = last+1;
+					break;
+				}
+			}
+		}
+		for(int i=first;i<node.getChildCount();i++) {
+			collectShared(node.getChild(i), calls, occurrences, shared);
+		}
+	}
+
+	/**
+	 * @return text of the chain head ending at each child (as CompoundExpression.toStringAST writes it), null when not shareable.
+	 * The whole chain is left out, it is the node itself
+	 */
+	private static String[] prefixes(SpelNode compound, boolean calls) {
+		String[] prefixes = new String[compound.getChildCount()-1];
+		StringBuilder text = new StringBuilder(compound.getChild(0).toStringAST());
+		boolean hasCall = hasCall(compound.getChild(0));
+		boolean excluded = isContextual(compound.getChild(0)) || hasSideEffects(compound.getChild(0));
+		for(int last=1;last<prefixes.length;last++) {
+			SpelNode child = compound.getChild(last);
+			if(child instanceof SpelNodeImpl childImpl && childImpl.isNullSafe()) {
+				text.append("?.");
+			}else if(!(child instanceof Indexer)) {
+				text.append('.');
+			}
+			text.append(child.toStringAST());
+			hasCall |= hasCall(child);
+			excluded |= isContextual(child) || hasSideEffects(child);
+			prefixes[last] = !excluded && (calls || !hasCall) ? text.toString() : null;
+		}
+		return prefixes;
+	}
+
+	/**
+	 * Chains, function calls and operators on them, worth sharing when they access a property or index (a chain) or call something
+	 * @param calls method, function and bean calls can be shared
+	 */
+	private static boolean isShareable(SpelNode node, boolean calls) {
+		if(!(node instanceof CompoundExpression || node instanceof FunctionReference || node instanceof Operator)) {
+			return false;
+		}
+		if(isContextual(node) || hasSideEffects(node)) {
+			return false;
+		}
+		boolean hasCall = hasCall(node);
+		return calls ? hasCall || hasChain(node) : !hasCall && hasChain(node);
+	}
+
+	/**
+	 * @return a method, function or bean call, their result may change on every call
+	 */
+	private static boolean hasCall(SpelNode node) {
+		return contains(node, child-> child instanceof MethodReference || child instanceof FunctionReference || child instanceof BeanReference);
+	}
+
+	/**
+	 * @return an assignment or a constructor, never shared
+	 */
+	private static boolean hasSideEffects(SpelNode node) {
+		return contains(node, child-> child instanceof Assign || child instanceof ConstructorReference);
+	}
+
+	private static boolean hasChain(SpelNode node) {
+		return contains(node, CompoundExpression.class::isInstance);
+	}
+
+	private static boolean contains(SpelNode node, Predicate<SpelNode> matches) {
+		if(matches.test(node)) {
+			return true;
+		}
+		for(int i=0;i<node.getChildCount();i++) {
+			if(contains(node.getChild(i), matches)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isContextual(SpelNode node) {
+		return contains(node, child-> child instanceof VariableReference && child.toStringAST().equals("#this"));
+	}
+
+	/**
+	 * Position of the subexpression at the condition text, taken from the AST so text found elsewhere (string literals) is never replaced.
+	 * SpEL node positions cover the name of bean, method and function references but not the @ prefix nor the arguments,
+	 * so the end is the first one, from the last node position, whose text parses back to the same subexpression.
+	 * @return {start, end}, null when it can not be located (parenthesized heads)
+	 */
+	private static int[] locate(String expressionString, Shared shared) {
+		SpelNode first = firstNode(shared.first());
+		int start = first.getStartPosition();
+		if(first instanceof BeanReference && start > 0) { //@name or &name
+			start--;
+		}
+		int from = endPosition(shared.last());
+		for(int end = from; end <= expressionString.length(); end++) {
+			char last = expressionString.charAt(end-1);
+			if(end != from && last != ')' && last != ']') {
+				continue;
+			}
+			try {
+				if(((SpelExpression) LOCATION_PARSER.parseExpression(expressionString.substring(start, end))).getAST().toStringAST().equals(shared.text())) {
+					return new int[] { start, end };
+				}
+			}catch (ParseException e) {
+				//Not a whole subexpression yet
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the node of the subtree starting first at the text
+	 */
+	private static SpelNode firstNode(SpelNode node) {
+		SpelNode first = node;
+		for(int i=0;i<node.getChildCount();i++) {
+			SpelNode childFirst = firstNode(node.getChild(i));
+			if(childFirst.getStartPosition() <= first.getStartPosition()) { //The innermost node on ties, compound nodes start at their first child
+				first = childFirst;
+			}
+		}
+		return first;
+	}
+
+	private static int endPosition(SpelNode node) {
+		int end = node.getEndPosition();
+		for(int i=0;i<node.getChildCount();i++) {
+			end = Math.max(end, endPosition(node.getChild(i)));
+		}
+		return end;
+	}
+}
@@ -0,0 +1,94 @@
+package io.github.danipenaperez.lib.flowedrouting.spel;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.VariableReference;
+import org.springframework.expression.spel.standard.SpelExpression;
+
+import lombok.Getter;
+
+/**
+ * Parsed @FlowSpelCondition expression, stored as RoutedMethodDefinition.preparedCondition
+ */
+@Getter
+public class CompiledSpelCondition {
+
+	private final SpelExpression expression;
+	/**
+	 * #variables referenced by the expression, in order of appearance
+	 */
+	private final String[] referencedVariables;
+	/**
+	 * Bytecode compilation is attempted only once, after the first interpreted evaluation
+	 */
+	volatile boolean compilationChecked;
+	/**
+	 * Left side of key == 'constant' conditions, parsed on its own (see SpELEvaluator.equalityCondition)
+	 */
+	SpelExpression equalityKey;
+	String equalityValue;
+	/**
+	 * @FlowSpelCondition(idempotent = true), its calls can be shared with the other idempotent conditions
+	 */
+	boolean idempotent;
+	/**
+	 * expression reading the shared subexpressions as #__cseN variables, null when it does not share any
+	 */
+	SpelExpression sharedExpression;
+	CommonSubexpressions commonSubexpressions;
+	/**
+	 * Routed interface method parameter names, resolved at refresh (see SpELEvaluator.prepareDispatch), null until then
+	 */
+	String[] parameterNames;
+	/**
+	 * Argument position of each referenced variable, -1 when it is not a parameter, resolved with parameterNames
+	 */
+	int[] argumentIndexes;
+	/**
+	 * Key of conditions without variables, their result does not depend on the arguments
+	 */
+	final SpelConditionKey constantKey;
+
+	public CompiledSpelCondition(SpelExpression expression) {
+		this.expression = expression;
+		Set<String> variables = new LinkedHashSet<>();
+		collectVariables(expression.getAST(), variables);
+		this.referencedVariables = variables.toArray(String[]::new);
+		this.constantKey = referencedVariables.length == 0 ? new SpelConditionKey(expression.getExpressionString(), new Object[0]) : null;
+	}
+
+	/**
+	 * @param parameterNames of the routed interface method
+	 */
+	void bindParameters(String[] parameterNames) {
+		this.argumentIndexes = argumentIndexes(parameterNames);
+		this.parameterNames = parameterNames;
+	}
+
+	int[] argumentIndexes(String[] parameterNames) {
+		int[] indexes = new int[referencedVariables.length];
+		for(int v=0;v<referencedVariables.length;v++) {
+			indexes[v] = Arrays.asList(parameterNames).indexOf(referencedVariables[v]);
+		}
+		return indexes;
+	}
+
+	/**
+	 * @return the expression evaluated for the candidate
+	 */
+	public SpelExpression getEvaluatedExpression() {
+		return sharedExpression != null ? sharedExpression : expression;
+	}
+
+	private static void collectVariables(SpelNode node, Set<String> variables) {
+		if(node instanceof VariableReference) {
+			variables.add(node.toStringAST().substring(1)); //#name
+		}
+		for(int i=0;i<node.getChildCount();i++) {
+			collectVariables(node.getChild(i), variables);
+		}
+	}
+}
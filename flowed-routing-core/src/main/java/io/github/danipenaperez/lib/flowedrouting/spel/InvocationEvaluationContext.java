@@ -0,0 +1,42 @@
+package io.github.danipenaperez.lib.flowedrouting.spel;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * EvaluationContext of the SpEL conditions of a routed call, one per evaluation (see SpELEvaluator.evaluationContext).
+ * Arguments are read by position of the parameter names resolved at refresh and #__cseN variables through CommonSubexpressions,
+ * accessors, resolvers, functions and the bean resolver come from a context shared by every call, so it only holds references to the call.
+ */
+final class InvocationEvaluationContext extends ArgumentsEvaluationContext {
+
+	private final MethodInvocation invocation;
+	private final CommonSubexpressions commonSubexpressions;
+	private AtomicReferenceArray<Object> sharedValues;
+
+	/**
+	 * @param shared fully initialized context, only read from now on
+	 * @param parameterNames
+	 * @param invocation
+	 * @param commonSubexpressions null when the condition does not share any
+	 */
+	InvocationEvaluationContext(StandardEvaluationContext shared, String[] parameterNames, MethodInvocation invocation, CommonSubexpressions commonSubexpressions) {
+		super(shared, parameterNames, invocation.getArguments());
+		this.invocation = invocation;
+		this.commonSubexpressions = commonSubexpressions;
+	}
+
+	@Override
+	protected Object lookupSharedVariable(String name) {
+		int slot = commonSubexpressions == null ? -1 : commonSubexpressions.slot(name);
+		if(slot >= 0) {
+			if(sharedValues == null) {
+				sharedValues = commonSubexpressions.values(invocation);
+			}
+			return commonSubexpressions.value(slot, sharedValues, this);
+		}
+		return super.lookupSharedVariable(name);
+	}
+}
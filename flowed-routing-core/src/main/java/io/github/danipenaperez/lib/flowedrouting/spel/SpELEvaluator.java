@@ -1,43 +1,308 @@
 package io.github.danipenaperez.lib.flowedrouting.spel;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.Literal;
+import org.springframework.expression.spel.ast.OpEQ;
+import org.springframework.expression.spel.ast.StringLiteral;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ReflectionUtils;
 
 import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
-import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.IndexableEvaluator;
 import io.github.danipenaperez.lib.flowedrouting.evaluator.annotation.EvaluatorType;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
 import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @EvaluatorType("SpEL")
-public class SpELEvaluator implements Evaluator{
+public class SpELEvaluator implements IndexableEvaluator{
 
 	protected ApplicationContext applicationContext;
 	protected BeanFactoryResolver beanFactoryResolver;
-	
+	protected SpelCompilerMode compilerMode;
+	protected SpelExpressionParser expressionParser;
+	protected Set<String> nonCompilableExpressions = ConcurrentHashMap.newKeySet();
+	/**
+	 * Expressions already parsed by prepare/prepareDispatch, which the interceptors call concurrently (parallel startup, rule reloads).
+	 * Only used when compilerMode is OFF: a compiled expression is specialized for the argument types of the candidate that compiled it,
+	 * so the same text routed with other argument types needs its own instance
+	 */
+	private final Map<String, SpelExpression> parsedExpressions = new ConcurrentHashMap<>();
+	protected Map<String, MethodHandle> functions = new LinkedHashMap<>();
+	/**
+	 * Bean resolver, functions, accessors and resolvers of every evaluation, initialized once and then only read
+	 */
+	protected StandardEvaluationContext sharedEvaluationContext = new StandardEvaluationContext();
+	/**
+	 * Subclass overriding the deprecated assembleEvaluationContext, detected once at construction
+	 */
+	private final boolean assemblesEvaluationContext;
+
 	public SpELEvaluator(ApplicationContext applicationContext) {
+		this(applicationContext, SpelCompilerMode.OFF);
+	}
+
+	/**
+	 * @param applicationContext
+	 * @param compilerMode MIXED or IMMEDIATE enables the SpEL bytecode compiler for the condition expressions
+	 */
+	public SpELEvaluator(ApplicationContext applicationContext, SpelCompilerMode compilerMode) {
 		this.applicationContext=applicationContext;
 		this.beanFactoryResolver= new BeanFactoryResolver(this.applicationContext);
+		this.compilerMode=compilerMode;
+		this.expressionParser = new SpelExpressionParser(new SpelParserConfiguration(compilerMode, applicationContext.getClassLoader()));
+		this.sharedEvaluationContext.setBeanResolver(beanFactoryResolver);
+		//Lazily created by StandardEvaluationContext, create them now so concurrent evaluations only read them
+		this.sharedEvaluationContext.getPropertyAccessors();
+		this.sharedEvaluationContext.getConstructorResolvers();
+		this.sharedEvaluationContext.getMethodResolvers();
+		this.sharedEvaluationContext.getTypeLocator();
+		this.sharedEvaluationContext.getTypeConverter();
+		this.assemblesEvaluationContext = ReflectionUtils.findMethod(getClass(), "assembleEvaluationContext", MethodInvocation.class).getDeclaringClass() != SpELEvaluator.class
+				|| ReflectionUtils.findMethod(getClass(), "assembleEvaluationContext", StandardEvaluationContext.class, MethodInvocation.class).getDeclaringClass() != SpELEvaluator.class;
 	}
 
+	/**
+	 * Make a function available to every condition as #name(...), register before the interceptors are built
+	 * @param name
+	 * @param function
+	 */
+	public void registerFunction(String name, MethodHandle function) {
+		functions.put(name, function);
+		sharedEvaluationContext.registerFunction(name, function);
+	}
+
+	/**
+	 * @deprecated conditions are evaluated with a lightweight context that reads the arguments and delegates everything else
+	 * to sharedEvaluationContext (customize that one instead, with registerFunction for functions).
+	 * Still honored when overridden, at the cost of a new StandardEvaluationContext per evaluation and no common subexpressions.
+	 */
+	@Deprecated
 	protected StandardEvaluationContext assembleEvaluationContext(MethodInvocation invocation) {
-		
-		StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
+		return assembleEvaluationContext(new StandardEvaluationContext(), invocation);
+	}
+
+	/**
+	 * @deprecated see assembleEvaluationContext(MethodInvocation)
+	 */
+	@Deprecated
+	protected StandardEvaluationContext assembleEvaluationContext(StandardEvaluationContext evaluationContext, MethodInvocation invocation) {
 		evaluationContext.setBeanResolver(beanFactoryResolver);//Set Spring context accesor
-		for(int i=0 ;i < invocation.getMethod().getParameters().length;i++) {
-			evaluationContext.setVariable(invocation.getMethod().getParameters()[i].getName(), invocation.getArguments()[i]);
+		functions.forEach(evaluationContext::registerFunction);
+		Parameter[] parameters = invocation.getMethod().getParameters();
+		for(int i=0 ;i < parameters.length;i++) {
+			evaluationContext.setVariable(parameters[i].getName(), invocation.getArguments()[i]);
 		}
-		
 		return evaluationContext;
-		
+	}
+
+	/**
+	 * @return true when a subclass overrides the deprecated assembleEvaluationContext, so its context is used
+	 */
+	protected boolean assemblesEvaluationContext() {
+		return assemblesEvaluationContext;
+	}
+
+	/**
+	 * @param condition null for definitions not prepared by an interceptor
+	 * @param invocation
+	 * @return context of this evaluation, it only references the call and the shared context
+	 */
+	private InvocationEvaluationContext evaluationContext(CompiledSpelCondition condition, MethodInvocation invocation) {
+		String[] parameterNames = condition == null ? null : condition.parameterNames;
+		return new InvocationEvaluationContext(sharedEvaluationContext, parameterNames != null ? parameterNames : parameterNames(invocation.getMethod()),
+				invocation, condition == null ? null : condition.commonSubexpressions);
+	}
+
+	private static String[] parameterNames(Method method) {
+		return Arrays.stream(method.getParameters()).map(Parameter::getName).toArray(String[]::new);
+	}
+
+	/**
+	 * Parse the @FlowSpelCondition expression once, so invalid expressions are detected at startup.
+	 * Only writes the candidate, like prepareDispatch, so both can run for several routing tables at the same time
+	 */
+	@Override
+	public void prepare(RoutedMethodDefinition routedMethodDefinition) throws FlowedRoutingConfigurationException {
+		FlowSpelCondition spelCondition = routedMethodDefinition.getConditionAnnotation(FlowSpelCondition.class);
+		if(spelCondition == null) {
+			throw new FlowedRoutingConfigurationException(String.format("[%s] declares FlowConditionType = [SpEL] , but not found @FlowSpelCondition annotation", routedMethodDefinition.getMethod()));
+		}
+		CompiledSpelCondition condition = new CompiledSpelCondition(parseExpression(spelCondition.evaluationExpression()));
+		condition.idempotent = spelCondition.idempotent();
+		prepareEquality(condition);
+		routedMethodDefinition.setPreparedCondition(condition);
+	}
+
+	/**
+	 * Detect key == 'constant' (either side), the key is parsed again alone to be evaluated once for a run of candidates
+	 */
+	protected void prepareEquality(CompiledSpelCondition condition) {
+		SpelNode ast = condition.getExpression().getAST();
+		if(!(ast instanceof OpEQ)) {
+			return;
+		}
+		SpelNode left = ast.getChild(0);
+		SpelNode right = ast.getChild(1);
+		StringLiteral constant = right instanceof StringLiteral rightLiteral ? rightLiteral : left instanceof StringLiteral leftLiteral ? leftLiteral : null;
+		SpelNode key = constant == right ? left : right;
+		if(constant == null || key instanceof Literal) {
+			return;
+		}
+		try {
+			condition.equalityKey = parseExpression(key.toStringAST());
+			condition.equalityValue = (String) constant.getLiteralValue().getValue();
+		}catch (FlowedRoutingConfigurationException e) {
+			log.debug("SpEL condition [{}] will not be indexed : {}", condition.getExpression().getExpressionString(), e.getMessage());
+		}
+	}
+
+	/**
+	 * Share the subexpressions repeated by the conditions of the method, evaluated once per invocation (see CommonSubexpressions)
+	 */
+	@Override
+	public void prepareDispatch(List<RoutedMethodDefinition> candidates) {
+		List<CompiledSpelCondition> conditions = candidates.stream()
+				.map(RoutedMethodDefinition::getPreparedCondition)
+				.filter(CompiledSpelCondition.class::isInstance)
+				.map(CompiledSpelCondition.class::cast)
+				.toList();
+		Method routedMethod = candidates.get(0).getRoutedMethod();
+		if(routedMethod != null) { //Arguments are bound by the routed interface parameter names
+			String[] parameterNames = parameterNames(routedMethod);
+			conditions.forEach(condition-> condition.bindParameters(parameterNames));
+		}
+		if(assemblesEvaluationContext()) { //Custom contexts do not resolve the shared subexpression variables
+			return;
+		}
+		CommonSubexpressions commonSubexpressions = CommonSubexpressions.analyze(conditions, this::parseSharedExpression);
+		if(commonSubexpressions != null) {
+			log.debug("{} evaluated once per call for {}", commonSubexpressions.getExpressionStrings(), candidates.get(0).getMethod().getName());
+		}
+	}
+
+	private SpelExpression parseSharedExpression(String expressionString) {
+		try {
+			return parseExpression(expressionString);
+		}catch (FlowedRoutingConfigurationException e) {
+			log.debug("SpEL subexpression [{}] will not be shared : {}", expressionString, e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public EqualityCondition equalityCondition(RoutedMethodDefinition routedMethodDefinition) {
+		if(routedMethodDefinition.getPreparedCondition() instanceof CompiledSpelCondition condition && condition.equalityKey != null) {
+			return new EqualityCondition(condition.equalityKey.getExpressionString(), condition.equalityValue);
+		}
+		return null;
+	}
+
+	@Override
+	public Object evaluateEqualityKey(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+		CompiledSpelCondition condition = (CompiledSpelCondition) routedMethodDefinition.getPreparedCondition();
+		if(assemblesEvaluationContext()) {
+			return condition.equalityKey.getValue(assembleEvaluationContext(invocation));
+		}
+		return condition.equalityKey.getValue(evaluationContext(condition, invocation));
+	}
+
+	protected SpelExpression parseExpression(String expressionString) throws FlowedRoutingConfigurationException {
+		boolean shared = compilerMode == SpelCompilerMode.OFF;
+		SpelExpression expression = shared ? parsedExpressions.get(expressionString) : null;
+		if(expression != null) {
+			return expression;
+		}
+		try {
+			expression = (SpelExpression) expressionParser.parseExpression(expressionString);
+		}catch (ParseException e) {
+			throw new FlowedRoutingConfigurationException(String.format("Invalid SpEL expression [%s] : %s", expressionString, e.getMessage()));
+		}
+		if(!shared) {
+			return expression;
+		}
+		SpelExpression parsed = parsedExpressions.putIfAbsent(expressionString, expression);
+		return parsed != null ? parsed : expression;
 	}
 
 	@Override
 	public boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
-		FlowSpelCondition spelCondition = routedMethodDefinition.getMethod().getAnnotation(FlowSpelCondition.class);
-		StandardEvaluationContext evaluationContext = assembleEvaluationContext(invocation);
-		return new SpelExpressionParser().parseExpression(spelCondition.evaluationExpression()).getValue(evaluationContext, Boolean.class);
+		CompiledSpelCondition condition = (CompiledSpelCondition) routedMethodDefinition.getPreparedCondition();
+		EvaluationContext evaluationContext = assemblesEvaluationContext() ? assembleEvaluationContext(invocation) : evaluationContext(condition, invocation);
+		if(condition == null) { //Definition not prepared by an interceptor
+			FlowSpelCondition spelCondition = routedMethodDefinition.getConditionAnnotation(FlowSpelCondition.class);
+			return expressionParser.parseExpression(spelCondition.evaluationExpression()).getValue(evaluationContext, Boolean.class);
+		}
+		boolean result = condition.getEvaluatedExpression().getValue(evaluationContext, Boolean.class);
+		if(compilerMode != SpelCompilerMode.OFF && !condition.compilationChecked) {
+			checkCompilation(condition);
+		}
+		return result;
+	}
+
+	/**
+	 * Same expression with the same referenced argument values gives the same result within a request
+	 */
+	@Override
+	public Object conditionKey(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+		CompiledSpelCondition condition = (CompiledSpelCondition) routedMethodDefinition.getPreparedCondition();
+		if(condition == null) {
+			return null;
+		}
+		if(condition.constantKey != null) {
+			return condition.constantKey;
+		}
+		int[] argumentIndexes = condition.argumentIndexes != null ? condition.argumentIndexes : condition.argumentIndexes(parameterNames(invocation.getMethod()));
+		Object[] arguments = invocation.getArguments();
+		Object[] values = new Object[argumentIndexes.length];
+		for(int v=0;v<argumentIndexes.length;v++) {
+			if(argumentIndexes[v] >= 0) {
+				values[v] = arguments[argumentIndexes[v]];
+			}
+		}
+		return new SpelConditionKey(condition.getExpression().getExpressionString(), values);
+	}
+
+	/**
+	 * Once the expression was interpreted (so SpEL knows the runtime types) try to compile it and report when is not possible
+	 * @param condition
+	 */
+	protected void checkCompilation(CompiledSpelCondition condition) {
+		condition.compilationChecked = true;
+		if(!condition.getEvaluatedExpression().compileExpression()) {
+			String expressionString = condition.getEvaluatedExpression().getExpressionString();
+			if(nonCompilableExpressions.add(expressionString)) {
+				log.warn("SpEL expression [{}] can not be compiled, it will be interpreted on each evaluation", expressionString);
+			}
+		}
+	}
+
+	/**
+	 * Expressions that the SpEL compiler could not compile (only populated when compilerMode is not OFF)
+	 * @return
+	 */
+	public Set<String> getNonCompilableExpressions(){
+		return Collections.unmodifiableSet(nonCompilableExpressions);
 	}
-}
\ No newline at end of file
+}
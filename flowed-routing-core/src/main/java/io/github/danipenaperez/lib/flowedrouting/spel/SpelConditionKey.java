@@ -0,0 +1,24 @@
+package io.github.danipenaperez.lib.flowedrouting.spel;
+
+import java.util.Arrays;
+
+/**
+ * Identity of a SpEL condition result: the expression and the values of the arguments it references (compared by content)
+ */
+public record SpelConditionKey(String expression, Object[] arguments) {
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof SpelConditionKey key && expression.equals(key.expression) && Arrays.equals(arguments, key.arguments);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * expression.hashCode() + Arrays.hashCode(arguments);
+	}
+
+	@Override
+	public String toString() {
+		return expression + Arrays.toString(arguments);
+	}
+}
@@ -5,10 +5,20 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
-
+/**
+ * Condition of @FlowConditionType("SpEL") candidates, an expression over the routed method parameters (#userName) and beans (@name).
+ * Subexpressions repeated by the conditions of the same routed method are evaluated once per call and reused by the following candidates:
+ * property and indexer chains over the parameters (#user.account.tier, #headers['tenant']) and operators on them are always shared,
+ * method, function and bean calls only between idempotent conditions.
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.METHOD})
 public @interface FlowSpelCondition {
 	String evaluationExpression();
-	
-}
\ No newline at end of file
+
+	/**
+	 * The method, function and bean calls of the expression have no side effects and return the same result during a routed call,
+	 * so the ones repeated by other idempotent conditions of the method are made once per call. Otherwise every condition makes its own calls.
+	 */
+	boolean idempotent() default false;
+}
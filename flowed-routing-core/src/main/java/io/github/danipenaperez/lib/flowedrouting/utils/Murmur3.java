@@ -0,0 +1,75 @@
+package io.github.danipenaperez.lib.flowedrouting.utils;
+
+/**
+ * MurmurHash3 x86 32 bit over the UTF-8 bytes of a text, encoded on the fly (no byte[] allocated).
+ * Same values as other murmur3_32 implementations (Guava murmur3_32_fixed, mmh3...) for the same UTF-8 input and seed.
+ */
+public final class Murmur3 {
+
+	private static final int C1 = 0xcc9e2d51;
+	private static final int C2 = 0x1b873593;
+
+	private Murmur3() {
+	}
+
+	public static int hash32(CharSequence text, int seed) {
+		int h1 = seed;
+		int k1 = 0;
+		int shift = 0;
+		int length = 0;
+		for(int i=0;i<text.length();i++) {
+			char c = text.charAt(i);
+			int encoded; //UTF-8 bytes of the code point, first byte on the lowest bits
+			int count;
+			if(c < 0x80) {
+				encoded = c;
+				count = 1;
+			}else if(c < 0x800) {
+				encoded = (0xc0 | (c >>> 6)) | (0x80 | (c & 0x3f)) << 8;
+				count = 2;
+			}else if(Character.isHighSurrogate(c) && i+1 < text.length() && Character.isLowSurrogate(text.charAt(i+1))) {
+				int codePoint = Character.toCodePoint(c, text.charAt(++i));
+				encoded = (0xf0 | (codePoint >>> 18)) | (0x80 | ((codePoint >>> 12) & 0x3f)) << 8
+						| (0x80 | ((codePoint >>> 6) & 0x3f)) << 16 | (0x80 | (codePoint & 0x3f)) << 24;
+				count = 4;
+			}else if(Character.isSurrogate(c)) { //Unpaired, replaced as String.getBytes(UTF_8) does
+				encoded = '?';
+				count = 1;
+			}else {
+				encoded = (0xe0 | (c >>> 12)) | (0x80 | ((c >>> 6) & 0x3f)) << 8 | (0x80 | (c & 0x3f)) << 16;
+				count = 3;
+			}
+			for(int b=0;b<count;b++) {
+				k1 |= ((encoded >>> (b * 8)) & 0xff) << shift;
+				shift += 8;
+				if(shift == 32) {
+					h1 = mixH1(h1, mixK1(k1));
+					k1 = 0;
+					shift = 0;
+				}
+			}
+			length += count;
+		}
+		if(shift > 0) {
+			h1 ^= mixK1(k1);
+		}
+		return fmix(h1 ^ length);
+	}
+
+	private static int mixK1(int k1) {
+		return Integer.rotateLeft(k1 * C1, 15) * C2;
+	}
+
+	private static int mixH1(int h1, int k1) {
+		return Integer.rotateLeft(h1 ^ k1, 13) * 5 + 0xe6546b64;
+	}
+
+	private static int fmix(int h1) {
+		h1 ^= h1 >>> 16;
+		h1 *= 0x85ebca6b;
+		h1 ^= h1 >>> 13;
+		h1 *= 0xc2b2ae35;
+		h1 ^= h1 >>> 16;
+		return h1;
+	}
+}
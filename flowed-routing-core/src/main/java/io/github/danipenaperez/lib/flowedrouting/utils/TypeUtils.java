@@ -2,6 +2,8 @@ package io.github.danipenaperez.lib.flowedrouting.utils;
 
 import org.springframework.util.ClassUtils;
 
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedInterfaceProxy;
+
 public class TypeUtils {
 
 	/**
@@ -10,7 +12,7 @@ public class TypeUtils {
 	 * @return
 	 */
 	public static boolean isProxy(Object obj) {
-		boolean isProxy = false;
+		boolean isProxy = obj instanceof RoutedInterfaceProxy; //Build time generated
 		for (Class _interface: obj.getClass().getInterfaces()) {
 			if(_interface.equals(org.springframework.aop.SpringProxy.class)||
 			_interface.equals(org.springframework.aop.framework.Advised.class)||
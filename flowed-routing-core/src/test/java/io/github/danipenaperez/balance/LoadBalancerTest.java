@@ -0,0 +1,176 @@
+package io.github.danipenaperez.balance;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.support.GenericApplicationContext;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.FlowBalanced;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.balance.LoadBalancer;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+import reactor.core.publisher.Mono;
+
+public class LoadBalancerTest {
+
+	@RoutedInterface
+	public interface PricingService {
+		String price(String product);
+	}
+
+	public static abstract class PricingEngine implements PricingService {
+		static Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+		static volatile String slow;
+		static volatile String failing;
+		public String price(String product) {
+			String name = getClass().getSimpleName();
+			calls.computeIfAbsent(name, key-> new AtomicInteger()).incrementAndGet();
+			if(name.equals(failing)) {
+				throw new IllegalStateException(name+" is down");
+			}
+			if(name.equals(slow)) {
+				try {
+					Thread.sleep(5);
+				}catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return name;
+		}
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	@FlowBalanced(value = "engines", decayMillis = 100)
+	public static class EngineA extends PricingEngine {
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	@FlowBalanced(value = "engines", decayMillis = 100)
+	public static class EngineB extends PricingEngine {
+	}
+
+	@RoutedInterface
+	public interface QuoteService {
+		Mono<String> quote(String product);
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	@FlowBalanced("quotes")
+	public static class PendingQuotes implements QuoteService {
+		static volatile CompletableFuture<String> pending;
+		public Mono<String> quote(String product) { return Mono.fromFuture(pending); }
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	@FlowBalanced("quotes")
+	public static class OtherPendingQuotes extends PendingQuotes {
+	}
+
+	@RoutedComponent
+	public static class FreeProducts implements PricingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#product == 'free'")
+		public String price(String product) { return "free"; }
+	}
+
+	DefaultFlowRoutingInterceptor interceptor;
+	PricingService pricingService;
+
+	@BeforeEach
+	void setup() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		interceptor = new DefaultFlowRoutingInterceptor(PricingService.class);
+		interceptor.registerEvaluator(new SpELEvaluator(context));
+		interceptor.addDelegates(List.of(new EngineA(), new EngineB(), new FreeProducts()));
+		pricingService = ProxyFactory.getProxy(PricingService.class, interceptor);
+		PricingEngine.calls.clear();
+		PricingEngine.slow = null;
+		PricingEngine.failing = null;
+	}
+
+	@Test
+	void equivalentDefaultsAreRoutedAsOneBalancedCandidate() {
+		RoutedMethodDefinition[] candidates = interceptor.getDispatchTable()[0].getCandidates();
+		Assertions.assertEquals(2, candidates.length);
+		Assertions.assertEquals(2, candidates[1].getBalancer().getMembers().length);
+		Assertions.assertEquals("free", pricingService.price("free"));
+	}
+
+	@Test
+	void trafficMovesAwayFromTheSlowMember() throws Exception {
+		PricingEngine.slow = null;
+		route(200);
+		Thread.sleep(500); //Cold call peaks decay
+		PricingEngine.slow = "EngineA";
+		PricingEngine.calls.clear();
+		route(200);
+		Assertions.assertTrue(PricingEngine.calls.get("EngineB").get() > 180, PricingEngine.calls.toString());
+
+		PricingEngine.slow = "EngineB";
+		PricingEngine.calls.clear();
+		route(200);
+		Assertions.assertTrue(PricingEngine.calls.get("EngineA").get() > 180, PricingEngine.calls.toString());
+		LoadBalancer balancer = interceptor.getDispatchTable()[0].getDefaultCandidate().getBalancer();
+		Assertions.assertEquals(0, balancer.getInFlight(0) + balancer.getInFlight(1));
+	}
+
+	@Test
+	void trafficMovesAwayFromTheFailingMember() throws Exception {
+		route(200);
+		Thread.sleep(500); //Cold call peaks decay
+		PricingEngine.failing = "EngineA";
+		PricingEngine.calls.clear();
+		route(200);
+		Assertions.assertTrue(PricingEngine.calls.get("EngineB").get() > 180, PricingEngine.calls.toString());
+		LoadBalancer balancer = interceptor.getDispatchTable()[0].getDefaultCandidate().getBalancer();
+		Assertions.assertEquals(0, balancer.getInFlight(0) + balancer.getInFlight(1));
+	}
+
+	@Test
+	void reactiveResultsAreInFlightUntilTheyTerminate() throws Throwable {
+		DefaultFlowRoutingInterceptor quoteInterceptor = new DefaultFlowRoutingInterceptor(QuoteService.class);
+		quoteInterceptor.addDelegates(List.of(new PendingQuotes(), new OtherPendingQuotes()));
+		QuoteService quoteService = ProxyFactory.getProxy(QuoteService.class, quoteInterceptor);
+		LoadBalancer balancer = quoteInterceptor.getDispatchTable()[0].getDefaultCandidate().getBalancer();
+
+		PendingQuotes.pending = new CompletableFuture<>();
+		CompletableFuture<String> quote = quoteService.quote("book").toFuture();
+		Assertions.assertEquals(1, balancer.getInFlight(0) + balancer.getInFlight(1));
+		PendingQuotes.pending.complete("10");
+		Assertions.assertEquals("10", quote.get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(0, balancer.getInFlight(0) + balancer.getInFlight(1));
+
+		PendingQuotes.pending = new CompletableFuture<>();
+		quoteService.quote("book").subscribe().dispose(); //Cancelled
+		Assertions.assertEquals(0, balancer.getInFlight(0) + balancer.getInFlight(1));
+
+		@SuppressWarnings("unchecked")
+		Mono<String> unsubscribed = (Mono<String>) balancer.invoke(new Object[] {"book"});
+		Assertions.assertEquals(0, balancer.getInFlight(0) + balancer.getInFlight(1));
+		unsubscribed.subscribe().dispose();
+		Assertions.assertEquals(0, balancer.getInFlight(0) + balancer.getInFlight(1));
+	}
+
+	private void route(int calls) {
+		for(int i=0;i<calls;i++) {
+			try {
+				pricingService.price("book");
+			}catch (IllegalStateException e) { //Failing member
+			}
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package io.github.danipenaperez.cache;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.expression.spel.SpelEvaluationException;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.CachedRouting;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutingKey;
+import io.github.danipenaperez.lib.flowedrouting.cache.RoutingDecisionCache;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.annotation.EvaluatorType;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+
+public class RoutingDecisionCacheTest {
+
+	@RoutedInterface
+	public interface GreetingService {
+		@CachedRouting(maxSize = 2)
+		String greeting(@RoutingKey String userName, int times);
+
+		@CachedRouting(key = "#userName.substring(0, 1)", expireAfterWrite = 0)
+		String farewell(String userName);
+
+		@CachedRouting(expireAfterWrite = 1, timeUnit = TimeUnit.NANOSECONDS)
+		String welcome(@RoutingKey String userName);
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class DefaultGreetingService implements GreetingService {
+		public String greeting(String userName, int times) { return "Greetings for "+userName; }
+		public String farewell(String userName) { return "Bye "+userName; }
+		public String welcome(String userName) { return "Welcome "+userName; }
+	}
+
+	@RoutedComponent
+	public static class AUsersGreetingService implements GreetingService {
+		@FlowConditionType("counting")
+		public String greeting(String userName, int times) { return "You are amazing "+userName; }
+		@FlowConditionType("counting")
+		public String farewell(String userName) { return "See you soon "+userName; }
+		@FlowConditionType("counting")
+		public String welcome(String userName) { return "Glad to see you "+userName; }
+	}
+
+	@EvaluatorType("counting")
+	public static class CountingEvaluator implements Evaluator {
+		AtomicInteger evaluations = new AtomicInteger();
+		@Override
+		public boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+			evaluations.incrementAndGet();
+			return ((String) invocation.getArguments()[0]).startsWith("A");
+		}
+	}
+
+	CountingEvaluator evaluator;
+	DefaultFlowRoutingInterceptor interceptor;
+	GreetingService greetingService;
+
+	@BeforeEach
+	void setup() throws Exception {
+		evaluator = new CountingEvaluator();
+		interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.registerEvaluator(evaluator);
+		interceptor.addDelegates(List.of(new AUsersGreetingService(), new DefaultGreetingService()));
+		greetingService = ProxyFactory.getProxy(GreetingService.class, interceptor);
+	}
+
+	@Test
+	void repeatedKeysSkipEvaluators() throws Exception {
+		Assertions.assertEquals("You are amazing Alice", greetingService.greeting("Alice", 1));
+		Assertions.assertEquals("You are amazing Alice", greetingService.greeting("Alice", 2));
+		Assertions.assertEquals("Greetings for Bob", greetingService.greeting("Bob", 1));
+		Assertions.assertEquals("Greetings for Bob", greetingService.greeting("Bob", 3));
+		Assertions.assertEquals(2, evaluator.evaluations.get());
+
+		RoutingDecisionCache.Stats stats = interceptor.getDecisionCacheStats().get(GreetingService.class.getMethod("greeting", String.class, int.class));
+		Assertions.assertEquals(new RoutingDecisionCache.Stats(2, 2, 0, 2), stats);
+		Assertions.assertEquals(0.5, stats.hitRate());
+	}
+
+	@Test
+	void oldestKeysAreEvictedOverMaxSize() throws Exception {
+		greetingService.greeting("Alice", 1);
+		greetingService.greeting("Bob", 1);
+		greetingService.greeting("Carol", 1);
+		greetingService.greeting("Alice", 1);
+		Assertions.assertEquals(4, evaluator.evaluations.get());
+		RoutingDecisionCache.Stats stats = interceptor.getDecisionCacheStats().get(GreetingService.class.getMethod("greeting", String.class, int.class));
+		Assertions.assertEquals(2, stats.evictions());
+		Assertions.assertEquals(2, stats.size());
+	}
+
+	@Test
+	void keyExpressionAndExpiration() throws Exception {
+		Assertions.assertEquals("See you soon Alice", greetingService.farewell("Alice"));
+		Assertions.assertEquals("See you soon Anna", greetingService.farewell("Anna"));
+		Assertions.assertEquals(1, evaluator.evaluations.get());
+
+		greetingService.welcome("Alice");
+		Thread.sleep(1);
+		greetingService.welcome("Alice");
+		Assertions.assertEquals(3, evaluator.evaluations.get());
+	}
+
+	@Test
+	void keyExpressionReadsArgumentsByPosition() throws Exception {
+		interface KeyService {
+			@CachedRouting(key = "#region + ':' + #userName.length()")
+			String greeting(String userName, String region);
+			@CachedRouting(key = "#userName = 'Alice'")
+			String farewell(String userName);
+		}
+		RoutingDecisionCache cache = RoutingDecisionCache.forMethod(KeyService.class.getMethod("greeting", String.class, String.class));
+		Assertions.assertEquals("eu:5", cache.resolveKey(new Object[] {"Alice", "eu"}));
+		Assertions.assertEquals("us:3", cache.emptyCopy().resolveKey(new Object[] {"Bob", "us"}));
+
+		RoutingDecisionCache readOnly = RoutingDecisionCache.forMethod(KeyService.class.getMethod("farewell", String.class));
+		Assertions.assertThrows(SpelEvaluationException.class, () -> readOnly.resolveKey(new Object[] {"Bob"}));
+	}
+
+	@Test
+	void cachedRoutingRequiresKey() throws Exception {
+		interface NoKeyService {
+			@CachedRouting
+			String greeting(String userName);
+		}
+		FlowedRoutingConfigurationException exception = Assertions.assertThrows(FlowedRoutingConfigurationException.class,
+				() -> RoutingDecisionCache.forMethod(NoKeyService.class.getMethod("greeting", String.class)));
+		Assertions.assertTrue(exception.getMessage().contains("@RoutingKey"));
+	}
+}
@@ -0,0 +1,158 @@
+package io.github.danipenaperez.evaluator;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.guard.CircuitBreaker;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.guard.GuardedEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.exception.EvaluatorUnavailableException;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedMethodInvocation;
+
+public class GuardedEvaluatorTest {
+
+	@RoutedInterface
+	public interface GreetingService {
+		String greeting(String userName);
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class DefaultGreetingService implements GreetingService {
+		public String greeting(String userName) { return "Greetings for "+userName; }
+	}
+
+	@RoutedComponent
+	public static class FlaggedGreetingService implements GreetingService {
+		@FlowConditionType("remote")
+		public String greeting(String userName) { return "You are amazing "+userName; }
+	}
+
+	/**
+	 * Accepts every call, failing for "error" ("fatal" with an Error) and waiting for "slow"
+	 */
+	public static class RemoteEvaluator implements Evaluator {
+		AtomicInteger calls = new AtomicInteger();
+		@Override
+		public boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+			calls.incrementAndGet();
+			String userName = (String) invocation.getArguments()[0];
+			if(userName.equals("error")) {
+				throw new IllegalStateException("flag provider down");
+			}
+			if(userName.equals("fatal")) {
+				throw new AssertionError("flag provider broken");
+			}
+			if(userName.equals("slow")) {
+				try {
+					Thread.sleep(2_000);
+				}catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return true;
+		}
+	}
+
+	RemoteEvaluator remoteEvaluator;
+	CircuitBreaker circuitBreaker;
+	GreetingService greetingService;
+
+	@BeforeEach
+	void setup() throws Exception {
+		remoteEvaluator = new RemoteEvaluator();
+		circuitBreaker = new CircuitBreaker("remote", 2, Duration.ofMillis(100));
+		DefaultFlowRoutingInterceptor interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.registerEvaluator("remote", new GuardedEvaluator("remote", remoteEvaluator, Duration.ofMillis(50), circuitBreaker, null));
+		interceptor.addDelegates(List.of(new FlaggedGreetingService(), new DefaultGreetingService()));
+		greetingService = ProxyFactory.getProxy(GreetingService.class, interceptor);
+	}
+
+	@Test
+	void failuresAndTimeoutsTakeTheDefaultRoute() {
+		Assertions.assertEquals("You are amazing Alice", greetingService.greeting("Alice"));
+		Assertions.assertEquals("Greetings for error", greetingService.greeting("error"));
+		long start = System.nanoTime();
+		Assertions.assertEquals("Greetings for slow", greetingService.greeting("slow"));
+		Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1_000);
+	}
+
+	@Test
+	void openCircuitSkipsTheEvaluatorUntilProbeSucceeds() throws Exception {
+		greetingService.greeting("error");
+		greetingService.greeting("error");
+		Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+		Assertions.assertEquals("Greetings for Alice", greetingService.greeting("Alice"));
+		Assertions.assertEquals(2, remoteEvaluator.calls.get());
+
+		Thread.sleep(150);
+		Assertions.assertEquals("You are amazing Alice", greetingService.greeting("Alice"));
+		Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+		Assertions.assertEquals(3, remoteEvaluator.calls.get());
+	}
+
+	@Test
+	void failedProbeOpensTheCircuitAgain() throws Exception {
+		greetingService.greeting("error");
+		greetingService.greeting("error");
+		Thread.sleep(150);
+		Assertions.assertEquals("Greetings for error", greetingService.greeting("error"));
+		Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+		Thread.sleep(150);
+		Assertions.assertThrows(AssertionError.class, () -> greetingService.greeting("fatal"));
+		Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+		Assertions.assertEquals("Greetings for Alice", greetingService.greeting("Alice"));
+
+		Thread.sleep(150);
+		Assertions.assertEquals("You are amazing Alice", greetingService.greeting("Alice"));
+		Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+	}
+
+	@Test
+	void cancelledEvaluationsAreNotFailures() throws Exception {
+		CircuitBreaker singleFailureBreaker = new CircuitBreaker("remote", 1, Duration.ofMillis(100));
+		GuardedEvaluator guarded = new GuardedEvaluator("remote", remoteEvaluator, Duration.ofSeconds(5), singleFailureBreaker, null);
+		Method method = GreetingService.class.getMethod("greeting", String.class);
+		RoutedMethodInvocation slow = new RoutedMethodInvocation(method, new Object[] {"slow"}, null);
+
+		Assertions.assertInstanceOf(EvaluatorUnavailableException.class, evaluateInterrupted(guarded, slow));
+		Assertions.assertEquals(CircuitBreaker.State.CLOSED, singleFailureBreaker.getState());
+
+		Assertions.assertThrows(EvaluatorUnavailableException.class, () -> guarded.evaluate(null, new RoutedMethodInvocation(method, new Object[] {"error"}, null)));
+		Assertions.assertEquals(CircuitBreaker.State.OPEN, singleFailureBreaker.getState());
+		Thread.sleep(150);
+		evaluateInterrupted(guarded, slow); //The cancelled probe does not decide
+		Assertions.assertEquals(CircuitBreaker.State.OPEN, singleFailureBreaker.getState());
+		Assertions.assertTrue(guarded.evaluate(null, new RoutedMethodInvocation(method, new Object[] {"Alice"}, null)));
+		Assertions.assertEquals(CircuitBreaker.State.CLOSED, singleFailureBreaker.getState());
+	}
+
+	private static Throwable evaluateInterrupted(GuardedEvaluator guarded, RoutedMethodInvocation invocation) throws InterruptedException {
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		Thread caller = Thread.ofVirtual().start(() -> {
+			try {
+				guarded.evaluate(null, invocation);
+			}catch (RuntimeException e) {
+				error.set(e);
+			}
+		});
+		Thread.sleep(50);
+		caller.interrupt();
+		caller.join();
+		return error.get();
+	}
+}
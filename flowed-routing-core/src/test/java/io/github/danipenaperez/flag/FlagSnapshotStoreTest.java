@@ -0,0 +1,100 @@
+package io.github.danipenaperez.flag;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.flag.FlagSnapshotStore;
+import io.github.danipenaperez.lib.flowedrouting.flag.FlagSource;
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedMethodInvocation;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+public class FlagSnapshotStoreTest {
+
+	public static class CountingFlagSource implements FlagSource {
+		Map<String, Boolean> flags = new HashMap<>(Map.of("greeting_new_service", true, "old_flag", true));
+		Map<String, Boolean> changes = new HashMap<>();
+		int fullFetches;
+		int incrementalFetches;
+		Instant since;
+
+		@Override
+		public Map<String, Boolean> fetchAll() {
+			fullFetches++;
+			return flags;
+		}
+
+		@Override
+		public Map<String, Boolean> fetchChangedSince(Instant since) {
+			incrementalFetches++;
+			this.since = since;
+			return changes;
+		}
+	}
+
+	public static class Candidates {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#flag('greeting_new_service') && #userName != null")
+		public String greeting(String userName) { return userName; }
+	}
+
+	@Test
+	void incrementalRefreshUpdatesAndRemovesFlags() {
+		CountingFlagSource flagSource = new CountingFlagSource();
+		FlagSnapshotStore store = new FlagSnapshotStore(flagSource, 1);
+		store.refresh();
+		Assertions.assertTrue(store.isEnabled("old_flag"));
+
+		flagSource.changes.put("greeting_new_service", false);
+		flagSource.changes.put("old_flag", null);
+		store.refresh();
+		Assertions.assertEquals(Map.of("greeting_new_service", false), store.getSnapshot());
+		Assertions.assertEquals(1, flagSource.incrementalFetches);
+
+		store.refresh(); //fullRefreshEvery reached
+		Assertions.assertEquals(2, flagSource.fullFetches);
+		Assertions.assertTrue(store.isEnabled("old_flag"));
+	}
+
+	@Test
+	void incrementalRefreshOverlapsThePreviousFetch() {
+		CountingFlagSource flagSource = new CountingFlagSource();
+		FlagSnapshotStore store = new FlagSnapshotStore(flagSource, 10, Duration.ofSeconds(30));
+		store.refresh();
+		Instant firstFetch = store.getLastRefresh();
+
+		store.refresh();
+		Assertions.assertEquals(firstFetch.minusSeconds(30), flagSource.since);
+		flagSource.changes.put("greeting_new_service", true); //Reported again by the overlap
+		store.refresh();
+		Assertions.assertEquals(Map.of("greeting_new_service", true, "old_flag", true), store.getSnapshot());
+	}
+
+	@Test
+	void spelConditionsReadTheSnapshot() throws Exception {
+		CountingFlagSource flagSource = new CountingFlagSource();
+		FlagSnapshotStore store = new FlagSnapshotStore(flagSource, 0);
+		store.refresh();
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		SpELEvaluator evaluator = new SpELEvaluator(context);
+		evaluator.registerFunction(FlagSnapshotStore.SPEL_FUNCTION_NAME, store.isEnabledFunction());
+		Method method = Candidates.class.getMethod("greeting", String.class);
+		RoutedMethodDefinition definition = new RoutedMethodDefinition(method, method.getAnnotation(FlowConditionType.class), new Candidates(), false);
+		evaluator.prepare(definition);
+		RoutedMethodInvocation invocation = new RoutedMethodInvocation(method, new Object[] {"Alice"}, null);
+
+		Assertions.assertTrue(evaluator.evaluate(definition, invocation));
+		store.applyChanges(Map.of("greeting_new_service", false));
+		Assertions.assertFalse(evaluator.evaluate(definition, invocation));
+	}
+}
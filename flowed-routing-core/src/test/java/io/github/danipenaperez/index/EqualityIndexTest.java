@@ -0,0 +1,130 @@
+package io.github.danipenaperez.index;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.support.GenericApplicationContext;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.guard.CircuitBreaker;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.guard.GuardedEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.index.EqualityIndex;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+public class EqualityIndexTest {
+
+	@RoutedInterface
+	public interface GreetingService {
+		String greeting(Object tenant);
+	}
+
+	@RoutedInterface(parallelEvaluation = true)
+	public interface ParallelGreetingService {
+		String greeting(Object tenant);
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class DefaultGreetingService implements GreetingService, ParallelGreetingService {
+		public String greeting(Object tenant) { return "default"; }
+	}
+
+	@RoutedComponent
+	public static class Tenant1GreetingService implements GreetingService, ParallelGreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#tenant == 'tenant_1'")
+		public String greeting(Object tenant) { return "tenant_1"; }
+	}
+
+	@RoutedComponent
+	public static class Tenant2GreetingService implements GreetingService, ParallelGreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "'tenant_2' == #tenant")
+		public String greeting(Object tenant) { return "tenant_2"; }
+	}
+
+	@RoutedComponent
+	public static class Tenant3GreetingService implements GreetingService, ParallelGreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#tenant == 'tenant_3'")
+		public String greeting(Object tenant) { return "tenant_3"; }
+	}
+
+	@RoutedComponent
+	public static class NumericGreetingService implements GreetingService, ParallelGreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#tenant instanceof T(Integer)")
+		public String greeting(Object tenant) { return "numeric"; }
+	}
+
+	DefaultFlowRoutingInterceptor interceptor;
+	GreetingService greetingService;
+
+	@BeforeEach
+	void setup() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.registerEvaluator(new SpELEvaluator(context));
+		interceptor.addDelegates(List.of(new Tenant1GreetingService(), new Tenant2GreetingService(), new Tenant3GreetingService(), new NumericGreetingService(), new DefaultGreetingService()));
+		greetingService = ProxyFactory.getProxy(GreetingService.class, interceptor);
+	}
+
+	@Test
+	void equalityRunIsIndexed() {
+		RoutedMethodDefinition[] candidates = interceptor.getDispatchTable()[0].getCandidates();
+		EqualityIndex[] indexes = interceptor.getDispatchTable()[0].getEqualityIndexes();
+		EqualityIndex index = indexes[0];
+		Assertions.assertEquals(3, index.getEnd() - index.getStart());
+		Assertions.assertEquals(3, index.getPositions().size());
+		Assertions.assertEquals(List.of("tenant_1", "tenant_2", "tenant_3"), index.getPositions().keySet().stream().sorted().toList());
+		Assertions.assertEquals(candidates.length, indexes.length);
+	}
+
+	@Test
+	void indexedRoutingMatchesOrderedEvaluation() {
+		Assertions.assertEquals("tenant_2", greetingService.greeting("tenant_2"));
+		Assertions.assertEquals("tenant_3", greetingService.greeting("tenant_3"));
+		Assertions.assertEquals("default", greetingService.greeting("tenant_9"));
+		Assertions.assertEquals("default", greetingService.greeting(null));
+		Assertions.assertEquals("numeric", greetingService.greeting(7)); //Not a String key, evaluated in order
+	}
+
+	/**
+	 * Indexed candidates are neither evaluated one by one behind a GuardedEvaluator nor submitted by parallelEvaluation
+	 */
+	@Test
+	void guardedParallelRoutingUsesTheIndex() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		AtomicInteger evaluations = new AtomicInteger();
+		SpELEvaluator countingEvaluator = new SpELEvaluator(context) {
+			@Override
+			public boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+				evaluations.incrementAndGet();
+				return super.evaluate(routedMethodDefinition, invocation);
+			}
+		};
+		DefaultFlowRoutingInterceptor parallelInterceptor = new DefaultFlowRoutingInterceptor(ParallelGreetingService.class);
+		parallelInterceptor.registerEvaluator("SpEL", new GuardedEvaluator("SpEL", countingEvaluator, Duration.ofSeconds(1), new CircuitBreaker("SpEL", 5, Duration.ofSeconds(1)), null));
+		parallelInterceptor.addDelegates(List.of(new Tenant1GreetingService(), new Tenant2GreetingService(), new Tenant3GreetingService(), new NumericGreetingService(), new DefaultGreetingService()));
+		ParallelGreetingService parallelService = ProxyFactory.getProxy(ParallelGreetingService.class, parallelInterceptor);
+
+		Assertions.assertNotNull(parallelInterceptor.getDispatchTable()[0].getEqualityIndexes());
+		Assertions.assertEquals("tenant_2", parallelService.greeting("tenant_2"));
+		Assertions.assertEquals(0, evaluations.get());
+		Assertions.assertEquals("default", parallelService.greeting("tenant_9")); //Only the numeric candidate is evaluated
+		Assertions.assertEquals(1, evaluations.get());
+		Assertions.assertEquals("numeric", parallelService.greeting(7));
+	}
+}
@@ -0,0 +1,135 @@
+package io.github.danipenaperez.interceptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.AsyncEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.ReactiveEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.annotation.EvaluatorType;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+public class AsyncRoutingTest {
+
+	@RoutedInterface
+	public interface GreetingService {
+		CompletableFuture<String> greeting(String userName);
+		Mono<String> reactiveGreeting(String userName);
+		Mono<String> tenantGreeting(String userName);
+	}
+
+	/**
+	 * Condition completed by the test
+	 */
+	@EvaluatorType("pending")
+	public static class PendingEvaluator implements AsyncEvaluator {
+		CompletableFuture<Boolean> condition = new CompletableFuture<>();
+		@Override
+		public CompletionStage<Boolean> evaluateAsync(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+			return condition;
+		}
+	}
+
+	@EvaluatorType("vip")
+	public static class VipEvaluator implements ReactiveEvaluator {
+		@Override
+		public Mono<Boolean> evaluateReactive(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+			return Mono.delay(Duration.ofMillis(10)).map(tick-> ((String) invocation.getArguments()[0]).startsWith("vip"));
+		}
+	}
+
+	/**
+	 * Accepts the "acme" tenant of the subscriber Context, never completes for the "hold" one
+	 */
+	@EvaluatorType("tenant")
+	public static class TenantEvaluator implements ReactiveEvaluator {
+		AtomicBoolean cancelled = new AtomicBoolean();
+		@Override
+		public Mono<Boolean> evaluateReactive(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+			return Mono.deferContextual(context-> switch(context.getOrDefault("tenant", "")) {
+				case "acme" -> Mono.just(true);
+				case "hold" -> Mono.<Boolean>never().doOnCancel(() -> cancelled.set(true));
+				default -> Mono.just(false);
+			});
+		}
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class DefaultGreetingService implements GreetingService {
+		public CompletableFuture<String> greeting(String userName) { return CompletableFuture.completedFuture("Greetings for "+userName); }
+		public Mono<String> reactiveGreeting(String userName) { return Mono.just("Greetings for "+userName); }
+		public Mono<String> tenantGreeting(String userName) { return Mono.just("Greetings for "+userName); }
+	}
+
+	@RoutedComponent
+	public static class SpecialGreetingService implements GreetingService {
+		@FlowConditionType("pending")
+		public CompletableFuture<String> greeting(String userName) { return CompletableFuture.completedFuture("Special "+userName); }
+		@FlowConditionType("vip")
+		public Mono<String> reactiveGreeting(String userName) { return Mono.just("Vip "+userName); }
+		@FlowConditionType("tenant")
+		public Mono<String> tenantGreeting(String userName) { return Mono.just("Welcome back "+userName); }
+	}
+
+	PendingEvaluator pendingEvaluator;
+	TenantEvaluator tenantEvaluator;
+	GreetingService greetingService;
+
+	@BeforeEach
+	void setup() throws Exception {
+		pendingEvaluator = new PendingEvaluator();
+		tenantEvaluator = new TenantEvaluator();
+		DefaultFlowRoutingInterceptor interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.registerEvaluator(pendingEvaluator);
+		interceptor.registerEvaluator(new VipEvaluator());
+		interceptor.registerEvaluator(tenantEvaluator);
+		interceptor.addDelegates(List.of(new SpecialGreetingService(), new DefaultGreetingService()));
+		greetingService = ProxyFactory.getProxy(GreetingService.class, interceptor);
+	}
+
+	@Test
+	void completionStageMethodDoesNotWaitForTheCondition() throws Exception {
+		CompletableFuture<String> greeting = greetingService.greeting("Alice");
+		Assertions.assertFalse(greeting.isDone());
+		pendingEvaluator.condition.complete(true);
+		Assertions.assertEquals("Special Alice", greeting.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void monoMethodIsRoutedOnSubscription() {
+		Mono<String> greeting = greetingService.reactiveGreeting("vip-Bob");
+		Assertions.assertEquals("Vip vip-Bob", greeting.block());
+		Assertions.assertEquals("Greetings for Carol", greetingService.reactiveGreeting("Carol").block());
+	}
+
+	@Test
+	void reactiveConditionSeesTheSubscriberContext() {
+		Assertions.assertEquals("Welcome back Alice", greetingService.tenantGreeting("Alice").contextWrite(Context.of("tenant", "acme")).block());
+		Assertions.assertEquals("Greetings for Alice", greetingService.tenantGreeting("Alice").contextWrite(Context.of("tenant", "other")).block());
+		Assertions.assertEquals("Greetings for Alice", greetingService.tenantGreeting("Alice").block());
+	}
+
+	@Test
+	void reactiveConditionIsCancelledWithTheSubscription() {
+		Disposable subscription = greetingService.tenantGreeting("Alice").contextWrite(Context.of("tenant", "hold")).subscribe();
+		Assertions.assertFalse(tenantEvaluator.cancelled.get());
+		subscription.dispose();
+		Assertions.assertTrue(tenantEvaluator.cancelled.get());
+	}
+}
@@ -0,0 +1,89 @@
+package io.github.danipenaperez.interceptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedBatch;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.annotation.EvaluatorType;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+
+public class BatchRoutingTest {
+
+	@RoutedInterface
+	public interface GreetingService {
+		List<String> greetings(String greeting, @RoutedBatch List<String> userNames);
+	}
+
+	/**
+	 * Conditions see one userName in place of the batch
+	 */
+	@EvaluatorType("vip")
+	public static class VipEvaluator implements Evaluator {
+		@Override
+		public boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+			return ((String) invocation.getArguments()[1]).startsWith("vip");
+		}
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class DefaultGreetingService implements GreetingService {
+		List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+		public List<String> greetings(String greeting, List<String> userNames) {
+			batches.add(userNames);
+			return userNames.stream().map(userName-> greeting+" "+userName).collect(Collectors.toList());
+		}
+	}
+
+	@RoutedComponent
+	public static class VipGreetingService implements GreetingService {
+		List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+		@FlowConditionType("vip")
+		public List<String> greetings(String greeting, List<String> userNames) {
+			batches.add(userNames);
+			return userNames.stream().map(userName-> greeting.toUpperCase()+" "+userName).collect(Collectors.toList());
+		}
+	}
+
+	DefaultGreetingService defaultGreetingService;
+	VipGreetingService vipGreetingService;
+	GreetingService greetingService;
+
+	@BeforeEach
+	void setup() throws Exception {
+		defaultGreetingService = new DefaultGreetingService();
+		vipGreetingService = new VipGreetingService();
+		DefaultFlowRoutingInterceptor interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.registerEvaluator(new VipEvaluator());
+		interceptor.addDelegates(List.of(vipGreetingService, defaultGreetingService));
+		greetingService = ProxyFactory.getProxy(GreetingService.class, interceptor);
+	}
+
+	@Test
+	void subBatchesAreMergedInOriginalOrder() {
+		List<String> greetings = greetingService.greetings("hi", List.of("Alice", "vip-Bob", "Carol", "vip-Dave"));
+		Assertions.assertEquals(List.of("hi Alice", "HI vip-Bob", "hi Carol", "HI vip-Dave"), greetings);
+		Assertions.assertEquals(List.of(List.of("vip-Bob", "vip-Dave")), vipGreetingService.batches);
+		Assertions.assertEquals(List.of(List.of("Alice", "Carol")), defaultGreetingService.batches);
+	}
+
+	@Test
+	void singleDelegateBatchIsNotSplit() {
+		List<String> userNames = List.of("Alice", "Carol");
+		Assertions.assertEquals(List.of("hi Alice", "hi Carol"), greetingService.greetings("hi", userNames));
+		Assertions.assertSame(userNames, defaultGreetingService.batches.get(0));
+		Assertions.assertTrue(vipGreetingService.batches.isEmpty());
+	}
+}
@@ -0,0 +1,152 @@
+package io.github.danipenaperez.interceptor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.support.GenericApplicationContext;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.memo.ConditionMemoStore;
+import io.github.danipenaperez.lib.flowedrouting.observer.RoutingObserver;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpelConditionKey;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+public class DefaultFlowRoutingInterceptorTest {
+
+	@RoutedInterface
+	public interface GreetingService {
+		String greeting(String userName);
+		int length(String userName);
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class DefaultGreetingService implements GreetingService {
+		public String greeting(String userName) { return "Greetings for "+userName; }
+		public int length(String userName) { return userName.length(); }
+	}
+
+	@RoutedComponent
+	public static class AUsersGreetingService implements GreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#userName.startsWith('A')")
+		public String greeting(String userName) { return "You are amazing "+userName; }
+
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#userName.startsWith('E')")
+		public int length(String userName) { throw new IllegalStateException("not for "+userName); }
+	}
+
+	@RoutedComponent
+	public static class InvalidConditionGreetingService implements GreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#userName == (")
+		public String greeting(String userName) { return "Invalid "+userName; }
+
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#userName.startsWith('M')")
+		public int length(String userName) { return 0; }
+	}
+
+	DefaultFlowRoutingInterceptor interceptor;
+	GreetingService greetingService;
+
+	@BeforeEach
+	void setup() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.registerEvaluator(new SpELEvaluator(context));
+		interceptor.addDelegates(List.of(new AUsersGreetingService(), new DefaultGreetingService()));
+		greetingService = ProxyFactory.getProxy(GreetingService.class, interceptor);
+	}
+
+	@Test
+	void routesToFirstAcceptedCandidateOrDefault() {
+		Assertions.assertEquals("You are amazing Alice", greetingService.greeting("Alice"));
+		Assertions.assertEquals("Greetings for Bob", greetingService.greeting("Bob"));
+		Assertions.assertEquals(3, greetingService.length("Bob"));
+	}
+
+	@Test
+	void invalidConditionFailsTheRefresh() {
+		DefaultFlowRoutingInterceptor invalid = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		invalid.registerEvaluator(new SpELEvaluator(context));
+		FlowedRoutingConfigurationException exception = Assertions.assertThrows(FlowedRoutingConfigurationException.class,
+				() -> invalid.addDelegates(List.of(new InvalidConditionGreetingService(), new DefaultGreetingService())));
+		Assertions.assertTrue(exception.getMessage().contains("#userName == ("));
+		Assertions.assertThrows(FlowedRoutingConfigurationException.class, () -> interceptor.registerDelegate(new InvalidConditionGreetingService()));
+		Assertions.assertEquals("You are amazing Alice", greetingService.greeting("Alice"));
+	}
+
+	@Test
+	void callsBeforeTheFirstTableAreRejected() throws Exception {
+		DefaultFlowRoutingInterceptor unpublished = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		GreetingService unpublishedService = ProxyFactory.getProxy(GreetingService.class, unpublished);
+		IllegalStateException aopError = Assertions.assertThrows(IllegalStateException.class, () -> unpublishedService.greeting("Alice"));
+		Assertions.assertTrue(aopError.getMessage().contains(GreetingService.class.getName()));
+		int methodIndex = unpublished.getMethodIndex(GreetingService.class.getMethod("greeting", String.class));
+		IllegalStateException generatedProxyError = Assertions.assertThrows(IllegalStateException.class, () -> unpublished.route(methodIndex, unpublishedService, new Object[] { "Alice" }));
+		Assertions.assertEquals(aopError.getMessage(), generatedProxyError.getMessage());
+	}
+
+	@Test
+	void delegateExceptionsAreNotWrapped() {
+		IllegalStateException exception = Assertions.assertThrows(IllegalStateException.class, () -> greetingService.length("Eve"));
+		Assertions.assertEquals("not for Eve", exception.getMessage());
+	}
+
+	@Test
+	void observerReceivesEvaluationsAndSelectedRoute() {
+		List<String> events = new ArrayList<>();
+		interceptor.setRoutingObserver(new RoutingObserver() {
+			@Override
+			public Object onDecisionStart(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+				events.add("start "+dispatch.getMethod().getName());
+				return "decision";
+			}
+			@Override
+			public void onEvaluation(Object decision, RoutedMethodDispatch dispatch, int candidateIndex, boolean accepted, long elapsedNanos) {
+				events.add(decision+" "+candidateIndex+" "+accepted);
+			}
+			@Override
+			public void onDecisionEnd(Object decision, RoutedMethodDispatch dispatch, int selectedIndex, Throwable error) {
+				events.add("end "+dispatch.getCandidates()[selectedIndex].getBean().getClass().getSimpleName());
+			}
+		});
+		greetingService.greeting("Bob");
+		greetingService.greeting("Alice");
+		Assertions.assertEquals(List.of(
+				"start greeting", "decision 0 false", "end DefaultGreetingService",
+				"start greeting", "decision 0 true", "end AUsersGreetingService"), events);
+	}
+
+	@Test
+	void memoizedConditionsAreNotEvaluatedAgain() {
+		Map<Object, Boolean> memo = new HashMap<>();
+		interceptor.setConditionMemoStore(() -> memo);
+		Assertions.assertEquals("You are amazing Alice", greetingService.greeting("Alice"));
+		SpelConditionKey aliceKey = new SpelConditionKey("#userName.startsWith('A')", new Object[] { "Alice" });
+		Assertions.assertEquals(Map.of(aliceKey, true), memo);
+
+		memo.put(aliceKey, false); //Same request, the stored result wins
+		Assertions.assertEquals("Greetings for Alice", greetingService.greeting("Alice"));
+		interceptor.setConditionMemoStore(ConditionMemoStore.NONE);
+		Assertions.assertEquals("You are amazing Alice", greetingService.greeting("Alice"));
+	}
+}
@@ -0,0 +1,106 @@
+package io.github.danipenaperez.interceptor;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.annotation.EvaluatorType;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+
+public class ParallelEvaluationTest {
+
+	@RoutedInterface(parallelEvaluation = true)
+	public interface GreetingService {
+		String greeting(String userName);
+	}
+
+	/**
+	 * Accepts userName when it contains accept, after waiting millis
+	 */
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface SlowCondition {
+		long millis();
+		String accept();
+	}
+
+	@EvaluatorType("slow")
+	public static class SlowEvaluator implements Evaluator {
+		CountDownLatch interrupted = new CountDownLatch(1);
+		@Override
+		public boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+			SlowCondition condition = routedMethodDefinition.getMethod().getAnnotation(SlowCondition.class);
+			try {
+				Thread.sleep(condition.millis());
+			}catch (InterruptedException e) {
+				interrupted.countDown();
+				return false;
+			}
+			return ((String) invocation.getArguments()[0]).contains(condition.accept());
+		}
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class DefaultGreetingService implements GreetingService {
+		public String greeting(String userName) { return "Greetings for "+userName; }
+	}
+
+	@RoutedComponent
+	public static class SlowGreetingService implements GreetingService {
+		@FlowConditionType("slow")
+		@SlowCondition(millis = 200, accept = "slow")
+		public String greeting(String userName) { return "Slow "+userName; }
+	}
+
+	@RoutedComponent
+	public static class FastGreetingService implements GreetingService {
+		@FlowConditionType("slow")
+		@SlowCondition(millis = 0, accept = "fast")
+		public String greeting(String userName) { return "Fast "+userName; }
+	}
+
+	@RoutedComponent
+	public static class NeverGreetingService implements GreetingService {
+		@FlowConditionType("slow")
+		@SlowCondition(millis = 10_000, accept = "never")
+		public String greeting(String userName) { return "Never "+userName; }
+	}
+
+	SlowEvaluator evaluator;
+	GreetingService greetingService;
+
+	@BeforeEach
+	void setup() throws Exception {
+		evaluator = new SlowEvaluator();
+		DefaultFlowRoutingInterceptor interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.registerEvaluator(evaluator);
+		interceptor.addDelegates(List.of(new SlowGreetingService(), new FastGreetingService(), new NeverGreetingService(), new DefaultGreetingService()));
+		greetingService = ProxyFactory.getProxy(GreetingService.class, interceptor);
+	}
+
+	@Test
+	void firstAcceptedInDeclaredOrderWins() {
+		Assertions.assertEquals("Slow slow-and-fast", greetingService.greeting("slow-and-fast"));
+		Assertions.assertEquals("Fast fast", greetingService.greeting("fast"));
+	}
+
+	@Test
+	void pendingEvaluationsAreCancelledOnceDecided() throws Exception {
+		long start = System.nanoTime();
+		Assertions.assertEquals("Fast fast", greetingService.greeting("fast"));
+		Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+		Assertions.assertTrue(evaluator.interrupted.await(5, TimeUnit.SECONDS));
+	}
+}
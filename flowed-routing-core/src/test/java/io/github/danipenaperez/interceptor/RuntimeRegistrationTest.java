@@ -0,0 +1,195 @@
+package io.github.danipenaperez.interceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.support.GenericApplicationContext;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+public class RuntimeRegistrationTest {
+
+	@RoutedInterface
+	public interface GreetingService {
+		String greeting(String name);
+		String farewell(String name);
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class DefaultGreetingService implements GreetingService {
+		public String greeting(String name) { return "default"; }
+		public String farewell(String name) { return "default"; }
+	}
+
+	@RoutedComponent
+	public static class PluginGreetingService implements GreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#name == 'plugin'")
+		public String greeting(String name) { return "plugin"; }
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#name == 'plugin'")
+		public String farewell(String name) { return "plugin"; }
+	}
+
+	/**
+	 * Holds the first prepare calls until as many tables as parties are being prepared at the same time
+	 */
+	static class ConcurrentPreparationEvaluator extends SpELEvaluator {
+		final CountDownLatch preparing;
+		final AtomicBoolean serialized = new AtomicBoolean();
+
+		ConcurrentPreparationEvaluator(GenericApplicationContext context, int parties) {
+			super(context);
+			preparing = new CountDownLatch(parties);
+		}
+
+		@Override
+		public void prepare(RoutedMethodDefinition routedMethodDefinition) throws FlowedRoutingConfigurationException {
+			preparing.countDown();
+			try {
+				if(!serialized.get() && !preparing.await(5, TimeUnit.SECONDS)) {
+					serialized.set(true);
+				}
+			}catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			super.prepare(routedMethodDefinition);
+		}
+	}
+
+	DefaultFlowRoutingInterceptor interceptor;
+	GreetingService greetingService;
+
+	@BeforeEach
+	void setup() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.registerEvaluator(new SpELEvaluator(context));
+		interceptor.addDelegates(List.of(new DefaultGreetingService()));
+		greetingService = ProxyFactory.getProxy(GreetingService.class, interceptor);
+	}
+
+	@Test
+	void registrationsAreNotDuplicatedAndInvalidOnesAreRolledBack() throws Exception {
+		PluginGreetingService plugin = new PluginGreetingService();
+		interceptor.addDelegates(List.of(plugin));
+		interceptor.addDelegates(List.of(plugin, greetingService)); //The routing proxy itself is ignored
+		Assertions.assertEquals(2, interceptor.getDispatchTable()[0].getCandidates().length);
+		Assertions.assertEquals("plugin", greetingService.greeting("plugin"));
+
+		Assertions.assertThrows(FlowedRoutingConfigurationException.class, () -> interceptor.registerDelegate(new DefaultGreetingService())); //Two defaults
+		Assertions.assertThrows(FlowedRoutingConfigurationException.class, () -> interceptor.registerDelegate(new GreetingService() { //Not a @RoutedComponent
+			public String greeting(String name) { return "anonymous"; }
+			public String farewell(String name) { return "anonymous"; }
+		}));
+		Assertions.assertThrows(FlowedRoutingConfigurationException.class, () -> interceptor.unregisterEvaluator("SpEL")); //Still in use
+		Assertions.assertEquals(2, interceptor.getDelegatedImplementations().size());
+		Assertions.assertEquals("plugin", greetingService.greeting("plugin"));
+
+		Assertions.assertTrue(interceptor.unregisterDelegate(plugin));
+		Assertions.assertFalse(interceptor.unregisterDelegate(plugin));
+		Assertions.assertEquals("default", greetingService.greeting("plugin"));
+		Assertions.assertTrue(interceptor.unregisterEvaluator("SpEL"));
+	}
+
+	@Test
+	void sharedEvaluatorsPrepareSeveralTablesAtATime() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		int tables = 4;
+		ConcurrentPreparationEvaluator evaluator = new ConcurrentPreparationEvaluator(context, tables);
+		List<DefaultFlowRoutingInterceptor> interceptors = new ArrayList<>();
+		List<Callable<Object>> builds = new ArrayList<>();
+		for(int i=0;i<tables;i++) {
+			DefaultFlowRoutingInterceptor sharing = new DefaultFlowRoutingInterceptor(GreetingService.class);
+			sharing.registerEvaluator("SpEL", evaluator);
+			interceptors.add(sharing);
+			builds.add(() -> {
+				sharing.addDelegates(List.of(new DefaultGreetingService(), new PluginGreetingService()));
+				return null;
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(tables);
+		try {
+			for(Future<Object> build: executor.invokeAll(builds)) {
+				build.get(30, TimeUnit.SECONDS);
+			}
+		}finally {
+			executor.shutdownNow();
+		}
+		Assertions.assertFalse(evaluator.serialized.get());
+		for(DefaultFlowRoutingInterceptor sharing: interceptors) {
+			GreetingService routed = ProxyFactory.getProxy(GreetingService.class, sharing);
+			Assertions.assertEquals("plugin", routed.greeting("plugin"));
+			Assertions.assertEquals("default", routed.farewell("other"));
+		}
+	}
+
+	@Test
+	void readersAlwaysSeeACompleteTableWhileDelegatesChange() throws Exception {
+		int readers = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(readers);
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicLong calls = new AtomicLong();
+		Set<String> results = ConcurrentHashMap.newKeySet();
+		CountDownLatch started = new CountDownLatch(readers);
+		try {
+			Future<?>[] futures = new Future<?>[readers];
+			for(int i=0;i<readers;i++) {
+				futures[i] = executor.submit(() -> {
+					started.countDown();
+					while(running.get()) {
+						String greeting = greetingService.greeting("plugin");
+						String farewell = greetingService.farewell("plugin");
+						if(greeting == null || farewell == null) {
+							throw new IllegalStateException("Lost routing result");
+						}
+						results.add(greeting);
+						calls.addAndGet(2);
+					}
+					return null;
+				});
+			}
+			started.await(5, TimeUnit.SECONDS);
+			for(int i=0;i<500;i++) {
+				PluginGreetingService plugin = new PluginGreetingService();
+				interceptor.registerDelegate(plugin);
+				Assertions.assertEquals(2, interceptor.getDispatchTable()[1].getCandidates().length);
+				interceptor.unregisterDelegate(plugin);
+			}
+			running.set(false);
+			for(Future<?> future: futures) {
+				future.get(10, TimeUnit.SECONDS); //Rethrows any reader failure
+			}
+		}finally {
+			running.set(false);
+			executor.shutdownNow();
+		}
+		Assertions.assertTrue(calls.get() > 0);
+		Assertions.assertTrue(Set.of("plugin", "default").containsAll(results));
+		Assertions.assertEquals(1, interceptor.getDispatchTable()[0].getCandidates().length);
+		Assertions.assertEquals(1, interceptor.getDelegatedImplementations().size());
+	}
+}
@@ -0,0 +1,113 @@
+package io.github.danipenaperez.ordering;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.ordering.CandidateStatistics;
+
+public class AdaptiveOrderingTest {
+
+	@RoutedInterface(adaptiveOrdering = true)
+	public interface TierService {
+		String tier(String customer);
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class StandardTier implements TierService {
+		public String tier(String customer) { return "standard"; }
+	}
+
+	@RoutedComponent
+	public static class PartnerTier implements TierService {
+		@FlowConditionType("remote")
+		public String tier(String customer) { return "partner"; }
+	}
+
+	@RoutedComponent
+	public static class LocalTier implements TierService {
+		@FlowConditionType("local")
+		public String tier(String customer) { return "local"; }
+	}
+
+	/**
+	 * Accepts the given customer, waiting 1ms per evaluation when remote
+	 */
+	public static class CustomerEvaluator implements Evaluator {
+		final String customer;
+		final boolean remote;
+		final AtomicInteger calls = new AtomicInteger();
+		CustomerEvaluator(String customer, boolean remote) {
+			this.customer = customer;
+			this.remote = remote;
+		}
+		@Override
+		public boolean evaluate(RoutedMethodDefinition routedMethodDefinition, MethodInvocation invocation) {
+			calls.incrementAndGet();
+			if(remote) {
+				try {
+					Thread.sleep(1);
+				}catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return customer.equals(invocation.getArguments()[0]);
+		}
+	}
+
+	@Test
+	void cheapCommonConditionsMoveFirst() throws Exception {
+		DefaultFlowRoutingInterceptor interceptor = new DefaultFlowRoutingInterceptor(TierService.class);
+		CustomerEvaluator remote = new CustomerEvaluator("partner", true);
+		interceptor.registerEvaluator("remote", remote);
+		interceptor.registerEvaluator("local", new CustomerEvaluator("local", false));
+		interceptor.setAdaptiveOrderingWindow(20);
+		interceptor.addDelegates(List.of(new StandardTier(), new PartnerTier(), new LocalTier()));
+		TierService tierService = ProxyFactory.getProxy(TierService.class, interceptor);
+		Assertions.assertInstanceOf(PartnerTier.class, interceptor.getDispatchTable()[0].getCandidates()[0].getBean());
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		int calls = 0;
+		while(!(interceptor.getDispatchTable()[0].getCandidates()[0].getBean() instanceof LocalTier) && System.currentTimeMillis() < deadline) {
+			Assertions.assertEquals(calls % 10 == 0 ? "partner" : "local", tierService.tier(calls % 10 == 0 ? "partner" : "local"));
+			calls++;
+		}
+		Assertions.assertInstanceOf(LocalTier.class, interceptor.getDispatchTable()[0].getCandidates()[0].getBean());
+
+		remote.calls.set(0);
+		for(int i=0;i<100;i++) {
+			Assertions.assertEquals("local", tierService.tier("local"));
+		}
+		Assertions.assertEquals("partner", tierService.tier("partner"));
+		Assertions.assertEquals("standard", tierService.tier("other"));
+		Assertions.assertEquals(2, remote.calls.get());
+	}
+
+	@Test
+	void lowTrafficWindowsAccumulateUntilTheMinimumSample() {
+		CandidateStatistics statistics = CandidateStatistics.forCandidates(new RoutedMethodDefinition[3], null, 100);
+		int[] order = null;
+		int checks = 0;
+		while(order == null && checks < 10) {
+			for(int i=0;i<10;i++) { //Few decisions between checks
+				statistics.decision();
+				statistics.record(0, false, 1_000_000);
+				statistics.record(1, true, 1_000);
+			}
+			order = statistics.checkOrder();
+			checks++;
+		}
+		Assertions.assertArrayEquals(new int[] {1, 0, 2}, order);
+		Assertions.assertEquals(5, checks);
+	}
+}
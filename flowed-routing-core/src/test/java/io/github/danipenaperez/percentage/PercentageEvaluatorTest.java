@@ -0,0 +1,59 @@
+package io.github.danipenaperez.percentage;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.percentage.PercentageEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.percentage.annotation.FlowPercentageCondition;
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedMethodInvocation;
+import io.github.danipenaperez.lib.flowedrouting.utils.Murmur3;
+
+public class PercentageEvaluatorTest {
+
+	public record User(String id) {
+	}
+
+	public static class Candidates {
+		@FlowConditionType("Percentage")
+		@FlowPercentageCondition(key = "#userName", percentage = 25, salt = "greeting-canary")
+		public String byParameter(String userName) { return userName; }
+
+		@FlowConditionType("Percentage")
+		@FlowPercentageCondition(key = "#user.id()", percentage = 25, salt = "greeting-canary")
+		public String byExpression(User user) { return user.id(); }
+	}
+
+	@Test
+	void murmur3MatchesReferenceValues() {
+		Assertions.assertEquals(0x248bfa47, Murmur3.hash32("hello", 0));
+		Assertions.assertEquals(0x2e4ff723, Murmur3.hash32("The quick brown fox jumps over the lazy dog", 0));
+		Assertions.assertEquals(0xb569e4eb, Murmur3.hash32("héllo wörld €𝄞", 42));
+	}
+
+	@Test
+	void sameKeyGetsTheSameBucketAndShareIsRespected() throws Exception {
+		PercentageEvaluator evaluator = new PercentageEvaluator();
+		RoutedMethodDefinition byParameter = definition("byParameter", String.class);
+		RoutedMethodDefinition byExpression = definition("byExpression", User.class);
+		evaluator.prepare(byParameter);
+		evaluator.prepare(byExpression);
+		int accepted = 0;
+		for(int i=0;i<10_000;i++) {
+			String userName = "user-"+i;
+			boolean result = evaluator.evaluate(byParameter, new RoutedMethodInvocation(byParameter.getMethod(), new Object[] {userName}, null));
+			Assertions.assertEquals(result, evaluator.evaluate(byExpression, new RoutedMethodInvocation(byExpression.getMethod(), new Object[] {new User(userName)}, null)));
+			accepted += result ? 1 : 0;
+		}
+		Assertions.assertTrue(accepted > 2_300 && accepted < 2_700, "accepted "+accepted);
+		Assertions.assertFalse(evaluator.evaluate(byParameter, new RoutedMethodInvocation(byParameter.getMethod(), new Object[] {null}, null)));
+	}
+
+	private static RoutedMethodDefinition definition(String candidateMethod, Class<?> parameterType) throws Exception {
+		Method method = Candidates.class.getMethod(candidateMethod, parameterType);
+		return new RoutedMethodDefinition(method, method.getAnnotation(FlowConditionType.class), new Candidates(), false);
+	}
+}
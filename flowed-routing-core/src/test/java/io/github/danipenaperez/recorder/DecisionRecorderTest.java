@@ -0,0 +1,103 @@
+package io.github.danipenaperez.recorder;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.support.GenericApplicationContext;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.recorder.ArgumentRedactor;
+import io.github.danipenaperez.lib.flowedrouting.recorder.DecisionRecord;
+import io.github.danipenaperez.lib.flowedrouting.recorder.DecisionRecorder;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+public class DecisionRecorderTest {
+
+	@RoutedInterface
+	public interface GreetingService {
+		String greet(String name, int times);
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class DefaultGreetingService implements GreetingService {
+		public String greet(String name, int times) { return "hello"; }
+	}
+
+	@RoutedComponent
+	public static class VipGreetingService implements GreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#times > 1")
+		public String greet(String name, int times) { return "welcome"; }
+	}
+
+	DefaultFlowRoutingInterceptor interceptor;
+
+	@BeforeEach
+	void setup() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.registerEvaluator(new SpELEvaluator(context));
+		interceptor.addDelegates(List.of(new DefaultGreetingService(), new VipGreetingService()));
+	}
+
+	@Test
+	void lastDecisionsAreKeptWithTheirEvaluations() {
+		DecisionRecorder recorder = new DecisionRecorder(3, 1, ArgumentRedactor.DEFAULT);
+		Assertions.assertEquals(4, recorder.getCapacity());
+		interceptor.setRoutingObserver(recorder);
+		GreetingService greetingService = ProxyFactory.getProxy(GreetingService.class, interceptor);
+		for(int i=0;i<6;i++) {
+			greetingService.greet("Alice", i);
+		}
+		List<DecisionRecord> decisions = recorder.getDecisions();
+		Assertions.assertEquals(6, recorder.getRecorded());
+		Assertions.assertEquals(4, decisions.size());
+		DecisionRecord newest = decisions.get(0);
+		Assertions.assertEquals(5, newest.sequence());
+		Assertions.assertEquals(GreetingService.class.getName(), newest.routedInterface());
+		Assertions.assertEquals("greet", newest.method());
+		Assertions.assertEquals(VipGreetingService.class.getName(), newest.delegate());
+		Assertions.assertFalse(newest.defaultRoute());
+		Assertions.assertEquals(1, newest.evaluations().size());
+		Assertions.assertTrue(newest.evaluations().get(0).accepted());
+		Assertions.assertEquals("SpEL", newest.evaluations().get(0).evaluator());
+		Assertions.assertFalse(newest.arguments().contains("Alice"));
+		Assertions.assertFalse(newest.arguments().contains("5"));
+		Assertions.assertTrue(newest.arguments().contains("<String>"));
+		Assertions.assertTrue(newest.arguments().contains("<Integer>"));
+		Assertions.assertEquals(2, decisions.get(3).sequence());
+	}
+
+	@Test
+	void argumentValuesAreOnlyRecordedOnRequest() throws Exception {
+		Method greet = GreetingService.class.getMethod("greet", String.class, int.class);
+		Object[] arguments = {"Alice", 5};
+		Assertions.assertFalse(ArgumentRedactor.DEFAULT.summarize(greet, arguments).contains("A"));
+		String values = ArgumentRedactor.VALUES.summarize(greet, arguments);
+		Assertions.assertFalse(values.contains("Alice"));
+		Assertions.assertTrue(values.contains("\"A***\"(5)"));
+		Assertions.assertTrue(values.contains("=5"));
+		Assertions.assertEquals("2 arguments", ArgumentRedactor.NONE.summarize(greet, arguments));
+	}
+
+	@Test
+	void notSampledDecisionsAreNotRecorded() {
+		DecisionRecorder recorder = new DecisionRecorder(16, 0, ArgumentRedactor.NONE);
+		interceptor.setRoutingObserver(recorder);
+		GreetingService greetingService = ProxyFactory.getProxy(GreetingService.class, interceptor);
+		for(int i=0;i<100;i++) {
+			greetingService.greet("Alice", i);
+		}
+		Assertions.assertEquals(0, recorder.getRecorded());
+		Assertions.assertTrue(recorder.getDecisions().isEmpty());
+	}
+}
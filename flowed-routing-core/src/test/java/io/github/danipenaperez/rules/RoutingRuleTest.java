@@ -0,0 +1,90 @@
+package io.github.danipenaperez.rules;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.support.GenericApplicationContext;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutingTable;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.rules.RoutingRule;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+public class RoutingRuleTest {
+
+	@RoutedInterface
+	public interface GreetingService {
+		String greeting(String name);
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class DefaultGreetingService implements GreetingService {
+		public String greeting(String name) { return "default"; }
+	}
+
+	@RoutedComponent
+	public static class MikeGreetingService implements GreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#name == 'Mike'")
+		public String greeting(String name) { return "mike"; }
+	}
+
+	@RoutedComponent
+	public static class VipGreetingService implements GreetingService { //Only routed by external rules
+		public String greeting(String name) { return "vip"; }
+	}
+
+	DefaultFlowRoutingInterceptor interceptor;
+	GreetingService greetingService;
+
+	@BeforeEach
+	void setup() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.registerEvaluator(new SpELEvaluator(context));
+		interceptor.addDelegates(List.of(new MikeGreetingService(), new VipGreetingService(), new DefaultGreetingService()));
+		greetingService = ProxyFactory.getProxy(GreetingService.class, interceptor);
+	}
+
+	@Test
+	void rulesOverrideAndAddConditions() throws Exception {
+		Assertions.assertEquals("mike", greetingService.greeting("Mike"));
+		Assertions.assertEquals(2, interceptor.getDispatchTable()[0].getCandidates().length);
+
+		interceptor.applyRoutingRules(List.of(
+				new RoutingRule("GreetingService", null, "MikeGreetingService", null, Map.of("evaluation-expression", "#name == 'Michael'")),
+				new RoutingRule(GreetingService.class.getName(), "greeting", "VipGreetingService", "SpEL", Map.of("evaluationExpression", "#name.startsWith('V')"))));
+		Assertions.assertEquals("default", greetingService.greeting("Mike"));
+		Assertions.assertEquals("mike", greetingService.greeting("Michael"));
+		Assertions.assertEquals("vip", greetingService.greeting("Victor"));
+
+		RoutingRule disabled = new RoutingRule("GreetingService", null, "MikeGreetingService", null, null);
+		disabled.setEnabled(false);
+		interceptor.applyRoutingRules(List.of(disabled));
+		Assertions.assertEquals("default", greetingService.greeting("Michael"));
+		Assertions.assertEquals(1, interceptor.getDispatchTable()[0].getCandidates().length);
+	}
+
+	@Test
+	void invalidRulesKeepTheCurrentTable() throws Exception {
+		RoutingTable current = interceptor.getRoutingTable();
+		Assertions.assertThrows(FlowedRoutingConfigurationException.class, () -> interceptor.applyRoutingRules(List.of(
+				new RoutingRule("GreetingService", null, "MikeGreetingService", null, Map.of("evaluationExpression", "#name ==")))));
+		Assertions.assertThrows(FlowedRoutingConfigurationException.class, () -> interceptor.applyRoutingRules(List.of(
+				new RoutingRule("GreetingService", null, "MikeGreetingService", "Unknown", Map.of("value", "x")))));
+		Assertions.assertThrows(FlowedRoutingConfigurationException.class, () -> interceptor.applyRoutingRules(List.of(
+				new RoutingRule("GreetingService", null, "MissingGreetingService", null, Map.of("evaluationExpression", "true")))));
+		Assertions.assertSame(current, interceptor.getRoutingTable());
+		Assertions.assertEquals("mike", greetingService.greeting("Mike"));
+	}
+}
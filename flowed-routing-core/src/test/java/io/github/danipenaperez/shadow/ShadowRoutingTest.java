@@ -0,0 +1,127 @@
+package io.github.danipenaperez.shadow;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.support.GenericApplicationContext;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.FlowShadow;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.observer.RoutingObserver;
+import io.github.danipenaperez.lib.flowedrouting.shadow.ShadowExecutor;
+import io.github.danipenaperez.lib.flowedrouting.shadow.ShadowResult;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
+
+public class ShadowRoutingTest {
+
+	@RoutedInterface
+	public interface PriceService {
+		int price(String product);
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class DefaultPriceService implements PriceService {
+		public int price(String product) { return product.length(); }
+	}
+
+	@RoutedComponent
+	@FlowShadow(percentage = 100)
+	public static class NewPriceService implements PriceService {
+		static CountDownLatch blocked = new CountDownLatch(0);
+		public int price(String product) {
+			try {
+				blocked.await();
+			}catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if(product.isEmpty()) {
+				throw new IllegalArgumentException("empty");
+			}
+			return product.startsWith("x") ? -1 : product.length();
+		}
+	}
+
+	LinkedBlockingQueue<ShadowResult> results = new LinkedBlockingQueue<>();
+	AtomicInteger dropped = new AtomicInteger();
+	ShadowExecutor shadowExecutor = new ShadowExecutor(1, 1);
+	DefaultFlowRoutingInterceptor interceptor;
+	PriceService priceService;
+
+	@BeforeEach
+	void setup() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		interceptor = new DefaultFlowRoutingInterceptor(PriceService.class);
+		interceptor.registerEvaluator(new SpELEvaluator(context));
+		interceptor.setShadowExecutor(shadowExecutor);
+		interceptor.setRoutingObserver(new RoutingObserver() {
+			@Override
+			public void onShadowResult(RoutedMethodDispatch dispatch, int shadowIndex, ShadowResult result) {
+				results.add(result);
+			}
+			@Override
+			public void onShadowDropped(RoutedMethodDispatch dispatch, int shadowIndex) {
+				dropped.incrementAndGet();
+			}
+		});
+		interceptor.addDelegates(List.of(new DefaultPriceService(), new NewPriceService()));
+		Assertions.assertEquals(1, interceptor.getDispatchTable()[0].getCandidates().length);
+		priceService = ProxyFactory.getProxy(PriceService.class, interceptor);
+	}
+
+	@AfterEach
+	void close() {
+		shadowExecutor.close();
+	}
+
+	@Test
+	void shadowResultsAreComparedWithoutChangingTheRoutedOne() throws Exception {
+		Assertions.assertEquals(3, priceService.price("abc"));
+		Assertions.assertEquals(ShadowResult.Outcome.MATCH, results.poll(5, TimeUnit.SECONDS).outcome());
+		Assertions.assertEquals(3, priceService.price("xbc"));
+		ShadowResult mismatch = results.poll(5, TimeUnit.SECONDS);
+		Assertions.assertEquals(ShadowResult.Outcome.MISMATCH, mismatch.outcome());
+		Assertions.assertInstanceOf(DefaultPriceService.class, mismatch.routed().getBean());
+		Assertions.assertInstanceOf(NewPriceService.class, mismatch.shadow().getBean());
+		Assertions.assertEquals(0, priceService.price(""));
+		ShadowResult error = results.poll(5, TimeUnit.SECONDS);
+		Assertions.assertEquals(ShadowResult.Outcome.ERROR, error.outcome());
+		Assertions.assertInstanceOf(IllegalArgumentException.class, error.shadowError());
+	}
+
+	@Test
+	void shadowsAreNotCalledWithoutExecutor() throws Exception {
+		interceptor.setShadowExecutor(null);
+		Assertions.assertEquals(3, priceService.price("abc"));
+		Assertions.assertEquals(0, priceService.price(""));
+		Assertions.assertNull(results.poll(200, TimeUnit.MILLISECONDS));
+		Assertions.assertEquals(0, dropped.get());
+	}
+
+	@Test
+	void shadowCallsAreDroppedWhenTheExecutorIsFull() throws Exception {
+		NewPriceService.blocked = new CountDownLatch(1);
+		try {
+			for(int i=0;i<10;i++) { //One running, one queued
+				Assertions.assertEquals(3, priceService.price("abc"));
+			}
+			Assertions.assertEquals(8, dropped.get());
+			Assertions.assertEquals(8, shadowExecutor.getDropped());
+		}finally {
+			NewPriceService.blocked.countDown();
+		}
+		Assertions.assertNotNull(results.poll(5, TimeUnit.SECONDS));
+		Assertions.assertNotNull(results.poll(5, TimeUnit.SECONDS));
+	}
+}
@@ -0,0 +1,149 @@
+package io.github.danipenaperez.spel;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.support.GenericApplicationContext;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.spel.CompiledSpelCondition;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+public class CommonSubexpressionsTest {
+
+	@RoutedInterface
+	public interface GreetingService {
+		String greeting(String userName);
+	}
+
+	public static class TenantContext {
+		AtomicInteger calls = new AtomicInteger();
+		public String getTenantName() {
+			calls.incrementAndGet();
+			return "tenant_2";
+		}
+	}
+
+	@RoutedComponent(isDefaultRouting = true)
+	public static class DefaultGreetingService implements GreetingService {
+		public String greeting(String userName) { return "default"; }
+	}
+
+	@RoutedComponent
+	public static class Tenant1GreetingService implements GreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "@tenantContext.getTenantName() == 'tenant_1' && #userName.startsWith('A')", idempotent = true)
+		public String greeting(String userName) { return "tenant_1"; }
+	}
+
+	@RoutedComponent
+	public static class Tenant2GreetingService implements GreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#userName.length() > 3 and @tenantContext.getTenantName() == 'tenant_2'", idempotent = true)
+		public String greeting(String userName) { return "tenant_2"; }
+	}
+
+	@RoutedComponent
+	public static class Tenant3GreetingService implements GreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "@tenantContext.getTenantName().endsWith('3') || #userName == 'root'", idempotent = true)
+		public String greeting(String userName) { return "tenant_3"; }
+	}
+
+	@RoutedComponent
+	public static class LiteralGreetingService implements GreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#userName == '@tenantContext.getTenantName()' or @tenantContext.getTenantName( ) == 'tenant_4'", idempotent = true)
+		public String greeting(String userName) { return "literal"; }
+	}
+
+	@RoutedComponent
+	public static class VipGreetingService implements GreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "@tenantContext.getTenantName() == 'vip' and #userName.bytes.length > 10")
+		public String greeting(String userName) { return "vip"; }
+	}
+
+	@RoutedComponent
+	public static class LongNameGreetingService implements GreetingService {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "@tenantContext.getTenantName() == 'tenant_2' and #userName.bytes.length > 3")
+		public String greeting(String userName) { return "long_name"; }
+	}
+
+	TenantContext tenantContext;
+	GenericApplicationContext context;
+	DefaultFlowRoutingInterceptor interceptor;
+	GreetingService greetingService;
+
+	@BeforeEach
+	void setup() throws Exception {
+		tenantContext = new TenantContext();
+		context = new GenericApplicationContext();
+		context.registerBean("tenantContext", TenantContext.class, () -> tenantContext);
+		context.refresh();
+		interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.registerEvaluator(new SpELEvaluator(context));
+		interceptor.addDelegates(List.of(new Tenant1GreetingService(), new Tenant3GreetingService(), new Tenant2GreetingService(), new DefaultGreetingService()));
+		greetingService = ProxyFactory.getProxy(GreetingService.class, interceptor);
+	}
+
+	@Test
+	void sharedSubexpressionIsEvaluatedOncePerCall() {
+		Assertions.assertEquals("tenant_2", greetingService.greeting("Alice"));
+		Assertions.assertEquals(1, tenantContext.calls.get());
+		Assertions.assertEquals("default", greetingService.greeting("Al"));
+		Assertions.assertEquals(2, tenantContext.calls.get());
+		Assertions.assertEquals("tenant_3", greetingService.greeting("root"));
+	}
+
+	@Test
+	void conditionsAreRewrittenToReadTheSharedValue() {
+		CompiledSpelCondition condition = (CompiledSpelCondition) interceptor.getDispatchTable()[0].getCandidates()[0].getPreparedCondition();
+		Assertions.assertTrue(condition.getEvaluatedExpression().getExpressionString().contains("#__cse0"));
+		Assertions.assertEquals(List.of("@tenantContext.getTenantName()"), condition.getCommonSubexpressions().getExpressionStrings());
+	}
+
+	@Test
+	void generatedProxyInvocationsShareTheValue() throws Throwable {
+		int methodIndex = interceptor.getMethodIndex(GreetingService.class.getMethod("greeting", String.class));
+		Assertions.assertEquals("tenant_2", interceptor.route(methodIndex, greetingService, new Object[] { "Alice" }));
+		Assertions.assertEquals(1, tenantContext.calls.get());
+	}
+
+	@Test
+	void textOutOfTheSharedNodesIsNotRewritten() throws Exception {
+		DefaultFlowRoutingInterceptor literalInterceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		literalInterceptor.registerEvaluator(new SpELEvaluator(context));
+		literalInterceptor.addDelegates(List.of(new LiteralGreetingService(), new Tenant2GreetingService(), new DefaultGreetingService()));
+		CompiledSpelCondition condition = (CompiledSpelCondition) literalInterceptor.getDispatchTable()[0].getCandidates()[0].getPreparedCondition();
+		Assertions.assertEquals("#userName == '@tenantContext.getTenantName()' or #__cse0 == 'tenant_4'", condition.getEvaluatedExpression().getExpressionString());
+
+		GreetingService literalService = ProxyFactory.getProxy(GreetingService.class, literalInterceptor);
+		Assertions.assertEquals("literal", literalService.greeting("@tenantContext.getTenantName()"));
+		Assertions.assertEquals("tenant_2", literalService.greeting("Alice"));
+		Assertions.assertEquals(1, tenantContext.calls.get());
+	}
+
+	@Test
+	void callsOfNonIdempotentConditionsAreNotShared() throws Exception {
+		DefaultFlowRoutingInterceptor nonIdempotentInterceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		nonIdempotentInterceptor.registerEvaluator(new SpELEvaluator(context));
+		nonIdempotentInterceptor.addDelegates(List.of(new VipGreetingService(), new LongNameGreetingService(), new DefaultGreetingService()));
+		CompiledSpelCondition condition = (CompiledSpelCondition) nonIdempotentInterceptor.getDispatchTable()[0].getCandidates()[0].getPreparedCondition();
+		Assertions.assertEquals("@tenantContext.getTenantName() == 'vip' and #__cse0 > 10", condition.getEvaluatedExpression().getExpressionString());
+		Assertions.assertEquals(List.of("#userName.bytes.length"), condition.getCommonSubexpressions().getExpressionStrings());
+
+		GreetingService nonIdempotentService = ProxyFactory.getProxy(GreetingService.class, nonIdempotentInterceptor);
+		Assertions.assertEquals("long_name", nonIdempotentService.greeting("Alice"));
+		Assertions.assertEquals(2, tenantContext.calls.get());
+	}
+}
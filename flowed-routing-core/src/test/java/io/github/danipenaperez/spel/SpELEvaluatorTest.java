@@ -0,0 +1,213 @@
+package io.github.danipenaperez.spel;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedMethodInvocation;
+import io.github.danipenaperez.lib.flowedrouting.spel.CompiledSpelCondition;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.spel.SpelConditionKey;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+public class SpELEvaluatorTest {
+
+	public interface Greeting {
+		String greeting(String userName);
+	}
+
+	public interface BuilderGreeting {
+		String greeting(StringBuilder userName);
+	}
+
+	public static class Candidates {
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#userName.startsWith('A')")
+		public String compilable(String userName) { return userName; }
+
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "@tenant == #userName")
+		public String beanReference(String userName) { return userName; }
+
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "@nested.check(#userName) and #userName == 'Alice'")
+		public String nestedCall(String userName) { return userName; }
+
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#userName.startsWith(")
+		public String invalid(String userName) { return userName; }
+
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#region == 'eu' and #userName.startsWith('A')")
+		public String customVariable(String userName) { return userName; }
+
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "T(java.lang.Boolean).TRUE")
+		public String constant(String userName) { return userName; }
+
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#userName.length() > 3")
+		public String longName(String userName) { return userName; }
+
+		@FlowConditionType("SpEL")
+		@FlowSpelCondition(evaluationExpression = "#userName.length() > 3")
+		public String longBuilderName(StringBuilder userName) { return userName.toString(); }
+	}
+
+	private static RoutedMethodDefinition definition(String candidateMethod) throws Exception {
+		Method method = Candidates.class.getMethod(candidateMethod, String.class);
+		return new RoutedMethodDefinition(method, method.getAnnotation(FlowConditionType.class), new Candidates(), false);
+	}
+
+	private static MethodInvocation invocation(String userName) throws Exception {
+		Method method = Greeting.class.getMethod("greeting", String.class);
+		return new MethodInvocation() {
+			public Method getMethod() { return method; }
+			public Object[] getArguments() { return new Object[] {userName}; }
+			public Object proceed() { throw new UnsupportedOperationException(); }
+			public Object getThis() { return null; }
+			public AccessibleObject getStaticPart() { return method; }
+		};
+	}
+
+	@Test
+	void prepareParsesExpressionOnce() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		SpELEvaluator evaluator = new SpELEvaluator(context);
+		RoutedMethodDefinition definition = definition("compilable");
+
+		evaluator.prepare(definition);
+
+		Assertions.assertInstanceOf(CompiledSpelCondition.class, definition.getPreparedCondition());
+		Assertions.assertTrue(evaluator.evaluate(definition, invocation("Alice")));
+		Assertions.assertFalse(evaluator.evaluate(definition, invocation("Bob")));
+		Assertions.assertThrows(FlowedRoutingConfigurationException.class, () -> evaluator.prepare(definition("invalid")));
+	}
+
+	@Test
+	void conditionKeysOnlyHoldTheReferencedArguments() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		SpELEvaluator evaluator = new SpELEvaluator(context);
+		RoutedMethodDefinition compilable = definition("compilable");
+		RoutedMethodDefinition constant = definition("constant");
+		compilable.setRoutedMethod(Greeting.class.getMethod("greeting", String.class));
+		constant.setRoutedMethod(Greeting.class.getMethod("greeting", String.class));
+		evaluator.prepare(compilable);
+		evaluator.prepare(constant);
+		evaluator.prepareDispatch(List.of(compilable, constant));
+
+		Assertions.assertEquals(new SpelConditionKey("#userName.startsWith('A')", new Object[] { "Alice" }), evaluator.conditionKey(compilable, invocation("Alice")));
+		Assertions.assertNotEquals(evaluator.conditionKey(compilable, invocation("Alice")), evaluator.conditionKey(compilable, invocation("Bob")));
+		Assertions.assertSame(evaluator.conditionKey(constant, invocation("Alice")), evaluator.conditionKey(constant, invocation("Bob")));
+	}
+
+	/**
+	 * The condition evaluates another routed call on the same thread, the outer one must keep its arguments
+	 */
+	@Test
+	void nestedEvaluationKeepsTheOuterArguments() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		SpELEvaluator evaluator = new SpELEvaluator(context);
+		RoutedMethodDefinition compilable = definition("compilable");
+		context.registerBean("nested", NestedCall.class, () -> new NestedCall(evaluator, compilable));
+		context.refresh();
+		RoutedMethodDefinition nestedCall = definition("nestedCall");
+		Method routedMethod = Greeting.class.getMethod("greeting", String.class);
+		compilable.setRoutedMethod(routedMethod);
+		nestedCall.setRoutedMethod(routedMethod);
+		evaluator.prepare(compilable);
+		evaluator.prepare(nestedCall);
+		evaluator.prepareDispatch(List.of(compilable, nestedCall));
+
+		Assertions.assertTrue(evaluator.evaluate(nestedCall, invocation("Alice")));
+		Assertions.assertFalse(evaluator.evaluate(nestedCall, invocation("Bob")));
+	}
+
+	public static class NestedCall {
+		private final SpELEvaluator evaluator;
+		private final RoutedMethodDefinition definition;
+
+		NestedCall(SpELEvaluator evaluator, RoutedMethodDefinition definition) {
+			this.evaluator = evaluator;
+			this.definition = definition;
+		}
+
+		public boolean check(String userName) throws Exception {
+			return !evaluator.evaluate(definition, invocation("Bob"));
+		}
+	}
+
+	/**
+	 * Subclasses built on the deprecated hook keep their variables
+	 */
+	@Test
+	void overriddenEvaluationContextIsStillUsed() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		SpELEvaluator evaluator = new SpELEvaluator(context) {
+			@Override
+			@SuppressWarnings("deprecation")
+			protected StandardEvaluationContext assembleEvaluationContext(StandardEvaluationContext evaluationContext, MethodInvocation invocation) {
+				evaluationContext.setVariable("region", "eu");
+				return super.assembleEvaluationContext(evaluationContext, invocation);
+			}
+		};
+		RoutedMethodDefinition customVariable = definition("customVariable");
+		customVariable.setRoutedMethod(Greeting.class.getMethod("greeting", String.class));
+		evaluator.prepare(customVariable);
+		evaluator.prepareDispatch(List.of(customVariable));
+		Assertions.assertTrue(evaluator.evaluate(customVariable, invocation("Alice")));
+		Assertions.assertFalse(evaluator.evaluate(customVariable, invocation("Bob")));
+	}
+
+	@Test
+	void compilerModeReportsNonCompilableExpressions() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBean("tenant", String.class, () -> "Alice");
+		context.refresh();
+		SpELEvaluator evaluator = new SpELEvaluator(context, SpelCompilerMode.MIXED);
+		RoutedMethodDefinition compilable = definition("compilable");
+		RoutedMethodDefinition beanReference = definition("beanReference");
+		evaluator.prepare(compilable);
+		evaluator.prepare(beanReference);
+
+		Assertions.assertTrue(evaluator.evaluate(compilable, invocation("Alice")));
+		Assertions.assertTrue(evaluator.evaluate(beanReference, invocation("Alice")));
+
+		Assertions.assertEquals(java.util.Set.of("@tenant == #userName"), evaluator.getNonCompilableExpressions());
+		Assertions.assertTrue(evaluator.evaluate(compilable, invocation("Alice")));
+	}
+
+	@Test
+	void compiledExpressionsAreNotSharedAcrossArgumentTypes() throws Exception {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		SpELEvaluator evaluator = new SpELEvaluator(context, SpelCompilerMode.IMMEDIATE);
+		RoutedMethodDefinition longName = definition("longName");
+		Method builderCandidate = Candidates.class.getMethod("longBuilderName", StringBuilder.class);
+		RoutedMethodDefinition longBuilderName = new RoutedMethodDefinition(builderCandidate, builderCandidate.getAnnotation(FlowConditionType.class), new Candidates(), false);
+		Method builderMethod = BuilderGreeting.class.getMethod("greeting", StringBuilder.class);
+		longName.setRoutedMethod(Greeting.class.getMethod("greeting", String.class));
+		longBuilderName.setRoutedMethod(builderMethod);
+		evaluator.prepare(longName);
+		evaluator.prepare(longBuilderName);
+
+		Assertions.assertTrue(evaluator.evaluate(longName, invocation("Alice")));
+		Assertions.assertTrue(evaluator.evaluate(longName, invocation("Alice")));
+		Assertions.assertFalse(evaluator.evaluate(longBuilderName, new RoutedMethodInvocation(builderMethod, new Object[] {new StringBuilder("Bob")}, null)));
+		Assertions.assertTrue(evaluator.evaluate(longBuilderName, new RoutedMethodInvocation(builderMethod, new Object[] {new StringBuilder("Alice")}, null)));
+		Assertions.assertTrue(evaluator.getNonCompilableExpressions().isEmpty());
+	}
+}
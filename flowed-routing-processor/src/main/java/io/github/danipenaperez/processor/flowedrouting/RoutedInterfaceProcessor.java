@@ -0,0 +1,220 @@
+package io.github.danipenaperez.processor.flowedrouting;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedInterfaceProxy;
+
+/**
+ * Generates a plain Java implementation of every @RoutedInterface ([Interface]_FlowedRoutingProxy).
+ * Each generated method resolves its dispatch index once and calls DefaultFlowRoutingInterceptor.route,
+ * so calls skip the JDK proxy, the AOP MethodInvocation chain and the Method lookup.
+ * Interfaces the processor can not implement (inherited abstract methods, not accessible) keep using the runtime proxy.
+ */
+@SupportedAnnotationTypes(RoutedInterfaceProcessor.ROUTED_INTERFACE_ANNOTATION)
+public class RoutedInterfaceProcessor extends AbstractProcessor {
+
+	static final String ROUTED_INTERFACE_ANNOTATION = "io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface";
+	static final String INTERCEPTOR_CLASS = "io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for(TypeElement annotation: annotations) {
+			for(Element element: roundEnv.getElementsAnnotatedWith(annotation)) {
+				if(element.getKind() == ElementKind.INTERFACE) {
+					generateProxy((TypeElement) element);
+				}
+			}
+		}
+		return false;
+	}
+
+	private void generateProxy(TypeElement routedInterface) {
+		String skipReason = unsupportedReason(routedInterface);
+		if(skipReason != null) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, String.format("%s will use the runtime proxy: %s", routedInterface.getQualifiedName(), skipReason), routedInterface);
+			return;
+		}
+		String packageName = processingEnv.getElementUtils().getPackageOf(routedInterface).getQualifiedName().toString();
+		String simpleName = nestedName(routedInterface) + RoutedInterfaceProxy.GENERATED_CLASS_SUFFIX;
+		String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+		try(Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, routedInterface).openWriter()){
+			writer.write(source(routedInterface, packageName, simpleName));
+		}catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Can not generate "+qualifiedName+" : "+e.getMessage(), routedInterface);
+		}
+	}
+
+	private String unsupportedReason(TypeElement routedInterface) {
+		for(Element enclosing = routedInterface; enclosing.getKind() != ElementKind.PACKAGE; enclosing = enclosing.getEnclosingElement()) {
+			if(enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+				return "not accessible from its package";
+			}
+		}
+		for(ExecutableElement method: ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(routedInterface))) {
+			if(method.getModifiers().contains(Modifier.ABSTRACT) && !method.getEnclosingElement().equals(routedInterface)) {
+				return "inherits abstract method "+method.getSimpleName()+" from "+method.getEnclosingElement();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Outer_Inner for nested types, same rule as RoutedInterfaceProxy.generatedClassName
+	 */
+	private String nestedName(TypeElement type) {
+		Element enclosing = type.getEnclosingElement();
+		return enclosing instanceof PackageElement ? type.getSimpleName().toString() : nestedName((TypeElement) enclosing) + "_" + type.getSimpleName();
+	}
+
+	private List<ExecutableElement> routedMethods(TypeElement routedInterface) {
+		return ElementFilter.methodsIn(routedInterface.getEnclosedElements()).stream()
+				.filter(method-> !method.getModifiers().contains(Modifier.STATIC) && !method.getModifiers().contains(Modifier.PRIVATE))
+				.collect(Collectors.toList());
+	}
+
+	private String source(TypeElement routedInterface, String packageName, String simpleName) {
+		String interfaceType = routedInterface.getQualifiedName() + typeArguments(routedInterface.getTypeParameters());
+		List<ExecutableElement> methods = routedMethods(routedInterface);
+		StringBuilder source = new StringBuilder();
+		if(!packageName.isEmpty()) {
+			source.append("package ").append(packageName).append(";\n\n");
+		}
+		source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+		source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+		source.append("public final class ").append(simpleName).append(typeParameters(routedInterface.getTypeParameters()))
+			.append(" implements ").append(interfaceType).append(", ").append(RoutedInterfaceProxy.class.getName()).append(" {\n\n");
+		source.append("\tprivate final ").append(INTERCEPTOR_CLASS).append(" interceptor;\n");
+		for(int i=0;i<methods.size();i++) {
+			source.append("\tprivate final int ").append(indexField(methods.get(i), i)).append(";\n");
+		}
+		source.append("\n\tpublic ").append(simpleName).append("(").append(INTERCEPTOR_CLASS).append(" interceptor) {\n");
+		source.append("\t\tthis.interceptor = interceptor;\n");
+		for(int i=0;i<methods.size();i++) {
+			ExecutableElement method = methods.get(i);
+			source.append("\t\tthis.").append(indexField(method, i)).append(" = interceptor.getMethodIndex(")
+				.append(RoutedInterfaceProxy.class.getName()).append(".method(").append(routedInterface.getQualifiedName()).append(".class, \"").append(method.getSimpleName()).append("\"");
+			for(VariableElement parameter: method.getParameters()) {
+				source.append(", ").append(processingEnv.getTypeUtils().erasure(parameter.asType())).append(".class");
+			}
+			source.append("));\n");
+		}
+		source.append("\t}\n");
+		for(int i=0;i<methods.size();i++) {
+			appendMethod(source, methods.get(i), indexField(methods.get(i), i));
+		}
+		source.append("}\n");
+		return source.toString();
+	}
+
+	private void appendMethod(StringBuilder source, ExecutableElement method, String indexField) {
+		List<String> parameterNames = new ArrayList<>();
+		List<String> parameterDeclarations = new ArrayList<>();
+		List<? extends VariableElement> parameters = method.getParameters();
+		for(int i=0;i<parameters.size();i++) {
+			VariableElement parameter = parameters.get(i);
+			String type = parameter.asType().toString();
+			if(method.isVarArgs() && i == parameters.size()-1) {
+				type = ((ArrayType) parameter.asType()).getComponentType().toString() + "...";
+			}
+			parameterNames.add(parameter.getSimpleName().toString());
+			parameterDeclarations.add(type + " " + parameter.getSimpleName());
+		}
+		List<String> thrownTypes = method.getThrownTypes().stream().map(TypeMirror::toString).collect(Collectors.toList());
+		TypeMirror returnType = method.getReturnType();
+
+		source.append("\n\t@Override\n\tpublic ").append(typeParameters(method.getTypeParameters()));
+		if(!method.getTypeParameters().isEmpty()) {
+			source.append(" ");
+		}
+		source.append(returnType).append(" ").append(method.getSimpleName()).append("(").append(String.join(", ", parameterDeclarations)).append(")");
+		if(!thrownTypes.isEmpty()) {
+			source.append(" throws ").append(String.join(", ", thrownTypes));
+		}
+		source.append(" {\n");
+		String call = "this.interceptor.route(this." + indexField + ", this, new Object[] {" + String.join(", ", parameterNames) + "})";
+		String exception = "e";
+		while(parameterNames.contains(exception)) {
+			exception += "_";
+		}
+		if(thrownTypes.contains("java.lang.Throwable")) {
+			source.append("\t\t").append(returnStatement(returnType, call)).append("\n");
+		}else {
+			source.append("\t\ttry {\n");
+			source.append("\t\t\t").append(returnStatement(returnType, call)).append("\n");
+			source.append("\t\t} catch (RuntimeException | Error ").append(exception).append(") {\n\t\t\tthrow ").append(exception).append(";\n");
+			source.append("\t\t} catch (Throwable ").append(exception).append(") {\n");
+			for(TypeMirror thrownType: method.getThrownTypes()) {
+				String erased = processingEnv.getTypeUtils().erasure(thrownType).toString();
+				String cast = thrownType.getKind() == TypeKind.TYPEVAR ? thrownType.toString() : erased; //throws X is only satisfied by X
+				source.append("\t\t\tif (").append(exception).append(" instanceof ").append(erased).append(") {\n\t\t\t\tthrow (").append(cast).append(") ").append(exception).append(";\n\t\t\t}\n");
+			}
+			source.append("\t\t\tthrow new java.lang.reflect.UndeclaredThrowableException(").append(exception).append(");\n");
+			source.append("\t\t}\n");
+		}
+		source.append("\t}\n");
+	}
+
+	private String returnStatement(TypeMirror returnType, String call) {
+		if(returnType.getKind() == TypeKind.VOID) {
+			return call + ";";
+		}
+		if(returnType.getKind().isPrimitive()) {
+			String boxed = processingEnv.getTypeUtils().boxedClass(processingEnv.getTypeUtils().getPrimitiveType(returnType.getKind())).getQualifiedName().toString();
+			return "return (" + boxed + ") " + call + ";";
+		}
+		return "return (" + returnType + ") " + call + ";";
+	}
+
+	private String indexField(ExecutableElement method, int position) {
+		return method.getSimpleName() + "Index" + position;
+	}
+
+	private String typeParameters(List<? extends TypeParameterElement> typeParameters) {
+		if(typeParameters.isEmpty()) {
+			return "";
+		}
+		return typeParameters.stream().map(typeParameter-> {
+			List<String> bounds = typeParameter.getBounds().stream()
+					.filter(bound-> !(bound instanceof DeclaredType declared && declared.toString().equals("java.lang.Object")))
+					.map(TypeMirror::toString)
+					.collect(Collectors.toList());
+			return typeParameter.getSimpleName() + (bounds.isEmpty() ? "" : " extends " + String.join(" & ", bounds));
+		}).collect(Collectors.joining(", ", "<", ">"));
+	}
+
+	private String typeArguments(List<? extends TypeParameterElement> typeParameters) {
+		if(typeParameters.isEmpty()) {
+			return "";
+		}
+		return typeParameters.stream().map(typeParameter-> typeParameter.getSimpleName().toString()).collect(Collectors.joining(", ", "<", ">"));
+	}
+}
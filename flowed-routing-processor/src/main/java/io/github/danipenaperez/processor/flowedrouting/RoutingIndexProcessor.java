@@ -0,0 +1,107 @@
+package io.github.danipenaperez.processor.flowedrouting;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import io.github.danipenaperez.lib.flowedrouting.index.RoutingCandidateIndex;
+
+/**
+ * Writes META-INF/flowed-routing.index with the @RoutedInterface types and the packages compiled by the module,
+ * so the starter registers the routed interfaces of those packages without scanning the classpath (see RoutingCandidateIndex).
+ * Entries of a previous (incremental) build are kept while their type still exists.
+ */
+@SupportedAnnotationTypes(RoutedInterfaceProcessor.ROUTED_INTERFACE_ANNOTATION)
+public class RoutingIndexProcessor extends AbstractProcessor {
+
+	private final Map<String, Set<String>> kindsByType = new TreeMap<>();
+	/**
+	 * Top level types compiled by this build, their previous entries are replaced
+	 */
+	private final Set<String> compiledTypes = new LinkedHashSet<>();
+	/**
+	 * Packages compiled by this build, every routed interface they declare is indexed
+	 */
+	private final Set<String> compiledPackages = new LinkedHashSet<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for(Element root: roundEnv.getRootElements()) {
+			if(root instanceof TypeElement type) {
+				compiledTypes.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+				compiledPackages.add(processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString());
+			}
+		}
+		for(TypeElement annotation: annotations) {
+			for(Element element: roundEnv.getElementsAnnotatedWith(annotation)) {
+				if(element instanceof TypeElement type) {
+					kindsByType.computeIfAbsent(processingEnv.getElementUtils().getBinaryName(type).toString(), key-> new LinkedHashSet<>()).add(RoutingCandidateIndex.ROUTED_INTERFACE);
+				}
+			}
+		}
+		if(roundEnv.processingOver() && !kindsByType.isEmpty()) {
+			writeIndex();
+		}
+		return false;
+	}
+
+	private void writeIndex() {
+		Map<String, Set<String>> index = new TreeMap<>(previousIndex());
+		index.putAll(kindsByType);
+		for(String compiledPackage: compiledPackages) {
+			index.computeIfAbsent(compiledPackage, key-> new LinkedHashSet<>()).add(RoutingCandidateIndex.PACKAGE);
+		}
+		try(Writer writer = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", RoutingCandidateIndex.LOCATION).openWriter()){
+			writer.write("#Generated by "+getClass().getName()+"\n");
+			for(Map.Entry<String, Set<String>> entry: index.entrySet()) {
+				writer.write(entry.getKey()+"="+String.join(",", entry.getValue())+"\n");
+			}
+		}catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Can not write "+RoutingCandidateIndex.LOCATION+" : "+e.getMessage());
+		}
+	}
+
+	/**
+	 * Entries written by a previous (incremental) compilation which types were not compiled again but still exist
+	 */
+	private Map<String, Set<String>> previousIndex() {
+		Map<String, Set<String>> previous = new TreeMap<>();
+		try {
+			FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", RoutingCandidateIndex.LOCATION);
+			Properties entries = new Properties();
+			try(InputStream input = existing.openInputStream()){
+				entries.load(input);
+			}
+			entries.forEach((type, kinds) -> {
+				String topLevelType = ((String) type).split("\\$")[0];
+				if(RoutingCandidateIndex.PACKAGE.equals(kinds)) {
+					previous.put((String) type, new LinkedHashSet<>(Set.of(RoutingCandidateIndex.PACKAGE)));
+				}else if(!compiledTypes.contains(topLevelType) && processingEnv.getElementUtils().getTypeElement(((String) type).replace('$', '.')) != null) {
+					previous.put((String) type, new LinkedHashSet<>(Set.of(((String) kinds).split(","))));
+				}
+			});
+		}catch (IOException | IllegalArgumentException e) { //First build
+		}
+		return previous;
+	}
+}
@@ -0,0 +1,96 @@
+package io.github.danipenaperez.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.processor.flowedrouting.RoutedInterfaceProcessor;
+import io.github.danipenaperez.processor.flowedrouting.RoutingIndexProcessor;
+
+/**
+ * Compiles in memory sources with the flowed-routing processors.
+ * Classes and resources are written to classOutput, which is also on the classpath (as in incremental builds).
+ */
+class ProcessorCompilation {
+
+	private final Path classOutput;
+	private final Path sourceOutput;
+
+	ProcessorCompilation(Path classOutput, Path sourceOutput) {
+		this.classOutput = classOutput;
+		this.sourceOutput = sourceOutput;
+	}
+
+	/**
+	 * @param sources code by class name
+	 * @return loader of the compiled and generated classes
+	 */
+	ClassLoader compile(Map<String, String> sources) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		try(StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)){
+			fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, List.of(classOutput));
+			fileManager.setLocationFromPaths(StandardLocation.SOURCE_OUTPUT, List.of(sourceOutput));
+			fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, classPath());
+			List<JavaFileObject> units = sources.entrySet().stream().map(source-> source(source.getKey(), source.getValue())).collect(Collectors.toList());
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, List.of(), null, units);
+			task.setProcessors(List.of(new RoutedInterfaceProcessor(), new RoutingIndexProcessor()));
+			boolean compiled = task.call();
+			Assertions.assertTrue(compiled, () -> diagnostics.getDiagnostics().stream()
+					.filter(diagnostic-> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+					.map(diagnostic-> diagnostic.getSource() == null ? diagnostic.getMessage(null) : diagnostic.getSource().getName()+":"+diagnostic.getLineNumber()+" "+diagnostic.getMessage(null))
+					.collect(Collectors.joining("\n")));
+		}
+		return new URLClassLoader(new URL[] {classOutput.toUri().toURL()}, getClass().getClassLoader());
+	}
+
+	private List<Path> classPath() throws MalformedURLException {
+		List<Path> classPath = new ArrayList<>();
+		classPath.add(classOutput);
+		for(String entry: System.getProperty("java.class.path").split(File.pathSeparator)) {
+			classPath.add(Path.of(entry));
+		}
+		for(Class<?> type: List.of(RoutedInterface.class, MethodInterceptor.class, AsyncTaskExecutor.class)) { //Test runners may only list a manifest jar
+			try {
+				classPath.add(Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()));
+			}catch (URISyntaxException e) {
+				throw new MalformedURLException(e.getMessage());
+			}
+		}
+		return classPath;
+	}
+
+	private static JavaFileObject source(String className, String code) {
+		return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return code;
+			}
+		};
+	}
+}
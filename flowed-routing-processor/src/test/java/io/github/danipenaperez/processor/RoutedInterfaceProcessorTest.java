@@ -0,0 +1,244 @@
+package io.github.danipenaperez.processor;
+
+import java.io.FileNotFoundException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedInterfaceProxy;
+
+/**
+ * Every interface shape is compiled with the processor and routed through the generated class
+ */
+public class RoutedInterfaceProcessorTest {
+
+	@TempDir
+	Path classOutput;
+	@TempDir
+	Path sourceOutput;
+	ProcessorCompilation compilation;
+
+	@BeforeEach
+	void setup() {
+		compilation = new ProcessorCompilation(classOutput, sourceOutput);
+	}
+
+	@Test
+	void genericInterfaceAndMethods() throws Throwable {
+		ClassLoader loader = compilation.compile(Map.of(
+				"shapes.Store", """
+				package shapes;
+				import java.util.List;
+				import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+				@RoutedInterface
+				public interface Store<T extends CharSequence> {
+					T first(List<T> values);
+					<R extends Comparable<R>> R max(R left, R right);
+					<K, V extends List<? extends K>> K head(V values);
+				}
+				""",
+				"shapes.DefaultStore", """
+				package shapes;
+				import java.util.List;
+				import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+				@RoutedComponent(isDefaultRouting = true)
+				public class DefaultStore implements Store<String> {
+					public String first(List<String> values) { return values.get(0); }
+					public <R extends Comparable<R>> R max(R left, R right) { return left.compareTo(right) >= 0 ? left : right; }
+					public <K, V extends List<? extends K>> K head(V values) { return values.get(0); }
+				}
+				"""));
+		Object store = proxy(loader, "shapes.Store", "shapes.DefaultStore");
+
+		Assertions.assertEquals(1, store.getClass().getTypeParameters().length);
+		Assertions.assertEquals("a", call(store, "first", new Class<?>[] {List.class}, List.of("a", "b")));
+		Assertions.assertEquals("b", call(store, "max", new Class<?>[] {Comparable.class, Comparable.class}, "a", "b"));
+		Assertions.assertEquals(7, call(store, "head", new Class<?>[] {List.class}, List.of(7, 8)));
+	}
+
+	@Test
+	void varargs() throws Throwable {
+		ClassLoader loader = compilation.compile(Map.of(
+				"shapes.Joiner", """
+				package shapes;
+				import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+				@RoutedInterface
+				public interface Joiner {
+					String join(String separator, String... parts);
+					int sum(int... values);
+				}
+				""",
+				"shapes.DefaultJoiner", """
+				package shapes;
+				import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+				@RoutedComponent(isDefaultRouting = true)
+				public class DefaultJoiner implements Joiner {
+					public String join(String separator, String... parts) { return String.join(separator, parts); }
+					public int sum(int... values) { return java.util.Arrays.stream(values).sum(); }
+				}
+				"""));
+		Object joiner = proxy(loader, "shapes.Joiner", "shapes.DefaultJoiner");
+
+		Assertions.assertTrue(joiner.getClass().getMethod("join", String.class, String[].class).isVarArgs());
+		Assertions.assertEquals("a-b", call(joiner, "join", new Class<?>[] {String.class, String[].class}, "-", new String[] {"a", "b"}));
+		Assertions.assertEquals(6, call(joiner, "sum", new Class<?>[] {int[].class}, new int[] {1, 2, 3}));
+	}
+
+	@Test
+	void checkedExceptionsAreRethrownAsDeclared() throws Throwable {
+		ClassLoader loader = compilation.compile(Map.of(
+				"shapes.Loader", """
+				package shapes;
+				import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+				@RoutedInterface
+				public interface Loader {
+					String load(String path) throws java.io.IOException, java.util.concurrent.TimeoutException;
+					<X extends Exception> void fail(X error) throws X;
+					void crash(Throwable error) throws Throwable;
+				}
+				""",
+				"shapes.DefaultLoader", """
+				package shapes;
+				import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+				@RoutedComponent(isDefaultRouting = true)
+				public class DefaultLoader implements Loader {
+					public String load(String path) throws java.io.IOException, java.util.concurrent.TimeoutException {
+						if(path.equals("missing")) throw new java.io.FileNotFoundException(path);
+						if(path.equals("slow")) throw new java.util.concurrent.TimeoutException(path);
+						if(path.equals("broken")) throw new IllegalStateException(path);
+						return "content of " + path;
+					}
+					public <X extends Exception> void fail(X error) throws X { throw error; }
+					public void crash(Throwable error) throws Throwable { throw error; }
+				}
+				"""));
+		Object loaderProxy = proxy(loader, "shapes.Loader", "shapes.DefaultLoader");
+
+		Assertions.assertEquals("content of a", call(loaderProxy, "load", new Class<?>[] {String.class}, "a"));
+		Assertions.assertThrows(FileNotFoundException.class, () -> call(loaderProxy, "load", new Class<?>[] {String.class}, "missing"));
+		Assertions.assertThrows(TimeoutException.class, () -> call(loaderProxy, "load", new Class<?>[] {String.class}, "slow"));
+		Assertions.assertThrows(IllegalStateException.class, () -> call(loaderProxy, "load", new Class<?>[] {String.class}, "broken"));
+		Assertions.assertThrows(InterruptedException.class, () -> call(loaderProxy, "fail", new Class<?>[] {Exception.class}, new InterruptedException()));
+		Assertions.assertThrows(ClassNotFoundException.class, () -> call(loaderProxy, "crash", new Class<?>[] {Throwable.class}, new ClassNotFoundException()));
+	}
+
+	@Test
+	void nestedInterface() throws Throwable {
+		ClassLoader loader = compilation.compile(Map.of(
+				"shapes.Outer", """
+				package shapes;
+				import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+				public class Outer {
+					@RoutedInterface
+					public interface Inner {
+						String value(Kind kind);
+						enum Kind { A, B }
+					}
+				}
+				""",
+				"shapes.DefaultInner", """
+				package shapes;
+				import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+				@RoutedComponent(isDefaultRouting = true)
+				public class DefaultInner implements Outer.Inner {
+					public String value(Kind kind) { return kind.name(); }
+				}
+				"""));
+		Object inner = proxy(loader, "shapes.Outer$Inner", "shapes.DefaultInner");
+
+		Assertions.assertEquals("shapes.Outer_Inner_FlowedRoutingProxy", inner.getClass().getName());
+		Class<?> kind = loader.loadClass("shapes.Outer$Inner$Kind");
+		Assertions.assertEquals("B", call(inner, "value", new Class<?>[] {kind}, kind.getEnumConstants()[1]));
+	}
+
+	@Test
+	void defaultMethodsAreRouted() throws Throwable {
+		ClassLoader loader = compilation.compile(Map.of(
+				"shapes.Greeter", """
+				package shapes;
+				import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+				@RoutedInterface
+				public interface Greeter {
+					String name();
+					default String greet() { return "Hello " + name(); }
+				}
+				""",
+				"shapes.DefaultGreeter", """
+				package shapes;
+				import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+				@RoutedComponent(isDefaultRouting = true)
+				public class DefaultGreeter implements Greeter {
+					public String name() { return "Alice"; }
+					public String greet() { return "Routed hello " + name(); }
+				}
+				"""));
+		Object greeter = proxy(loader, "shapes.Greeter", "shapes.DefaultGreeter");
+
+		Assertions.assertFalse(greeter.getClass().getDeclaredMethod("greet").isDefault());
+		Assertions.assertEquals("Routed hello Alice", call(greeter, "greet", new Class<?>[0]));
+	}
+
+	@Test
+	void parametersNamedAsTheCaughtException() throws Throwable {
+		ClassLoader loader = compilation.compile(Map.of(
+				"shapes.Echo", """
+				package shapes;
+				import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+				@RoutedInterface
+				public interface Echo {
+					String echo(String e, String e_) throws java.io.IOException;
+				}
+				""",
+				"shapes.DefaultEcho", """
+				package shapes;
+				import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+				@RoutedComponent(isDefaultRouting = true)
+				public class DefaultEcho implements Echo {
+					public String echo(String e, String e_) throws java.io.IOException {
+						if(e == null) throw new java.io.FileNotFoundException(e_);
+						return e + e_;
+					}
+				}
+				"""));
+		Object echo = proxy(loader, "shapes.Echo", "shapes.DefaultEcho");
+
+		Assertions.assertEquals("ab", call(echo, "echo", new Class<?>[] {String.class, String.class}, "a", "b"));
+		Assertions.assertThrows(FileNotFoundException.class, () -> call(echo, "echo", new Class<?>[] {String.class, String.class}, null, "b"));
+	}
+
+	/**
+	 * @return the generated implementation, routing to the default delegate
+	 */
+	private static Object proxy(ClassLoader loader, String routedInterfaceName, String defaultDelegateName) throws Exception {
+		Class<?> routedInterface = loader.loadClass(routedInterfaceName);
+		DefaultFlowRoutingInterceptor interceptor = new DefaultFlowRoutingInterceptor(routedInterface);
+		interceptor.addDelegates(List.of(loader.loadClass(defaultDelegateName).getConstructor().newInstance()));
+		Class<?> generated = loader.loadClass(RoutedInterfaceProxy.generatedClassName(routedInterface));
+		Assertions.assertTrue(Modifier.isFinal(generated.getModifiers()));
+		Object proxy = generated.getConstructor(DefaultFlowRoutingInterceptor.class).newInstance(interceptor);
+		Assertions.assertTrue(routedInterface.isInstance(proxy));
+		return proxy;
+	}
+
+	/**
+	 * Call the routed interface method, throwing what the generated method throws
+	 */
+	private static Object call(Object proxy, String name, Class<?>[] parameterTypes, Object... arguments) throws Throwable {
+		Method method = proxy.getClass().getMethod(name, parameterTypes);
+		try {
+			return method.invoke(proxy, arguments);
+		}catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+}
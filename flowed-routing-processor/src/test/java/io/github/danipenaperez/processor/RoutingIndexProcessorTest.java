@@ -0,0 +1,112 @@
+package io.github.danipenaperez.processor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.danipenaperez.lib.flowedrouting.index.RoutingCandidateIndex;
+
+/**
+ * Incremental builds compile only the changed sources into the previous class output
+ */
+public class RoutingIndexProcessorTest {
+
+	static final String ALPHA = """
+			package indexed;
+			@io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface
+			public interface Alpha {
+				String alpha();
+			}
+			""";
+	static final String BETA = """
+			package indexed;
+			@io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface
+			public interface Beta {
+				String beta();
+			}
+			""";
+	static final String GAMMA = """
+			package indexed;
+			@io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface
+			public interface Gamma {
+				String gamma();
+			}
+			""";
+	static final String UNROUTED_ALPHA = """
+			package indexed;
+			public interface Alpha {
+				String alpha();
+			}
+			""";
+
+	@TempDir
+	Path classOutput;
+	@TempDir
+	Path sourceOutput;
+	ProcessorCompilation compilation;
+
+	@BeforeEach
+	void setup() {
+		compilation = new ProcessorCompilation(classOutput, sourceOutput);
+	}
+
+	@Test
+	void fullBuildIndexesTypesAndPackages() throws IOException {
+		compilation.compile(Map.of("indexed.Alpha", ALPHA, "indexed.Beta", BETA));
+
+		Properties index = index();
+		Assertions.assertEquals(RoutingCandidateIndex.ROUTED_INTERFACE, index.getProperty("indexed.Alpha"));
+		Assertions.assertEquals(RoutingCandidateIndex.ROUTED_INTERFACE, index.getProperty("indexed.Beta"));
+		Assertions.assertEquals(RoutingCandidateIndex.PACKAGE, index.getProperty("indexed"));
+		Assertions.assertEquals(3, index.size());
+	}
+
+	@Test
+	void incrementalBuildKeepsEntriesOfTypesNotCompiledAgain() throws IOException {
+		compilation.compile(Map.of("indexed.Alpha", ALPHA, "indexed.Beta", BETA));
+		compilation.compile(Map.of("indexed.Alpha", ALPHA));
+
+		Properties index = index();
+		Assertions.assertEquals(RoutingCandidateIndex.ROUTED_INTERFACE, index.getProperty("indexed.Alpha"));
+		Assertions.assertEquals(RoutingCandidateIndex.ROUTED_INTERFACE, index.getProperty("indexed.Beta"));
+		Assertions.assertEquals(RoutingCandidateIndex.PACKAGE, index.getProperty("indexed"));
+	}
+
+	@Test
+	void incrementalBuildDropsDeletedTypes() throws IOException {
+		compilation.compile(Map.of("indexed.Alpha", ALPHA, "indexed.Beta", BETA));
+		Files.delete(classOutput.resolve("indexed/Beta.class"));
+		compilation.compile(Map.of("indexed.Alpha", ALPHA));
+
+		Properties index = index();
+		Assertions.assertEquals(RoutingCandidateIndex.ROUTED_INTERFACE, index.getProperty("indexed.Alpha"));
+		Assertions.assertNull(index.getProperty("indexed.Beta"));
+	}
+
+	@Test
+	void incrementalBuildReplacesEntriesOfCompiledTypes() throws IOException {
+		compilation.compile(Map.of("indexed.Alpha", ALPHA, "indexed.Beta", BETA));
+		compilation.compile(Map.of("indexed.Alpha", UNROUTED_ALPHA, "indexed.Gamma", GAMMA));
+
+		Properties index = index();
+		Assertions.assertNull(index.getProperty("indexed.Alpha"));
+		Assertions.assertEquals(RoutingCandidateIndex.ROUTED_INTERFACE, index.getProperty("indexed.Beta"));
+		Assertions.assertEquals(RoutingCandidateIndex.ROUTED_INTERFACE, index.getProperty("indexed.Gamma"));
+	}
+
+	private Properties index() throws IOException {
+		Properties index = new Properties();
+		try(InputStream input = Files.newInputStream(classOutput.resolve(RoutingCandidateIndex.LOCATION))){
+			index.load(input);
+		}
+		return index;
+	}
+}
@@ -0,0 +1,168 @@
+package io.github.danipenaperez.starter.flowedrouting.aot;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.BeanReference;
+import org.springframework.expression.spel.ast.TypeReference;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.util.ClassUtils;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.annotation.EvaluatorType;
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedInterfaceProxy;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingProxiedInterfaceBean;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records at build time what routing reads by reflection at runtime, so routed interfaces work in a native image:
+ * the @RoutedInterface types (methods, JDK proxy or generated proxy), the @RoutedComponent and evaluator classes,
+ * the condition annotations of their methods, and the beans and types referenced by @FlowSpelCondition expressions.
+ * Conditions loaded from external rules at runtime can only use the types registered here.
+ */
+@Slf4j
+public class FlowedRoutingBeanFactoryInitializationAotProcessor implements BeanFactoryInitializationAotProcessor {
+
+	private final SpelExpressionParser expressionParser = new SpelExpressionParser();
+
+	@Override
+	public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+		RuntimeHints hints = new RuntimeHints();
+		if(!registerHints(beanFactory, hints)) {
+			return null;
+		}
+		return (generationContext, beanFactoryInitializationCode) -> {
+			RuntimeHints runtimeHints = generationContext.getRuntimeHints();
+			hints.reflection().typeHints().forEach(typeHint-> runtimeHints.reflection().registerType(typeHint.getType(), builder-> builder.withMembers(typeHint.getMemberCategories().toArray(MemberCategory[]::new))));
+			hints.proxies().jdkProxyHints().forEach(proxyHint-> runtimeHints.proxies().registerJdkProxy(proxyHint.getProxiedInterfaces().toArray(org.springframework.aot.hint.TypeReference[]::new)));
+		};
+	}
+
+	/**
+	 * @param beanFactory
+	 * @param hints
+	 * @return false when there are no routed interfaces
+	 */
+	public boolean registerHints(ConfigurableListableBeanFactory beanFactory, RuntimeHints hints) {
+		ClassLoader classLoader = beanFactory.getBeanClassLoader();
+		Set<Class<?>> routedInterfaces = new LinkedHashSet<>();
+		Set<Class<?>> components = new LinkedHashSet<>();
+		for(String beanName: beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition beanDefinition = beanFactory.getMergedBeanDefinition(beanName);
+			if(FlowedRoutingProxiedInterfaceBean.class.getName().equals(beanDefinition.getBeanClassName())) {
+				ValueHolder routedInterface = beanDefinition.getConstructorArgumentValues().getGenericArgumentValue(String.class);
+				if(routedInterface != null) {
+					routedInterfaces.add(ClassUtils.resolveClassName((String) routedInterface.getValue(), classLoader));
+				}
+				continue;
+			}
+			Class<?> beanType = beanFactory.getType(beanName, false);
+			if(beanType == null) {
+				continue;
+			}
+			beanType = ClassUtils.getUserClass(beanType);
+			if(AnnotatedElementUtils.hasAnnotation(beanType, RoutedComponent.class)) {
+				components.add(beanType);
+			}
+			if(AnnotatedElementUtils.hasAnnotation(beanType, EvaluatorType.class)) {
+				hints.reflection().registerType(beanType);
+			}
+		}
+		if(routedInterfaces.isEmpty()) {
+			return false;
+		}
+		for(Class<?> routedInterface: routedInterfaces) {
+			registerRoutedInterface(hints, routedInterface, classLoader);
+		}
+		for(Class<?> component: components) {
+			hints.reflection().registerType(component, MemberCategory.INVOKE_PUBLIC_METHODS);
+			for(Method method: component.getMethods()) {
+				registerConditions(beanFactory, hints, method, classLoader);
+			}
+		}
+		log.debug("Native hints registered for {} routed interfaces and {} routed components", routedInterfaces.size(), components.size());
+		return true;
+	}
+
+	private void registerRoutedInterface(RuntimeHints hints, Class<?> routedInterface, ClassLoader classLoader) {
+		hints.reflection().registerType(routedInterface, MemberCategory.INTROSPECT_DECLARED_METHODS, MemberCategory.INVOKE_PUBLIC_METHODS);
+		String generatedClassName = RoutedInterfaceProxy.generatedClassName(routedInterface);
+		if(ClassUtils.isPresent(generatedClassName, classLoader)) {
+			hints.reflection().registerType(ClassUtils.resolveClassName(generatedClassName, classLoader), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+		}else {
+			hints.proxies().registerJdkProxy(routedInterface, SpringProxy.class, Advised.class, DecoratingProxy.class);
+		}
+		for(Method method: routedInterface.getDeclaredMethods()) { //SpEL conditions navigate the arguments
+			for(Class<?> parameterType: method.getParameterTypes()) {
+				registerApplicationType(hints, parameterType);
+			}
+		}
+	}
+
+	private void registerConditions(ConfigurableListableBeanFactory beanFactory, RuntimeHints hints, Method method, ClassLoader classLoader) {
+		for(Annotation annotation: method.getAnnotations()) {
+			if(!annotation.annotationType().getName().startsWith("java.")) {
+				FlowedRoutingRuntimeHints.registerAnnotation(hints, annotation.annotationType());
+			}
+		}
+		FlowSpelCondition spelCondition = method.getAnnotation(FlowSpelCondition.class);
+		if(spelCondition == null) {
+			return;
+		}
+		try {
+			SpelExpression expression = (SpelExpression) expressionParser.parseExpression(spelCondition.evaluationExpression());
+			registerReferences(beanFactory, hints, expression.getAST(), classLoader);
+		}catch (ParseException e) { //Reported by SpELEvaluator at startup
+			log.debug("Can not parse the condition of {} : {}", method, e.getMessage());
+		}
+	}
+
+	/**
+	 * @bean references and T(type) references of the expression
+	 */
+	private void registerReferences(ConfigurableListableBeanFactory beanFactory, RuntimeHints hints, SpelNode node, ClassLoader classLoader) {
+		if(node instanceof BeanReference) {
+			String beanName = node.toStringAST().substring(1).replace("'", "");
+			Class<?> beanType = beanFactory.containsBean(beanName) ? beanFactory.getType(beanName, false) : null;
+			if(beanType != null) {
+				hints.reflection().registerType(ClassUtils.getUserClass(beanType), MemberCategory.INVOKE_PUBLIC_METHODS);
+			}
+		}else if(node instanceof TypeReference) {
+			String typeName = node.toStringAST().replaceAll("^T\\((.*)\\)$", "$1");
+			for(String candidate: List.of(typeName, "java.lang." + typeName)) {
+				if(ClassUtils.isPresent(candidate, classLoader)) {
+					hints.reflection().registerType(ClassUtils.resolveClassName(candidate, classLoader), MemberCategory.INVOKE_PUBLIC_METHODS);
+					break;
+				}
+			}
+		}
+		for(int i=0;i<node.getChildCount();i++) {
+			registerReferences(beanFactory, hints, node.getChild(i), classLoader);
+		}
+	}
+
+	private static void registerApplicationType(RuntimeHints hints, Class<?> type) {
+		Class<?> component = type.isArray() ? type.getComponentType() : type;
+		if(!component.isPrimitive() && !component.getName().startsWith("java.")) {
+			hints.reflection().registerType(component, MemberCategory.INVOKE_PUBLIC_METHODS);
+		}
+	}
+}
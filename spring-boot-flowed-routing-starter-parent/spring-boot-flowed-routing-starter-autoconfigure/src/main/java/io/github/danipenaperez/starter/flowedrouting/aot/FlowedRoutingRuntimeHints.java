@@ -0,0 +1,48 @@
+package io.github.danipenaperez.starter.flowedrouting.aot;
+
+import java.util.List;
+
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.util.ReflectionUtils;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.CachedRouting;
+import io.github.danipenaperez.lib.flowedrouting.annotation.FlowBalanced;
+import io.github.danipenaperez.lib.flowedrouting.annotation.FlowShadow;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedBatch;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutingKey;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.annotation.EvaluatorType;
+import io.github.danipenaperez.lib.flowedrouting.flag.FlagSnapshotStore;
+import io.github.danipenaperez.lib.flowedrouting.flag.annotation.FlowFlagCondition;
+import io.github.danipenaperez.lib.flowedrouting.percentage.annotation.FlowPercentageCondition;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+/**
+ * Native image hints of the library itself, the application types are registered by FlowedRoutingBeanFactoryInitializationAotProcessor
+ */
+public class FlowedRoutingRuntimeHints implements RuntimeHintsRegistrar {
+
+	/**
+	 * Read by reflection at startup, the condition ones are also synthesized from external rules (see RoutedMethodDefinition.getConditionAnnotation)
+	 */
+	static final List<Class<?>> ANNOTATIONS = List.of(RoutedInterface.class, RoutedComponent.class, CachedRouting.class, RoutingKey.class, RoutedBatch.class, FlowShadow.class, FlowBalanced.class,
+			EvaluatorType.class, FlowConditionType.class, FlowSpelCondition.class, FlowFlagCondition.class, FlowPercentageCondition.class);
+
+	@Override
+	public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+		for(Class<?> annotation: ANNOTATIONS) {
+			registerAnnotation(hints, annotation);
+		}
+		hints.reflection().registerMethod(ReflectionUtils.findMethod(FlagSnapshotStore.class, "isEnabled", String.class), ExecutableMode.INVOKE); //#flag() SpEL function
+	}
+
+	static void registerAnnotation(RuntimeHints hints, Class<?> annotation) {
+		hints.reflection().registerType(annotation, MemberCategory.INVOKE_DECLARED_METHODS);
+		hints.proxies().registerJdkProxy(annotation);
+	}
+}
@@ -1,19 +1,51 @@
 package io.github.danipenaperez.starter.flowedrouting.context;
 
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.stereotype.Component;
 
+import io.github.danipenaperez.lib.flowedrouting.index.RoutingCandidateIndex;
+
+/**
+ * Registers a bean for every @RoutedInterface of the application package.
+ * Uses the META-INF/flowed-routing.index written by flowed-routing-processor when present, scans the classpath otherwise.
+ */
 @Configuration
-public class FlowedRoutingBeanRegistrar implements ImportBeanDefinitionRegistrar{
+public class FlowedRoutingBeanRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware, ResourceLoaderAware{
+
+	public static final String IGNORE_INDEX_PROPERTY = "flowed-routing.index.ignore";
+
+	private Environment environment;
+	private ResourceLoader resourceLoader;
 
     @Override
     public void registerBeanDefinitions (AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
-    	FlowedRoutingClassPathBeanDefinitionScanner scanner = new FlowedRoutingClassPathBeanDefinitionScanner(registry, Component.class);
+    	FlowedRoutingClassPathBeanDefinitionScanner scanner = new FlowedRoutingClassPathBeanDefinitionScanner(registry, Component.class, candidateIndex());
     	scanner.scan(FlowedRoutingEnvironmentPostProcessor.APPLICATION_RUN_BASE_PACKAGE);
     }
 
+    private RoutingCandidateIndex candidateIndex() {
+    	if(environment != null && environment.getProperty(IGNORE_INDEX_PROPERTY, Boolean.class, false)) {
+    		return null;
+    	}
+    	ClassLoader classLoader = resourceLoader != null && resourceLoader.getClassLoader() != null ? resourceLoader.getClassLoader() : getClass().getClassLoader();
+    	return RoutingCandidateIndex.load(classLoader);
+    }
+
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	@Override
+	public void setResourceLoader(ResourceLoader resourceLoader) {
+		this.resourceLoader = resourceLoader;
+	}
 
 }
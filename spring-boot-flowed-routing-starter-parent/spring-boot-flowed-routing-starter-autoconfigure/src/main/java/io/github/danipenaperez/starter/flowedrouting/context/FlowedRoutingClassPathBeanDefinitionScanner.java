@@ -1,23 +1,68 @@
 package io.github.danipenaperez.starter.flowedrouting.context;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
+import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.annotation.ClassPathBeanDefinitionScanner;
+import org.springframework.context.annotation.ScannedGenericBeanDefinition;
 import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
 
 import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+import io.github.danipenaperez.lib.flowedrouting.index.RoutingCandidateIndex;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class FlowedRoutingClassPathBeanDefinitionScanner extends ClassPathBeanDefinitionScanner {
 
+	  /**
+	   * Built by flowed-routing-processor, null to scan the classpath
+	   */
+	  private final RoutingCandidateIndex candidateIndex;
+
 	  public FlowedRoutingClassPathBeanDefinitionScanner( BeanDefinitionRegistry registry, Class<? extends Annotation> annotationType) {
+	    this(registry, annotationType, null);
+	  }
+
+	  public FlowedRoutingClassPathBeanDefinitionScanner( BeanDefinitionRegistry registry, Class<? extends Annotation> annotationType, RoutingCandidateIndex candidateIndex) {
 	    super(registry, false);
 	    addIncludeFilter(new AnnotationTypeFilter(annotationType));
+	    this.candidateIndex = candidateIndex;
+	  }
+
+	  /**
+	   * Read only the indexed @RoutedInterface classes when the package is indexed by every classpath location holding it
+	   */
+	  @Override
+	  public Set<BeanDefinition> findCandidateComponents(String basePackage) {
+		ClassLoader classLoader = getResourceLoader().getClassLoader() != null ? getResourceLoader().getClassLoader() : ClassUtils.getDefaultClassLoader();
+		if(candidateIndex == null || !candidateIndex.covers(basePackage, classLoader)) {
+			return super.findCandidateComponents(basePackage);
+		}
+		Set<BeanDefinition> candidates = new LinkedHashSet<>();
+		for(String type: candidateIndex.getTypes(RoutingCandidateIndex.ROUTED_INTERFACE, basePackage)) {
+			try {
+				MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(type);
+				ScannedGenericBeanDefinition beanDefinition = new ScannedGenericBeanDefinition(metadataReader);
+				beanDefinition.setSource(metadataReader.getResource());
+				if(isCandidateComponent(beanDefinition)) {
+					candidates.add(beanDefinition);
+				}
+			}catch (IOException exc) {
+				throw new BeanDefinitionStoreException("Indexed @RoutedInterface "+type+" not found, rebuild the module or set "+FlowedRoutingBeanRegistrar.IGNORE_INDEX_PROPERTY+"=true", exc);
+			}
+		}
+		log.debug("{} @RoutedInterface found at {}", candidates.size(), RoutingCandidateIndex.LOCATION);
+		return candidates;
 	  }
 	  
 	  @Override
@@ -35,7 +80,7 @@ public class FlowedRoutingClassPathBeanDefinitionScanner extends ClassPathBeanDe
 
 	    beanDefinition
 	    	.getConstructorArgumentValues()
-	        .addGenericArgumentValue(((AnnotatedBeanDefinition) beanDefinition).getMetadata());
+	        .addGenericArgumentValue(((AnnotatedBeanDefinition) beanDefinition).getMetadata().getClassName());
 
 	    beanDefinition.setDependsOn(getFactoryBeanDependencies());
 	  }
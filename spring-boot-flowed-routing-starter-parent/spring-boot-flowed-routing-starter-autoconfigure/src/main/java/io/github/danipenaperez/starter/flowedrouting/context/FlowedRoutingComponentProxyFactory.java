@@ -1,80 +1,330 @@
 package io.github.danipenaperez.starter.flowedrouting.context;
 
-import static org.springframework.util.ClassUtils.resolveClassName;
-
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeanInstantiationException;
 import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationListener;
-import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Component;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.ClassUtils;
 
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutingTable;
 import io.github.danipenaperez.lib.flowedrouting.evaluator.Evaluator;
 import io.github.danipenaperez.lib.flowedrouting.evaluator.annotation.EvaluatorType;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.guard.CircuitBreaker;
+import io.github.danipenaperez.lib.flowedrouting.evaluator.guard.GuardedEvaluator;
 import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
 import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
 import io.github.danipenaperez.lib.flowedrouting.interceptor.FlowRoutingInterceptor;
+import io.github.danipenaperez.lib.flowedrouting.memo.ConditionMemoStore;
+import io.github.danipenaperez.lib.flowedrouting.observer.CompositeRoutingObserver;
+import io.github.danipenaperez.lib.flowedrouting.observer.RoutingObserver;
+import io.github.danipenaperez.lib.flowedrouting.proxy.RoutedInterfaceProxy;
+import io.github.danipenaperez.lib.flowedrouting.rules.RoutingRule;
+import io.github.danipenaperez.lib.flowedrouting.rules.RoutingRuleSource;
+import io.github.danipenaperez.lib.flowedrouting.shadow.ShadowExecutor;
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingStartupReport.InterfaceReport;
+import io.github.danipenaperez.starter.flowedrouting.task.FlowedRoutingTaskConfiguration;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Factory for all @RoutedInterface interfaces
  */
+@Slf4j
 @Component
-public class FlowedRoutingComponentProxyFactory implements ApplicationListener<ApplicationStartedEvent>{
+public class FlowedRoutingComponentProxyFactory implements ApplicationListener<ApplicationStartedEvent>, DisposableBean{
 	
 	  private ApplicationContext context;
 	  private List<FlowRoutingInterceptor> interceptorInstances = new ArrayList<>();
+	  /**
+	   * External rules applied to the interceptors (see RoutingRuleSource)
+	   */
+	  private volatile List<RoutingRule> routingRules = List.of();
+	  private boolean started;
+	  private volatile FlowedRoutingStartupReport startupReport;
+	  private ShadowExecutor fallbackShadowExecutor;
 	  
 	  public FlowedRoutingComponentProxyFactory( ApplicationContext context ) {
 		  this.context=context;
 	  }
 
   	  /**
-  	   * Create a proxy implementation for a bean based on Bean Class
-  	   * @param annotationMetadata
+  	   * Create a proxy implementation for a bean based on Bean Class.
+  	   * Uses the class generated by flowed-routing-processor when present, a runtime JDK proxy otherwise
+  	   * @param clazz @RoutedInterface
   	   * @return
   	   */
-	  public Object createProxy(AnnotationMetadata annotationMetadata) {
-	    Class clazz = resolveClassName(annotationMetadata.getClassName(), null);
-	   
+	  public Object createProxy(Class clazz) {
 	    var interceptorInstance = new DefaultFlowRoutingInterceptor(clazz);
 	    interceptorInstances.add(interceptorInstance);
-	    return ProxyFactory.getProxy(clazz, interceptorInstance);
+	    Object generatedProxy = createGeneratedProxy(clazz, interceptorInstance);
+	    return generatedProxy != null ? generatedProxy : ProxyFactory.getProxy(clazz, interceptorInstance);
+	  }
+	  
+	  private Object createGeneratedProxy(Class clazz, DefaultFlowRoutingInterceptor interceptorInstance) {
+		  String generatedClassName = RoutedInterfaceProxy.generatedClassName(clazz);
+		  if(!ClassUtils.isPresent(generatedClassName, clazz.getClassLoader())) {
+			  return null;
+		  }
+		  try {
+			  Class<?> generatedClass = ClassUtils.forName(generatedClassName, clazz.getClassLoader());
+			  return generatedClass.getConstructor(DefaultFlowRoutingInterceptor.class).newInstance(interceptorInstance);
+		  }catch (ReflectiveOperationException | LinkageError exc) {
+			  throw new BeanInstantiationException(clazz, "Can not instantiate generated routing proxy "+generatedClassName, exc);
+		  }
 	  }
 	  /**
 	   * Populate Interceptors with useful context beans, such as bean implementations, and Evaluators
 	   */
 	  @Override
 	  public void onApplicationEvent(ApplicationStartedEvent event) {
+		  long start = System.nanoTime();
 		  try {
 			  registerEvaluatorsToInterceptors();
-			  registerDelegatesToInterceptors();
+			  Duration evaluatorsLookup = Duration.ofNanos(System.nanoTime() - start);
+			  registerCollaboratorsToInterceptors();
+			  registerRoutingRulesToInterceptors();
+			  List<InterfaceReport> interfaceReports = registerDelegatesToInterceptors();
+			  startupReport = new FlowedRoutingStartupReport(interfaceReports, evaluatorsLookup, Duration.ofNanos(System.nanoTime() - start), parallelism());
+			  log.info("Flowed routing started {} interfaces in {} ms", interfaceReports.size(), startupReport.total().toMillis());
+			  log.debug("{}", startupReport);
 		  }catch (FlowedRoutingConfigurationException exc){
 			  throw new BeanInitializationException(exc.getMessage());
 		  }
 	  }
 	  
-	  private void registerDelegatesToInterceptors() throws FlowedRoutingConfigurationException {
+	  /**
+	   * @return timings of the last ApplicationStartedEvent, null before it
+	   */
+	  public FlowedRoutingStartupReport getStartupReport() {
+		  return startupReport;
+	  }
+	  
+	  /**
+	   * Look the delegate beans up on the event thread (bean creation is not thread safe), then build the routing tables in parallel
+	   */
+	  private List<InterfaceReport> registerDelegatesToInterceptors() throws FlowedRoutingConfigurationException {
+		 List<Collection<Object>> delegates = new ArrayList<>(interceptorInstances.size());
 		 for(FlowRoutingInterceptor interceptorInstance: interceptorInstances) {
 			 Map beanDelegates = context.getBeansOfType(interceptorInstance.getWrappedInterfaceClass());
 			 if(beanDelegates == null || beanDelegates.size()==0)
-				 throw new FlowedRoutingConfigurationException("Not found @RoutedComponent beans that implements the @RoutedInterface "+interceptorInstance.getClass().getName());
-			 interceptorInstance.addDelegates(beanDelegates.values());
+				 throw new FlowedRoutingConfigurationException("Not found @RoutedComponent beans that implements the @RoutedInterface "+interceptorInstance.getWrappedInterfaceClass().getName());
+			 delegates.add(beanDelegates.values());
+		 }
+		 List<Callable<InterfaceReport>> builds = new ArrayList<>(interceptorInstances.size());
+		 for(int i=0;i<interceptorInstances.size();i++) {
+			 FlowRoutingInterceptor interceptorInstance = interceptorInstances.get(i);
+			 Collection<Object> interfaceDelegates = delegates.get(i);
+			 builds.add(() -> {
+				 long start = System.nanoTime();
+				 interceptorInstance.addDelegates(interfaceDelegates);
+				 return new InterfaceReport(interceptorInstance.getWrappedInterfaceClass().getName(), interceptorInstance.getDelegatedImplementations().size(),
+						 interceptorInstance.getRoutedMethods().length, Duration.ofNanos(System.nanoTime() - start));
+			 });
+		 }
+		 int parallelism = Math.min(parallelism(), builds.size());
+		 if(parallelism <= 1) {
+			 List<InterfaceReport> reports = new ArrayList<>(builds.size());
+			 for(Callable<InterfaceReport> build: builds) {
+				 reports.add(call(build));
+			 }
+			 return reports;
+		 }
+		 ExecutorService executor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("flowed-routing-startup-"));
+		 try {
+			 List<Future<InterfaceReport>> futures = executor.invokeAll(builds);
+			 List<InterfaceReport> reports = new ArrayList<>(futures.size());
+			 for(Future<InterfaceReport> future: futures) {
+				 try {
+					 reports.add(future.get());
+				 }catch (ExecutionException exc) {
+					 if(exc.getCause() instanceof FlowedRoutingConfigurationException configurationException) {
+						 throw configurationException;
+					 }
+					 throw new BeanInitializationException("Can not build the routing tables", exc.getCause());
+				 }
+			 }
+			 return reports;
+		 }catch (InterruptedException exc) {
+			 Thread.currentThread().interrupt();
+			 throw new BeanInitializationException("Interrupted while building the routing tables", exc);
+		 }finally {
+			 executor.shutdownNow();
 		 }
-
 	  }
 	  
-	  private void registerEvaluatorsToInterceptors() throws FlowedRoutingConfigurationException {
-		  interceptorInstances.forEach(interceptor->{ //context.getBean("SpELEvaluator")
-			  Map evaluators = context.getBeansWithAnnotation(EvaluatorType.class);
-			  for(Object evaluator:evaluators.values()) {
-				  interceptor.registerEvaluator((Evaluator) evaluator);
+	  private static InterfaceReport call(Callable<InterfaceReport> build) throws FlowedRoutingConfigurationException {
+		  try {
+			  return build.call();
+		  }catch (FlowedRoutingConfigurationException | RuntimeException exc) {
+			  throw exc;
+		  }catch (Exception exc) {
+			  throw new BeanInitializationException("Can not build the routing tables", exc);
+		  }
+	  }
+	  
+	  /**
+	   * flowed-routing.startup.parallelism, available processors when not set
+	   */
+	  private int parallelism() {
+		  FlowedRoutingProperties properties = context.getBeanProvider(FlowedRoutingProperties.class).getIfAvailable();
+		  int parallelism = properties == null ? 0 : properties.getStartup().getParallelism();
+		  return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+	  }
+	  
+	  private synchronized void registerRoutingRulesToInterceptors() throws FlowedRoutingConfigurationException {
+		  RoutingRuleSource routingRuleSource = context.getBeanProvider(RoutingRuleSource.class).getIfAvailable();
+		  if(routingRuleSource != null) {
+			  routingRules = validate(routingRuleSource.loadRules());
+		  }
+		  interceptorInstances.forEach(interceptor-> interceptor.setRoutingRules(routingRules));
+		  started = true;
+	  }
+	  
+	  /**
+	   * Replace the external rules of every interceptor. All the routing tables are built and validated first,
+	   * then published one by one, so invalid rules leave every interceptor with its current table.
+	   * Called from the rules reload, never on the request path.
+	   * @param routingRules
+	   * @throws FlowedRoutingConfigurationException if any rule is not valid
+	   */
+	  public synchronized void applyRoutingRules(List<RoutingRule> routingRules) throws FlowedRoutingConfigurationException {
+		  List<RoutingRule> rules = validate(routingRules);
+		  if(!started) { //Applied with the delegates on ApplicationStartedEvent
+			  this.routingRules = rules;
+			  return;
+		  }
+		  List<RoutingTable> tables = new ArrayList<>(interceptorInstances.size());
+		  for(FlowRoutingInterceptor interceptorInstance: interceptorInstances) {
+			  tables.add(interceptorInstance.buildRoutingTable(rules));
+		  }
+		  for(int i=0;i<tables.size();i++) {
+			  interceptorInstances.get(i).publish(tables.get(i));
+		  }
+		  this.routingRules = rules;
+	  }
+	  
+	  /**
+	   * Add a @RoutedComponent created outside the application context (plugins, child contexts...)
+	   * to the interceptors of every @RoutedInterface it implements
+	   * @param delegate
+	   * @throws FlowedRoutingConfigurationException if any interface can not route with it, none is changed then
+	   */
+	  public synchronized void registerDelegate(Object delegate) throws FlowedRoutingConfigurationException {
+		  List<FlowRoutingInterceptor> registered = new ArrayList<>();
+		  try {
+			  for(FlowRoutingInterceptor interceptorInstance: routingInterceptors(delegate)) {
+				  interceptorInstance.registerDelegate(delegate);
+				  registered.add(interceptorInstance);
+			  }
+		  }catch (FlowedRoutingConfigurationException exc) {
+			  for(FlowRoutingInterceptor interceptorInstance: registered) {
+				  interceptorInstance.unregisterDelegate(delegate);
 			  }
-		  });
+			  throw exc;
+		  }
+	  }
+	  
+	  /**
+	   * @param delegate registered with registerDelegate
+	   * @throws FlowedRoutingConfigurationException if an interface would be left without default candidate
+	   */
+	  public synchronized void unregisterDelegate(Object delegate) throws FlowedRoutingConfigurationException {
+		  for(FlowRoutingInterceptor interceptorInstance: routingInterceptors(delegate)) {
+			  interceptorInstance.unregisterDelegate(delegate);
+		  }
+	  }
+	  
+	  private List<FlowRoutingInterceptor> routingInterceptors(Object delegate) {
+		  return interceptorInstances.stream().filter(interceptor-> interceptor.getWrappedInterfaceClass().isInstance(delegate)).toList();
+	  }
+	  
+	  public List<RoutingRule> getRoutingRules() {
+		  return routingRules;
+	  }
+	  
+	  private List<RoutingRule> validate(List<RoutingRule> routingRules) throws FlowedRoutingConfigurationException {
+		  for(RoutingRule rule: routingRules) {
+			  if(interceptorInstances.stream().noneMatch(interceptor-> rule.appliesTo(interceptor.getWrappedInterfaceClass()))) {
+				  throw new FlowedRoutingConfigurationException(String.format("Routing rule %s does not match any @RoutedInterface", rule));
+			  }
+		  }
+		  return List.copyOf(routingRules);
+	  }
+	  
+	  private void registerCollaboratorsToInterceptors() {
+		  RoutingObserver routingObserver = CompositeRoutingObserver.of(context.getBeanProvider(RoutingObserver.class).orderedStream().toList());
+		  interceptorInstances.forEach(interceptor-> interceptor.setRoutingObserver(routingObserver));
+		  ConditionMemoStore conditionMemoStore = context.getBeanProvider(ConditionMemoStore.class).getIfUnique(() -> ConditionMemoStore.NONE);
+		  interceptorInstances.forEach(interceptor-> interceptor.setConditionMemoStore(conditionMemoStore));
+		  if(context.containsBean(FlowedRoutingTaskConfiguration.EVALUATION_EXECUTOR_BEAN_NAME)) {
+			  AsyncTaskExecutor evaluationExecutor = context.getBean(FlowedRoutingTaskConfiguration.EVALUATION_EXECUTOR_BEAN_NAME, AsyncTaskExecutor.class);
+			  interceptorInstances.forEach(interceptor-> interceptor.setEvaluationExecutor(evaluationExecutor));
+		  }
+		  FlowedRoutingProperties properties = context.getBeanProvider(FlowedRoutingProperties.class).getIfAvailable();
+		  if(properties != null) {
+			  interceptorInstances.forEach(interceptor-> interceptor.setAdaptiveOrderingWindow(properties.getAdaptiveOrdering().getWindow()));
+		  }
+		  ShadowExecutor shadowExecutor = context.getBeanProvider(ShadowExecutor.class).getIfUnique(this::fallbackShadowExecutor);
+		  interceptorInstances.forEach(interceptor-> interceptor.setShadowExecutor(shadowExecutor));
+	  }
+	  
+	  /**
+	   * Single ShadowExecutor of the interceptors when the context has none, closed with the factory
+	   */
+	  private synchronized ShadowExecutor fallbackShadowExecutor() {
+		  if(fallbackShadowExecutor == null) {
+			  fallbackShadowExecutor = new ShadowExecutor(1, 100);
+		  }
+		  return fallbackShadowExecutor;
+	  }
+	  
+	  @Override
+	  public synchronized void destroy() {
+		  if(fallbackShadowExecutor != null) {
+			  fallbackShadowExecutor.close();
+			  fallbackShadowExecutor = null;
+		  }
+	  }
+	  
+	  private void registerEvaluatorsToInterceptors() throws FlowedRoutingConfigurationException {
+		  Map<String, Evaluator> evaluators = new LinkedHashMap<>();
+		  for(Object evaluator: context.getBeansWithAnnotation(EvaluatorType.class).values()) {
+			  String evaluatorType = evaluator.getClass().getAnnotation(EvaluatorType.class).value();
+			  evaluators.put(evaluatorType, guard(evaluatorType, (Evaluator) evaluator));
+		  }
+		  interceptorInstances.forEach(interceptor-> interceptor.registerEvaluators(evaluators));
+	  }
+	  
+	  /**
+	   * Wrap the evaluator with flowed-routing.evaluators.[type] timeout and circuit breaker, shared by all interceptors
+	   */
+	  private Evaluator guard(String evaluatorType, Evaluator evaluator) {
+		  FlowedRoutingProperties properties = context.getBeanProvider(FlowedRoutingProperties.class).getIfAvailable();
+		  FlowedRoutingProperties.EvaluatorGuard guard = properties == null ? null : properties.getEvaluatorGuard(evaluatorType);
+		  if(guard == null || !guard.isGuarded()) {
+			  return evaluator;
+		  }
+		  AsyncTaskExecutor executor = context.containsBean(FlowedRoutingTaskConfiguration.EVALUATION_EXECUTOR_BEAN_NAME) ?
+				  context.getBean(FlowedRoutingTaskConfiguration.EVALUATION_EXECUTOR_BEAN_NAME, AsyncTaskExecutor.class) : null;
+		  CircuitBreaker circuitBreaker = new CircuitBreaker(evaluatorType, guard.getCircuitBreaker().getFailureThreshold(), guard.getCircuitBreaker().getWaitDuration());
+		  return new GuardedEvaluator(evaluatorType, evaluator, guard.getTimeout(), circuitBreaker, executor);
 	  }
 
 	    
@@ -1,19 +1,31 @@
 package io.github.danipenaperez.starter.flowedrouting.context;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import io.github.danipenaperez.lib.flowedrouting.flag.FlagSnapshotStore;
+import io.github.danipenaperez.lib.flowedrouting.percentage.PercentageEvaluator;
 import io.github.danipenaperez.lib.flowedrouting.spel.SpELEvaluator;
 /**
  * Register Evaluators at context
  */
 @Configuration
+@EnableConfigurationProperties(FlowedRoutingProperties.class)
 public class FlowedRoutingEvaluatorRegister {
 
 	@Bean
-	public SpELEvaluator SpELEvaluator(ApplicationContext context) {
-		return new SpELEvaluator(context);
+	public SpELEvaluator SpELEvaluator(ApplicationContext context, FlowedRoutingProperties properties, ObjectProvider<FlagSnapshotStore> flagSnapshotStore) {
+		SpELEvaluator spelEvaluator = new SpELEvaluator(context, properties.getSpel().getCompilerMode());
+		flagSnapshotStore.ifAvailable(store-> spelEvaluator.registerFunction(FlagSnapshotStore.SPEL_FUNCTION_NAME, store.isEnabledFunction()));
+		return spelEvaluator;
+	}
+	
+	@Bean
+	public PercentageEvaluator percentageEvaluator() {
+		return new PercentageEvaluator();
 	}
 	
 }
@@ -0,0 +1,175 @@
+package io.github.danipenaperez.starter.flowedrouting.context;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import lombok.Data;
+
+/**
+ * Flowed Routing configuration (flowed-routing.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "flowed-routing")
+public class FlowedRoutingProperties {
+
+	private Spel spel = new Spel();
+	private Observability observability = new Observability();
+	private ConditionMemo conditionMemo = new ConditionMemo();
+	private Flags flags = new Flags();
+	private Rules rules = new Rules();
+	private Startup startup = new Startup();
+	private Shadow shadow = new Shadow();
+	private AdaptiveOrdering adaptiveOrdering = new AdaptiveOrdering();
+	private Decisions decisions = new Decisions();
+	/**
+	 * Time budget and circuit breaker by @EvaluatorType value (flowed-routing.evaluators.[SpEL].timeout=50ms)
+	 */
+	private Map<String, EvaluatorGuard> evaluators = new LinkedHashMap<>();
+
+	@Data
+	public static class Spel {
+		/**
+		 * SpEL bytecode compiler mode used for @FlowSpelCondition expressions. Expressions that can not be compiled are logged after their first evaluation.
+		 */
+		private SpelCompilerMode compilerMode = SpelCompilerMode.OFF;
+	}
+
+	@Data
+	public static class Observability {
+		/**
+		 * Record routing metrics when a MeterRegistry is available.
+		 */
+		private boolean enabled = true;
+		/**
+		 * Open an Observation (tracing span) around each routing decision.
+		 */
+		private boolean observations = true;
+	}
+
+	@Data
+	public static class ConditionMemo {
+		/**
+		 * Evaluate each distinct condition once per HTTP request and reuse the result in every routed call of that request.
+		 */
+		private boolean enabled = false;
+	}
+
+	@Data
+	public static class Flags {
+		/**
+		 * Delay between FlagSource refreshes of the in-memory flag snapshot.
+		 */
+		private Duration refreshInterval = Duration.ofSeconds(30);
+		/**
+		 * Incremental refreshes (FlagSource.fetchChangedSince) between full fetches, 0 always fetches every flag.
+		 */
+		private int fullRefreshEvery = 10;
+		/**
+		 * Subtracted from the previous fetch time on incremental refreshes, covers the clock skew between the application and the FlagSource.
+		 */
+		private Duration incrementalOverlap = Duration.ofSeconds(5);
+	}
+
+	@Data
+	public static class Rules {
+		/**
+		 * YAML or properties resource with the external routing rules (file:./routing-rules.yml), annotations only when not set.
+		 */
+		private String location;
+		/**
+		 * Delay between checks of the rule source, changed rules are validated and applied without restart. 0 disables the reload.
+		 */
+		private Duration reloadInterval = Duration.ofSeconds(10);
+	}
+
+	@Data
+	public static class Startup {
+		/**
+		 * Threads building the routing tables of the @RoutedInterfaces at startup, 0 uses the available processors and 1 builds them one by one.
+		 */
+		private int parallelism = 0;
+	}
+
+	@Data
+	public static class Shadow {
+		/**
+		 * Threads running @FlowShadow calls.
+		 */
+		private int threads = 2;
+		/**
+		 * Shadow calls waiting for a thread, the next ones are dropped so the routed calls are never slowed down.
+		 */
+		private int queueCapacity = 100;
+	}
+
+	@Data
+	public static class AdaptiveOrdering {
+		/**
+		 * Routing decisions of a method between reorder checks of @RoutedInterface(adaptiveOrdering = true) candidates.
+		 */
+		private int window = 10000;
+	}
+
+	@Data
+	public static class Decisions {
+		/**
+		 * Record sampled routing decisions in memory (exposed by the routingdecisions actuator endpoint).
+		 */
+		private boolean enabled = false;
+		/**
+		 * Share of the routing decisions recorded, from 0 to 1.
+		 */
+		private double samplingRate = 0.01;
+		/**
+		 * Last recorded decisions kept, rounded up to a power of two.
+		 */
+		private int capacity = 256;
+		/**
+		 * Argument summary of each decision: their types, their values (numbers, booleans and enums as is, masked text) or their count.
+		 */
+		private Arguments arguments = Arguments.TYPES;
+
+		public enum Arguments { TYPES, VALUES, COUNT }
+	}
+
+	@Data
+	public static class EvaluatorGuard {
+		/**
+		 * Maximum time for one evaluation, the call takes the default route when exceeded. No limit when not set.
+		 */
+		private Duration timeout;
+		private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+		public boolean isGuarded() {
+			return (timeout != null && !timeout.isZero()) || circuitBreaker.getFailureThreshold() > 0;
+		}
+	}
+
+	@Data
+	public static class CircuitBreaker {
+		/**
+		 * Consecutive failures (exception or timeout) that open the circuit, 0 disables it.
+		 */
+		private int failureThreshold = 0;
+		/**
+		 * Time the circuit stays open (default route without calling the evaluator) before probing again.
+		 */
+		private Duration waitDuration = Duration.ofSeconds(30);
+	}
+
+	/**
+	 * @param evaluatorType
+	 * @return guard configuration of the evaluator (keys are compared ignoring case), null when not configured
+	 */
+	public EvaluatorGuard getEvaluatorGuard(String evaluatorType) {
+		return evaluators.entrySet().stream()
+				.filter(entry-> entry.getKey().equalsIgnoreCase(evaluatorType))
+				.map(Map.Entry::getValue)
+				.findFirst()
+				.orElse(null);
+	}
+}
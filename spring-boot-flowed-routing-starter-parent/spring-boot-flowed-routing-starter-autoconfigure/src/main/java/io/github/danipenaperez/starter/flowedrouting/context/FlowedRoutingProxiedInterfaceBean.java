@@ -5,16 +5,16 @@ import static org.springframework.util.ClassUtils.resolveClassName;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.FactoryBean;
-import org.springframework.core.type.AnnotationMetadata;
 
+/**
+ * Bean of a @RoutedInterface. Built from the interface class name only, so AOT can generate its bean definition.
+ */
 public class FlowedRoutingProxiedInterfaceBean implements FactoryBean<Object>, BeanFactoryAware {
-	private final AnnotationMetadata metadata;
 	private final Class<?> objectType;
 	private FlowedRoutingComponentProxyFactory flowedRoutingComponentProxyFactory;
 	
-	public FlowedRoutingProxiedInterfaceBean(AnnotationMetadata metadata) {
-		this.metadata = metadata;
-		objectType = resolveClassName(metadata.getClassName(), null);
+	public FlowedRoutingProxiedInterfaceBean(String routedInterfaceClassName) {
+		objectType = resolveClassName(routedInterfaceClassName, null);
 	}
 
 	@Override
@@ -28,7 +28,7 @@ public class FlowedRoutingProxiedInterfaceBean implements FactoryBean<Object>, B
 	 */
 	@Override
 	public Object getObject() {
-		return flowedRoutingComponentProxyFactory.createProxy(metadata);
+		return flowedRoutingComponentProxyFactory.createProxy(objectType);
 	}
 
 	@Override
@@ -0,0 +1,43 @@
+package io.github.danipenaperez.starter.flowedrouting.context;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Time spent building the routing table of every @RoutedInterface on ApplicationStartedEvent
+ * @param interfaces in registration order
+ * @param evaluatorsLookup evaluator beans lookup and registration, done once for every interface
+ * @param total from the event to the last table published
+ * @param parallelism threads used to build the tables
+ */
+public record FlowedRoutingStartupReport(List<InterfaceReport> interfaces, Duration evaluatorsLookup, Duration total, int parallelism) {
+
+	/**
+	 * @param routedInterface
+	 * @param delegates @RoutedComponent beans of the interface
+	 * @param routedMethods
+	 * @param buildTime delegate reflection, condition preparation and dispatch table
+	 */
+	public record InterfaceReport(String routedInterface, int delegates, int routedMethods, Duration buildTime) {
+	}
+
+	/**
+	 * @param limit
+	 * @return the interfaces that took longest to build
+	 */
+	public List<InterfaceReport> slowest(int limit) {
+		return interfaces.stream().sorted(Comparator.comparing(InterfaceReport::buildTime).reversed()).limit(limit).toList();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder(String.format("Flowed routing started %d interfaces in %d ms (evaluators %d ms, parallelism %d)",
+				interfaces.size(), total.toMillis(), evaluatorsLookup.toMillis(), parallelism));
+		for(InterfaceReport interfaceReport: interfaces) {
+			report.append(String.format("%n  %-60s delegates=%-3d methods=%-3d build=%.3f ms", interfaceReport.routedInterface(),
+					interfaceReport.delegates(), interfaceReport.routedMethods(), interfaceReport.buildTime().toNanos() / 1_000_000d));
+		}
+		return report.toString();
+	}
+}
@@ -0,0 +1,36 @@
+package io.github.danipenaperez.starter.flowedrouting.flag;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+import io.github.danipenaperez.lib.flowedrouting.flag.FlagEvaluator;
+import io.github.danipenaperez.lib.flowedrouting.flag.FlagSnapshotStore;
+import io.github.danipenaperez.lib.flowedrouting.flag.FlagSource;
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingProperties;
+
+/**
+ * When the application declares a FlagSource, keep its flags in memory (refreshed in the background)
+ * and expose them to conditions: #flag('name') at SpEL and @FlowConditionType("flag") with @FlowFlagCondition
+ */
+@AutoConfiguration
+@ConditionalOnBean(FlagSource.class)
+@EnableConfigurationProperties(FlowedRoutingProperties.class)
+public class FlowedRoutingFlagConfiguration {
+
+	@Bean(destroyMethod = "stop")
+	@ConditionalOnMissingBean(FlagSnapshotStore.class)
+	public FlagSnapshotStore flagSnapshotStore(FlagSource flagSource, FlowedRoutingProperties properties) {
+		FlagSnapshotStore flagSnapshotStore = new FlagSnapshotStore(flagSource, properties.getFlags().getFullRefreshEvery(), properties.getFlags().getIncrementalOverlap());
+		flagSnapshotStore.start(properties.getFlags().getRefreshInterval());
+		return flagSnapshotStore;
+	}
+
+	@Bean
+	@ConditionalOnMissingBean(FlagEvaluator.class)
+	public FlagEvaluator flagEvaluator(FlagSnapshotStore flagSnapshotStore) {
+		return new FlagEvaluator(flagSnapshotStore);
+	}
+}
@@ -0,0 +1,25 @@
+package io.github.danipenaperez.starter.flowedrouting.memo;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import io.github.danipenaperez.lib.flowedrouting.memo.ConditionMemoStore;
+
+/**
+ * Register the request scoped ConditionMemoStore when flowed-routing.condition-memo.enabled=true
+ */
+@AutoConfiguration
+@ConditionalOnClass(RequestContextHolder.class)
+@ConditionalOnProperty(prefix = "flowed-routing.condition-memo", name = "enabled", havingValue = "true")
+public class FlowedRoutingConditionMemoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean(ConditionMemoStore.class)
+	public RequestConditionMemoStore requestConditionMemoStore() {
+		return new RequestConditionMemoStore();
+	}
+}
@@ -0,0 +1,39 @@
+package io.github.danipenaperez.starter.flowedrouting.memo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import io.github.danipenaperez.lib.flowedrouting.memo.ConditionMemoStore;
+
+/**
+ * Keeps the condition memo as a request attribute, so it is discarded with the request (no ThreadLocal cleanup needed).
+ * Calls outside a request are not memoized. The memo is created under the request attributes lock,
+ * never the session mutex, so routing does not create an HTTP session.
+ */
+public class RequestConditionMemoStore implements ConditionMemoStore {
+
+	static final String MEMO_ATTRIBUTE = RequestConditionMemoStore.class.getName() + ".MEMO";
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Map<Object, Boolean> currentMemo() {
+		RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+		if(requestAttributes == null) {
+			return null;
+		}
+		Map<Object, Boolean> memo = (Map<Object, Boolean>) requestAttributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		if(memo == null) {
+			synchronized (requestAttributes) {
+				memo = (Map<Object, Boolean>) requestAttributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+				if(memo == null) {
+					memo = new ConcurrentHashMap<>();
+					requestAttributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+				}
+			}
+		}
+		return memo;
+	}
+}
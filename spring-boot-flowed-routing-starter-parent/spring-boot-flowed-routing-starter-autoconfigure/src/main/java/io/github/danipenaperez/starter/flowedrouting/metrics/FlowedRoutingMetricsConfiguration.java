@@ -0,0 +1,34 @@
+package io.github.danipenaperez.starter.flowedrouting.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Register the Micrometer RoutingObserver when the application has a MeterRegistry (usually from actuator).
+ * Without it interceptors keep RoutingObserver.NOOP, other RoutingObserver beans are called too.
+ */
+@AutoConfiguration(afterName = {
+		"org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration",
+		"org.springframework.boot.actuate.autoconfigure.observation.ObservationAutoConfiguration"})
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnBean(MeterRegistry.class)
+@ConditionalOnProperty(prefix = "flowed-routing.observability", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(FlowedRoutingProperties.class)
+public class FlowedRoutingMetricsConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean(MicrometerRoutingObserver.class)
+	public MicrometerRoutingObserver micrometerRoutingObserver(MeterRegistry meterRegistry, ObjectProvider<ObservationRegistry> observationRegistry, FlowedRoutingProperties properties) {
+		return new MicrometerRoutingObserver(meterRegistry, properties.getObservability().isObservations() ? observationRegistry.getIfAvailable() : null);
+	}
+}
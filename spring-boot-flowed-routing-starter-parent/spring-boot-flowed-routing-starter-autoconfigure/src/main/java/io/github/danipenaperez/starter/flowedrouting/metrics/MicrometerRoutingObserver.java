@@ -0,0 +1,258 @@
+package io.github.danipenaperez.starter.flowedrouting.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.ClassUtils;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDefinition;
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.observer.RoutingObserver;
+import io.github.danipenaperez.lib.flowedrouting.shadow.ShadowResult;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Publish routing decisions to Micrometer:
+ * <ul>
+ * <li>flowed.routing.evaluation timer, per candidate evaluator and result</li>
+ * <li>flowed.routing.route counter, per selected delegate (default=true when falling through to the isDefaultRouting bean), including @CachedRouting hits</li>
+ * <li>flowed.routing.errors counter, evaluator exceptions (including the ones that fell back to the default route)</li>
+ * <li>flowed.routing.decision observation around each decision (tracing span when a tracer is configured)</li>
+ * <li>flowed.routing.shadow timer, per @FlowShadow delegate and outcome (match, mismatch, error), and flowed.routing.shadow.routed timer of the routed delegate on the same sampled calls</li>
+ * <li>flowed.routing.shadow.dropped counter, sampled shadow calls dropped by a full shadow executor</li>
+ * </ul>
+ * Meters are resolved when the dispatch table is built, so a decision only increments them.
+ * A replaced dispatch keeps its meters while calls still reference it (decisions in flight, shadow calls), then they are dropped with it.
+ */
+public class MicrometerRoutingObserver implements RoutingObserver {
+
+	public static final String EVALUATION_METRIC = "flowed.routing.evaluation";
+	public static final String ROUTE_METRIC = "flowed.routing.route";
+	public static final String ERRORS_METRIC = "flowed.routing.errors";
+	public static final String DECISION_OBSERVATION = "flowed.routing.decision";
+	public static final String SHADOW_METRIC = "flowed.routing.shadow";
+	public static final String SHADOW_ROUTED_METRIC = "flowed.routing.shadow.routed";
+	public static final String SHADOW_DROPPED_METRIC = "flowed.routing.shadow.dropped";
+	static final String DEFAULT_EVALUATOR = "none";
+
+	private final MeterRegistry meterRegistry;
+	private final ObservationRegistry observationRegistry;
+	private final Map<RoutedMethodDispatch, DispatchMeters> dispatchMeters = new ConcurrentHashMap<>();
+	/**
+	 * Meters of the dispatches replaced by onDispatchTable, weakly keyed so they are dropped once no call references the dispatch
+	 */
+	private final Map<RoutedMethodDispatch, DispatchMeters> retiredMeters = Collections.synchronizedMap(new WeakHashMap<>());
+	private final Map<Class<?>, RoutedMethodDispatch[]> dispatchTables = new ConcurrentHashMap<>();
+
+	/**
+	 * @param meterRegistry
+	 * @param observationRegistry null or ObservationRegistry.NOOP to skip observations
+	 */
+	public MicrometerRoutingObserver(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+		this.meterRegistry = meterRegistry;
+		this.observationRegistry = observationRegistry == null || observationRegistry.isNoop() ? null : observationRegistry;
+	}
+
+	@Override
+	public void onDispatchTable(Class<?> routedInterface, RoutedMethodDispatch[] dispatchTable) {
+		for(RoutedMethodDispatch dispatch: dispatchTable) {
+			dispatchMeters.put(dispatch, new DispatchMeters(dispatch));
+		}
+		RoutedMethodDispatch[] previous = dispatchTables.put(routedInterface, dispatchTable);
+		if(previous != null) {
+			for(RoutedMethodDispatch dispatch: previous) {
+				DispatchMeters meters = dispatchMeters.remove(dispatch);
+				if(meters != null) {
+					retiredMeters.put(dispatch, meters);
+				}
+			}
+		}
+	}
+
+	@Override
+	public Object onDecisionStart(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		return startDecision(dispatch, true);
+	}
+
+	/**
+	 * The decision ends on another thread, so the observation is not put in scope
+	 */
+	@Override
+	public Object onAsyncDecisionStart(RoutedMethodDispatch dispatch, MethodInvocation invocation) {
+		return startDecision(dispatch, false);
+	}
+
+	private Object startDecision(RoutedMethodDispatch dispatch, boolean scoped) {
+		DispatchMeters meters = meters(dispatch);
+		if(observationRegistry == null) {
+			return meters;
+		}
+		Observation observation = Observation.createNotStarted(DECISION_OBSERVATION, observationRegistry)
+				.lowCardinalityKeyValues(meters.keyValues)
+				.start();
+		return new Decision(meters, observation, scoped ? observation.openScope() : null);
+	}
+
+	@Override
+	public void onEvaluation(Object decision, RoutedMethodDispatch dispatch, int candidateIndex, boolean accepted, long elapsedNanos) {
+		DispatchMeters meters = decision instanceof Decision observed ? observed.meters : (DispatchMeters) decision;
+		(accepted ? meters.accepted : meters.rejected)[candidateIndex].record(elapsedNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void onDecisionEnd(Object decision, RoutedMethodDispatch dispatch, int selectedIndex, Throwable error) {
+		DispatchMeters meters = decision instanceof Decision observed ? observed.meters : (DispatchMeters) decision;
+		if(selectedIndex >= 0) {
+			meters.routes[selectedIndex].increment();
+		}
+		if(error != null) {
+			meters.errors.increment();
+		}
+		if(decision instanceof Decision observed) {
+			if(observed.scope != null) {
+				observed.scope.close();
+			}
+			if(selectedIndex >= 0) {
+				observed.observation.lowCardinalityKeyValues(meters.selectedKeyValues[selectedIndex]);
+			}
+			if(error != null) {
+				observed.observation.error(error);
+			}
+			observed.observation.stop();
+		}
+	}
+
+	@Override
+	public void onCachedDecision(RoutedMethodDispatch dispatch, int selectedIndex) {
+		meters(dispatch).routes[selectedIndex].increment();
+	}
+
+	@Override
+	public void onShadowResult(RoutedMethodDispatch dispatch, int shadowIndex, ShadowResult result) {
+		DispatchMeters meters = meters(dispatch);
+		meters.shadows[shadowIndex][result.outcome().ordinal()].record(result.shadowNanos(), TimeUnit.NANOSECONDS);
+		RoutedMethodDefinition[] candidates = dispatch.getCandidates();
+		for(int i=0;i<candidates.length;i++) {
+			if(candidates[i] == result.routed()) {
+				meters.shadowRouted[i].record(result.routedNanos(), TimeUnit.NANOSECONDS);
+				break;
+			}
+		}
+	}
+
+	@Override
+	public void onShadowDropped(RoutedMethodDispatch dispatch, int shadowIndex) {
+		meters(dispatch).shadowDropped[shadowIndex].increment();
+	}
+
+	/**
+	 * @return the meters of the dispatch, the retired ones when onDispatchTable already replaced it
+	 */
+	private DispatchMeters meters(RoutedMethodDispatch dispatch) {
+		DispatchMeters meters = dispatchMeters.get(dispatch);
+		return meters != null ? meters : retiredMeters.computeIfAbsent(dispatch, DispatchMeters::new);
+	}
+
+	static String delegateName(RoutedMethodDefinition candidate) {
+		return ClassUtils.getUserClass(candidate.getBean()).getName();
+	}
+
+	static String evaluatorName(RoutedMethodDefinition candidate) {
+		return candidate.isDefault() ? DEFAULT_EVALUATOR : candidate.getFlowCondition().value();
+	}
+
+	/**
+	 * Meters of one routed method, indexed as dispatch.getCandidates()
+	 */
+	private class DispatchMeters {
+		final Timer[] accepted;
+		final Timer[] rejected;
+		final Counter[] routes;
+		final Counter errors;
+		final KeyValues keyValues;
+		final KeyValues[] selectedKeyValues;
+		/**
+		 * By shadow position and ShadowResult.Outcome ordinal, empty when the method has no @FlowShadow
+		 */
+		final Timer[][] shadows;
+		final Counter[] shadowDropped;
+		final Timer[] shadowRouted;
+
+		DispatchMeters(RoutedMethodDispatch dispatch) {
+			RoutedMethodDefinition[] candidates = dispatch.getCandidates();
+			Tags methodTags = Tags.of("interface", dispatch.getMethod().getDeclaringClass().getName(), "method", dispatch.getMethod().getName());
+			keyValues = KeyValues.of("interface", dispatch.getMethod().getDeclaringClass().getName(), "method", dispatch.getMethod().getName());
+			accepted = new Timer[candidates.length];
+			rejected = new Timer[candidates.length];
+			routes = new Counter[candidates.length];
+			selectedKeyValues = new KeyValues[candidates.length];
+			for(int i=0;i<candidates.length;i++) {
+				Tags candidateTags = methodTags.and("delegate", delegateName(candidates[i]), "evaluator", evaluatorName(candidates[i]));
+				if(!candidates[i].isDefault()) {
+					accepted[i] = evaluationTimer(candidateTags, "accepted");
+					rejected[i] = evaluationTimer(candidateTags, "rejected");
+				}
+				routes[i] = Counter.builder(ROUTE_METRIC)
+						.description("Routed calls by selected delegate")
+						.tags(candidateTags)
+						.tag("default", String.valueOf(candidates[i].isDefault()))
+						.register(meterRegistry);
+				selectedKeyValues[i] = KeyValues.of("delegate", delegateName(candidates[i]), "evaluator", evaluatorName(candidates[i]));
+			}
+			errors = Counter.builder(ERRORS_METRIC)
+					.description("Routing decisions with an evaluator exception")
+					.tags(methodTags)
+					.register(meterRegistry);
+			RoutedMethodDefinition[] shadowCandidates = dispatch.getShadows() == null ? new RoutedMethodDefinition[0] : dispatch.getShadows();
+			shadows = new Timer[shadowCandidates.length][];
+			shadowDropped = new Counter[shadowCandidates.length];
+			for(int i=0;i<shadowCandidates.length;i++) {
+				Tags shadowTags = methodTags.and("delegate", delegateName(shadowCandidates[i]));
+				shadows[i] = new Timer[ShadowResult.Outcome.values().length];
+				for(ShadowResult.Outcome outcome: ShadowResult.Outcome.values()) {
+					shadows[i][outcome.ordinal()] = Timer.builder(SHADOW_METRIC)
+							.description("Shadow delegate call time by comparison with the routed result")
+							.tags(shadowTags)
+							.tag("outcome", outcome.name().toLowerCase())
+							.register(meterRegistry);
+				}
+				shadowDropped[i] = Counter.builder(SHADOW_DROPPED_METRIC)
+						.description("Sampled shadow calls dropped by a full shadow executor")
+						.tags(shadowTags)
+						.register(meterRegistry);
+			}
+			shadowRouted = new Timer[shadowCandidates.length == 0 ? 0 : candidates.length];
+			for(int i=0;i<shadowRouted.length;i++) {
+				shadowRouted[i] = Timer.builder(SHADOW_ROUTED_METRIC)
+						.description("Routed delegate call time on the calls replayed to a shadow")
+						.tags(methodTags)
+						.tag("delegate", delegateName(candidates[i]))
+						.register(meterRegistry);
+			}
+		}
+
+		private Timer evaluationTimer(Tags candidateTags, String result) {
+			return Timer.builder(EVALUATION_METRIC)
+					.description("Evaluator.evaluate time per routing candidate")
+					.tags(candidateTags)
+					.tag("result", result)
+					.register(meterRegistry);
+		}
+	}
+
+	/**
+	 * @param scope null for async decisions
+	 */
+	private record Decision(DispatchMeters meters, Observation observation, Observation.Scope scope) {
+	}
+}
@@ -0,0 +1,53 @@
+package io.github.danipenaperez.starter.flowedrouting.recorder;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.danipenaperez.lib.flowedrouting.recorder.ArgumentRedactor;
+import io.github.danipenaperez.lib.flowedrouting.recorder.DecisionRecorder;
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingProperties;
+
+/**
+ * With flowed-routing.decisions.enabled=true keep the last sampled routing decisions in memory,
+ * listed by the routingdecisions actuator endpoint when actuator is available.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(prefix = "flowed-routing.decisions", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(FlowedRoutingProperties.class)
+public class FlowedRoutingDecisionsConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean(DecisionRecorder.class)
+	public DecisionRecorder decisionRecorder(FlowedRoutingProperties properties) {
+		FlowedRoutingProperties.Decisions decisions = properties.getDecisions();
+		return new DecisionRecorder(decisions.getCapacity(), decisions.getSamplingRate(), argumentRedactor(decisions.getArguments()));
+	}
+
+	private ArgumentRedactor argumentRedactor(FlowedRoutingProperties.Decisions.Arguments arguments) {
+		switch (arguments) {
+			case VALUES:
+				return ArgumentRedactor.VALUES;
+			case COUNT:
+				return ArgumentRedactor.NONE;
+			default:
+				return ArgumentRedactor.DEFAULT;
+		}
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(Endpoint.class)
+	static class DecisionsEndpointConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean(RoutingDecisionsEndpoint.class)
+		public RoutingDecisionsEndpoint routingDecisionsEndpoint(DecisionRecorder decisionRecorder) {
+			return new RoutingDecisionsEndpoint(decisionRecorder);
+		}
+	}
+}
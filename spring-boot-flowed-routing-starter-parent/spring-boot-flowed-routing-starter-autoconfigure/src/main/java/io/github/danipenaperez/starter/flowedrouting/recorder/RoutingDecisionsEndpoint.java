@@ -0,0 +1,46 @@
+package io.github.danipenaperez.starter.flowedrouting.recorder;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import io.github.danipenaperez.lib.flowedrouting.recorder.DecisionRecord;
+import io.github.danipenaperez.lib.flowedrouting.recorder.DecisionRecorder;
+
+/**
+ * Last sampled routing decisions, newest first (/actuator/routingdecisions).
+ * /actuator/routingdecisions/{routedInterface} keeps the ones of a @RoutedInterface, by fully qualified or simple name.
+ */
+@Endpoint(id = "routingdecisions")
+public class RoutingDecisionsEndpoint {
+
+	private final DecisionRecorder decisionRecorder;
+
+	public RoutingDecisionsEndpoint(DecisionRecorder decisionRecorder) {
+		this.decisionRecorder = decisionRecorder;
+	}
+
+	@ReadOperation
+	public RoutingDecisions decisions() {
+		return decisions(decisionRecorder.getDecisions());
+	}
+
+	@ReadOperation
+	public RoutingDecisions decisions(@Selector String routedInterface) {
+		return decisions(decisionRecorder.getDecisions().stream()
+				.filter(decision-> decision.routedInterface().equals(routedInterface) || decision.routedInterface().endsWith("." + routedInterface) || decision.routedInterface().endsWith("$" + routedInterface))
+				.toList());
+	}
+
+	private RoutingDecisions decisions(List<DecisionRecord> decisions) {
+		return new RoutingDecisions(decisionRecorder.getCapacity(), decisionRecorder.getSamplingRate(), decisionRecorder.getRecorded(), decisions);
+	}
+
+	/**
+	 * @param recorded decisions recorded since startup, including the ones no longer kept
+	 */
+	public record RoutingDecisions(int capacity, double samplingRate, long recorded, List<DecisionRecord> decisions) {
+	}
+}
@@ -0,0 +1,38 @@
+package io.github.danipenaperez.starter.flowedrouting.rules;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ResourceLoader;
+
+import io.github.danipenaperez.lib.flowedrouting.rules.RoutingRuleSource;
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingComponentProxyFactory;
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingProperties;
+
+/**
+ * External routing rules from flowed-routing.rules.location (or an application RoutingRuleSource),
+ * reloaded every flowed-routing.rules.reload-interval
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(FlowedRoutingProperties.class)
+public class FlowedRoutingRulesConfiguration {
+
+	@Bean
+	@ConditionalOnProperty(prefix = "flowed-routing.rules", name = "location")
+	@ConditionalOnMissingBean(RoutingRuleSource.class)
+	public ResourceRoutingRuleSource resourceRoutingRuleSource(FlowedRoutingProperties properties, ResourceLoader resourceLoader) {
+		return new ResourceRoutingRuleSource(resourceLoader.getResource(properties.getRules().getLocation()));
+	}
+
+	@Bean(destroyMethod = "stop")
+	@ConditionalOnBean(RoutingRuleSource.class)
+	@ConditionalOnMissingBean(RoutingRuleReloader.class)
+	public RoutingRuleReloader routingRuleReloader(RoutingRuleSource routingRuleSource, FlowedRoutingComponentProxyFactory proxyFactory, FlowedRoutingProperties properties) {
+		RoutingRuleReloader routingRuleReloader = new RoutingRuleReloader(routingRuleSource, proxyFactory);
+		routingRuleReloader.start(properties.getRules().getReloadInterval());
+		return routingRuleReloader;
+	}
+}
@@ -0,0 +1,60 @@
+package io.github.danipenaperez.starter.flowedrouting.rules;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+import io.github.danipenaperez.lib.flowedrouting.rules.RoutingRule;
+import io.github.danipenaperez.lib.flowedrouting.rules.RoutingRuleSource;
+
+/**
+ * Rules from a YAML (.yml, .yaml) or properties resource, bound as the "rules" list:
+ * <pre>
+ * rules:
+ *   - routed-interface: GreetingService
+ *     delegate: NewGreetingService
+ *     type: SpEL
+ *     condition:
+ *       evaluation-expression: "#name == 'Mike'"
+ * </pre>
+ */
+public class ResourceRoutingRuleSource implements RoutingRuleSource {
+
+	public static final String RULES_PROPERTY = "rules";
+
+	private final Resource resource;
+
+	public ResourceRoutingRuleSource(Resource resource) {
+		this.resource = resource;
+	}
+
+	@Override
+	public List<RoutingRule> loadRules() throws FlowedRoutingConfigurationException {
+		try {
+			List<PropertySource<?>> propertySources = loader().load(resource.getDescription(), resource);
+			return new Binder(ConfigurationPropertySources.from(propertySources))
+					.bind(RULES_PROPERTY, Bindable.listOf(RoutingRule.class))
+					.orElse(List.of());
+		}catch (IOException | RuntimeException e) {
+			throw new FlowedRoutingConfigurationException(String.format("Can not load routing rules from %s : %s", resource.getDescription(), e.getMessage()));
+		}
+	}
+
+	private PropertySourceLoader loader() {
+		String filename = resource.getFilename() == null ? "" : resource.getFilename().toLowerCase();
+		return filename.endsWith(".properties") || filename.endsWith(".xml") ? new PropertiesPropertySourceLoader() : new YamlPropertySourceLoader();
+	}
+
+	public Resource getResource() {
+		return resource;
+	}
+}
@@ -0,0 +1,70 @@
+package io.github.danipenaperez.starter.flowedrouting.rules;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.github.danipenaperez.lib.flowedrouting.exception.FlowedRoutingConfigurationException;
+import io.github.danipenaperez.lib.flowedrouting.rules.RoutingRule;
+import io.github.danipenaperez.lib.flowedrouting.rules.RoutingRuleSource;
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingComponentProxyFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Polls the RoutingRuleSource in the background and applies the rules when they change.
+ * Invalid rules are logged and the current routing tables are kept.
+ */
+@Slf4j
+public class RoutingRuleReloader {
+
+	private final RoutingRuleSource routingRuleSource;
+	private final FlowedRoutingComponentProxyFactory proxyFactory;
+	private ScheduledExecutorService scheduler;
+
+	public RoutingRuleReloader(RoutingRuleSource routingRuleSource, FlowedRoutingComponentProxyFactory proxyFactory) {
+		this.routingRuleSource = routingRuleSource;
+		this.proxyFactory = proxyFactory;
+	}
+
+	/**
+	 * Load the rules now and apply them if they are not the current ones
+	 * @return true if the routing tables were replaced
+	 * @throws FlowedRoutingConfigurationException if the rules can not be loaded or are not valid
+	 */
+	public synchronized boolean reload() throws FlowedRoutingConfigurationException {
+		List<RoutingRule> rules = routingRuleSource.loadRules();
+		if(rules.equals(proxyFactory.getRoutingRules())) {
+			return false;
+		}
+		proxyFactory.applyRoutingRules(rules);
+		log.info("Applied {} routing rules", rules.size());
+		return true;
+	}
+
+	/**
+	 * Check the source every interval on a daemon thread
+	 * @param interval
+	 */
+	public synchronized void start(Duration interval) {
+		if(scheduler != null || interval == null || interval.isZero() || interval.isNegative()) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("flowed-routing-rules").daemon().factory());
+		scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				reload();
+			}catch (FlowedRoutingConfigurationException | RuntimeException e) {
+				log.warn("Routing rules not reloaded, keeping the current ones : {}", e.getMessage());
+			}
+		}, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	public synchronized void stop() {
+		if(scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package io.github.danipenaperez.starter.flowedrouting.task;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.ClassUtils;
+
+import io.github.danipenaperez.lib.flowedrouting.shadow.ShadowExecutor;
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingProperties;
+
+/**
+ * Executor for @RoutedInterface(parallelEvaluation = true) conditions.
+ * Declare a bean named flowedRoutingEvaluationExecutor (AsyncTaskExecutor) to replace it.
+ * Also the bounded ShadowExecutor of @FlowShadow calls (flowed-routing.shadow.*).
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(FlowedRoutingProperties.class)
+public class FlowedRoutingTaskConfiguration {
+
+	public static final String EVALUATION_EXECUTOR_BEAN_NAME = "flowedRoutingEvaluationExecutor";
+	private static final boolean WEB_PRESENT = ClassUtils.isPresent("org.springframework.web.context.request.RequestContextHolder", FlowedRoutingTaskConfiguration.class.getClassLoader());
+
+	@Bean(name = EVALUATION_EXECUTOR_BEAN_NAME)
+	@ConditionalOnMissingBean(name = EVALUATION_EXECUTOR_BEAN_NAME)
+	public SimpleAsyncTaskExecutor flowedRoutingEvaluationExecutor() {
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("flowed-routing-");
+		executor.setVirtualThreads(true);
+		if(WEB_PRESENT) {
+			executor.setTaskDecorator(new RequestContextTaskDecorator());
+		}
+		return executor;
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnMissingBean
+	public ShadowExecutor flowedRoutingShadowExecutor(FlowedRoutingProperties properties) {
+		return new ShadowExecutor(properties.getShadow().getThreads(), properties.getShadow().getQueueCapacity());
+	}
+}
@@ -0,0 +1,27 @@
+package io.github.danipenaperez.starter.flowedrouting.task;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Expose the caller request to the evaluation thread, so conditions can use request scoped beans (@executionContext...)
+ */
+public class RequestContextTaskDecorator implements TaskDecorator {
+
+	@Override
+	public Runnable decorate(Runnable runnable) {
+		RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+		if(requestAttributes == null) {
+			return runnable;
+		}
+		return () -> {
+			RequestContextHolder.setRequestAttributes(requestAttributes);
+			try {
+				runnable.run();
+			}finally {
+				RequestContextHolder.resetRequestAttributes();
+			}
+		};
+	}
+}
@@ -0,0 +1,62 @@
+package io.github.danipenaperez.starter.flowedrouting;
+
+import java.time.Duration;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.annotation.ImportCandidates;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DeferredImportSelector;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.type.AnnotationMetadata;
+
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingEnvironmentPostProcessor;
+import io.github.danipenaperez.starter.flowedrouting.sample.DefaultGreetingService;
+import io.github.danipenaperez.starter.flowedrouting.sample.GreetingService;
+import io.github.danipenaperez.starter.flowedrouting.sample.PremiumGreetingService;
+
+/**
+ * Context runner with the starter auto-configurations routing the sample GreetingService.
+ * Routing starts on ApplicationStartedEvent, which the runner does not publish (see start).
+ */
+public class FlowedRoutingContextRunner {
+
+	public static ApplicationContextRunner contextRunner() {
+		FlowedRoutingEnvironmentPostProcessor.APPLICATION_RUN_BASE_PACKAGE = GreetingService.class.getPackageName();
+		return new ApplicationContextRunner()
+				.withUserConfiguration(FlowedRoutingAutoConfigurations.class)
+				.withBean(DefaultGreetingService.class)
+				.withBean(PremiumGreetingService.class);
+	}
+
+	/**
+	 * Create the GreetingService proxy (its FactoryBean is lazy) and publish the ApplicationStartedEvent that populates the interceptors
+	 * @param context
+	 * @return the routed GreetingService
+	 */
+	public static GreetingService start(ConfigurableApplicationContext context) {
+		GreetingService greetingService = context.getBean(GreetingService.class);
+		context.publishEvent(new ApplicationStartedEvent(new SpringApplication(), new String[0], context, Duration.ZERO));
+		return greetingService;
+	}
+
+	/**
+	 * Imports, instead of registering, the starter entries of AutoConfiguration.imports: FlowedRoutingBeanRegistrar only runs when imported
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@Import(StarterAutoConfigurations.class)
+	static class FlowedRoutingAutoConfigurations {
+	}
+
+	static class StarterAutoConfigurations implements DeferredImportSelector {
+		@Override
+		public String[] selectImports(AnnotationMetadata importingClassMetadata) {
+			return ImportCandidates.load(AutoConfiguration.class, getClass().getClassLoader()).getCandidates().stream()
+					.filter(candidate-> candidate.startsWith(FlowedRoutingContextRunner.class.getPackageName()))
+					.toArray(String[]::new);
+		}
+	}
+}
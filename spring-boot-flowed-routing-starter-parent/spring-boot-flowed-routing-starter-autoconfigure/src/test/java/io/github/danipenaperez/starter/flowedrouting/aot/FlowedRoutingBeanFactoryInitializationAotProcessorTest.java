@@ -0,0 +1,48 @@
+package io.github.danipenaperez.starter.flowedrouting.aot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.DecoratingProxy;
+
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+import io.github.danipenaperez.starter.flowedrouting.FlowedRoutingContextRunner;
+import io.github.danipenaperez.starter.flowedrouting.sample.GreetingService;
+import io.github.danipenaperez.starter.flowedrouting.sample.PremiumGreetingService;
+
+public class FlowedRoutingBeanFactoryInitializationAotProcessorTest {
+
+	@Test
+	void nativeHintsCoverRoutedTypes() {
+		FlowedRoutingContextRunner.contextRunner()
+			.run(context -> {
+				RuntimeHints hints = new RuntimeHints();
+				Assertions.assertTrue(new FlowedRoutingBeanFactoryInitializationAotProcessor().registerHints(context.getBeanFactory(), hints));
+				Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(GreetingService.class).withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+				Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(PremiumGreetingService.class).withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+				Assertions.assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(GreetingService.class, SpringProxy.class, Advised.class, DecoratingProxy.class).test(hints)); //No generated proxy in this module
+				Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(FlowSpelCondition.class).test(hints));
+			});
+	}
+
+	@Test
+	void noHintsWithoutRoutedInterfaces() {
+		new ApplicationContextRunner()
+			.run(context -> Assertions.assertFalse(new FlowedRoutingBeanFactoryInitializationAotProcessor().registerHints(context.getBeanFactory(), new RuntimeHints())));
+	}
+
+	@Test
+	void libraryAnnotationsAreRegistered() {
+		RuntimeHints hints = new RuntimeHints();
+		new FlowedRoutingRuntimeHints().registerHints(hints, getClass().getClassLoader());
+		for(Class<?> annotation: FlowedRoutingRuntimeHints.ANNOTATIONS) {
+			Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(annotation).withMemberCategory(MemberCategory.INVOKE_DECLARED_METHODS).test(hints), annotation.getName());
+			Assertions.assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(annotation).test(hints), annotation.getName());
+		}
+	}
+}
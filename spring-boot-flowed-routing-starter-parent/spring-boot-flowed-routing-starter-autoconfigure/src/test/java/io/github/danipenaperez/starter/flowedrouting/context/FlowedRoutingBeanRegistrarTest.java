@@ -0,0 +1,113 @@
+package io.github.danipenaperez.starter.flowedrouting.context;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import io.github.danipenaperez.lib.flowedrouting.index.RoutingCandidateIndex;
+import io.github.danipenaperez.starter.flowedrouting.FlowedRoutingContextRunner;
+import io.github.danipenaperez.starter.flowedrouting.sample.GreetingService;
+
+public class FlowedRoutingBeanRegistrarTest {
+
+	static final String SAMPLE_PACKAGE = GreetingService.class.getPackageName();
+	static final String PARENT_PACKAGE = SAMPLE_PACKAGE.substring(0, SAMPLE_PACKAGE.lastIndexOf('.'));
+
+	@TempDir
+	Path indexedEntry;
+	@TempDir
+	Path unindexedEntry;
+
+	@Test
+	void indexedInterfacesAreRouted() throws Exception {
+		writeIndex(SAMPLE_PACKAGE+"=Package\n"+GreetingService.class.getName()+"=RoutedInterface\n");
+		copySampleClasses(indexedEntry);
+		FlowedRoutingContextRunner.contextRunner()
+			.withClassLoader(new ClasspathEntries(SAMPLE_PACKAGE, indexedEntry))
+			.run(context -> {
+				Assertions.assertEquals(1, context.getBeanNamesForType(FlowedRoutingProxiedInterfaceBean.class).length);
+				Assertions.assertEquals("premium", FlowedRoutingContextRunner.start(context).greeting("premium"));
+			});
+	}
+
+	@Test
+	void indexReplacesTheScan() throws Exception {
+		writeIndex(SAMPLE_PACKAGE+"=Package\n");
+		copySampleClasses(indexedEntry);
+		ClassLoader classLoader = new ClasspathEntries(SAMPLE_PACKAGE, indexedEntry);
+		FlowedRoutingContextRunner.contextRunner()
+			.withClassLoader(classLoader)
+			.run(context -> Assertions.assertEquals(0, context.getBeanNamesForType(FlowedRoutingProxiedInterfaceBean.class).length));
+		FlowedRoutingContextRunner.contextRunner()
+			.withClassLoader(classLoader)
+			.withPropertyValues(FlowedRoutingBeanRegistrar.IGNORE_INDEX_PROPERTY+"=true")
+			.run(context -> Assertions.assertEquals("premium", FlowedRoutingContextRunner.start(context).greeting("premium")));
+	}
+
+	@Test
+	void subpackagesOfUnindexedEntriesAreScanned() throws Exception {
+		writeIndex(PARENT_PACKAGE+"=Package\n");
+		Files.createDirectories(indexedEntry.resolve(PARENT_PACKAGE.replace('.', '/')));
+		copySampleClasses(unindexedEntry); //Only a subpackage of the indexed one
+		ApplicationContextRunner contextRunner = FlowedRoutingContextRunner.contextRunner()
+			.withClassLoader(new ClasspathEntries(PARENT_PACKAGE, indexedEntry, unindexedEntry));
+		FlowedRoutingEnvironmentPostProcessor.APPLICATION_RUN_BASE_PACKAGE = PARENT_PACKAGE;
+		contextRunner.run(context -> {
+			Assertions.assertEquals(1, context.getBeanNamesForType(FlowedRoutingProxiedInterfaceBean.class).length);
+			Assertions.assertEquals("premium", FlowedRoutingContextRunner.start(context).greeting("premium"));
+		});
+	}
+
+	private void writeIndex(String index) throws IOException {
+		Path location = indexedEntry.resolve(RoutingCandidateIndex.LOCATION);
+		Files.createDirectories(location.getParent());
+		Files.writeString(location, index);
+	}
+
+	private void copySampleClasses(Path entry) throws Exception {
+		Path sampleClasses = Path.of(GreetingService.class.getResource(GreetingService.class.getSimpleName()+".class").toURI()).getParent();
+		Path target = Files.createDirectories(entry.resolve(SAMPLE_PACKAGE.replace('.', '/')));
+		try(Stream<Path> classes = Files.list(sampleClasses)){
+			for(Path sampleClass: (Iterable<Path>) classes::iterator) {
+				Files.copy(sampleClass, target.resolve(sampleClass.getFileName()));
+			}
+		}
+	}
+
+	/**
+	 * Classpath where the scanned package and the index are only found at the given entries, the classes are still loaded by the test class loader
+	 */
+	static class ClasspathEntries extends URLClassLoader {
+		private final String packagePath;
+
+		ClasspathEntries(String basePackage, Path... entries) throws IOException {
+			super(Stream.of(entries).map(ClasspathEntries::url).toArray(URL[]::new), FlowedRoutingBeanRegistrarTest.class.getClassLoader());
+			this.packagePath = basePackage.replace('.', '/') + "/";
+		}
+
+		@Override
+		public Enumeration<URL> getResources(String name) throws IOException {
+			if(name.startsWith(packagePath) || name.equals(RoutingCandidateIndex.LOCATION)) {
+				return findResources(name);
+			}
+			return super.getResources(name);
+		}
+
+		private static URL url(Path entry) {
+			try {
+				return entry.toUri().toURL();
+			}catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package io.github.danipenaperez.starter.flowedrouting.context;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.stereotype.Component;
+
+import io.github.danipenaperez.lib.flowedrouting.index.RoutingCandidateIndex;
+import io.github.danipenaperez.starter.flowedrouting.sample.GreetingService;
+
+public class FlowedRoutingClassPathBeanDefinitionScannerTest {
+
+	static final String SAMPLE_PACKAGE = GreetingService.class.getPackageName();
+	static final Map<String, Set<String>> INDEXED_KINDS = Map.of(
+			GreetingService.class.getName(), Set.of(RoutingCandidateIndex.ROUTED_INTERFACE),
+			SAMPLE_PACKAGE, Set.of(RoutingCandidateIndex.PACKAGE));
+
+	@Test
+	void indexedPackagesFindTheSameInterfacesAsTheScan() {
+		RoutingCandidateIndex index = new RoutingCandidateIndex(INDEXED_KINDS, Map.of(sampleLocation(), Set.of(SAMPLE_PACKAGE)));
+		Assertions.assertTrue(index.covers(SAMPLE_PACKAGE, getClass().getClassLoader()));
+		Assertions.assertEquals(Set.of(GreetingService.class.getName()), classNames(null, SAMPLE_PACKAGE));
+		Assertions.assertEquals(classNames(null, SAMPLE_PACKAGE), classNames(index, SAMPLE_PACKAGE));
+	}
+
+	@Test
+	void locationsWithoutIndexFallBackToTheScan() {
+		RoutingCandidateIndex index = new RoutingCandidateIndex(Map.of(SAMPLE_PACKAGE, Set.of(RoutingCandidateIndex.PACKAGE)), Map.of("file:/other/", Set.of(SAMPLE_PACKAGE)));
+		Assertions.assertTrue(index.covers(SAMPLE_PACKAGE));
+		Assertions.assertFalse(index.covers(SAMPLE_PACKAGE, getClass().getClassLoader()));
+		Assertions.assertEquals(Set.of(GreetingService.class.getName()), classNames(index, SAMPLE_PACKAGE));
+	}
+
+	@Test
+	void partialIndexesFallBackToTheScan() {
+		String subpackage = SAMPLE_PACKAGE + ".other";
+		RoutingCandidateIndex index = new RoutingCandidateIndex(Map.of(subpackage, Set.of(RoutingCandidateIndex.PACKAGE)));
+		Assertions.assertFalse(index.covers(SAMPLE_PACKAGE));
+		Assertions.assertTrue(index.covers(subpackage));
+		Assertions.assertEquals(classNames(null, SAMPLE_PACKAGE), classNames(index, SAMPLE_PACKAGE));
+	}
+
+	/**
+	 * @return root of the test classes, where the sample package is
+	 */
+	private String sampleLocation() {
+		String path = SAMPLE_PACKAGE.replace('.', '/') + "/";
+		String directory = getClass().getClassLoader().getResource(path).toString();
+		return directory.substring(0, directory.length() - path.length());
+	}
+
+	private Set<String> classNames(RoutingCandidateIndex index, String basePackage) {
+		FlowedRoutingClassPathBeanDefinitionScanner scanner = new FlowedRoutingClassPathBeanDefinitionScanner(new GenericApplicationContext(), Component.class, index);
+		return scanner.findCandidateComponents(basePackage).stream().map(BeanDefinition::getBeanClassName).collect(Collectors.toSet());
+	}
+}
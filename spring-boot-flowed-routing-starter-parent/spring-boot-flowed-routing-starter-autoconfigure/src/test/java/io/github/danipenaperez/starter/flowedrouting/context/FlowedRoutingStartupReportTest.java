@@ -0,0 +1,31 @@
+package io.github.danipenaperez.starter.flowedrouting.context;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.danipenaperez.starter.flowedrouting.FlowedRoutingContextRunner;
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingStartupReport.InterfaceReport;
+import io.github.danipenaperez.starter.flowedrouting.sample.GreetingService;
+
+public class FlowedRoutingStartupReportTest {
+
+	@Test
+	void startupTimesAreReported() {
+		FlowedRoutingContextRunner.contextRunner()
+			.withPropertyValues("flowed-routing.startup.parallelism=3")
+			.run(context -> {
+				FlowedRoutingComponentProxyFactory proxyFactory = context.getBean(FlowedRoutingComponentProxyFactory.class);
+				Assertions.assertNull(proxyFactory.getStartupReport());
+				Assertions.assertEquals("premium", FlowedRoutingContextRunner.start(context).greeting("premium"));
+
+				FlowedRoutingStartupReport report = proxyFactory.getStartupReport();
+				Assertions.assertEquals(3, report.parallelism());
+				Assertions.assertEquals(List.of(GreetingService.class.getName()), report.interfaces().stream().map(InterfaceReport::routedInterface).toList());
+				Assertions.assertEquals(2, report.interfaces().get(0).delegates());
+				Assertions.assertEquals(1, report.interfaces().get(0).routedMethods());
+				Assertions.assertEquals(report.interfaces(), report.slowest(5));
+			});
+	}
+}
@@ -0,0 +1,37 @@
+package io.github.danipenaperez.starter.flowedrouting.memo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import io.github.danipenaperez.starter.flowedrouting.FlowedRoutingContextRunner;
+import io.github.danipenaperez.starter.flowedrouting.sample.GreetingService;
+
+public class RequestConditionMemoStoreTest {
+
+	@AfterEach
+	void resetRequest() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void routedCallsMemoizeWithoutCreatingASession() {
+		FlowedRoutingContextRunner.contextRunner()
+			.withPropertyValues("flowed-routing.condition-memo.enabled=true")
+			.run(context -> {
+				GreetingService greetingService = FlowedRoutingContextRunner.start(context);
+				Assertions.assertInstanceOf(RequestConditionMemoStore.class, context.getBean(RequestConditionMemoStore.class));
+				MockHttpServletRequest request = new MockHttpServletRequest();
+				RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+				Assertions.assertEquals("premium", greetingService.greeting("premium"));
+				Assertions.assertEquals("default", greetingService.greeting("standard"));
+
+				Assertions.assertNotNull(request.getAttribute(RequestConditionMemoStore.MEMO_ATTRIBUTE));
+				Assertions.assertNull(request.getSession(false));
+			});
+	}
+}
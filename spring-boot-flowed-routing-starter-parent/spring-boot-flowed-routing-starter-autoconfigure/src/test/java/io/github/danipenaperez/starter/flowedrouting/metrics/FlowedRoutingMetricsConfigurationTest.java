@@ -0,0 +1,73 @@
+package io.github.danipenaperez.starter.flowedrouting.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.github.danipenaperez.lib.flowedrouting.definition.RoutedMethodDispatch;
+import io.github.danipenaperez.lib.flowedrouting.interceptor.DefaultFlowRoutingInterceptor;
+import io.github.danipenaperez.starter.flowedrouting.FlowedRoutingContextRunner;
+import io.github.danipenaperez.starter.flowedrouting.sample.DefaultGreetingService;
+import io.github.danipenaperez.starter.flowedrouting.sample.GreetingService;
+import io.github.danipenaperez.starter.flowedrouting.sample.PremiumGreetingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class FlowedRoutingMetricsConfigurationTest {
+
+	@Test
+	void routingDecisionsAreMeasured() {
+		FlowedRoutingContextRunner.contextRunner()
+			.withBean(SimpleMeterRegistry.class)
+			.run(context -> {
+				GreetingService greetingService = FlowedRoutingContextRunner.start(context);
+				greetingService.greeting("premium");
+				greetingService.greeting("standard");
+				greetingService.greeting("other");
+
+				MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+				Assertions.assertEquals(1, routes(meterRegistry, PremiumGreetingService.class));
+				Assertions.assertEquals(2, routes(meterRegistry, DefaultGreetingService.class));
+				Assertions.assertEquals("true", meterRegistry.get(MicrometerRoutingObserver.ROUTE_METRIC).tag("delegate", DefaultGreetingService.class.getName()).counter().getId().getTag("default"));
+				Assertions.assertEquals(2, meterRegistry.get(MicrometerRoutingObserver.EVALUATION_METRIC).tag("evaluator", "SpEL").tag("result", "rejected").timer().count());
+			});
+	}
+
+	@Test
+	void observerNeedsAMeterRegistry() {
+		FlowedRoutingContextRunner.contextRunner()
+			.run(context -> Assertions.assertTrue(context.getBeansOfType(MicrometerRoutingObserver.class).isEmpty()));
+		FlowedRoutingContextRunner.contextRunner()
+			.withBean(SimpleMeterRegistry.class)
+			.withPropertyValues("flowed-routing.observability.enabled=false")
+			.run(context -> Assertions.assertTrue(context.getBeansOfType(MicrometerRoutingObserver.class).isEmpty()));
+	}
+
+	@Test
+	void retiredDispatchesAreNotTrackedAgain() throws Exception {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		MicrometerRoutingObserver observer = new MicrometerRoutingObserver(meterRegistry, null);
+		DefaultFlowRoutingInterceptor interceptor = new DefaultFlowRoutingInterceptor(GreetingService.class);
+		interceptor.setRoutingObserver(observer);
+		interceptor.addDelegates(List.of(new DefaultGreetingService()));
+		RoutedMethodDispatch retired = interceptor.getDispatchTable()[0];
+		Map<?, ?> dispatchMeters = (Map<?, ?>) ReflectionTestUtils.getField(observer, "dispatchMeters");
+		Object meters = dispatchMeters.get(retired);
+		interceptor.applyRoutingRules(List.of());
+
+		observer.onCachedDecision(retired, 0);
+		observer.onCachedDecision(retired, 0);
+		Assertions.assertEquals(2, routes(meterRegistry, DefaultGreetingService.class));
+		Assertions.assertFalse(dispatchMeters.containsKey(retired));
+		Assertions.assertEquals(interceptor.getDispatchTable().length, dispatchMeters.size());
+		Map<?, ?> retiredMeters = (Map<?, ?>) ReflectionTestUtils.getField(observer, "retiredMeters");
+		Assertions.assertSame(meters, retiredMeters.get(retired));
+	}
+
+	private double routes(MeterRegistry meterRegistry, Class<?> delegate) {
+		return meterRegistry.get(MicrometerRoutingObserver.ROUTE_METRIC).tag("delegate", delegate.getName()).counter().count();
+	}
+}
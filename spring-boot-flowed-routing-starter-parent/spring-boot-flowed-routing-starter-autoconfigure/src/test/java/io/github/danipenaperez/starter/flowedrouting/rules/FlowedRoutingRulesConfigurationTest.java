@@ -0,0 +1,41 @@
+package io.github.danipenaperez.starter.flowedrouting.rules;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.danipenaperez.starter.flowedrouting.FlowedRoutingContextRunner;
+import io.github.danipenaperez.starter.flowedrouting.context.FlowedRoutingComponentProxyFactory;
+import io.github.danipenaperez.starter.flowedrouting.sample.GreetingService;
+
+public class FlowedRoutingRulesConfigurationTest {
+
+	@Test
+	void rulesLocationReplacesTheAnnotationCondition() {
+		FlowedRoutingContextRunner.contextRunner()
+			.withPropertyValues("flowed-routing.rules.location=classpath:flowed-routing-rules.yml")
+			.run(context -> {
+				GreetingService greetingService = FlowedRoutingContextRunner.start(context);
+				Assertions.assertNotNull(context.getBean(RoutingRuleReloader.class));
+				Assertions.assertEquals("premium", greetingService.greeting("gold"));
+				Assertions.assertEquals("default", greetingService.greeting("premium"));
+
+				FlowedRoutingComponentProxyFactory proxyFactory = context.getBean(FlowedRoutingComponentProxyFactory.class);
+				proxyFactory.applyRoutingRules(List.of());
+				Assertions.assertEquals("premium", greetingService.greeting("premium"));
+				Assertions.assertTrue(context.getBean(RoutingRuleReloader.class).reload());
+				Assertions.assertEquals("premium", greetingService.greeting("gold"));
+			});
+	}
+
+	@Test
+	void noRulesWithoutLocation() {
+		FlowedRoutingContextRunner.contextRunner()
+			.run(context -> {
+				GreetingService greetingService = FlowedRoutingContextRunner.start(context);
+				Assertions.assertTrue(context.getBeansOfType(RoutingRuleReloader.class).isEmpty());
+				Assertions.assertEquals("premium", greetingService.greeting("premium"));
+			});
+	}
+}
@@ -0,0 +1,8 @@
+package io.github.danipenaperez.starter.flowedrouting.sample;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+
+@RoutedComponent(isDefaultRouting = true)
+public class DefaultGreetingService implements GreetingService {
+	public String greeting(String name) { return "default"; }
+}
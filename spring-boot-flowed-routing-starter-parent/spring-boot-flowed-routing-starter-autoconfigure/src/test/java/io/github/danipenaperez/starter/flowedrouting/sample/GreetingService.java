@@ -0,0 +1,8 @@
+package io.github.danipenaperez.starter.flowedrouting.sample;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedInterface;
+
+@RoutedInterface
+public interface GreetingService {
+	String greeting(String name);
+}
@@ -0,0 +1,12 @@
+package io.github.danipenaperez.starter.flowedrouting.sample;
+
+import io.github.danipenaperez.lib.flowedrouting.annotation.RoutedComponent;
+import io.github.danipenaperez.lib.flowedrouting.condition.FlowConditionType;
+import io.github.danipenaperez.lib.flowedrouting.spel.annotation.FlowSpelCondition;
+
+@RoutedComponent
+public class PremiumGreetingService implements GreetingService {
+	@FlowConditionType("SpEL")
+	@FlowSpelCondition(evaluationExpression = "#name == 'premium'")
+	public String greeting(String name) { return "premium"; }
+}